@@ -134,7 +134,9 @@ CREATE TABLE duenos (
 
   INDEX idx_email (email),
 
-  INDEX idx_activo (activo)
+  INDEX idx_activo (activo),
+
+  INDEX idx_activo_nombre (activo, nombre_completo)
 
 );
 
@@ -250,7 +252,7 @@ CREATE TABLE citas (
 
   INDEX idx_mascota (mascota_id),
 
-  INDEX idx_veterinario (veterinario_id),
+  INDEX idx_veterinario_fecha (veterinario_id, fecha_hora),
 
   INDEX idx_estado (estado_id)
 
@@ -290,9 +292,9 @@ CREATE TABLE consultas_medicas (
 
   FOREIGN KEY (cita_id) REFERENCES citas(id) ON DELETE SET NULL,
 
-  INDEX idx_mascota (mascota_id),
+  INDEX idx_mascota_fecha (mascota_id, fecha_hora),
 
-  INDEX idx_veterinario (veterinario_id),
+  INDEX idx_veterinario_fecha (veterinario_id, fecha_hora),
 
   INDEX idx_fecha (fecha_hora)
 
@@ -334,9 +336,9 @@ CREATE TABLE procedimientos_especiales (
 
   FOREIGN KEY (veterinario_id) REFERENCES veterinarios(id) ON DELETE RESTRICT,
 
-  INDEX idx_mascota (mascota_id),
+  INDEX idx_mascota_fecha (mascota_id, fecha_hora),
 
-  INDEX idx_veterinario (veterinario_id),
+  INDEX idx_veterinario_fecha (veterinario_id, fecha_hora),
 
   INDEX idx_fecha (fecha_hora),
 
@@ -378,7 +380,7 @@ CREATE TABLE historial_medico (
 
   FOREIGN KEY (procedimiento_id) REFERENCES procedimientos_especiales(id) ON DELETE SET NULL,
 
-  INDEX idx_mascota (mascota_id),
+  INDEX idx_mascota_fecha (mascota_id, fecha_evento),
 
   INDEX idx_fecha (fecha_evento),
 
@@ -666,6 +668,48 @@ CREATE TABLE facturas (
 
 
 
+-- Contadores con nombre para numeraciones de negocio (números de factura).
+
+-- Cada terminal reserva bloques con un UPDATE atómico en lugar de calcular MAX() sobre el historial.
+
+CREATE TABLE secuencias (
+
+  nombre VARCHAR(50) PRIMARY KEY,
+
+  siguiente_valor BIGINT NOT NULL
+
+);
+
+
+
+INSERT INTO secuencias (nombre, siguiente_valor) VALUES ('factura', 1);
+
+
+
+-- Resumen diario de facturas PAGADAS. Se mantiene de forma incremental al crear o cambiar
+
+-- de estado una factura; los reportes semanales, mensuales y anuales se derivan de estas filas.
+
+CREATE TABLE facturacion_diaria (
+
+  fecha DATE PRIMARY KEY,
+
+  total_facturas INT NOT NULL DEFAULT 0,
+
+  subtotal_total DECIMAL(14, 2) NOT NULL DEFAULT 0,
+
+  impuesto_total DECIMAL(14, 2) NOT NULL DEFAULT 0,
+
+  descuento_total DECIMAL(14, 2) NOT NULL DEFAULT 0,
+
+  total_facturado DECIMAL(14, 2) NOT NULL DEFAULT 0,
+
+  fecha_actualizacion DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+
+);
+
+
+
 CREATE TABLE items_factura (
 
   id INT AUTO_INCREMENT PRIMARY KEY,
@@ -850,7 +894,7 @@ CREATE TABLE registro_jornada_vacunacion (
 
   INDEX idx_jornada (jornada_id),
 
-  INDEX idx_mascota (mascota_id),
+  INDEX idx_mascota_fecha (mascota_id, fecha_hora),
 
   INDEX idx_dueno (dueno_id),
 
@@ -997,3 +1041,41 @@ CREATE TABLE canjes_beneficios (
   INDEX idx_estado (estado)
 
 );
+
+
+
+-- =========== CONTROL DE VERSIONES DEL ESQUEMA ===========
+
+-- Migraciones aplicadas por util.MigradorEsquema (src/main/resources/db/migraciones).
+
+-- Este script ya incluye las migraciones 1 a 7; se registran sin checksum como línea base.
+
+CREATE TABLE esquema_versiones (
+
+  version INT PRIMARY KEY,
+
+  descripcion VARCHAR(200) NOT NULL,
+
+  checksum CHAR(64),
+
+  fecha_aplicacion DATETIME DEFAULT CURRENT_TIMESTAMP
+
+);
+
+
+
+INSERT INTO esquema_versiones (version, descripcion) VALUES
+
+(1, 'indice duenos activo nombre'),
+
+(2, 'tabla secuencias'),
+
+(3, 'tabla facturacion diaria'),
+
+(4, 'indices veterinario fecha'),
+
+(5, 'indices linea tiempo mascota'),
+
+(6, 'indice vacunas mascota fecha'),
+
+(7, 'indice citas veterinario fecha');
@@ -4,6 +4,7 @@ import com.happyfeet.view.MainMenu;
 import com.happyfeet.exception.VeterinariaException;
 import com.happyfeet.util.LogConfig;
 import com.happyfeet.util.DatabaseConnection;
+import com.happyfeet.util.MigradorEsquema;
 
 import java.util.logging.Logger;
 
@@ -33,6 +34,11 @@ public class Main {
                 throw new VeterinariaException("No se pudo establecer conexión con la base de datos");
             }
             
+            // Aplicar migraciones pendientes del esquema (índices y tablas nuevas)
+            if (MigradorEsquema.habilitado()) {
+                MigradorEsquema.migrar();
+            }
+            
             // Iniciar menú principal
             MainMenu mainMenu = new MainMenu();
             mainMenu.iniciar();
@@ -1,9 +1,12 @@
 package com.happyfeet.controller;
 
 import com.happyfeet.model.Cita;
+import com.happyfeet.dao.CatalogoDAO.Catalogo;
+import com.happyfeet.service.CatalogoService;
 import com.happyfeet.service.CitaService;
 import com.happyfeet.exception.VeterinariaException;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -14,10 +17,21 @@ import java.util.Optional;
  * Patrón MVC: Controlador
  */
 public class CitaController {
+    private static final int MAX_HUECOS_MOSTRADOS = 20;
+    
     private final CitaService citaService;
+    private final CatalogoService catalogos;
     
     public CitaController() throws VeterinariaException {
         this.citaService = new CitaService();
+        this.catalogos = CatalogoService.getInstance();
+    }
+    
+    /**
+     * Imprime la cita con el nombre de su estado resuelto desde la caché de catálogos
+     */
+    private void imprimirCita(Cita cita) {
+        System.out.println(cita + " - Estado: " + catalogos.describir(Catalogo.CITA_ESTADOS, cita.getEstadoId()));
     }
     
     /**
@@ -56,13 +70,13 @@ public class CitaController {
      */
     public void listarCitas() {
         try {
-            List<Cita> citas = citaService.listarCitasActivas();
-            if (citas.isEmpty()) {
+            long total = ListadoPaginado.recorrerPorId(citaService::listarCitasActivasPorPagina,
+                                                       "\n=== LISTA DE CITAS ===", this::imprimirCita);
+            
+            if (total == 0) {
                 System.out.println("No hay citas registradas.");
             } else {
-                System.out.println("\n=== LISTA DE CITAS ===");
-                citas.forEach(System.out::println);
-                System.out.println("Total: " + citas.size() + " citas registradas");
+                System.out.println("Total: " + total + " citas registradas");
             }
         } catch (VeterinariaException e) {
             System.err.println("Error al listar citas: " + e.getMessage());
@@ -95,7 +109,7 @@ public class CitaController {
                 System.out.println("No se encontraron citas para la mascota con ID: " + mascotaId);
             } else {
                 System.out.println("\n=== CITAS DE LA MASCOTA ===");
-                citas.forEach(System.out::println);
+                citas.forEach(this::imprimirCita);
                 System.out.println("Total: " + citas.size() + " citas encontradas");
             }
         } catch (VeterinariaException e) {
@@ -113,7 +127,7 @@ public class CitaController {
                 System.out.println("No se encontraron citas para el veterinario con ID: " + veterinarioId);
             } else {
                 System.out.println("\n=== CITAS DEL VETERINARIO ===");
-                citas.forEach(System.out::println);
+                citas.forEach(this::imprimirCita);
                 System.out.println("Total: " + citas.size() + " citas encontradas");
             }
         } catch (VeterinariaException e) {
@@ -131,7 +145,7 @@ public class CitaController {
                 System.out.println("No se encontraron citas con el estado ID: " + estadoId);
             } else {
                 System.out.println("\n=== CITAS POR ESTADO ===");
-                citas.forEach(System.out::println);
+                citas.forEach(this::imprimirCita);
                 System.out.println("Total: " + citas.size() + " citas encontradas");
             }
         } catch (VeterinariaException e) {
@@ -149,7 +163,7 @@ public class CitaController {
                 System.out.println("No hay citas programadas para hoy.");
             } else {
                 System.out.println("\n=== CITAS DE HOY ===");
-                citas.forEach(System.out::println);
+                citas.forEach(this::imprimirCita);
                 System.out.println("Total: " + citas.size() + " citas para hoy");
             }
         } catch (VeterinariaException e) {
@@ -215,9 +229,36 @@ public class CitaController {
                 System.out.println("✅ El veterinario está disponible en la fecha y hora seleccionada");
             } else {
                 System.out.println("❌ El veterinario no está disponible en la fecha y hora seleccionada");
+                citaService.buscarSiguienteHorarioLibre(veterinarioId, fechaHora)
+                    .ifPresent(hueco -> System.out.println("   Próximo horario libre: " + hueco));
             }
         } catch (VeterinariaException e) {
             System.err.println("Error al verificar disponibilidad: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Muestra los primeros horarios libres de todos los veterinarios (o de una especialidad)
+     */
+    public void buscarHuecosDisponibles(LocalDate fechaInicio, LocalDate fechaFin, int duracionMinutos, String especialidad) {
+        try {
+            List<CitaService.HuecoDisponible> huecos = 
+                citaService.buscarHuecosDisponibles(fechaInicio, fechaFin, duracionMinutos, especialidad);
+            if (huecos.isEmpty()) {
+                System.out.println("No hay horarios libres de " + duracionMinutos + " minutos en ese rango.");
+                return;
+            }
+            
+            System.out.println("\n=== HORARIOS DISPONIBLES (" + huecos.size() + ") ===");
+            for (CitaService.HuecoDisponible hueco : huecos.subList(0, Math.min(MAX_HUECOS_MOSTRADOS, huecos.size()))) {
+                System.out.printf("%s  %s - %s  %s%n", hueco.inicio.toLocalDate(), hueco.inicio.toLocalTime(),
+                                  hueco.fin.toLocalTime(), hueco.veterinario.getNombreCompleto());
+            }
+            if (huecos.size() > MAX_HUECOS_MOSTRADOS) {
+                System.out.println("... y " + (huecos.size() - MAX_HUECOS_MOSTRADOS) + " más");
+            }
+        } catch (VeterinariaException e) {
+            System.err.println("Error al buscar horarios disponibles: " + e.getMessage());
+        }
+    }
+}
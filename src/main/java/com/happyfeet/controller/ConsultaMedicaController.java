@@ -63,13 +63,13 @@ public class ConsultaMedicaController {
      */
     public void listarConsultasMedicas() {
         try {
-            List<ConsultaMedica> consultas = consultaMedicaService.listarConsultasMedicas();
-            if (consultas.isEmpty()) {
+            long total = ListadoPaginado.recorrerPorId(consultaMedicaService::listarConsultasMedicasPorPagina,
+                                                       "\n=== LISTA DE CONSULTAS MÉDICAS ===", System.out::println);
+            
+            if (total == 0) {
                 System.out.println("No hay consultas médicas registradas.");
             } else {
-                System.out.println("\n=== LISTA DE CONSULTAS MÉDICAS ===");
-                consultas.forEach(System.out::println);
-                System.out.println("Total: " + consultas.size() + " consultas registradas");
+                System.out.println("Total: " + total + " consultas registradas");
             }
         } catch (VeterinariaException e) {
             System.err.println("Error al listar consultas médicas: " + e.getMessage());
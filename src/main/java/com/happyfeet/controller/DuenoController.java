@@ -54,14 +54,13 @@ public class DuenoController {
      */
     public void listarDuenos() {
         try {
-            List<Dueno> duenos = duenoService.listarDuenosActivos();
-            if (duenos.isEmpty()) {
+            long total = ListadoPaginado.recorrer(duenoService::listarDuenosActivosPorPagina,
+                                                  "\n=== LISTA DE DUEÑOS ===", System.out::println);
+            
+            if (total == 0) {
                 System.out.println("No hay dueños registrados.");
             } else {
-                System.out.println("\n=== LISTA DE DUEÑOS ===");
-                // Usando method reference para mayor legibilidad
-                duenos.forEach(System.out::println);
-                System.out.println("Total: " + duenos.size() + " dueños registrados");
+                System.out.println("Total: " + total + " dueños registrados");
             }
         } catch (VeterinariaException e) {
             System.err.println("Error al listar dueños: " + e.getMessage());
@@ -3,10 +3,14 @@ package com.happyfeet.controller;
 import com.happyfeet.model.Factura;
 import com.happyfeet.model.ItemFactura;
 import com.happyfeet.model.Servicio;
+import com.happyfeet.service.ExportadorFacturas;
 import com.happyfeet.service.FacturacionService;
 import com.happyfeet.exception.VeterinariaException;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
@@ -38,7 +42,9 @@ public class FacturacionController {
             System.out.println("6. Consultar facturas por documento");
             System.out.println("7. Actualizar estado de factura");
             System.out.println("8. Crear nuevo servicio");
-            System.out.println("9. Volver al menú principal");
+            System.out.println("9. Reimprimir facturas por rango de fechas");
+            System.out.println("10. Exportar facturas para contabilidad (CSV/NDJSON)");
+            System.out.println("11. Volver al menú principal");
             System.out.print("Seleccione una opción: ");
 
             int opcion = scanner.nextInt();
@@ -53,7 +59,9 @@ public class FacturacionController {
                 case 6 -> consultarFacturasPorDocumento();
                 case 7 -> actualizarEstadoFactura();
                 case 8 -> crearNuevoServicio();
-                case 9-> { return; }
+                case 9 -> reimprimirFacturas();
+                case 10 -> exportarFacturas();
+                case 11 -> { return; }
                 default -> System.out.println("❌ Opción no válida.");
             }
         }
@@ -162,6 +170,55 @@ public class FacturacionController {
         }
     }
     
+    /**
+     * Reimprime en un archivo las facturas de un rango de fechas (cierre de mes)
+     */
+    private void reimprimirFacturas() {
+        try {
+            System.out.print("Fecha inicial (yyyy-mm-dd): ");
+            LocalDate desde = LocalDate.parse(scanner.nextLine().trim());
+            
+            System.out.print("Fecha final (yyyy-mm-dd): ");
+            LocalDate hasta = LocalDate.parse(scanner.nextLine().trim());
+            
+            System.out.print("Archivo de salida: ");
+            Path archivo = Paths.get(scanner.nextLine().trim());
+            
+            FacturacionService.ResultadoReimpresion resultado = 
+                facturacionService.reimprimirFacturas(desde, hasta, archivo);
+            System.out.println("✅ Reimpresión completada: " + resultado);
+            
+        } catch (Exception e) {
+            System.err.println("❌ Error al reimprimir facturas: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Exporta las facturas y sus items de un rango de fechas a un archivo plano
+     */
+    private void exportarFacturas() {
+        try {
+            System.out.print("Fecha inicial (yyyy-mm-dd): ");
+            LocalDate desde = LocalDate.parse(scanner.nextLine().trim());
+            
+            System.out.print("Fecha final (yyyy-mm-dd): ");
+            LocalDate hasta = LocalDate.parse(scanner.nextLine().trim());
+            
+            System.out.print("Formato (CSV/NDJSON): ");
+            ExportadorFacturas.Formato formato = ExportadorFacturas.Formato.valueOf(scanner.nextLine().trim().toUpperCase());
+            
+            System.out.print("Archivo de salida: ");
+            Path archivo = Paths.get(scanner.nextLine().trim());
+            
+            ExportadorFacturas.ResultadoExportacion resultado = 
+                facturacionService.exportarFacturas(desde, hasta, archivo, formato);
+            System.out.println("✅ Exportación completada: " + resultado);
+            
+        } catch (Exception e) {
+            System.err.println("❌ Error al exportar facturas: " + e.getMessage());
+        }
+    }
+    
     /**
      * Lista todos los servicios disponibles
      */
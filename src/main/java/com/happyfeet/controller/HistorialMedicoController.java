@@ -1,7 +1,12 @@
 package com.happyfeet.controller;
 
 import com.happyfeet.model.HistorialMedicoEspecial;
+import com.happyfeet.dao.CatalogoDAO.Catalogo;
+import com.happyfeet.service.CatalogoService;
 import com.happyfeet.service.HistorialMedicoService;
+import com.happyfeet.service.PacienteTimelineService;
+import com.happyfeet.service.PacienteTimelineService.CursorLineaTiempo;
+import com.happyfeet.service.PacienteTimelineService.PaginaLineaTiempo;
 import com.happyfeet.exception.VeterinariaException;
 
 import java.time.LocalDate;
@@ -13,10 +18,23 @@ import java.util.Optional;
  * Coordina entre la vista y el servicio para el historial médico
  */
 public class HistorialMedicoController {
+    private static final int TAMANO_PAGINA_LINEA_TIEMPO = 20;
+    
     private final HistorialMedicoService historialMedicoService;
+    private final PacienteTimelineService lineaTiempoService;
+    private final CatalogoService catalogos;
     
     public HistorialMedicoController() throws VeterinariaException {
         this.historialMedicoService = new HistorialMedicoService();
+        this.lineaTiempoService = new PacienteTimelineService();
+        this.catalogos = CatalogoService.getInstance();
+    }
+    
+    /**
+     * Imprime el historial con el nombre de su evento resuelto desde la caché de catálogos
+     */
+    private void imprimirHistorialMedicoEspecial(HistorialMedicoEspecial historial) {
+        System.out.println(historial + " - Evento: " + catalogos.describir(Catalogo.EVENTO_TIPOS, historial.getEventoTipoId()));
     }
     
     /**
@@ -43,13 +61,13 @@ public class HistorialMedicoController {
      */
     public void listarHistoriales() {
         try {
-            List<HistorialMedicoEspecial> historiales = historialMedicoService.listarHistorialesActivos();
-            if (historiales.isEmpty()) {
+            long total = ListadoPaginado.recorrerPorId(historialMedicoService::listarHistorialesActivosPorPagina,
+                                                       "\n=== LISTA DE HISTORIALES MÉDICOS ===", this::imprimirHistorialMedicoEspecial);
+            
+            if (total == 0) {
                 System.out.println("No hay historiales médicos registrados.");
             } else {
-                System.out.println("\n=== LISTA DE HISTORIALES MÉDICOS ===");
-                historiales.forEach(System.out::println);
-                System.out.println("Total: " + historiales.size() + " historiales registrados");
+                System.out.println("Total: " + total + " historiales registrados");
             }
         } catch (VeterinariaException e) {
             System.err.println("Error al listar historiales médicos: " + e.getMessage());
@@ -82,7 +100,7 @@ public class HistorialMedicoController {
                 System.out.println("No se encontraron historiales médicos para la mascota con ID: " + mascotaId);
             } else {
                 System.out.println("\n=== HISTORIALES MÉDICOS DE LA MASCOTA ID: " + mascotaId + " ===");
-                historiales.forEach(System.out::println);
+                historiales.forEach(this::imprimirHistorialMedicoEspecial);
                 System.out.println("Total: " + historiales.size() + " historiales encontrados");
             }
         } catch (VeterinariaException e) {
@@ -90,6 +108,30 @@ public class HistorialMedicoController {
         }
     }
     
+    /**
+     * Muestra una página de la línea de tiempo de la mascota (consultas, procedimientos,
+     * vacunas e historial)
+     *
+     * @return el cursor de la página siguiente, o null si no hay más
+     */
+    public CursorLineaTiempo mostrarLineaTiempo(Integer mascotaId, CursorLineaTiempo despuesDe) {
+        try {
+            PaginaLineaTiempo pagina = lineaTiempoService.obtenerPagina(mascotaId, despuesDe, TAMANO_PAGINA_LINEA_TIEMPO);
+            if (pagina.entradas.isEmpty()) {
+                System.out.println("No hay registros en la línea de tiempo de la mascota con ID: " + mascotaId);
+                return null;
+            }
+            if (despuesDe == null) {
+                System.out.println("\n=== LÍNEA DE TIEMPO DE LA MASCOTA ID: " + mascotaId + " ===");
+            }
+            pagina.entradas.forEach(System.out::println);
+            return pagina.siguiente;
+        } catch (VeterinariaException e) {
+            System.err.println("Error al obtener la línea de tiempo: " + e.getMessage());
+            return null;
+        }
+    }
+    
     /**
      * Busca historiales médicos por tipo de evento
      */
@@ -100,7 +142,7 @@ public class HistorialMedicoController {
                 System.out.println("No se encontraron historiales médicos para el tipo de evento con ID: " + eventoTipoId);
             } else {
                 System.out.println("\n=== HISTORIALES MÉDICOS DEL TIPO DE EVENTO ID: " + eventoTipoId + " ===");
-                historiales.forEach(System.out::println);
+                historiales.forEach(this::imprimirHistorialMedicoEspecial);
                 System.out.println("Total: " + historiales.size() + " historiales encontrados");
             }
         } catch (VeterinariaException e) {
@@ -119,7 +161,7 @@ public class HistorialMedicoController {
                                  fechaInicio + " a " + fechaFin);
             } else {
                 System.out.println("\n=== HISTORIALES MÉDICOS DEL " + fechaInicio + " AL " + fechaFin + " ===");
-                historiales.forEach(System.out::println);
+                historiales.forEach(this::imprimirHistorialMedicoEspecial);
                 System.out.println("Total: " + historiales.size() + " historiales encontrados");
             }
         } catch (VeterinariaException e) {
@@ -1,6 +1,8 @@
 package com.happyfeet.controller;
 
 import com.happyfeet.model.Inventario;
+import com.happyfeet.dao.CatalogoDAO.Catalogo;
+import com.happyfeet.service.CatalogoService;
 import com.happyfeet.service.InventarioService;
 import com.happyfeet.exception.VeterinariaException;
 
@@ -13,9 +15,18 @@ import java.util.Optional;
  */
 public class InventarioController {
     private final InventarioService inventarioService;
+    private final CatalogoService catalogos;
     
     public InventarioController() throws VeterinariaException {
         this.inventarioService = new InventarioService();
+        this.catalogos = CatalogoService.getInstance();
+    }
+    
+    /**
+     * Imprime el producto con el nombre de su tipo resuelto desde la caché de catálogos
+     */
+    private void imprimirInventario(Inventario producto) {
+        System.out.println(producto + " - Tipo: " + catalogos.describir(Catalogo.PRODUCTO_TIPOS, producto.getProductoTipoId()));
     }
     
     /**
@@ -43,13 +54,13 @@ public class InventarioController {
      */
     public void listarProductos() {
         try {
-            List<Inventario> productos = inventarioService.listarProductosActivos();
-            if (productos.isEmpty()) {
+            long total = ListadoPaginado.recorrerPorId(inventarioService::listarProductosActivosPorPagina,
+                                                       "\n=== LISTA DE PRODUCTOS ===", this::imprimirInventario);
+            
+            if (total == 0) {
                 System.out.println("No hay productos registrados.");
             } else {
-                System.out.println("\n=== LISTA DE PRODUCTOS ===");
-                productos.forEach(System.out::println);
-                System.out.println("Total: " + productos.size() + " productos registrados");
+                System.out.println("Total: " + total + " productos registrados");
             }
         } catch (VeterinariaException e) {
             System.err.println("Error al listar productos: " + e.getMessage());
@@ -82,7 +93,7 @@ public class InventarioController {
                 System.out.println("No se encontraron productos con nombre que contenga: " + nombre);
             } else {
                 System.out.println("\n=== RESULTADOS DE BÚSQUEDA ===");
-                productos.forEach(System.out::println);
+                productos.forEach(this::imprimirInventario);
                 System.out.println("Se encontraron " + productos.size() + " productos");
             }
         } catch (VeterinariaException e) {
@@ -100,7 +111,7 @@ public class InventarioController {
                 System.out.println("No hay productos con stock bajo.");
             } else {
                 System.out.println("\n=== PRODUCTOS CON STOCK BAJO ===");
-                productos.forEach(System.out::println);
+                productos.forEach(this::imprimirInventario);
                 System.out.println("Total: " + productos.size() + " productos con stock bajo");
             }
         } catch (VeterinariaException e) {
@@ -118,7 +129,7 @@ public class InventarioController {
                 System.out.println("No hay productos próximos a vencer.");
             } else {
                 System.out.println("\n=== PRODUCTOS PRÓXIMOS A VENCER ===");
-                productos.forEach(System.out::println);
+                productos.forEach(this::imprimirInventario);
                 System.out.println("Total: " + productos.size() + " productos próximos a vencer");
             }
         } catch (VeterinariaException e) {
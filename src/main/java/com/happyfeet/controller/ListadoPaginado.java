@@ -0,0 +1,64 @@
+package com.happyfeet.controller;
+
+import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.model.BaseEntity;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Recorrido por páginas (keyset) de los listados completos de los controladores:
+ * pide páginas hasta recibir una incompleta, así nunca se carga toda la tabla en memoria.
+ */
+final class ListadoPaginado {
+    static final int TAMANO_PAGINA = 100;
+
+    /**
+     * Lee la página que sigue al último elemento de la anterior (null en la primera)
+     */
+    @FunctionalInterface
+    interface LectorPagina<T> {
+        List<T> leer(T ultimo, int limite) throws VeterinariaException;
+    }
+
+    /**
+     * Lee la página que sigue a un ID (null en la primera), como BaseDAO.findPage
+     */
+    @FunctionalInterface
+    interface LectorPaginaPorId<T> {
+        List<T> leer(Integer despuesDeId, int limite) throws VeterinariaException;
+    }
+
+    private ListadoPaginado() {
+    }
+
+    /**
+     * Imprime el encabezado antes del primer elemento y luego cada elemento
+     *
+     * @return cantidad de elementos recorridos
+     */
+    static <T> long recorrer(LectorPagina<T> lector, String encabezado, Consumer<? super T> imprimir)
+            throws VeterinariaException {
+        long total = 0;
+        T ultimo = null;
+        List<T> pagina;
+        do {
+            pagina = lector.leer(ultimo, TAMANO_PAGINA);
+            if (total == 0 && !pagina.isEmpty()) {
+                System.out.println(encabezado);
+            }
+            pagina.forEach(imprimir);
+            total += pagina.size();
+            if (!pagina.isEmpty()) {
+                ultimo = pagina.get(pagina.size() - 1);
+            }
+        } while (pagina.size() == TAMANO_PAGINA);
+        return total;
+    }
+
+    static <T extends BaseEntity> long recorrerPorId(LectorPaginaPorId<T> lector, String encabezado,
+                                                     Consumer<? super T> imprimir) throws VeterinariaException {
+        LectorPagina<T> porUltimo = (ultimo, limite) -> lector.leer(ultimo != null ? ultimo.getId() : null, limite);
+        return recorrer(porUltimo, encabezado, imprimir);
+    }
+}
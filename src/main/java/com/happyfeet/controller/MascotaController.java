@@ -1,6 +1,8 @@
 package com.happyfeet.controller;
 
 import com.happyfeet.model.Mascota;
+import com.happyfeet.dao.CatalogoDAO.Catalogo;
+import com.happyfeet.service.CatalogoService;
 import com.happyfeet.service.MascotaService;
 import com.happyfeet.exception.VeterinariaException;
 
@@ -14,9 +16,18 @@ import java.util.Optional;
  */
 public class MascotaController {
     private final MascotaService mascotaService;
+    private final CatalogoService catalogos;
     
     public MascotaController() throws VeterinariaException {
         this.mascotaService = new MascotaService();
+        this.catalogos = CatalogoService.getInstance();
+    }
+    
+    /**
+     * Imprime la mascota con el nombre de su raza resuelto desde la caché de catálogos
+     */
+    private void imprimirMascota(Mascota mascota) {
+        System.out.println(mascota + " - Raza: " + catalogos.describir(Catalogo.RAZAS, mascota.getRazaId()));
     }
     
     /**
@@ -56,14 +67,13 @@ public class MascotaController {
      */
     public void listarMascotas() {
         try {
-            List<Mascota> mascotas = mascotaService.listarMascotasActivas();
-            if (mascotas.isEmpty()) {
+            long total = ListadoPaginado.recorrerPorId(mascotaService::listarMascotasActivasPorPagina,
+                                                       "\n=== LISTA DE MASCOTAS ===", this::imprimirMascota);
+            
+            if (total == 0) {
                 System.out.println("No hay mascotas registradas.");
             } else {
-                System.out.println("\n=== LISTA DE MASCOTAS ===");
-                // Usando method reference para mayor legibilidad
-                mascotas.forEach(System.out::println);
-                System.out.println("Total: " + mascotas.size() + " mascotas registradas");
+                System.out.println("Total: " + total + " mascotas registradas");
             }
         } catch (VeterinariaException e) {
             System.err.println("Error al listar mascotas: " + e.getMessage());
@@ -96,7 +106,7 @@ public class MascotaController {
                 System.out.println("No se encontraron mascotas con nombre que contenga: " + nombre);
             } else {
                 System.out.println("\n=== RESULTADOS DE BÚSQUEDA ===");
-                mascotas.forEach(System.out::println);
+                mascotas.forEach(this::imprimirMascota);
                 System.out.println("Se encontraron " + mascotas.size() + " mascotas");
             }
         } catch (VeterinariaException e) {
@@ -114,7 +124,7 @@ public class MascotaController {
                 System.out.println("No se encontraron mascotas para el dueño con ID: " + duenoId);
             } else {
                 System.out.println("\n=== MASCOTAS DEL DUEÑO ===");
-                mascotas.forEach(System.out::println);
+                mascotas.forEach(this::imprimirMascota);
                 System.out.println("Total: " + mascotas.size() + " mascotas");
             }
         } catch (VeterinariaException e) {
@@ -65,13 +65,13 @@ public class ProcedimientoEspecialController {
      */
     public void listarProcedimientosEspeciales() {
         try {
-            List<ProcedimientoEspecial> procedimientos = procedimientoEspecialService.listarProcedimientosEspeciales();
-            if (procedimientos.isEmpty()) {
+            long total = ListadoPaginado.recorrerPorId(procedimientoEspecialService::listarProcedimientosEspecialesPorPagina,
+                                                       "\n=== LISTA DE PROCEDIMIENTOS ESPECIALES ===", System.out::println);
+            
+            if (total == 0) {
                 System.out.println("No hay procedimientos especiales registrados.");
             } else {
-                System.out.println("\n=== LISTA DE PROCEDIMIENTOS ESPECIALES ===");
-                procedimientos.forEach(System.out::println);
-                System.out.println("Total: " + procedimientos.size() + " procedimientos registrados");
+                System.out.println("Total: " + total + " procedimientos registrados");
             }
         } catch (VeterinariaException e) {
             System.err.println("Error al listar procedimientos especiales: " + e.getMessage());
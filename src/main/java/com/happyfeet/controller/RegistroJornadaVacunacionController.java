@@ -35,18 +35,32 @@ public class RegistroJornadaVacunacionController {
         }
     }
     
+    /**
+     * Registra en lote varias vacunaciones de una jornada
+     */
+    public boolean registrarVacunacionesMasivas(List<RegistroJornadaVacunacion> registros) {
+        try {
+            List<RegistroJornadaVacunacion> guardados = registroJornadaVacunacionService.registrarVacunacionesMasivas(registros);
+            System.out.println("✅ Registros de vacunación creados exitosamente: " + guardados.size());
+            return true;
+        } catch (VeterinariaException e) {
+            System.err.println("❌ Error al registrar vacunaciones: " + e.getMessage());
+            return false;
+        }
+    }
+    
     /**
      * Lista todos los registros
      */
     public void listarRegistros() {
         try {
-            List<RegistroJornadaVacunacion> registros = registroJornadaVacunacionService.listarRegistros();
-            if (registros.isEmpty()) {
+            long total = ListadoPaginado.recorrerPorId(registroJornadaVacunacionService::listarRegistrosPorPagina,
+                                                       "\n=== LISTA DE REGISTROS DE VACUNACIÓN ===", System.out::println);
+            
+            if (total == 0) {
                 System.out.println("No hay registros de vacunación.");
             } else {
-                System.out.println("\n=== LISTA DE REGISTROS DE VACUNACIÓN ===");
-                registros.forEach(System.out::println);
-                System.out.println("Total: " + registros.size() + " registros");
+                System.out.println("Total: " + total + " registros");
             }
         } catch (VeterinariaException e) {
             System.err.println("Error al listar registros: " + e.getMessage());
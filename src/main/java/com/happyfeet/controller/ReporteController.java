@@ -34,7 +34,9 @@ public class ReporteController {
             System.out.println("3. Estado del inventario");
             System.out.println("4. Análisis de facturación por período");
             System.out.println("5. Resumen ejecutivo");
-            System.out.println("6. Volver al menú principal");
+            System.out.println("6. Reconstruir resumen de facturación diaria");
+            System.out.println("7. Estadísticas de caché de reportes");
+            System.out.println("8. Volver al menú principal");
             System.out.print("Seleccione una opción: ");
 
             int opcion = scanner.nextInt();
@@ -46,7 +48,9 @@ public class ReporteController {
                 case 3 -> generarReporteInventario();
                 case 4 -> generarReporteFacturacion();
                 case 5 -> generarResumenEjecutivo();
-                case 6 -> { return; }
+                case 6 -> reconstruirFacturacionDiaria();
+                case 7 -> mostrarEstadisticasCache();
+                case 8 -> { return; }
                 default -> System.out.println("❌ Opción no válida.");
             }
         }
@@ -130,6 +134,41 @@ public class ReporteController {
         }
     }
     
+    /**
+     * Recalcula el resumen de facturación diaria desde las facturas
+     */
+    private void reconstruirFacturacionDiaria() {
+        try {
+            System.out.println("\n--- Reconstruir Resumen de Facturación Diaria ---");
+            System.out.print("¿Reconstruir todo el historial? (s/n): ");
+            int dias;
+            if (scanner.nextLine().trim().equalsIgnoreCase("s")) {
+                dias = reporteService.reconstruirFacturacionDiaria();
+            } else {
+                LocalDate[] fechas = solicitarRangoFechas();
+                dias = reporteService.reconstruirFacturacionDiaria(fechas[0], fechas[1]);
+            }
+            System.out.println("✅ Resumen reconstruido: " + dias + " días con facturación");
+            
+        } catch (Exception e) {
+            System.err.println("❌ Error al reconstruir resumen: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Muestra las métricas de la caché de reportes y permite vaciarla
+     */
+    private void mostrarEstadisticasCache() {
+        System.out.println("\n--- Caché de Reportes ---");
+        reporteService.obtenerEstadisticasCache().forEach(System.out::println);
+        
+        System.out.print("¿Vaciar la caché? (s/n): ");
+        if (scanner.nextLine().trim().equalsIgnoreCase("s")) {
+            reporteService.limpiarCache();
+            System.out.println("✅ Caché de reportes vaciada");
+        }
+    }
+    
     /**
      * Genera resumen ejecutivo
      */
@@ -340,6 +379,11 @@ public class ReporteController {
         System.out.printf("Servicio Más Popular: %s\n", resumen.servicioMasPopular);
         System.out.printf("Cantidad de Servicios Diferentes: %,d\n", resumen.cantidadServiciosDiferentes);
         System.out.printf("Veterinarios Activos: %,d\n", resumen.veterinariosActivos);
+        if (!resumen.esCompleto()) {
+            System.out.println("-".repeat(60));
+            System.out.println("⚠️  Resumen parcial, no se incluyeron:");
+            resumen.reportesIncompletos.forEach(r -> System.out.println("   - " + r));
+        }
         System.out.println("=".repeat(60));
     }
     
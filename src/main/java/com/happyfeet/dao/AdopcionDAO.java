@@ -22,6 +22,14 @@ public class AdopcionDAO extends BaseDAO<Adopcion> {
         return "adopciones";
     }
     
+    /**
+     * La tabla adopciones no tiene columna 'activo' ni fecha_registro: las adopciones no se eliminan
+     */
+    @Override
+    protected boolean usaBorradoLogico() {
+        return false;
+    }
+    
     @Override
     protected Adopcion mapResultSetToEntity(ResultSet rs) throws SQLException {
         Adopcion adopcion = new Adopcion();
@@ -43,12 +51,6 @@ public class AdopcionDAO extends BaseDAO<Adopcion> {
             adopcion.setFechaPrimerSeguimiento(fechaPrimerSeguimiento.toLocalDate());
         }
         
-        Timestamp fechaRegistro = rs.getTimestamp("fecha_registro");
-        if (fechaRegistro != null) {
-            adopcion.setFechaRegistro(fechaRegistro.toLocalDateTime());
-        }
-        
-        adopcion.setActivo(rs.getBoolean("activo"));
         return adopcion;
     }
     
@@ -101,9 +103,10 @@ public class AdopcionDAO extends BaseDAO<Adopcion> {
      */
     public List<Adopcion> findByDuenoId(Integer duenoId) throws VeterinariaException {
         List<Adopcion> entities = new ArrayList<>();
-        String sql = "SELECT * FROM " + getTableName() + " WHERE dueno_id = ? AND activo = TRUE";
+        String sql = "SELECT * FROM " + getTableName() + " WHERE dueno_id = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, duenoId);
             ResultSet rs = ps.executeQuery();
             
@@ -123,9 +126,10 @@ public class AdopcionDAO extends BaseDAO<Adopcion> {
      * Busca adopción por mascota en adopción
      */
     public Optional<Adopcion> findByMascotaAdopcionId(Integer mascotaAdopcionId) throws VeterinariaException {
-        String sql = "SELECT * FROM " + getTableName() + " WHERE mascota_adopcion_id = ? AND activo = TRUE";
+        String sql = "SELECT * FROM " + getTableName() + " WHERE mascota_adopcion_id = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, mascotaAdopcionId);
             ResultSet rs = ps.executeQuery();
             
@@ -0,0 +1,452 @@
+package com.happyfeet.dao;
+
+import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.model.Cita;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Agenda en memoria de los veterinarios: los intervalos ocupados por citas activas
+ * (CitaDAO.ESTADOS_OCUPAN_AGENDA), guardados por día y por veterinario como un
+ * mapa de bits de minutos. Comprobar un solapamiento o buscar el siguiente hueco libre
+ * es recorrer bits, sin ir a la base de datos.
+ * Los días se cargan bajo demanda con una sola consulta por ventana de días y se
+ * mantienen al día con cada escritura de CitaDAO. Solo se conservan los últimos
+ * días usados (LRU), así que la memoria no crece con el historial de citas.
+ * Las citas no guardan duración: cada una ocupa DURACION_CITA_MIN minutos.
+ * Patrón Singleton: una única agenda compartida
+ */
+public final class AgendaVeterinarios {
+    private static final Logger logger = Logger.getLogger(AgendaVeterinarios.class.getName());
+    /** Minutos que ocupa cada cita */
+    public static final int DURACION_CITA_MIN = Integer.getInteger("happyfeet.citas.duracionMin", 30);
+    /** Horario de atención en el que se buscan huecos libres */
+    public static final LocalTime INICIO_JORNADA = LocalTime.of(Integer.getInteger("happyfeet.agenda.horaInicio", 8), 0);
+    public static final LocalTime FIN_JORNADA = LocalTime.of(Integer.getInteger("happyfeet.agenda.horaFin", 18), 0);
+    /** Días que se mantienen cargados a la vez; es también el rango máximo de una consulta */
+    public static final int MAX_DIAS = Integer.getInteger("happyfeet.agenda.maxDias", 120);
+    private static final int MINUTOS_DIA = 24 * 60;
+    // Los huecos empiezan en múltiplos de este paso (por ejemplo, no a las 10:07)
+    private static final int PASO_HUECO_MIN = 5;
+    private static volatile AgendaVeterinarios instance;
+
+    /**
+     * Operación que se ejecuta con la agenda de un veterinario bloqueada
+     */
+    @FunctionalInterface
+    public interface OperacionReserva<R> {
+        R ejecutar() throws VeterinariaException;
+    }
+
+    /**
+     * Cálculo sobre los días de una consulta, con la agenda bloqueada
+     */
+    @FunctionalInterface
+    private interface ConsultaDias<R> {
+        R calcular(Map<LocalDate, DiaAgenda> diasConsulta);
+    }
+
+    private final CitaDAO citaDAO;
+    private final Map<Integer, Object> bloqueosReserva = new ConcurrentHashMap<>();
+
+    // Estado protegido por 'this'
+    private final Map<LocalDate, DiaAgenda> dias = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<LocalDate, DiaAgenda> eldest) {
+            return size() > MAX_DIAS;
+        }
+    };
+    // Cambia con cada escritura: una carga que se solapó con una escritura se descarta y se repite
+    private long generacion;
+
+    private AgendaVeterinarios(CitaDAO citaDAO) {
+        this.citaDAO = citaDAO;
+    }
+
+    /**
+     * Obtiene la agenda única (los días se cargan en el primer uso de cada uno)
+     */
+    public static AgendaVeterinarios getInstance() throws VeterinariaException {
+        if (instance == null) {
+            synchronized (AgendaVeterinarios.class) {
+                if (instance == null) {
+                    instance = new AgendaVeterinarios(new CitaDAO());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * La agenda si ya fue creada, o null (las escrituras no la crean)
+     */
+    static AgendaVeterinarios siCargada() {
+        return instance;
+    }
+
+    /**
+     * Indica si el veterinario no tiene citas activas que se solapen con [inicio, inicio + duracion)
+     *
+     * @param excluirCitaId cita que no cuenta (la que se está reprogramando), o null
+     */
+    public boolean estaDisponible(Integer veterinarioId, LocalDateTime inicio, int duracionMinutos,
+                                  Integer excluirCitaId) throws VeterinariaException {
+        validarDuracion(duracionMinutos);
+        LocalDateTime fin = inicio.plusMinutes(duracionMinutos);
+        LocalDate primerDia = inicio.toLocalDate();
+        LocalDate ultimoDia = fin.minusNanos(1).toLocalDate();
+        return conDiasCargados(primerDia, ultimoDia.plusDays(1), diasConsulta -> {
+            for (LocalDate dia = primerDia; !dia.isAfter(ultimoDia); dia = dia.plusDays(1)) {
+                Ocupacion ocupacion = diasConsulta.get(dia).porVeterinario.get(veterinarioId);
+                if (ocupacion != null && !ocupacion.libre(minutoDelDia(inicio, dia), minutoDelDia(fin, dia), excluirCitaId)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Primer inicio libre desde 'desde' con 'duracion' minutos dentro del horario de atención,
+     * buscando como máximo 'diasBusqueda' días
+     */
+    public Optional<LocalDateTime> siguienteHuecoLibre(Integer veterinarioId, LocalDateTime desde, int duracionMinutos,
+                                                       int diasBusqueda) throws VeterinariaException {
+        validarDuracion(duracionMinutos);
+        LocalDate primerDia = desde.toLocalDate();
+        LocalDate finBusqueda = primerDia.plusDays(diasBusqueda);
+        return conDiasCargados(primerDia, finBusqueda, diasConsulta -> {
+            for (LocalDate dia = primerDia; dia.isBefore(finBusqueda); dia = dia.plusDays(1)) {
+                Optional<LocalDateTime> hueco = primerHuecoDelDia(diasConsulta.get(dia), veterinarioId, dia, desde,
+                                                                  duracionMinutos);
+                if (hueco.isPresent()) {
+                    return hueco;
+                }
+            }
+            return Optional.<LocalDateTime>empty();
+        });
+    }
+
+    /**
+     * Todos los huecos libres de al menos 'duracion' minutos de los veterinarios dados entre
+     * los días desde y hasta (inclusive), dentro del horario de atención y no antes de 'noAntesDe'.
+     * Los días que falten se cargan con una sola consulta y el cálculo es una pasada por los
+     * mapas de bits de cada veterinario y día. Cada hueco es un tramo libre máximo: la cita
+     * puede empezar en cualquier minuto entre inicio y fin - duracion.
+     * Orden: primero los que empiezan antes; a igual inicio, el veterinario con menos minutos
+     * ocupados ese día (reparte la carga), y luego por ID.
+     */
+    public List<HuecoLibre> huecosLibres(Collection<Integer> veterinarioIds, LocalDate desde, LocalDate hasta,
+                                         LocalDateTime noAntesDe, int duracionMinutos) throws VeterinariaException {
+        validarDuracion(duracionMinutos);
+        LocalDate finRango = hasta.plusDays(1);
+        int apertura = INICIO_JORNADA.toSecondOfDay() / 60;
+        int cierre = FIN_JORNADA.toSecondOfDay() / 60;
+        List<HuecoLibre> huecos = conDiasCargados(desde, finRango, diasConsulta -> {
+            List<HuecoLibre> encontrados = new ArrayList<>();
+            for (LocalDate dia = desde; dia.isBefore(finRango); dia = dia.plusDays(1)) {
+                int inicioDia = Math.max(apertura, redondearAlPaso(minutoDelDia(noAntesDe, dia), noAntesDe, dia));
+                if (inicioDia + duracionMinutos > cierre) {
+                    continue;
+                }
+                DiaAgenda agenda = diasConsulta.get(dia);
+                for (Integer veterinarioId : veterinarioIds) {
+                    Ocupacion ocupacion = agenda.porVeterinario.get(veterinarioId);
+                    BitSet minutos = ocupacion == null ? null : ocupacion.minutos;
+                    int ocupadosDia = minutos == null ? 0 : minutos.get(apertura, cierre).cardinality();
+                    int minuto = inicioDia;
+                    while (minuto + duracionMinutos <= cierre) {
+                        if (minutos != null) {
+                            minuto = alinearAlPaso(minutos.nextClearBit(minuto));
+                        }
+                        int ocupado = minutos == null ? -1 : minutos.nextSetBit(minuto);
+                        int finHueco = ocupado < 0 ? cierre : Math.min(ocupado, cierre);
+                        if (finHueco - minuto >= duracionMinutos) {
+                            encontrados.add(new HuecoLibre(veterinarioId, dia.atStartOfDay().plusMinutes(minuto),
+                                                           dia.atStartOfDay().plusMinutes(finHueco), ocupadosDia));
+                        }
+                        if (ocupado < 0 || ocupado >= cierre) {
+                            break;
+                        }
+                        minuto = ocupado;
+                    }
+                }
+            }
+            return encontrados;
+        });
+        huecos.sort(Comparator.comparing((HuecoLibre h) -> h.inicio)
+            .thenComparingInt(h -> h.minutosOcupadosDia)
+            .thenComparingInt(h -> h.veterinarioId));
+        return huecos;
+    }
+
+    /**
+     * Ejecuta la operación (comprobar disponibilidad y guardar la cita) con la agenda del
+     * veterinario bloqueada, para que dos reservas simultáneas no tomen el mismo hueco
+     */
+    public <R> R conVeterinarioBloqueado(Integer veterinarioId, OperacionReserva<R> operacion) throws VeterinariaException {
+        Object bloqueo = bloqueosReserva.computeIfAbsent(veterinarioId, id -> new Object());
+        synchronized (bloqueo) {
+            return operacion.ejecutar();
+        }
+    }
+
+    /**
+     * Vuelve a leer una cita de la BD y actualiza los días cargados que toca
+     * (la quita si se eliminó o dejó de estar activa)
+     */
+    void recargarCita(Integer citaId) throws VeterinariaException {
+        Optional<Cita> cita = citaDAO.findTramo(citaId);
+        boolean ocupa = cita.isPresent() && CitaDAO.ocupaAgenda(cita.get());
+        synchronized (this) {
+            generacion++;
+            for (DiaAgenda dia : dias.values()) {
+                dia.quitar(citaId);
+            }
+            if (ocupa) {
+                agregar(cita.get(), null);
+            }
+        }
+    }
+
+    /**
+     * Descarta todos los días cargados; se recargarán en la próxima consulta
+     */
+    public synchronized void invalidarTodo() {
+        dias.clear();
+        generacion++;
+    }
+
+    /**
+     * Ejecuta la consulta con los días de [desde, hasta) y la agenda bloqueada, cargando antes
+     * con una sola consulta los que todavía no están en memoria.
+     * La consulta recibe los días fijados en un mapa propio: cargar los que faltan puede sacar
+     * del LRU otros días del mismo rango, y volver a comprobar si están podría no terminar nunca.
+     * Solo se repite la carga si una escritura se solapó con ella.
+     */
+    private <R> R conDiasCargados(LocalDate desde, LocalDate hasta, ConsultaDias<R> consulta)
+            throws VeterinariaException {
+        if (ChronoUnit.DAYS.between(desde, hasta) > MAX_DIAS) {
+            throw new VeterinariaException("El rango de la agenda no puede superar " + MAX_DIAS + " días",
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+        while (true) {
+            long generacionInicial;
+            Map<LocalDate, DiaAgenda> diasConsulta = new HashMap<>();
+            List<LocalDate> faltantes = new ArrayList<>();
+            synchronized (this) {
+                for (LocalDate dia = desde; dia.isBefore(hasta); dia = dia.plusDays(1)) {
+                    DiaAgenda cargado = dias.get(dia); // get() también lo marca como usado en el LRU
+                    if (cargado != null) {
+                        diasConsulta.put(dia, cargado);
+                    } else {
+                        faltantes.add(dia);
+                    }
+                }
+                if (faltantes.isEmpty()) {
+                    return consulta.calcular(diasConsulta);
+                }
+                generacionInicial = generacion;
+            }
+
+            // Desde antes del primer día: una cita de la noche anterior puede ocuparlo
+            LocalDate primero = faltantes.get(0);
+            LocalDate ultimo = faltantes.get(faltantes.size() - 1);
+            List<Cita> citas = citaDAO.findTramosActivos(primero.atStartOfDay().minusMinutes(DURACION_CITA_MIN),
+                                                          ultimo.plusDays(1).atStartOfDay());
+
+            synchronized (this) {
+                if (generacion != generacionInicial) {
+                    continue;
+                }
+                Map<LocalDate, DiaAgenda> nuevos = new HashMap<>();
+                for (LocalDate dia : faltantes) {
+                    nuevos.put(dia, new DiaAgenda());
+                }
+                for (Cita cita : citas) {
+                    agregar(cita, nuevos);
+                }
+                dias.putAll(nuevos);
+                logger.fine("Agenda: cargados " + faltantes.size() + " días con " + citas.size() + " citas");
+                // Sin escrituras desde la primera lectura, los días ya fijados siguen al día
+                // aunque el LRU los haya sacado de 'dias'
+                diasConsulta.putAll(nuevos);
+                return consulta.calcular(diasConsulta);
+            }
+        }
+    }
+
+    /**
+     * Minuto del día redondeado hacia arriba al paso de los huecos (los segundos cuentan como un minuto más)
+     */
+    private static int redondearAlPaso(int minuto, LocalDateTime fecha, LocalDate dia) {
+        if (dia.equals(fecha.toLocalDate()) && fecha.toLocalTime().toSecondOfDay() % 60 != 0) {
+            minuto++;
+        }
+        return alinearAlPaso(minuto);
+    }
+
+    private static int alinearAlPaso(int minuto) {
+        return ((minuto + PASO_HUECO_MIN - 1) / PASO_HUECO_MIN) * PASO_HUECO_MIN;
+    }
+
+    private static void validarDuracion(int duracionMinutos) throws VeterinariaException {
+        if (duracionMinutos <= 0 || duracionMinutos > MINUTOS_DIA) {
+            throw new VeterinariaException("La duración debe estar entre 1 y " + MINUTOS_DIA + " minutos",
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+    }
+
+    /**
+     * Registra la cita en cada día que toca, dentro de 'destino' o, si es null, de los días cargados
+     */
+    private void agregar(Cita cita, Map<LocalDate, DiaAgenda> destino) {
+        LocalDateTime inicio = cita.getFechaHora();
+        LocalDateTime fin = inicio.plusMinutes(DURACION_CITA_MIN);
+        for (LocalDate dia = inicio.toLocalDate(); dia.atStartOfDay().isBefore(fin); dia = dia.plusDays(1)) {
+            DiaAgenda agenda = destino != null ? destino.get(dia) : dias.get(dia);
+            if (agenda != null) {
+                agenda.agregar(cita.getId(), cita.getVeterinarioId(), minutoDelDia(inicio, dia), minutoDelDia(fin, dia));
+            }
+        }
+    }
+
+    private static Optional<LocalDateTime> primerHuecoDelDia(DiaAgenda agenda, Integer veterinarioId, LocalDate dia,
+                                                             LocalDateTime desde, int duracionMinutos) {
+        int apertura = INICIO_JORNADA.toSecondOfDay() / 60;
+        int cierre = FIN_JORNADA.toSecondOfDay() / 60;
+        int inicio = Math.max(apertura, redondearAlPaso(minutoDelDia(desde, dia), desde, dia));
+        if (inicio + duracionMinutos > cierre) {
+            return Optional.empty();
+        }
+        Ocupacion ocupacion = agenda.porVeterinario.get(veterinarioId);
+        int minuto = ocupacion == null ? inicio : ocupacion.primerHueco(inicio, cierre, duracionMinutos);
+        return minuto < 0 ? Optional.empty() : Optional.of(dia.atStartOfDay().plusMinutes(minuto));
+    }
+
+    /**
+     * Minuto de 'fecha' dentro de 'dia', acotado a [0, 1440]
+     */
+    private static int minutoDelDia(LocalDateTime fecha, LocalDate dia) {
+        long minutos = ChronoUnit.MINUTES.between(dia.atStartOfDay(), fecha);
+        return (int) Math.max(0, Math.min(MINUTOS_DIA, minutos));
+    }
+
+    /**
+     * Tramo libre de un veterinario en un día
+     */
+    public static class HuecoLibre {
+        public final int veterinarioId;
+        public final LocalDateTime inicio;
+        public final LocalDateTime fin;
+        public final int minutosOcupadosDia;
+
+        public HuecoLibre(int veterinarioId, LocalDateTime inicio, LocalDateTime fin, int minutosOcupadosDia) {
+            this.veterinarioId = veterinarioId;
+            this.inicio = inicio;
+            this.fin = fin;
+            this.minutosOcupadosDia = minutosOcupadosDia;
+        }
+    }
+
+    /**
+     * Citas de un día agrupadas por veterinario
+     */
+    private static final class DiaAgenda {
+        final Map<Integer, Ocupacion> porVeterinario = new HashMap<>();
+        final Map<Integer, Integer> veterinarioPorCita = new HashMap<>();
+
+        void agregar(Integer citaId, Integer veterinarioId, int inicio, int fin) {
+            if (fin <= inicio) {
+                return;
+            }
+            porVeterinario.computeIfAbsent(veterinarioId, id -> new Ocupacion()).agregar(citaId, inicio, fin);
+            veterinarioPorCita.put(citaId, veterinarioId);
+        }
+
+        void quitar(Integer citaId) {
+            Integer veterinarioId = veterinarioPorCita.remove(citaId);
+            if (veterinarioId == null) {
+                return;
+            }
+            Ocupacion ocupacion = porVeterinario.get(veterinarioId);
+            ocupacion.quitar(citaId);
+            if (ocupacion.estaVacia()) {
+                porVeterinario.remove(veterinarioId);
+            }
+        }
+    }
+
+    /**
+     * Minutos ocupados de un veterinario en un día: un bit por minuto más los tramos de cada
+     * cita, para poder quitar una sin borrar el solapamiento con otra
+     */
+    private static final class Ocupacion {
+        final Map<Integer, int[]> tramos = new HashMap<>();
+        final BitSet minutos = new BitSet(MINUTOS_DIA);
+
+        void agregar(Integer citaId, int inicio, int fin) {
+            tramos.put(citaId, new int[] {inicio, fin});
+            minutos.set(inicio, fin);
+        }
+
+        void quitar(Integer citaId) {
+            if (tramos.remove(citaId) != null) {
+                minutos.clear();
+                for (int[] tramo : tramos.values()) {
+                    minutos.set(tramo[0], tramo[1]);
+                }
+            }
+        }
+
+        boolean estaVacia() {
+            return tramos.isEmpty();
+        }
+
+        boolean libre(int inicio, int fin, Integer excluirCitaId) {
+            if (excluirCitaId == null || !tramos.containsKey(excluirCitaId)) {
+                int ocupado = minutos.nextSetBit(inicio);
+                return ocupado < 0 || ocupado >= fin;
+            }
+            for (Map.Entry<Integer, int[]> tramo : tramos.entrySet()) {
+                if (!tramo.getKey().equals(excluirCitaId) && tramo.getValue()[0] < fin && inicio < tramo.getValue()[1]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Primer minuto >= desde (múltiplo del paso) con 'duracion' minutos libres que terminan
+         * a más tardar en 'limite', o -1
+         */
+        int primerHueco(int desde, int limite, int duracion) {
+            int minuto = desde;
+            while (true) {
+                minuto = alinearAlPaso(minutos.nextClearBit(minuto));
+                if (minuto + duracion > limite) {
+                    return -1;
+                }
+                int ocupado = minutos.nextSetBit(minuto);
+                if (ocupado < 0 || ocupado >= minuto + duracion) {
+                    return minuto;
+                }
+                minuto = ocupado;
+            }
+        }
+    }
+}
@@ -3,11 +3,21 @@ package com.happyfeet.dao;
 import com.happyfeet.model.BaseEntity;
 import com.happyfeet.exception.VeterinariaException;
 import com.happyfeet.util.DatabaseConnection;
+import com.happyfeet.util.EntityCache;
+import com.happyfeet.util.PoliticaCache;
+import com.happyfeet.util.TransactionManager;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.util.logging.Logger;
 
 /**
@@ -16,14 +26,156 @@ import java.util.logging.Logger;
  * Patrón DAO: separa la lógica de acceso a datos de la lógica de negocio
  */
 public abstract class BaseDAO<T extends BaseEntity> {
-    protected Connection connection;
+    /** Tamaño de lote por defecto para inserciones/actualizaciones masivas */
+    public static final int TAMANO_LOTE_POR_DEFECTO = 500;
+    /** Filas que el cursor de streamAll trae por viaje a la BD */
+    protected static final int TAMANO_FETCH = 500;
+    
+    // Caché por ID de cada tipo de DAO que la activa, compartida por todas sus instancias
+    private static final Map<Class<?>, EntityCache<Integer, ?>> cachesPorTipo = new ConcurrentHashMap<>();
+    
+    private final DatabaseConnection database;
     protected final Logger logger;
     
+    // SQL y caché por ID de este DAO, armados en el primer uso y no en el constructor:
+    // dependen de métodos que las subclases sobrescriben
+    private volatile Sentencias<T> sentencias;
+    
     public BaseDAO() throws VeterinariaException {
-        this.connection = DatabaseConnection.getInstance().getConnection();
+        this.database = DatabaseConnection.getInstance();
         this.logger = Logger.getLogger(getClass().getName());
     }
     
+    /**
+     * SQL precalculado una sola vez por DAO; el pool cachea la sentencia preparada por texto
+     */
+    private static final class Sentencias<T> {
+        final String findById;
+        final String findAll;
+        final String findPage;
+        final String streamAll;
+        final String count;
+        final String delete;
+        final String insert;
+        final String update;
+        final EntityCache<Integer, T> cachePorId;
+        
+        Sentencias(String tabla, boolean borradoLogico, String insert, String update,
+                   EntityCache<Integer, T> cachePorId) {
+            // Las tablas sin columna 'activo' no filtran ni admiten borrado lógico
+            String soloActivos = borradoLogico ? " WHERE activo = TRUE" : "";
+            this.findById = "SELECT * FROM " + tabla + " WHERE id = ?" + (borradoLogico ? " AND activo = TRUE" : "");
+            this.findAll = "SELECT * FROM " + tabla + soloActivos;
+            this.findPage = "SELECT * FROM " + tabla + " WHERE " + (borradoLogico ? "activo = TRUE AND " : "") +
+                            "id > ? ORDER BY id LIMIT ?";
+            this.streamAll = "SELECT * FROM " + tabla + soloActivos + " ORDER BY id";
+            this.count = "SELECT COUNT(*) FROM " + tabla + soloActivos;
+            this.delete = borradoLogico ? "UPDATE " + tabla + " SET activo = FALSE WHERE id = ?" : null;
+            this.insert = insert;
+            this.update = update;
+            this.cachePorId = cachePorId;
+        }
+    }
+    
+    private Sentencias<T> sentencias() {
+        Sentencias<T> actuales = sentencias;
+        if (actuales == null) {
+            // Si dos hilos llegan a la vez arman lo mismo: la caché sale del mapa por tipo
+            actuales = new Sentencias<>(getTableName(), usaBorradoLogico(), getInsertSQL(), getUpdateSQL(),
+                                        crearCachePorId());
+            sentencias = actuales;
+        }
+        return actuales;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private EntityCache<Integer, T> crearCachePorId() {
+        PoliticaCache politica = getPoliticaCache();
+        if (politica == null) {
+            return null;
+        }
+        return (EntityCache<Integer, T>) cachesPorTipo.computeIfAbsent(getClass(),
+            tipo -> politica.<Integer, T>crearCache(getTableName()));
+    }
+    
+    /**
+     * Indica si la tabla tiene columna 'activo' para borrado lógico. Las subclases cuya
+     * tabla no la tiene devuelven false: las consultas no filtran y delete() no se admite.
+     */
+    protected boolean usaBorradoLogico() {
+        return true;
+    }
+    
+    /**
+     * Política de la caché por ID de findById. Por defecto no hay caché; las subclases
+     * cuyas entidades se leen varias veces por operación la activan devolviendo una política.
+     * Las entidades cacheadas se comparten entre llamadas: quien modifique una debe guardarla.
+     */
+    protected PoliticaCache getPoliticaCache() {
+        return null;
+    }
+    
+    /**
+     * Métricas de las cachés por ID de todos los DAO que la tienen activa
+     */
+    public static List<EntityCache.Estadisticas> getEstadisticasCaches() {
+        List<EntityCache.Estadisticas> estadisticas = new ArrayList<>();
+        for (EntityCache<Integer, ?> cache : cachesPorTipo.values()) {
+            estadisticas.add(cache.getEstadisticas());
+        }
+        return estadisticas;
+    }
+    
+    /**
+     * Toma una conexión del pool para una operación; cerrarla la devuelve al pool
+     */
+    protected Connection getConnection() throws SQLException {
+        return database.getConnection();
+    }
+    
+    /**
+     * Ejecuta una lectura idempotente reintentando con otra conexión si la actual se cae
+     */
+    protected <R> R ejecutarLectura(DatabaseConnection.OperacionSql<R> operacion) throws SQLException {
+        return database.ejecutarLectura(operacion);
+    }
+    
+    /**
+     * Asigna los parámetros de un elemento a la sentencia antes de addBatch()
+     */
+    @FunctionalInterface
+    protected interface AsignadorLote<E> {
+        void asignar(PreparedStatement ps, E elemento) throws SQLException;
+    }
+    
+    /**
+     * Se invoca tras insertar, actualizar o eliminar la entidad con el ID dado.
+     * La caché por ID ya se invalida sola; las subclases con cachés propias (listados)
+     * la sobrescriben para invalidarlas.
+     */
+    protected void alModificar(Integer id) {
+    }
+    
+    /**
+     * Avisa la modificación ahora y, dentro de una transacción, otra vez al terminarla:
+     * una lectura concurrente anterior al commit pudo volver a cachear el valor viejo.
+     * Las subclases la llaman desde sus propios UPDATE.
+     */
+    protected void notificarModificacion(Integer id) {
+        invalidarCaches(id);
+        if (TransactionManager.enTransaccion()) {
+            TransactionManager.alTerminar(() -> invalidarCaches(id));
+        }
+    }
+    
+    private void invalidarCaches(Integer id) {
+        EntityCache<Integer, T> cachePorId = sentencias().cachePorId;
+        if (cachePorId != null) {
+            cachePorId.invalidar(id);
+        }
+        alModificar(id);
+    }
+    
     // Métodos abstractos que deben implementar las subclases
     protected abstract String getTableName();
     protected abstract T mapResultSetToEntity(ResultSet rs) throws SQLException;
@@ -36,16 +188,37 @@ public abstract class BaseDAO<T extends BaseEntity> {
      * Busca una entidad por su ID
      */
     public Optional<T> findById(Integer id) throws VeterinariaException {
-        String sql = "SELECT * FROM " + getTableName() + " WHERE id = ? AND activo = TRUE";
+        EntityCache<Integer, T> cachePorId = sentencias().cachePorId;
+        if (cachePorId == null) {
+            return findByIdEnBD(id);
+        }
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setInt(1, id);
-            ResultSet rs = ps.executeQuery();
-            
-            if (rs.next()) {
-                return Optional.of(mapResultSetToEntity(rs));
-            }
-            return Optional.empty();
+        long generacion = cachePorId.getGeneracion();
+        T cacheada = cachePorId.get(id);
+        if (cacheada != null) {
+            return Optional.of(cacheada);
+        }
+        
+        Optional<T> entidad = findByIdEnBD(id);
+        entidad.ifPresent(e -> cachePorId.put(id, e, generacion));
+        return entidad;
+    }
+    
+    private Optional<T> findByIdEnBD(Integer id) throws VeterinariaException {
+        String sql = sentencias().findById;
+        
+        try {
+            return ejecutarLectura(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                    ps.setInt(1, id);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) {
+                            return Optional.of(mapResultSetToEntity(rs));
+                        }
+                        return Optional.<T>empty();
+                    }
+                }
+            });
             
         } catch (SQLException e) {
             logger.severe("Error al buscar por ID: " + e.getMessage());
@@ -59,16 +232,19 @@ public abstract class BaseDAO<T extends BaseEntity> {
      * Usa Stream API para procesamiento funcional de datos
      */
     public List<T> findAll() throws VeterinariaException {
-        List<T> entities = new ArrayList<>();
-        String sql = "SELECT * FROM " + getTableName() + " WHERE activo = TRUE";
+        String sql = sentencias().findAll;
         
-        try (PreparedStatement ps = connection.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            
-            while (rs.next()) {
-                entities.add(mapResultSetToEntity(rs));
-            }
-            return entities;
+        try {
+            return ejecutarLectura(connection -> {
+                List<T> entities = new ArrayList<>();
+                try (PreparedStatement ps = connection.prepareStatement(sql);
+                     ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        entities.add(mapResultSetToEntity(rs));
+                    }
+                }
+                return entities;
+            });
             
         } catch (SQLException e) {
             logger.severe("Error al obtener todos los registros: " + e.getMessage());
@@ -77,6 +253,125 @@ public abstract class BaseDAO<T extends BaseEntity> {
         }
     }
     
+    /**
+     * Obtiene una página de entidades activas por keyset (id > despuesDeId, en orden de id).
+     * A diferencia de OFFSET, el costo no crece con el número de página.
+     *
+     * @param despuesDeId último ID de la página anterior, o null para la primera página
+     */
+    public List<T> findPage(Integer despuesDeId, int limite) throws VeterinariaException {
+        if (limite <= 0) {
+            throw new VeterinariaException("El tamaño de página debe ser mayor a 0", 
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+        String sql = sentencias().findPage;
+        
+        try {
+            return ejecutarLectura(connection -> {
+                List<T> pagina = new ArrayList<>(limite);
+                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                    ps.setInt(1, despuesDeId != null ? despuesDeId : 0);
+                    ps.setInt(2, limite);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            pagina.add(mapResultSetToEntity(rs));
+                        }
+                    }
+                }
+                return pagina;
+            });
+            
+        } catch (SQLException e) {
+            logger.severe("Error al obtener página de registros: " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al obtener página de registros", 
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
+    
+    /**
+     * Recorre todas las entidades activas con un cursor de solo avance que trae
+     * TAMANO_FETCH filas por viaje, sin materializar la tabla en memoria.
+     * La conexión queda tomada hasta cerrar el Stream: usar siempre try-with-resources.
+     */
+    public Stream<T> streamAll() throws VeterinariaException {
+        return abrirCursor(sentencias().streamAll, ps -> { }, this::mapResultSetToEntity);
+    }
+    
+    /**
+     * Asigna los parámetros de una consulta antes de ejecutarla
+     */
+    @FunctionalInterface
+    protected interface AsignadorParametros {
+        void asignar(PreparedStatement ps) throws SQLException;
+    }
+    
+    /**
+     * Convierte la fila actual del cursor en un objeto
+     */
+    @FunctionalInterface
+    protected interface MapeadorFila<R> {
+        R mapear(ResultSet rs) throws SQLException;
+    }
+    
+    /**
+     * Ejecuta una consulta con un cursor de solo avance (TAMANO_FETCH filas por viaje)
+     * y expone sus filas como Stream. La conexión queda tomada hasta cerrar el Stream.
+     * Un error de BD a mitad del recorrido se lanza como IllegalStateException.
+     */
+    protected <R> Stream<R> abrirCursor(String sql, AsignadorParametros asignador, MapeadorFila<R> mapeador) 
+            throws VeterinariaException {
+        Connection connection = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            connection = getConnection();
+            ps = connection.prepareStatement(sql);
+            ps.setFetchSize(TAMANO_FETCH);
+            asignador.asignar(ps);
+            rs = ps.executeQuery();
+            
+        } catch (SQLException e) {
+            cerrarRecursos(rs, ps, connection);
+            logger.severe("Error al abrir cursor de registros: " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al recorrer registros", 
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+        
+        ResultSet cursor = rs;
+        Spliterator<R> spliterator = new Spliterators.AbstractSpliterator<R>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super R> accion) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    accion.accept(mapeador.mapear(cursor));
+                    return true;
+                } catch (SQLException e) {
+                    logger.severe("Error al recorrer registros: " + e.getMessage());
+                    throw new IllegalStateException("Error en operación de BD al recorrer " + getTableName(), e);
+                }
+            }
+        };
+        
+        AutoCloseable[] recursos = { rs, ps, connection };
+        return StreamSupport.stream(spliterator, false).onClose(() -> cerrarRecursos(recursos));
+    }
+    
+    private void cerrarRecursos(AutoCloseable... recursos) {
+        for (AutoCloseable recurso : recursos) {
+            if (recurso == null) {
+                continue;
+            }
+            try {
+                recurso.close();
+            } catch (Exception e) {
+                logger.warning("Error al cerrar recurso de BD: " + e.getMessage());
+            }
+        }
+    }
+    
     /**
      * Guarda una entidad (insert o update según si tiene ID)
      */
@@ -92,9 +387,10 @@ public abstract class BaseDAO<T extends BaseEntity> {
      * Inserta una nueva entidad en la base de datos
      */
     protected T insert(T entity) throws VeterinariaException {
-        String sql = getInsertSQL();
+        String sql = sentencias().insert;
         
-        try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             setPreparedStatementInsert(ps, entity);
             ps.executeUpdate();
             
@@ -104,6 +400,7 @@ public abstract class BaseDAO<T extends BaseEntity> {
                     entity.setId(generatedKeys.getInt(1));
                 }
             }
+            notificarModificacion(entity.getId());
             
             logger.info("Entidad creada: " + entity);
             return entity;
@@ -115,13 +412,142 @@ public abstract class BaseDAO<T extends BaseEntity> {
         }
     }
     
+    /**
+     * Guarda una lista de entidades por lotes: las nuevas se insertan y las existentes
+     * se actualizan, con un viaje a la BD por lote en lugar de uno por entidad
+     */
+    public List<T> saveAll(List<T> entities) throws VeterinariaException {
+        List<T> nuevas = new ArrayList<>();
+        List<T> existentes = new ArrayList<>();
+        for (T entity : entities) {
+            (entity.getId() == null ? nuevas : existentes).add(entity);
+        }
+        
+        if (!nuevas.isEmpty()) {
+            insertBatch(nuevas, TAMANO_LOTE_POR_DEFECTO);
+        }
+        if (!existentes.isEmpty()) {
+            updateBatch(existentes, TAMANO_LOTE_POR_DEFECTO);
+        }
+        return entities;
+    }
+    
+    /**
+     * Inserta entidades con addBatch/executeBatch en lotes del tamaño indicado.
+     * Asigna a cada entidad su ID generado y los devuelve en el mismo orden.
+     */
+    public List<Integer> insertBatch(List<T> entities, int tamanoLote) throws VeterinariaException {
+        List<Integer> ids = new ArrayList<>(entities.size());
+        ejecutarLote(sentencias().insert, entities, tamanoLote, ids, this::setPreparedStatementInsert);
+        
+        for (int i = 0; i < entities.size(); i++) {
+            entities.get(i).setId(ids.get(i));
+            notificarModificacion(ids.get(i));
+        }
+        
+        logger.info("Entidades creadas por lote: " + entities.size() + " en " + getTableName());
+        return ids;
+    }
+    
+    /**
+     * Actualiza entidades existentes con addBatch/executeBatch
+     */
+    protected void updateBatch(List<T> entities, int tamanoLote) throws VeterinariaException {
+        int[] resultados;
+        try {
+            resultados = ejecutarLote(sentencias().update, entities, tamanoLote, null, this::setPreparedStatementUpdate);
+        } finally {
+            entities.forEach(entity -> notificarModificacion(entity.getId()));
+        }
+        
+        for (int i = 0; i < resultados.length; i++) {
+            if (resultados[i] == 0) {
+                throw new VeterinariaException("No se encontró la entidad con ID: " + entities.get(i).getId(), 
+                                             VeterinariaException.ErrorType.NOT_FOUND_ERROR);
+            }
+        }
+        
+        logger.info("Entidades actualizadas por lote: " + entities.size() + " en " + getTableName());
+    }
+    
+    /**
+     * Ejecuta una sentencia por lotes sobre una sola conexión y en una sola transacción.
+     * Si idsGenerados no es null, se llena con las claves generadas en el orden de los elementos.
+     *
+     * @return el conteo de filas afectadas por cada elemento
+     */
+    protected <E> int[] ejecutarLote(String sql, List<E> elementos, int tamanoLote, List<Integer> idsGenerados,
+                                     AsignadorLote<E> asignador) throws VeterinariaException {
+        if (tamanoLote <= 0) {
+            throw new VeterinariaException("El tamaño de lote debe ser mayor a 0", 
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+        int[] resultados = new int[elementos.size()];
+        if (elementos.isEmpty()) {
+            return resultados;
+        }
+        int clavesPrevias = idsGenerados != null ? idsGenerados.size() : 0;
+        
+        try (Connection connection = getConnection()) {
+            boolean transaccionPropia = connection.getAutoCommit();
+            if (transaccionPropia) {
+                connection.setAutoCommit(false);
+            }
+            
+            try (PreparedStatement ps = idsGenerados != null
+                     ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                     : connection.prepareStatement(sql)) {
+                
+                for (int inicio = 0; inicio < elementos.size(); inicio += tamanoLote) {
+                    int fin = Math.min(inicio + tamanoLote, elementos.size());
+                    for (E elemento : elementos.subList(inicio, fin)) {
+                        asignador.asignar(ps, elemento);
+                        ps.addBatch();
+                    }
+                    
+                    int[] conteos = ps.executeBatch();
+                    System.arraycopy(conteos, 0, resultados, inicio, conteos.length);
+                    
+                    if (idsGenerados != null) {
+                        try (ResultSet generatedKeys = ps.getGeneratedKeys()) {
+                            while (generatedKeys.next()) {
+                                idsGenerados.add(generatedKeys.getInt(1));
+                            }
+                        }
+                        if (idsGenerados.size() - clavesPrevias != fin) {
+                            throw new SQLException("La BD devolvió " + (idsGenerados.size() - clavesPrevias) + 
+                                                   " claves generadas para " + fin + " filas insertadas");
+                        }
+                    }
+                }
+                
+                if (transaccionPropia) {
+                    connection.commit();
+                }
+                return resultados;
+                
+            } catch (SQLException e) {
+                if (transaccionPropia) {
+                    connection.rollback();
+                }
+                throw e;
+            }
+            
+        } catch (SQLException e) {
+            logger.severe("Error al ejecutar lote en " + getTableName() + ": " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al ejecutar lote", 
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
+    
     /**
      * Actualiza una entidad existente
      */
     protected T update(T entity) throws VeterinariaException {
-        String sql = getUpdateSQL();
+        String sql = sentencias().update;
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             setPreparedStatementUpdate(ps, entity);
             int affectedRows = ps.executeUpdate();
             
@@ -137,6 +563,9 @@ public abstract class BaseDAO<T extends BaseEntity> {
             logger.severe("Error al actualizar entidad: " + e.getMessage());
             throw new VeterinariaException("Error en operación de BD al actualizar", 
                                          e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        } finally {
+            // También si falla: la instancia cacheada pudo quedar modificada sin guardarse
+            notificarModificacion(entity.getId());
         }
     }
     
@@ -144,11 +573,17 @@ public abstract class BaseDAO<T extends BaseEntity> {
      * Eliminación lógica (soft delete) de una entidad
      */
     public void delete(Integer id) throws VeterinariaException {
-        String sql = "UPDATE " + getTableName() + " SET activo = FALSE WHERE id = ?";
+        String sql = sentencias().delete;
+        if (sql == null) {
+            throw new VeterinariaException("Los registros de " + getTableName() + " no admiten eliminación", 
+                                         VeterinariaException.ErrorType.BUSINESS_RULE_ERROR);
+        }
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, id);
             int affectedRows = ps.executeUpdate();
+            notificarModificacion(id);
             
             if (affectedRows == 0) {
                 throw new VeterinariaException("No se encontró el registro con ID: " + id, 
@@ -168,15 +603,15 @@ public abstract class BaseDAO<T extends BaseEntity> {
      * Cuenta el total de entidades activas
      */
     public long count() throws VeterinariaException {
-        String sql = "SELECT COUNT(*) FROM " + getTableName() + " WHERE activo = TRUE";
+        String sql = sentencias().count;
         
-        try (PreparedStatement ps = connection.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            
-            if (rs.next()) {
-                return rs.getLong(1);
-            }
-            return 0;
+        try {
+            return ejecutarLectura(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(sql);
+                     ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getLong(1) : 0L;
+                }
+            });
             
         } catch (SQLException e) {
             logger.severe("Error al contar registros: " + e.getMessage());
@@ -0,0 +1,76 @@
+package com.happyfeet.dao;
+
+import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DAO de solo lectura para las tablas de catálogo (id, nombre)
+ * Las tablas de catálogo no tienen borrado lógico ni se modifican desde la aplicación.
+ */
+public class CatalogoDAO {
+    private final DatabaseConnection database;
+    protected final java.util.logging.Logger logger;
+
+    /**
+     * Tablas de catálogo referenciadas por id desde las demás entidades
+     */
+    public enum Catalogo {
+        ESPECIES("especies"),
+        RAZAS("razas"),
+        PRODUCTO_TIPOS("producto_tipos"),
+        EVENTO_TIPOS("evento_tipos"),
+        CITA_ESTADOS("cita_estados");
+
+        private final String tabla;
+        private final String sqlCargar;
+
+        Catalogo(String tabla) {
+            this.tabla = tabla;
+            this.sqlCargar = "SELECT id, nombre FROM " + tabla + " ORDER BY id";
+        }
+
+        public String getTabla() {
+            return tabla;
+        }
+    }
+
+    public CatalogoDAO() throws VeterinariaException {
+        this.database = DatabaseConnection.getInstance();
+        this.logger = java.util.logging.Logger.getLogger(getClass().getName());
+    }
+
+    /**
+     * Carga los nombres de un catálogo en un arreglo indexado por id.
+     * Las posiciones sin fila quedan en null.
+     */
+    public String[] cargarNombres(Catalogo catalogo) throws VeterinariaException {
+        try {
+            return database.ejecutarLectura(connection -> {
+                List<Integer> ids = new ArrayList<>();
+                List<String> nombres = new ArrayList<>();
+                try (PreparedStatement ps = connection.prepareStatement(catalogo.sqlCargar);
+                     ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getInt("id"));
+                        nombres.add(rs.getString("nombre"));
+                    }
+                }
+
+                // Filas ordenadas por id: el último id es el máximo
+                String[] porId = new String[ids.isEmpty() ? 0 : ids.get(ids.size() - 1) + 1];
+                for (int i = 0; i < ids.size(); i++) {
+                    porId[ids.get(i)] = nombres.get(i);
+                }
+                return porId;
+            });
+        } catch (SQLException e) {
+            logger.severe("Error al cargar catálogo " + catalogo.getTabla() + ": " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al cargar catálogo " + catalogo.getTabla(),
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
+}
@@ -3,20 +3,70 @@ package com.happyfeet.dao;
 import com.happyfeet.model.Cita;
 import com.happyfeet.exception.VeterinariaException;
 import com.happyfeet.util.DatabaseConnection;
+import com.happyfeet.util.PoliticaCache;
+import com.happyfeet.util.RangoFechas;
+import com.happyfeet.util.TransactionManager;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.logging.Logger;
 
 public class CitaDAO extends BaseDAO<Cita> {
     
+    // Estados que ocupan la agenda del veterinario, por su nombre en cita_estados: las consultas
+    // los resuelven con una subconsulta y ocupaAgenda con los IDs leídos una vez del catálogo
+    public static final List<String> ESTADOS_OCUPAN_AGENDA = List.of("Programada", "Confirmada", "En Proceso");
+    private static final String PREDICADO_OCUPA_AGENDA = 
+        "estado_id IN (SELECT id FROM cita_estados WHERE nombre IN (" +
+        ESTADOS_OCUPAN_AGENDA.stream().map(nombre -> "'" + nombre + "'").collect(Collectors.joining(", ")) + "))";
+    
+    static final String SQL_TRAMOS_ACTIVOS = 
+        "SELECT id, veterinario_id, fecha_hora, estado_id FROM citas " +
+        "WHERE veterinario_id IS NOT NULL AND " + PREDICADO_OCUPA_AGENDA + " AND " +
+        RangoFechas.predicado("fecha_hora");
+    // Por idx_veterinario_fecha; FOR UPDATE bloquea también el hueco del índice en ese tramo
+    static final String SQL_SOLAPADAS = 
+        "SELECT id FROM citas WHERE veterinario_id = ? AND fecha_hora > ? AND fecha_hora < ? AND id <> ? AND " +
+        PREDICADO_OCUPA_AGENDA + " FOR UPDATE";
+    static final String SQL_POR_RANGO_FECHAS = 
+        "SELECT * FROM citas WHERE " + RangoFechas.predicado("fecha_hora") + " ORDER BY fecha_hora";
+    private static final String SQL_TRAMO = 
+        "SELECT id, veterinario_id, fecha_hora, estado_id FROM citas WHERE id = ?";
+    
+    // IDs de ESTADOS_OCUPAN_AGENDA, leídos de cita_estados en el primer uso
+    private static volatile Set<Integer> idsEstadosOcupanAgenda;
+    
     public CitaDAO() throws VeterinariaException {
         super();
     }
+    
+    /**
+     * Caché por ID: actualizar una cita lee primero la misma cita (findById y luego update).
+     * Los fallos de la caché leen con el findById de BaseDAO, que en citas no filtra por
+     * 'activo' (ver usaBorradoLogico): también se cachean las citas canceladas, que se
+     * distinguen por su estado_id.
+     */
+    @Override
+    protected PoliticaCache getPoliticaCache() {
+        return new PoliticaCache(Integer.getInteger("happyfeet.cache.citas.max", 1000),
+                                 Long.getLong("happyfeet.cache.citas.ttlSeg", 60), TimeUnit.SECONDS, true);
+    }
 
+    /**
+     * La tabla citas no tiene columna 'activo': una cita se cancela cambiando su estado
+     */
+    @Override
+    protected boolean usaBorradoLogico() {
+        return false;
+    }
+    
     @Override
     protected String getTableName() {
         return "citas";
@@ -114,7 +164,8 @@ public class CitaDAO extends BaseDAO<Cita> {
         List<Cita> citas = new ArrayList<>();
         String sql = "SELECT * FROM " + getTableName() + " WHERE mascota_id = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, mascotaId);
             ResultSet rs = ps.executeQuery();
             
@@ -137,7 +188,8 @@ public class CitaDAO extends BaseDAO<Cita> {
         List<Cita> citas = new ArrayList<>();
         String sql = "SELECT * FROM " + getTableName() + " WHERE veterinario_id = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, veterinarioId);
             ResultSet rs = ps.executeQuery();
             
@@ -160,7 +212,8 @@ public class CitaDAO extends BaseDAO<Cita> {
         List<Cita> citas = new ArrayList<>();
         String sql = "SELECT * FROM " + getTableName() + " WHERE estado_id = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, estadoId);
             ResultSet rs = ps.executeQuery();
             
@@ -177,15 +230,21 @@ public class CitaDAO extends BaseDAO<Cita> {
     }
     
     /**
-     * Busca citas por rango de fechas
+     * Busca citas desde fechaInicio (incluida) hasta fechaFin (excluida)
      */
     public List<Cita> findByFechaRange(LocalDateTime fechaInicio, LocalDateTime fechaFin) throws VeterinariaException {
+        return findByRango(RangoFechas.entre(fechaInicio, fechaFin));
+    }
+    
+    /**
+     * Busca citas dentro del rango, ordenadas por fecha
+     */
+    public List<Cita> findByRango(RangoFechas rango) throws VeterinariaException {
         List<Cita> citas = new ArrayList<>();
-        String sql = "SELECT * FROM " + getTableName() + " WHERE fecha_hora BETWEEN ? AND ? ORDER BY fecha_hora";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setTimestamp(1, Timestamp.valueOf(fechaInicio));
-            ps.setTimestamp(2, Timestamp.valueOf(fechaFin));
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(SQL_POR_RANGO_FECHAS)) {
+            rango.asignar(ps, 1);
             ResultSet rs = ps.executeQuery();
             
             while (rs.next()) {
@@ -204,22 +263,7 @@ public class CitaDAO extends BaseDAO<Cita> {
      * Obtiene citas programadas para hoy
      */
     public List<Cita> findCitasHoy() throws VeterinariaException {
-        List<Cita> citas = new ArrayList<>();
-        String sql = "SELECT * FROM " + getTableName() + " WHERE DATE(fecha_hora) = CURDATE() ORDER BY fecha_hora";
-        
-        try (PreparedStatement ps = connection.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            
-            while (rs.next()) {
-                citas.add(mapResultSetToEntity(rs));
-            }
-            return citas;
-            
-        } catch (SQLException e) {
-            logger.severe("Error al buscar citas de hoy: " + e.getMessage());
-            throw new VeterinariaException("Error al buscar citas de hoy", 
-                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
-        }
+        return findByRango(RangoFechas.hoy());
     }
     
     /**
@@ -228,11 +272,13 @@ public class CitaDAO extends BaseDAO<Cita> {
     public void actualizarEstado(Integer citaId, Integer nuevoEstadoId) throws VeterinariaException {
         String sql = "UPDATE citas SET estado_id = ? WHERE id = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, nuevoEstadoId);
             ps.setInt(2, citaId);
             
             int affectedRows = ps.executeUpdate();
+            notificarModificacion(citaId);
             
             if (affectedRows == 0) {
                 throw new VeterinariaException("No se encontró la cita con ID: " + citaId, 
@@ -249,29 +295,149 @@ public class CitaDAO extends BaseDAO<Cita> {
     }
     
     /**
-     * Verifica disponibilidad de veterinario en una fecha/hora
+     * Verifica que el veterinario no tenga otra cita activa que se solape con una cita
+     * en esa fecha/hora (consulta la agenda en memoria)
      */
     public boolean verificarDisponibilidadVeterinario(Integer veterinarioId, LocalDateTime fechaHora) throws VeterinariaException {
-        String sql = "SELECT COUNT(*) FROM " + getTableName() + 
-                    " WHERE veterinario_id = ? AND fecha_hora = ? AND estado_id IN (1, 2, 3)"; // Programada, Confirmada, En Proceso
-        
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        return AgendaVeterinarios.getInstance().estaDisponible(veterinarioId, fechaHora, 
+                                                               AgendaVeterinarios.DURACION_CITA_MIN, null);
+    }
+    
+    /**
+     * Citas activas con veterinario asignado que empiezan en [desde, hasta); solo se cargan
+     * los campos que usa la agenda (id, veterinario, fecha/hora y estado)
+     */
+    List<Cita> findTramosActivos(LocalDateTime desde, LocalDateTime hasta) throws VeterinariaException {
+        try {
+            return ejecutarLectura(connection -> {
+                List<Cita> citas = new ArrayList<>();
+                try (PreparedStatement ps = connection.prepareStatement(SQL_TRAMOS_ACTIVOS)) {
+                    RangoFechas.entre(desde, hasta).asignar(ps, 1);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            citas.add(mapearTramo(rs));
+                        }
+                    }
+                }
+                return citas;
+            });
+        } catch (SQLException e) {
+            logger.severe("Error al cargar la agenda de citas: " + e.getMessage());
+            throw new VeterinariaException("Error al cargar la agenda de citas", 
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
+    
+    /**
+     * La cita con ese ID en cualquier estado (solo los campos de la agenda)
+     */
+    Optional<Cita> findTramo(Integer citaId) throws VeterinariaException {
+        try {
+            return ejecutarLectura(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(SQL_TRAMO)) {
+                    ps.setInt(1, citaId);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        return rs.next() ? Optional.of(mapearTramo(rs)) : Optional.<Cita>empty();
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            logger.severe("Error al leer la cita " + citaId + " para la agenda: " + e.getMessage());
+            throw new VeterinariaException("Error al leer la cita para la agenda", 
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
+    
+    /**
+     * Bloquea hasta el fin de la transacción en curso las citas activas del veterinario que se
+     * solapan con [inicio, inicio + duracionMinutos), contando cada cita existente con
+     * AgendaVeterinarios.DURACION_CITA_MIN, y devuelve sus IDs (sin la cita excluida, null si
+     * es nueva). El bloqueo cubre también el tramo vacío del índice: otra instancia de la
+     * aplicación no puede reservar ese horario hasta que la transacción termine.
+     */
+    public List<Integer> bloquearSolapadas(Integer veterinarioId, LocalDateTime inicio, int duracionMinutos,
+                                           Integer excluirCitaId) throws VeterinariaException {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(SQL_SOLAPADAS)) {
             ps.setInt(1, veterinarioId);
-            ps.setTimestamp(2, Timestamp.valueOf(fechaHora));
-            ResultSet rs = ps.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getInt(1) == 0; // Disponible si no hay citas en ese horario
+            ps.setTimestamp(2, Timestamp.valueOf(inicio.minusMinutes(AgendaVeterinarios.DURACION_CITA_MIN)));
+            ps.setTimestamp(3, Timestamp.valueOf(inicio.plusMinutes(duracionMinutos)));
+            ps.setInt(4, excluirCitaId != null ? excluirCitaId : 0);
+            List<Integer> ids = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt("id"));
+                }
             }
-            return true;
+            return ids;
             
         } catch (SQLException e) {
-            logger.severe("Error al verificar disponibilidad: " + e.getMessage());
-            throw new VeterinariaException("Error al verificar disponibilidad del veterinario", 
+            logger.severe("Error al bloquear el horario del veterinario: " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al verificar el horario del veterinario", 
                                          e, VeterinariaException.ErrorType.DATABASE_ERROR);
         }
     }
     
+    /**
+     * Indica si la cita ocupa la agenda de su veterinario (tiene veterinario y uno de los
+     * ESTADOS_OCUPAN_AGENDA)
+     */
+    public static boolean ocupaAgenda(Cita cita) throws VeterinariaException {
+        return cita.getVeterinarioId() != null && cita.getFechaHora() != null 
+            && idsEstadosOcupanAgenda().contains(cita.getEstadoId());
+    }
+    
+    private static Set<Integer> idsEstadosOcupanAgenda() throws VeterinariaException {
+        Set<Integer> ids = idsEstadosOcupanAgenda;
+        if (ids == null) {
+            // El catálogo no cambia en ejecución: si dos hilos lo leen a la vez obtienen lo mismo
+            String[] nombresPorId = new CatalogoDAO().cargarNombres(CatalogoDAO.Catalogo.CITA_ESTADOS);
+            Set<Integer> encontrados = new HashSet<>();
+            for (int id = 0; id < nombresPorId.length; id++) {
+                if (ESTADOS_OCUPAN_AGENDA.contains(nombresPorId[id])) {
+                    encontrados.add(id);
+                }
+            }
+            if (encontrados.size() != ESTADOS_OCUPAN_AGENDA.size()) {
+                throw new VeterinariaException("cita_estados no tiene todos los estados que ocupan la agenda: " + 
+                                             ESTADOS_OCUPAN_AGENDA, VeterinariaException.ErrorType.DATABASE_ERROR);
+            }
+            ids = Set.copyOf(encontrados);
+            idsEstadosOcupanAgenda = ids;
+        }
+        return ids;
+    }
+    
+    private Cita mapearTramo(ResultSet rs) throws SQLException {
+        Cita cita = new Cita();
+        cita.setId(rs.getInt("id"));
+        int veterinarioId = rs.getInt("veterinario_id");
+        if (!rs.wasNull()) {
+            cita.setVeterinarioId(veterinarioId);
+        }
+        cita.setFechaHora(rs.getTimestamp("fecha_hora").toLocalDateTime());
+        cita.setEstadoId(rs.getInt("estado_id"));
+        return cita;
+    }
+    
+    /**
+     * Mantiene la agenda en memoria al día con cada insert, update, delete o cambio de estado.
+     * Dentro de una transacción espera a que termine (el aviso se repite al terminarla).
+     */
+    @Override
+    protected void alModificar(Integer id) {
+        AgendaVeterinarios agenda = AgendaVeterinarios.siCargada();
+        if (agenda == null || id == null || TransactionManager.enTransaccion()) {
+            return;
+        }
+        try {
+            agenda.recargarCita(id);
+        } catch (VeterinariaException e) {
+            logger.warning("No se pudo actualizar la agenda para la cita " + id + ": " + e.getMessage());
+            agenda.invalidarTodo();
+        }
+    }
+    
     /**
      * Método auxiliar para manejar valores String opcionales
      */
@@ -2,8 +2,10 @@ package com.happyfeet.dao;
 
 import com.happyfeet.model.ConsultaMedica;
 import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.util.RangoFechas;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -12,11 +14,31 @@ import java.util.Optional;
  * DAO para la gestión de consultas médicas en la base de datos
  */
 public class ConsultaMedicaDAO extends BaseDAO<ConsultaMedica> {
+    static final String SQL_POR_MASCOTA =
+        "SELECT * FROM consultas_medicas WHERE mascota_id = ? ORDER BY fecha_hora DESC, id DESC";
+    // Keyset sobre (fecha_hora, id): con mascota_id fijo, idx_mascota_fecha (que incluye el id)
+    // entrega las filas ya ordenadas y la página se corta en LIMIT sin filesort
+    static final String SQL_PAGINA_POR_MASCOTA =
+        "SELECT * FROM consultas_medicas WHERE mascota_id = ? " +
+        "AND (fecha_hora < ? OR (fecha_hora = ? AND id < ?)) " +
+        "ORDER BY fecha_hora DESC, id DESC LIMIT ?";
+    // Cursor de la primera página: posterior a cualquier fecha registrada
+    private static final LocalDateTime SIN_CURSOR = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    static final String SQL_POR_RANGO_FECHAS = 
+        "SELECT * FROM consultas_medicas WHERE " + RangoFechas.predicado("fecha_hora") + " ORDER BY fecha_hora DESC";
     
     public ConsultaMedicaDAO() throws VeterinariaException {
         super();
     }
 
+    /**
+     * La tabla consultas_medicas no tiene columna 'activo': las consultas no se eliminan
+     */
+    @Override
+    protected boolean usaBorradoLogico() {
+        return false;
+    }
+    
     @Override
     protected String getTableName() {
         return "consultas_medicas";
@@ -45,11 +67,6 @@ public class ConsultaMedicaDAO extends BaseDAO<ConsultaMedica> {
         consulta.setTemperatura(rs.getDouble("temperatura"));
         if (rs.wasNull()) consulta.setTemperatura(null);
         
-        Timestamp fechaRegistro = rs.getTimestamp("fecha_creacion");
-        if (fechaRegistro != null) {
-            consulta.setFechaRegistro(fechaRegistro.toLocalDateTime());
-        }
-        
         return consulta;
     }
 
@@ -138,9 +155,10 @@ public class ConsultaMedicaDAO extends BaseDAO<ConsultaMedica> {
      */
     public List<ConsultaMedica> findByMascotaId(Integer mascotaId) throws VeterinariaException {
         List<ConsultaMedica> consultas = new ArrayList<>();
-        String sql = "SELECT * FROM " + getTableName() + " WHERE mascota_id = ? ORDER BY fecha_hora DESC";
+        String sql = SQL_POR_MASCOTA;
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, mascotaId);
             ResultSet rs = ps.executeQuery();
             
@@ -156,6 +174,45 @@ public class ConsultaMedicaDAO extends BaseDAO<ConsultaMedica> {
         }
     }
     
+    /**
+     * Página de la línea de tiempo de una mascota, de lo más reciente a lo más antiguo.
+     * El cursor es la fecha y el ID del último registro de la página anterior; en la
+     * primera página ambos son null.
+     */
+    public List<ConsultaMedica> findPaginaPorMascota(Integer mascotaId, LocalDateTime antesDeFecha, Integer antesDeId,
+                                                     int limite) throws VeterinariaException {
+        if (limite <= 0) {
+            throw new VeterinariaException("El tamaño de página debe ser mayor a 0", 
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+        Timestamp fecha = Timestamp.valueOf(antesDeFecha != null ? antesDeFecha : SIN_CURSOR);
+        int id = antesDeFecha != null && antesDeId != null ? antesDeId : Integer.MAX_VALUE;
+        
+        try {
+            return ejecutarLectura(connection -> {
+                List<ConsultaMedica> pagina = new ArrayList<>(limite);
+                try (PreparedStatement ps = connection.prepareStatement(SQL_PAGINA_POR_MASCOTA)) {
+                    ps.setInt(1, mascotaId);
+                    ps.setTimestamp(2, fecha);
+                    ps.setTimestamp(3, fecha);
+                    ps.setInt(4, id);
+                    ps.setInt(5, limite);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            pagina.add(mapResultSetToEntity(rs));
+                        }
+                    }
+                }
+                return pagina;
+            });
+            
+        } catch (SQLException e) {
+            logger.severe("Error al obtener página de consultas por mascota: " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al obtener página de consultas por mascota", 
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
+    
     /**
      * Busca consultas médicas por ID de veterinario
      */
@@ -163,7 +220,8 @@ public class ConsultaMedicaDAO extends BaseDAO<ConsultaMedica> {
         List<ConsultaMedica> consultas = new ArrayList<>();
         String sql = "SELECT * FROM " + getTableName() + " WHERE veterinario_id = ? ORDER BY fecha_hora DESC";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, veterinarioId);
             ResultSet rs = ps.executeQuery();
             
@@ -184,11 +242,11 @@ public class ConsultaMedicaDAO extends BaseDAO<ConsultaMedica> {
      */
     public List<ConsultaMedica> findByFechaBetween(java.sql.Date startDate, java.sql.Date endDate) throws VeterinariaException {
         List<ConsultaMedica> consultas = new ArrayList<>();
-        String sql = "SELECT * FROM " + getTableName() + " WHERE DATE(fecha_hora) BETWEEN ? AND ? ORDER BY fecha_hora DESC";
+        RangoFechas rango = RangoFechas.dias(startDate.toLocalDate(), endDate.toLocalDate());
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setDate(1, startDate);
-            ps.setDate(2, endDate);
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(SQL_POR_RANGO_FECHAS)) {
+            rango.asignar(ps, 1);
             ResultSet rs = ps.executeQuery();
             
             while (rs.next()) {
@@ -209,7 +267,8 @@ public class ConsultaMedicaDAO extends BaseDAO<ConsultaMedica> {
     public long countByMascotaId(Integer mascotaId) throws VeterinariaException {
         String sql = "SELECT COUNT(*) FROM " + getTableName() + " WHERE mascota_id = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, mascotaId);
             ResultSet rs = ps.executeQuery();
             
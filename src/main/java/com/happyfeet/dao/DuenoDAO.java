@@ -2,21 +2,43 @@ package com.happyfeet.dao;
 
 import com.happyfeet.model.Dueno;
 import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.util.PoliticaCache;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * DAO específico para la entidad Dueño
  * Implementa operaciones de acceso a datos para la tabla 'duenos'
  */
 public class DuenoDAO extends BaseDAO<Dueno> {
+    // La intercalación utf8mb4_unicode_ci hace la comparación insensible a mayúsculas sin romper idx_email
+    static final String SQL_FIND_BY_EMAIL =
+        "SELECT * FROM duenos WHERE email = ? AND activo = TRUE";
+    private static final String SQL_ORDENADOS =
+        "SELECT * FROM duenos WHERE activo = TRUE ORDER BY nombre_completo, id";
+    private static final String SQL_PRIMERA_PAGINA_ORDENADA =
+        "SELECT * FROM duenos WHERE activo = TRUE ORDER BY nombre_completo, id LIMIT ?";
+    static final String SQL_PAGINA_ORDENADA =
+        "SELECT * FROM duenos WHERE activo = TRUE " +
+        "AND (nombre_completo > ? OR (nombre_completo = ? AND id > ?)) " +
+        "ORDER BY nombre_completo, id LIMIT ?";
+    
     public DuenoDAO() throws VeterinariaException {
         super(); // Llama al constructor de BaseDAO
     }
+    
+    /**
+     * Caché por ID: el dueño se vuelve a leer al registrar mascotas, citas y facturas
+     */
+    @Override
+    protected PoliticaCache getPoliticaCache() {
+        return new PoliticaCache(Integer.getInteger("happyfeet.cache.duenos.max", 1000),
+                                 Long.getLong("happyfeet.cache.duenos.ttlSeg", 120), TimeUnit.SECONDS, true);
+    }
     @Override
     protected String getTableName() {
         return "duenos";
@@ -77,12 +99,28 @@ public class DuenoDAO extends BaseDAO<Dueno> {
     }
     
     /**
-     * Busca dueños por email usando Stream API - Programación funcional
+     * Busca un dueño por email (sin distinguir mayúsculas) usando el índice idx_email
      */
     public Optional<Dueno> findByEmail(String email) throws VeterinariaException {
-        return findAll().stream()
-                       .filter(dueno -> email.equalsIgnoreCase(dueno.getEmail()))
-                       .findFirst();
+        if (email == null || email.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        String emailNormalizado = email.trim();
+        
+        try {
+            return ejecutarLectura(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(SQL_FIND_BY_EMAIL)) {
+                    ps.setString(1, emailNormalizado);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        return rs.next() ? Optional.of(mapResultSetToEntity(rs)) : Optional.<Dueno>empty();
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            logger.severe("Error al buscar por email: " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al buscar por email", 
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
     }
     
     /**
@@ -91,7 +129,8 @@ public class DuenoDAO extends BaseDAO<Dueno> {
     public Optional<Dueno> findByDocumento(String documento) throws VeterinariaException {
         String sql = "SELECT * FROM duenos WHERE documento_identidad = ? AND activo = TRUE";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, documento);
             ResultSet rs = ps.executeQuery();
             
@@ -108,12 +147,64 @@ public class DuenoDAO extends BaseDAO<Dueno> {
     }
     
     /**
-     * Obtiene dueños activos ordenados por nombre usando Stream API
+     * Obtiene dueños activos ordenados por nombre (el orden lo resuelve la base de datos)
      */
     public List<Dueno> findAllActiveOrdered() throws VeterinariaException {
-        return findAll().stream()
-                       .sorted((d1, d2) -> d1.getNombreCompleto().compareToIgnoreCase(d2.getNombreCompleto()))
-                       .collect(Collectors.toList());
+        try {
+            return ejecutarLectura(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(SQL_ORDENADOS);
+                     ResultSet rs = ps.executeQuery()) {
+                    List<Dueno> duenos = new ArrayList<>();
+                    while (rs.next()) {
+                        duenos.add(mapResultSetToEntity(rs));
+                    }
+                    return duenos;
+                }
+            });
+        } catch (SQLException e) {
+            logger.severe("Error al listar dueños ordenados: " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al listar dueños ordenados", 
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
+    
+    /**
+     * Obtiene la siguiente página de dueños activos ordenados por nombre.
+     * Keyset sobre (nombre_completo, id): se pasa el último dueño de la página anterior,
+     * o null para la primera página, y el costo no crece con el número de página.
+     */
+    public List<Dueno> findPageOrderedByNombre(Dueno ultimo, int limite) throws VeterinariaException {
+        if (limite <= 0) {
+            throw new VeterinariaException("El tamaño de página debe ser mayor a 0", 
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+        
+        try {
+            return ejecutarLectura(connection -> {
+                String sql = ultimo == null ? SQL_PRIMERA_PAGINA_ORDENADA : SQL_PAGINA_ORDENADA;
+                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                    if (ultimo == null) {
+                        ps.setInt(1, limite);
+                    } else {
+                        ps.setString(1, ultimo.getNombreCompleto());
+                        ps.setString(2, ultimo.getNombreCompleto());
+                        ps.setInt(3, ultimo.getId());
+                        ps.setInt(4, limite);
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        List<Dueno> pagina = new ArrayList<>(limite);
+                        while (rs.next()) {
+                            pagina.add(mapResultSetToEntity(rs));
+                        }
+                        return pagina;
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            logger.severe("Error al obtener página de dueños: " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al obtener página de dueños", 
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
     }
     
     /**
@@ -122,7 +213,8 @@ public class DuenoDAO extends BaseDAO<Dueno> {
     public List<Dueno> findByNombreContaining(String nombre) throws VeterinariaException {
         String sql = "SELECT * FROM duenos WHERE nombre_completo LIKE ? AND activo = TRUE";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, "%" + nombre + "%");
             ResultSet rs = ps.executeQuery();
             
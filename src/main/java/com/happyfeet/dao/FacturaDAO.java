@@ -3,21 +3,73 @@ package com.happyfeet.dao;
 import com.happyfeet.model.Factura;
 import com.happyfeet.model.ItemFactura;
 import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.util.RangoFechas;
 
+import java.math.BigDecimal;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * DAO para operaciones de base de datos relacionadas con facturas
  */
 public class FacturaDAO extends BaseDAO<Factura> {
     
+    private static final String SQL_INSERTAR_ITEM = 
+        "INSERT INTO items_factura (factura_id, tipo_item, producto_id, servicio_id, servicio_descripcion, cantidad, precio_unitario, subtotal) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SQL_ITEMS_POR_FACTURA = "SELECT * FROM items_factura WHERE factura_id = ?";
+    
+    // Encabezado, items y nombre del servicio/producto de cada item en una sola consulta
+    private static final String SQL_FACTURA_COMPLETA_BASE =
+        "SELECT f.*, i.id AS item_id, i.tipo_item, i.producto_id, i.servicio_id, i.servicio_descripcion, " +
+        "i.cantidad, i.precio_unitario, i.subtotal AS item_subtotal, " +
+        "s.nombre AS servicio_nombre, p.nombre_producto " +
+        "FROM facturas f " +
+        "LEFT JOIN items_factura i ON i.factura_id = f.id " +
+        "LEFT JOIN servicios s ON s.id = i.servicio_id " +
+        "LEFT JOIN inventario p ON p.id = i.producto_id ";
+    private static final String SQL_FACTURA_COMPLETA = SQL_FACTURA_COMPLETA_BASE + "WHERE f.id = ? ORDER BY i.id";
+    
+    // Exportación: una fila por item (o una sola fila si la factura no tiene items), en orden de emisión
+    static final String SQL_IDS_POR_RANGO_FECHAS =
+        "SELECT id FROM facturas WHERE " + RangoFechas.predicado("fecha_emision") + " ORDER BY fecha_emision, id";
+    static final String SQL_LINEAS_EXPORTACION =
+        "SELECT f.id, f.numero_factura, f.dueno_id, f.fecha_emision, f.estado, f.metodo_pago, " +
+        "f.subtotal, f.impuesto, f.descuento, f.total, " +
+        "i.id AS item_id, i.tipo_item, i.producto_id, i.servicio_id, i.servicio_descripcion, " +
+        "i.cantidad, i.precio_unitario, i.subtotal AS item_subtotal, " +
+        "COALESCE(s.nombre, p.nombre_producto) AS nombre_item " +
+        "FROM facturas f " +
+        "LEFT JOIN items_factura i ON i.factura_id = f.id " +
+        "LEFT JOIN servicios s ON s.id = i.servicio_id " +
+        "LEFT JOIN inventario p ON p.id = i.producto_id " +
+        "WHERE " + RangoFechas.predicado("f.fecha_emision") + " " +
+        "ORDER BY f.fecha_emision, f.id, i.id";
+    
+    /** Máximo de facturas por consulta en la carga masiva */
+    private static final int MAX_FACTURAS_POR_CONSULTA = 256;
+    
     public FacturaDAO() throws VeterinariaException {
         super();
     }
+    
+    /**
+     * La tabla facturas no tiene columna 'activo': una factura se anula, no se elimina
+     */
+    @Override
+    protected boolean usaBorradoLogico() {
+        return false;
+    }
 
     @Override
     protected String getTableName() {
@@ -87,30 +139,11 @@ public class FacturaDAO extends BaseDAO<Factura> {
      * Inserta un item de factura en la base de datos
      */
     public void insertarItemFactura(ItemFactura item) throws VeterinariaException {
-        String sql = "INSERT INTO items_factura (factura_id, tipo_item, producto_id, servicio_id, servicio_descripcion, cantidad, precio_unitario, subtotal) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        String sql = SQL_INSERTAR_ITEM;
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setInt(1, item.getFacturaId());
-            ps.setString(2, item.getTipoItem().name());
-            
-            if (item.getProductoId() != null) {
-                ps.setInt(3, item.getProductoId());
-            } else {
-                ps.setNull(3, java.sql.Types.INTEGER);
-            }
-            
-            if (item.getServicioId() != null) {
-                ps.setInt(4, item.getServicioId());
-            } else {
-                ps.setNull(4, java.sql.Types.INTEGER);
-            }
-            
-            ps.setString(5, item.getServicioDescripcion());
-            ps.setInt(6, item.getCantidad());
-            ps.setBigDecimal(7, item.getPrecioUnitario());
-            ps.setBigDecimal(8, item.getSubtotal());
-            
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            setPreparedStatementItem(ps, item);
             ps.executeUpdate();
             
         } catch (SQLException e) {
@@ -119,15 +152,51 @@ public class FacturaDAO extends BaseDAO<Factura> {
                                          e, VeterinariaException.ErrorType.DATABASE_ERROR);
         }
     }
+    
+    /**
+     * Inserta todos los items de una factura en lotes (un viaje a la BD por lote)
+     * y asigna a cada item su ID generado
+     */
+    public void insertarItemsFactura(List<ItemFactura> items) throws VeterinariaException {
+        List<Integer> ids = new ArrayList<>(items.size());
+        ejecutarLote(SQL_INSERTAR_ITEM, items, TAMANO_LOTE_POR_DEFECTO, ids, this::setPreparedStatementItem);
+        
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).setId(ids.get(i));
+        }
+    }
+    
+    private void setPreparedStatementItem(PreparedStatement ps, ItemFactura item) throws SQLException {
+        ps.setInt(1, item.getFacturaId());
+        ps.setString(2, item.getTipoItem().name());
+        
+        if (item.getProductoId() != null) {
+            ps.setInt(3, item.getProductoId());
+        } else {
+            ps.setNull(3, java.sql.Types.INTEGER);
+        }
+        
+        if (item.getServicioId() != null) {
+            ps.setInt(4, item.getServicioId());
+        } else {
+            ps.setNull(4, java.sql.Types.INTEGER);
+        }
+        
+        ps.setString(5, item.getServicioDescripcion());
+        ps.setInt(6, item.getCantidad());
+        ps.setBigDecimal(7, item.getPrecioUnitario());
+        ps.setBigDecimal(8, item.getSubtotal());
+    }
 
     /**
      * Obtiene los items de una factura específica
      */
     public List<ItemFactura> obtenerItemsPorFacturaId(Integer facturaId) throws VeterinariaException {
         List<ItemFactura> items = new ArrayList<>();
-        String sql = "SELECT * FROM items_factura WHERE factura_id = ?";
+        String sql = SQL_ITEMS_POR_FACTURA;
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, facturaId);
             ResultSet rs = ps.executeQuery();
             
@@ -164,6 +233,242 @@ public class FacturaDAO extends BaseDAO<Factura> {
         return items;
     }
     
+    /**
+     * Carga una factura con sus items (y el nombre de cada servicio/producto) en una sola consulta
+     */
+    public Optional<Factura> obtenerFacturaCompleta(Integer facturaId) throws VeterinariaException {
+        try {
+            return ejecutarLectura(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(SQL_FACTURA_COMPLETA)) {
+                    ps.setInt(1, facturaId);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        Map<Integer, Factura> facturas = mapearFacturasConItems(rs);
+                        return Optional.ofNullable(facturas.get(facturaId));
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            logger.severe("Error al obtener factura completa: " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al obtener factura completa", 
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
+    
+    /**
+     * Carga varias facturas con sus items usando una consulta IN por cada bloque de hasta
+     * 256 facturas, en lugar de una consulta por factura. Devuelve las facturas encontradas
+     * en el orden de los IDs recibidos.
+     */
+    public List<Factura> obtenerFacturasCompletas(List<Integer> facturaIds) throws VeterinariaException {
+        if (facturaIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        Map<Integer, Factura> encontradas = new LinkedHashMap<>();
+        try {
+            for (int desde = 0; desde < facturaIds.size(); desde += MAX_FACTURAS_POR_CONSULTA) {
+                List<Integer> bloque = facturaIds.subList(desde, Math.min(desde + MAX_FACTURAS_POR_CONSULTA, facturaIds.size()));
+                encontradas.putAll(ejecutarLectura(connection -> cargarBloque(connection, bloque)));
+            }
+        } catch (SQLException e) {
+            logger.severe("Error al obtener facturas completas: " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al obtener facturas completas", 
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+        
+        List<Factura> facturas = new ArrayList<>(facturaIds.size());
+        for (Integer id : facturaIds) {
+            Factura factura = encontradas.get(id);
+            if (factura != null) {
+                facturas.add(factura);
+            }
+        }
+        return facturas;
+    }
+    
+    private Map<Integer, Factura> cargarBloque(Connection connection, List<Integer> ids) throws SQLException {
+        // La lista IN se rellena hasta una potencia de 2 repitiendo el último ID, así solo hay
+        // unos pocos textos SQL distintos y la caché de sentencias del pool los reutiliza
+        int parametros = Integer.highestOneBit(ids.size());
+        if (parametros < ids.size()) {
+            parametros <<= 1;
+        }
+        
+        StringBuilder sql = new StringBuilder(SQL_FACTURA_COMPLETA_BASE).append("WHERE f.id IN (");
+        for (int i = 0; i < parametros; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") ORDER BY f.id, i.id");
+        
+        try (PreparedStatement ps = connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < parametros; i++) {
+                ps.setInt(i + 1, ids.get(Math.min(i, ids.size() - 1)));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return mapearFacturasConItems(rs);
+            }
+        }
+    }
+    
+    /**
+     * Agrupa las filas factura+item del JOIN en facturas con su lista de items
+     */
+    private Map<Integer, Factura> mapearFacturasConItems(ResultSet rs) throws SQLException {
+        Map<Integer, Factura> facturas = new LinkedHashMap<>();
+        while (rs.next()) {
+            int facturaId = rs.getInt("id");
+            Factura factura = facturas.get(facturaId);
+            if (factura == null) {
+                factura = mapResultSetToEntity(rs);
+                factura.setItems(new ArrayList<>());
+                facturas.put(facturaId, factura);
+            }
+            
+            int itemId = rs.getInt("item_id");
+            if (rs.wasNull()) {
+                continue; // Factura sin items (LEFT JOIN)
+            }
+            
+            ItemFactura item = new ItemFactura();
+            item.setId(itemId);
+            item.setFacturaId(facturaId);
+            item.setTipoItem(ItemFactura.TipoItem.valueOf(rs.getString("tipo_item")));
+            
+            int productoId = rs.getInt("producto_id");
+            if (!rs.wasNull()) {
+                item.setProductoId(productoId);
+            }
+            
+            int servicioId = rs.getInt("servicio_id");
+            if (!rs.wasNull()) {
+                item.setServicioId(servicioId);
+            }
+            
+            item.setServicioDescripcion(rs.getString("servicio_descripcion"));
+            item.setCantidad(rs.getInt("cantidad"));
+            item.setPrecioUnitario(rs.getBigDecimal("precio_unitario"));
+            item.setSubtotal(rs.getBigDecimal("item_subtotal"));
+            item.setNombreItem(item.getTipoItem() == ItemFactura.TipoItem.SERVICIO
+                ? rs.getString("servicio_nombre")
+                : rs.getString("nombre_producto"));
+            
+            factura.getItems().add(item);
+        }
+        return facturas;
+    }
+    
+    /**
+     * IDs de las facturas emitidas en [desde, hasta), en orden de emisión.
+     * El rango abierto sobre fecha_emision usa idx_fecha.
+     */
+    public List<Integer> obtenerIdsPorRangoFechas(LocalDateTime desde, LocalDateTime hasta) throws VeterinariaException {
+        RangoFechas rango = RangoFechas.entre(desde, hasta);
+        
+        try {
+            return ejecutarLectura(connection -> {
+                List<Integer> ids = new ArrayList<>();
+                try (PreparedStatement ps = connection.prepareStatement(SQL_IDS_POR_RANGO_FECHAS)) {
+                    rango.asignar(ps, 1);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getInt(1));
+                        }
+                    }
+                }
+                return ids;
+            });
+        } catch (SQLException e) {
+            logger.severe("Error al obtener facturas por rango de fechas: " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al obtener facturas por rango de fechas", 
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
+    
+    /**
+     * Recorre las líneas (factura + item) emitidas en [desde, hasta) con un cursor de solo
+     * avance: solo el lote de TAMANO_FETCH filas en curso está en memoria.
+     * El Stream retiene una conexión hasta cerrarse: usar siempre try-with-resources.
+     */
+    public Stream<LineaExportacion> streamLineasPorRangoFechas(LocalDateTime desde, LocalDateTime hasta) 
+            throws VeterinariaException {
+        RangoFechas rango = RangoFechas.entre(desde, hasta);
+        return abrirCursor(SQL_LINEAS_EXPORTACION, ps -> rango.asignar(ps, 1), FacturaDAO::mapearLineaExportacion);
+    }
+    
+    private static LineaExportacion mapearLineaExportacion(ResultSet rs) throws SQLException {
+        Integer itemId = rs.getObject("item_id", Integer.class);
+        return new LineaExportacion(
+            rs.getInt("id"),
+            rs.getString("numero_factura"),
+            rs.getInt("dueno_id"),
+            rs.getTimestamp("fecha_emision").toLocalDateTime(),
+            rs.getString("estado"),
+            rs.getString("metodo_pago"),
+            rs.getBigDecimal("subtotal"),
+            rs.getBigDecimal("impuesto"),
+            rs.getBigDecimal("descuento"),
+            rs.getBigDecimal("total"),
+            itemId,
+            rs.getString("tipo_item"),
+            rs.getObject("producto_id", Integer.class),
+            rs.getObject("servicio_id", Integer.class),
+            itemId != null ? (rs.getString("servicio_descripcion") != null 
+                ? rs.getString("servicio_descripcion") : rs.getString("nombre_item")) : null,
+            itemId != null ? rs.getInt("cantidad") : null,
+            rs.getBigDecimal("precio_unitario"),
+            rs.getBigDecimal("item_subtotal"));
+    }
+    
+    /**
+     * Fila plana de la exportación contable: encabezado de la factura y, si tiene, un item.
+     * Los campos del item son null en las facturas sin items.
+     */
+    public static class LineaExportacion {
+        public final int facturaId;
+        public final String numeroFactura;
+        public final int duenoId;
+        public final LocalDateTime fechaEmision;
+        public final String estado;
+        public final String metodoPago;
+        public final BigDecimal subtotal;
+        public final BigDecimal impuesto;
+        public final BigDecimal descuento;
+        public final BigDecimal total;
+        public final Integer itemId;
+        public final String tipoItem;
+        public final Integer productoId;
+        public final Integer servicioId;
+        public final String descripcionItem;
+        public final Integer cantidad;
+        public final BigDecimal precioUnitario;
+        public final BigDecimal subtotalItem;
+        
+        public LineaExportacion(int facturaId, String numeroFactura, int duenoId, LocalDateTime fechaEmision,
+                                String estado, String metodoPago, BigDecimal subtotal, BigDecimal impuesto,
+                                BigDecimal descuento, BigDecimal total, Integer itemId, String tipoItem,
+                                Integer productoId, Integer servicioId, String descripcionItem,
+                                Integer cantidad, BigDecimal precioUnitario, BigDecimal subtotalItem) {
+            this.facturaId = facturaId;
+            this.numeroFactura = numeroFactura;
+            this.duenoId = duenoId;
+            this.fechaEmision = fechaEmision;
+            this.estado = estado;
+            this.metodoPago = metodoPago;
+            this.subtotal = subtotal;
+            this.impuesto = impuesto;
+            this.descuento = descuento;
+            this.total = total;
+            this.itemId = itemId;
+            this.tipoItem = tipoItem;
+            this.productoId = productoId;
+            this.servicioId = servicioId;
+            this.descripcionItem = descripcionItem;
+            this.cantidad = cantidad;
+            this.precioUnitario = precioUnitario;
+            this.subtotalItem = subtotalItem;
+        }
+    }
+    
     /**
      * obtiene facturas por documento
      */
@@ -172,7 +477,8 @@ public class FacturaDAO extends BaseDAO<Factura> {
         List<Factura> facturas = new ArrayList<>();
         String sql = "select * from facturas where dueno_id= (SELECT id from duenos where documento_identidad=?) ORDER BY fecha_emision DESC";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, duenoDocumento);
             ResultSet rs = ps.executeQuery();
             
@@ -197,7 +503,8 @@ public class FacturaDAO extends BaseDAO<Factura> {
         List<Factura> facturas = new ArrayList<>();
         String sql = "SELECT * FROM facturas WHERE dueno_id = ? ORDER BY fecha_emision DESC";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, duenoId);
             ResultSet rs = ps.executeQuery();
             
@@ -214,13 +521,35 @@ public class FacturaDAO extends BaseDAO<Factura> {
         return facturas;
     }
 
+    /**
+     * Lee la factura bloqueando su fila hasta el fin de la transacción en curso
+     * (SELECT ... FOR UPDATE), para decidir un cambio de estado sin carreras
+     */
+    public Optional<Factura> bloquearFactura(Integer facturaId) throws VeterinariaException {
+        String sql = "SELECT * FROM facturas WHERE id = ? FOR UPDATE";
+        
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, facturaId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? Optional.of(mapResultSetToEntity(rs)) : Optional.empty();
+            }
+            
+        } catch (SQLException e) {
+            logger.severe("Error al bloquear factura: " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al bloquear factura", 
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
+    
     /**
      * Actualiza el estado de una factura
      */
     public void actualizarEstadoFactura(Integer facturaId, Factura.EstadoFactura estado) throws VeterinariaException {
         String sql = "UPDATE facturas SET estado = ? WHERE id = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, estado.name());
             ps.setInt(2, facturaId);
             
@@ -238,22 +567,21 @@ public class FacturaDAO extends BaseDAO<Factura> {
     }
 
     /**
-     * Obtiene el siguiente número de factura disponible
+     * Mayor correlativo de los números de factura 'FACT-nnnnnn' existentes (0 si no hay).
+     * Recorre todo el historial: solo se usa para inicializar la secuencia de numeración.
      */
-    public String obtenerSiguienteNumeroFactura() throws VeterinariaException {
-        String sql = "SELECT CONCAT('FACT-', LPAD(COALESCE(MAX(CAST(SUBSTRING(numero_factura, 6) AS UNSIGNED)), 0) + 1, 6, '0')) " +
+    public long obtenerMayorNumeroFactura() throws VeterinariaException {
+        String sql = "SELECT COALESCE(MAX(CAST(SUBSTRING(numero_factura, 6) AS UNSIGNED)), 0) " +
                     "FROM facturas WHERE numero_factura LIKE 'FACT-%'";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql);
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
             
-            if (rs.next()) {
-                return rs.getString(1);
-            }
-            return "FACT-000001";
+            return rs.next() ? rs.getLong(1) : 0;
             
         } catch (SQLException e) {
-            logger.severe("Error al obtener siguiente número de factura: " + e.getMessage());
+            logger.severe("Error al obtener el mayor número de factura: " + e.getMessage());
             throw new VeterinariaException("Error en operación de BD al obtener número de factura", 
                                          e, VeterinariaException.ErrorType.DATABASE_ERROR);
         }
@@ -0,0 +1,116 @@
+package com.happyfeet.dao;
+
+import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.model.Factura;
+import com.happyfeet.util.DatabaseConnection;
+import com.happyfeet.util.RangoFechas;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+
+/**
+ * DAO de la tabla 'facturacion_diaria': totales por día de las facturas PAGADAS
+ * Las actualizaciones son deltas atómicos (INSERT ... ON DUPLICATE KEY UPDATE col = col + ?)
+ * que usan la conexión de la transacción en curso, así el resumen se confirma o se
+ * revierte junto con la factura que lo modificó.
+ */
+public class FacturacionDiariaDAO {
+    private static final String SQL_APLICAR_DELTA =
+        "INSERT INTO facturacion_diaria (fecha, total_facturas, subtotal_total, impuesto_total, descuento_total, total_facturado) " +
+        "VALUES (?, ?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE total_facturas = total_facturas + VALUES(total_facturas), " +
+        "subtotal_total = subtotal_total + VALUES(subtotal_total), " +
+        "impuesto_total = impuesto_total + VALUES(impuesto_total), " +
+        "descuento_total = descuento_total + VALUES(descuento_total), " +
+        "total_facturado = total_facturado + VALUES(total_facturado)";
+    private static final String SQL_BORRAR_RANGO =
+        "DELETE FROM facturacion_diaria WHERE " + RangoFechas.predicado("fecha");
+    static final String SQL_RECONSTRUIR_RANGO =
+        "INSERT INTO facturacion_diaria (fecha, total_facturas, subtotal_total, impuesto_total, descuento_total, total_facturado) " +
+        "SELECT DATE(fecha_emision), COUNT(*), SUM(subtotal), SUM(impuesto), SUM(descuento), SUM(total) " +
+        "FROM facturas " +
+        "WHERE " + RangoFechas.predicado("fecha_emision") + " AND estado = 'PAGADA' " +
+        "GROUP BY DATE(fecha_emision)";
+    private static final String SQL_RANGO_FACTURAS =
+        "SELECT MIN(fecha_emision), MAX(fecha_emision) FROM facturas";
+
+    private final DatabaseConnection database;
+    protected final java.util.logging.Logger logger;
+
+    public FacturacionDiariaDAO() throws VeterinariaException {
+        this.database = DatabaseConnection.getInstance();
+        this.logger = java.util.logging.Logger.getLogger(getClass().getName());
+    }
+
+    /**
+     * Suma (signo 1) o resta (signo -1) una factura de los totales de su día de emisión
+     */
+    public void aplicarFactura(Factura factura, int signo) throws VeterinariaException {
+        BigDecimal multiplicador = BigDecimal.valueOf(signo);
+        try (Connection connection = database.getConnection();
+             PreparedStatement ps = connection.prepareStatement(SQL_APLICAR_DELTA)) {
+            ps.setDate(1, Date.valueOf(factura.getFechaEmision().toLocalDate()));
+            ps.setInt(2, signo);
+            ps.setBigDecimal(3, factura.getSubtotal().multiply(multiplicador));
+            ps.setBigDecimal(4, factura.getImpuesto().multiply(multiplicador));
+            ps.setBigDecimal(5, factura.getDescuento().multiply(multiplicador));
+            ps.setBigDecimal(6, factura.getTotal().multiply(multiplicador));
+            ps.executeUpdate();
+
+        } catch (SQLException e) {
+            logger.severe("Error al actualizar facturación diaria: " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al actualizar facturación diaria",
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
+
+    /**
+     * Recalcula desde 'facturas' los días entre desde y hasta (inclusive).
+     * Debe ejecutarse dentro de una transacción para que el borrado y la recarga se vean juntos.
+     *
+     * @return número de días con facturación que quedaron en el resumen
+     */
+    public int reconstruir(LocalDate desde, LocalDate hasta) throws VeterinariaException {
+        RangoFechas rango = RangoFechas.dias(desde, hasta);
+        try (Connection connection = database.getConnection()) {
+            try (PreparedStatement ps = connection.prepareStatement(SQL_BORRAR_RANGO)) {
+                rango.asignarComoFechas(ps, 1);
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = connection.prepareStatement(SQL_RECONSTRUIR_RANGO)) {
+                rango.asignar(ps, 1);
+                return ps.executeUpdate();
+            }
+
+        } catch (SQLException e) {
+            logger.severe("Error al reconstruir facturación diaria: " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al reconstruir facturación diaria",
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
+
+    /**
+     * Primer y último día con facturas, o null si no hay ninguna
+     */
+    public LocalDate[] obtenerRangoFacturas() throws VeterinariaException {
+        try {
+            return database.ejecutarLectura(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(SQL_RANGO_FACTURAS);
+                     ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next() || rs.getTimestamp(1) == null) {
+                        return null;
+                    }
+                    return new LocalDate[] {
+                        rs.getTimestamp(1).toLocalDateTime().toLocalDate(),
+                        rs.getTimestamp(2).toLocalDateTime().toLocalDate()
+                    };
+                }
+            });
+        } catch (SQLException e) {
+            logger.severe("Error al obtener rango de facturas: " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al obtener rango de facturas",
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.happyfeet.dao;
 
 import com.happyfeet.model.HistorialMedicoEspecial;
 import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.util.RangoFechas;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -12,11 +14,32 @@ import java.util.Optional;
  * DAO para la gestión del historial médico en la base de datos
  */
 public class HistorialMedicoDAO extends BaseDAO<HistorialMedicoEspecial> {
+    static final String SQL_POR_MASCOTA =
+        "SELECT * FROM historial_medico WHERE mascota_id = ? ORDER BY fecha_evento DESC, id DESC";
+    // Keyset sobre (fecha_evento, id): con mascota_id fijo, idx_mascota_fecha (que incluye el id)
+    // entrega las filas ya ordenadas y la página se corta en LIMIT sin filesort
+    static final String SQL_PAGINA_POR_MASCOTA =
+        "SELECT * FROM historial_medico WHERE mascota_id = ? " +
+        "AND (fecha_evento < ? OR (fecha_evento = ? AND id < ?)) " +
+        "ORDER BY fecha_evento DESC, id DESC LIMIT ?";
+    // Cursor de la primera página: posterior a cualquier fecha registrada
+    private static final LocalDate SIN_CURSOR = LocalDate.of(9999, 12, 31);
+    static final String SQL_POR_RANGO_FECHAS = 
+        "SELECT * FROM historial_medico WHERE " + RangoFechas.predicado("fecha_evento") + 
+        " ORDER BY fecha_evento DESC";
 
     public HistorialMedicoDAO() throws VeterinariaException {
         super();
     }
 
+    /**
+     * La tabla historial_medico no tiene columna 'activo': los eventos no se eliminan
+     */
+    @Override
+    protected boolean usaBorradoLogico() {
+        return false;
+    }
+    
     @Override
     protected String getTableName() {
         return "historial_medico";
@@ -47,12 +70,6 @@ public class HistorialMedicoDAO extends BaseDAO<HistorialMedicoEspecial> {
         int procedimientoId = rs.getInt("procedimiento_id");
         historial.setProcedimientoId(rs.wasNull() ? null : procedimientoId);
         
-        Timestamp fechaRegistro = rs.getTimestamp("fecha_registro");
-        if (fechaRegistro != null) {
-            historial.setFechaRegistro(fechaRegistro.toLocalDateTime());
-        }
-        
-        historial.setActivo(rs.getBoolean("activo"));
         return historial;
     }
 
@@ -133,9 +150,10 @@ public class HistorialMedicoDAO extends BaseDAO<HistorialMedicoEspecial> {
      */
     public List<HistorialMedicoEspecial> findByMascotaId(Integer mascotaId) throws VeterinariaException {
         List<HistorialMedicoEspecial> historiales = new ArrayList<>();
-        String sql = "SELECT * FROM " + getTableName() + " WHERE mascota_id = ? AND activo = TRUE ORDER BY fecha_evento DESC";
+        String sql = SQL_POR_MASCOTA;
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, mascotaId);
             ResultSet rs = ps.executeQuery();
             
@@ -150,15 +168,55 @@ public class HistorialMedicoDAO extends BaseDAO<HistorialMedicoEspecial> {
                                          e, VeterinariaException.ErrorType.DATABASE_ERROR);
         }
     }
+    
+    /**
+     * Página de la línea de tiempo de una mascota, de lo más reciente a lo más antiguo.
+     * El cursor es la fecha y el ID del último registro de la página anterior; en la
+     * primera página ambos son null.
+     */
+    public List<HistorialMedicoEspecial> findPaginaPorMascota(Integer mascotaId, LocalDate antesDeFecha, Integer antesDeId,
+                                                              int limite) throws VeterinariaException {
+        if (limite <= 0) {
+            throw new VeterinariaException("El tamaño de página debe ser mayor a 0", 
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+        Date fecha = Date.valueOf(antesDeFecha != null ? antesDeFecha : SIN_CURSOR);
+        int id = antesDeFecha != null && antesDeId != null ? antesDeId : Integer.MAX_VALUE;
+        
+        try {
+            return ejecutarLectura(connection -> {
+                List<HistorialMedicoEspecial> pagina = new ArrayList<>(limite);
+                try (PreparedStatement ps = connection.prepareStatement(SQL_PAGINA_POR_MASCOTA)) {
+                    ps.setInt(1, mascotaId);
+                    ps.setDate(2, fecha);
+                    ps.setDate(3, fecha);
+                    ps.setInt(4, id);
+                    ps.setInt(5, limite);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            pagina.add(mapResultSetToEntity(rs));
+                        }
+                    }
+                }
+                return pagina;
+            });
+            
+        } catch (SQLException e) {
+            logger.severe("Error al obtener página de historiales por mascota: " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al obtener página de historiales por mascota", 
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
 
     /**
      * Busca historiales médicos por tipo de evento
      */
     public List<HistorialMedicoEspecial> findByEventoTipoId(Integer eventoTipoId) throws VeterinariaException {
         List<HistorialMedicoEspecial> historiales = new ArrayList<>();
-        String sql = "SELECT * FROM " + getTableName() + " WHERE evento_tipo_id = ? AND activo = TRUE ORDER BY fecha_evento DESC";
+        String sql = "SELECT * FROM " + getTableName() + " WHERE evento_tipo_id = ? ORDER BY fecha_evento DESC";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, eventoTipoId);
             ResultSet rs = ps.executeQuery();
             
@@ -179,11 +237,11 @@ public class HistorialMedicoDAO extends BaseDAO<HistorialMedicoEspecial> {
      */
     public List<HistorialMedicoEspecial> findByFechaRange(Date fechaInicio, Date fechaFin) throws VeterinariaException {
         List<HistorialMedicoEspecial> historiales = new ArrayList<>();
-        String sql = "SELECT * FROM " + getTableName() + " WHERE fecha_evento BETWEEN ? AND ? AND activo = TRUE ORDER BY fecha_evento DESC";
+        RangoFechas rango = RangoFechas.dias(fechaInicio.toLocalDate(), fechaFin.toLocalDate());
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setDate(1, fechaInicio);
-            ps.setDate(2, fechaFin);
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(SQL_POR_RANGO_FECHAS)) {
+            rango.asignarComoFechas(ps, 1);
             ResultSet rs = ps.executeQuery();
             
             while (rs.next()) {
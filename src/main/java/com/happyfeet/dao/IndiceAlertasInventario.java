@@ -0,0 +1,354 @@
+package com.happyfeet.dao;
+
+import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.model.Inventario;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Índice en memoria de las alertas de inventario (stock bajo y próximos a vencer)
+ * La comparación cantidad_stock <= stock_minimo no se puede indexar en MySQL, así que
+ * el índice carga una vez los productos activos y se mantiene al día con cada escritura
+ * de InventarioDAO: stock bajo es un conjunto por id y los vencimientos un árbol por fecha,
+ * de modo que las consultas de alertas no van a la base de datos.
+ * Un barrido diario (a medianoche) recarga desde la BD, para absorber cambios hechos
+ * fuera de la aplicación, y avisa los productos que entraron en la ventana de vencimiento.
+ * Los oyentes reciben una alerta cuando un producto pasa a tener stock bajo o a estar
+ * próximo a vencer (una vez por transición, no en cada consulta).
+ * Patrón Singleton: se crea y carga en el primer uso
+ */
+public final class IndiceAlertasInventario {
+    private static final Logger logger = Logger.getLogger(IndiceAlertasInventario.class.getName());
+    /** Días hacia adelante que cuentan como "próximo a vencer" */
+    public static final int DIAS_AVISO_VENCIMIENTO = 30;
+    private static volatile IndiceAlertasInventario instance;
+
+    /**
+     * Tipos de alerta que genera el índice
+     */
+    public enum TipoAlerta {
+        STOCK_BAJO,
+        PROXIMO_VENCER
+    }
+
+    private final InventarioDAO inventarioDAO;
+    private final List<Consumer<AlertaInventario>> oyentes = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService barrido;
+
+    // Estado protegido por 'this'
+    private final Map<Integer, Inventario> productos = new HashMap<>();
+    private final Set<Integer> stockBajo = new TreeSet<>();
+    private final NavigableMap<LocalDate, Set<Integer>> porVencimiento = new TreeMap<>();
+    private final Set<Integer> avisadosPorVencimiento = new TreeSet<>();
+    // Cada lectura de la BD toma una generación al empezar; la de cada producto indica qué
+    // lectura lo dejó en el índice, para no pisarlo con otra que empezó antes (más vieja)
+    private long ultimaGeneracion;
+    private long generacionCompleta;
+    private final Map<Integer, Long> generacionPorProducto = new HashMap<>();
+
+    private IndiceAlertasInventario(InventarioDAO inventarioDAO) {
+        this.inventarioDAO = inventarioDAO;
+        this.barrido = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "happyfeet-alertas-inventario");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Obtiene el índice, cargándolo desde la base de datos la primera vez
+     */
+    public static IndiceAlertasInventario getInstance() throws VeterinariaException {
+        if (instance == null) {
+            synchronized (IndiceAlertasInventario.class) {
+                if (instance == null) {
+                    IndiceAlertasInventario indice = new IndiceAlertasInventario(new InventarioDAO());
+                    indice.recargarTodo();
+                    indice.programarBarridoDiario();
+                    instance = indice;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * El índice si ya fue cargado, o null. Las escrituras no lo crean: si todavía no
+     * existe, la primera consulta lo cargará con los datos ya actualizados.
+     */
+    static IndiceAlertasInventario siCargado() {
+        return instance;
+    }
+
+    /**
+     * Registra un oyente que recibe cada alerta nueva (por ejemplo, para notificaciones)
+     */
+    public void agregarOyente(Consumer<AlertaInventario> oyente) {
+        oyentes.add(oyente);
+    }
+
+    public void quitarOyente(Consumer<AlertaInventario> oyente) {
+        oyentes.remove(oyente);
+    }
+
+    /**
+     * Productos activos con cantidad_stock <= stock_minimo, ordenados por id
+     */
+    public synchronized List<Inventario> getProductosConStockBajo() {
+        return copiar(stockBajo);
+    }
+
+    /**
+     * Productos activos que vencen entre hoy y hoy + DIAS_AVISO_VENCIMIENTO (inclusive),
+     * ordenados por fecha de vencimiento
+     */
+    public synchronized List<Inventario> getProductosProximosAVencer() {
+        LocalDate hoy = LocalDate.now();
+        return copiarPorFecha(porVencimiento.subMap(hoy, true, hoy.plusDays(DIAS_AVISO_VENCIMIENTO), true).values());
+    }
+
+    /**
+     * Productos activos ya vencidos o que vencen hasta hoy + DIAS_AVISO_VENCIMIENTO
+     */
+    public synchronized List<Inventario> getProductosVencidosOProximos() {
+        LocalDate limite = LocalDate.now().plusDays(DIAS_AVISO_VENCIMIENTO);
+        return copiarPorFecha(porVencimiento.headMap(limite, true).values());
+    }
+
+    /**
+     * Vuelve a leer un producto de la BD y actualiza su entrada (o la quita si ya no está activo).
+     * Si mientras tanto lo actualizó una lectura que empezó después, se descarta esta.
+     */
+    void recargar(Integer id) throws VeterinariaException {
+        long generacion = nuevaGeneracion();
+        Optional<Inventario> producto = inventarioDAO.findById(id);
+        List<AlertaInventario> nuevas = new ArrayList<>();
+        synchronized (this) {
+            if (generacion < generacionCompleta || generacionPorProducto.getOrDefault(id, 0L) > generacion) {
+                return;
+            }
+            generacionPorProducto.put(id, generacion);
+            boolean teniaStockBajo = stockBajo.contains(id);
+            quitar(id);
+            producto.ifPresent(p -> agregar(p, nuevas));
+            // Solo se avisa la transición: si ya tenía stock bajo, la alerta ya se emitió
+            if (teniaStockBajo) {
+                nuevas.removeIf(a -> a.tipo == TipoAlerta.STOCK_BAJO);
+            }
+            if (!productos.containsKey(id) || !estaEnVentana(productos.get(id).getFechaVencimiento(), LocalDate.now())) {
+                avisadosPorVencimiento.remove(id);
+            }
+        }
+        avisar(nuevas);
+    }
+
+    /**
+     * Recarga el índice completo y avisa las alertas nuevas respecto del estado anterior.
+     * Los productos que recargar(id) volvió a leer después de empezar esta lectura
+     * conservan su entrada: la de findAll sería más vieja. Si ya se aplicó una recarga
+     * completa que empezó después, esta se descarta entera.
+     */
+    public void recargarTodo() throws VeterinariaException {
+        long generacion = nuevaGeneracion();
+        List<Inventario> activos = inventarioDAO.findAll();
+        List<AlertaInventario> nuevas = new ArrayList<>();
+        int conStockBajo;
+        synchronized (this) {
+            if (generacion < generacionCompleta) {
+                return;
+            }
+            generacionCompleta = generacion;
+            Set<Integer> stockBajoAnterior = new TreeSet<>(stockBajo);
+            generacionPorProducto.values().removeIf(g -> g < generacion);
+            Set<Integer> masRecientes = generacionPorProducto.keySet();
+            for (Integer id : new ArrayList<>(productos.keySet())) {
+                if (!masRecientes.contains(id)) {
+                    quitar(id);
+                }
+            }
+            for (Inventario producto : activos) {
+                if (!masRecientes.contains(producto.getId())) {
+                    agregar(producto, nuevas);
+                }
+            }
+            // Solo son nuevas las alertas de stock bajo que no existían antes de recargar
+            nuevas.removeIf(a -> a.tipo == TipoAlerta.STOCK_BAJO && stockBajoAnterior.contains(a.productoId));
+            avisadosPorVencimiento.retainAll(productos.keySet());
+            barrerVencimientos(LocalDate.now(), nuevas);
+            conStockBajo = stockBajo.size();
+        }
+        avisar(nuevas);
+        logger.info("Índice de alertas de inventario cargado: " + activos.size() + " productos, " +
+                    conStockBajo + " con stock bajo");
+    }
+
+    private synchronized long nuevaGeneracion() {
+        return ++ultimaGeneracion;
+    }
+
+    private void agregar(Inventario producto, List<AlertaInventario> nuevas) {
+        if (producto.getActivo() != null && !producto.getActivo()) {
+            return;
+        }
+        Integer id = producto.getId();
+        productos.put(id, producto);
+        if (tieneStockBajo(producto) && stockBajo.add(id)) {
+            nuevas.add(new AlertaInventario(TipoAlerta.STOCK_BAJO, producto));
+        }
+        LocalDate vence = producto.getFechaVencimiento();
+        if (vence != null) {
+            porVencimiento.computeIfAbsent(vence, f -> new TreeSet<>()).add(id);
+            if (estaEnVentana(vence, LocalDate.now()) && avisadosPorVencimiento.add(id)) {
+                nuevas.add(new AlertaInventario(TipoAlerta.PROXIMO_VENCER, producto));
+            }
+        }
+    }
+
+    private void quitar(Integer id) {
+        Inventario anterior = productos.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        stockBajo.remove(id);
+        LocalDate vence = anterior.getFechaVencimiento();
+        if (vence != null) {
+            Set<Integer> ids = porVencimiento.get(vence);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                porVencimiento.remove(vence);
+            }
+        }
+    }
+
+    private void barrerVencimientos(LocalDate hoy, List<AlertaInventario> nuevas) {
+        Set<Integer> enVentana = new TreeSet<>();
+        for (Set<Integer> ids : porVencimiento.subMap(hoy, true, hoy.plusDays(DIAS_AVISO_VENCIMIENTO), true).values()) {
+            enVentana.addAll(ids);
+        }
+        for (Integer id : enVentana) {
+            if (avisadosPorVencimiento.add(id)) {
+                nuevas.add(new AlertaInventario(TipoAlerta.PROXIMO_VENCER, productos.get(id)));
+            }
+        }
+        // Los que ya vencieron o salieron de la ventana podrán avisar de nuevo si vuelven a entrar
+        avisadosPorVencimiento.retainAll(enVentana);
+    }
+
+    private void programarBarridoDiario() {
+        long hastaMedianoche = Duration.between(LocalDateTime.now(),
+                                                LocalDate.now().plusDays(1).atStartOfDay()).toMillis();
+        barrido.scheduleAtFixedRate(() -> {
+            try {
+                recargarTodo();
+            } catch (VeterinariaException | RuntimeException e) {
+                logger.warning("No se pudo ejecutar el barrido diario de inventario: " + e.getMessage());
+            }
+        }, hastaMedianoche, TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    private void avisar(List<AlertaInventario> alertas) {
+        for (AlertaInventario alerta : alertas) {
+            for (Consumer<AlertaInventario> oyente : oyentes) {
+                try {
+                    oyente.accept(alerta);
+                } catch (RuntimeException e) {
+                    logger.warning("Error en oyente de alertas de inventario: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static boolean estaEnVentana(LocalDate vence, LocalDate hoy) {
+        return vence != null && !vence.isBefore(hoy) && !vence.isAfter(hoy.plusDays(DIAS_AVISO_VENCIMIENTO));
+    }
+
+    private static boolean tieneStockBajo(Inventario producto) {
+        return producto.getCantidadStock() != null && producto.getStockMinimo() != null
+            && producto.getCantidadStock() <= producto.getStockMinimo();
+    }
+
+    private List<Inventario> copiar(Collection<Integer> ids) {
+        List<Inventario> copias = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            copias.add(copiar(productos.get(id)));
+        }
+        return copias;
+    }
+
+    private List<Inventario> copiarPorFecha(Collection<Set<Integer>> idsPorFecha) {
+        List<Inventario> copias = new ArrayList<>();
+        for (Set<Integer> ids : idsPorFecha) {
+            copias.addAll(copiar(ids));
+        }
+        return copias;
+    }
+
+    /**
+     * Copia independiente: quien recibe el producto puede modificarlo sin alterar el índice
+     */
+    private static Inventario copiar(Inventario origen) {
+        Inventario copia = new Inventario();
+        copia.setId(origen.getId());
+        copia.setNombreProducto(origen.getNombreProducto());
+        copia.setProductoTipoId(origen.getProductoTipoId());
+        copia.setDescripcion(origen.getDescripcion());
+        copia.setFabricante(origen.getFabricante());
+        copia.setProveedorId(origen.getProveedorId());
+        copia.setLote(origen.getLote());
+        copia.setCantidadStock(origen.getCantidadStock());
+        copia.setStockMinimo(origen.getStockMinimo());
+        copia.setUnidadMedida(origen.getUnidadMedida());
+        copia.setFechaVencimiento(origen.getFechaVencimiento());
+        copia.setPrecioCompra(origen.getPrecioCompra());
+        copia.setPrecioVenta(origen.getPrecioVenta());
+        copia.setRequiereReceta(origen.getRequiereReceta());
+        copia.setActivo(origen.getActivo());
+        copia.setFechaRegistro(origen.getFechaRegistro());
+        return copia;
+    }
+
+    /**
+     * Alerta emitida cuando un producto entra en stock bajo o en la ventana de vencimiento
+     */
+    public static class AlertaInventario {
+        public final TipoAlerta tipo;
+        public final int productoId;
+        public final String nombreProducto;
+        public final int cantidadStock;
+        public final int stockMinimo;
+        public final LocalDate fechaVencimiento;
+
+        AlertaInventario(TipoAlerta tipo, Inventario producto) {
+            this.tipo = tipo;
+            this.productoId = producto.getId();
+            this.nombreProducto = producto.getNombreProducto();
+            this.cantidadStock = producto.getCantidadStock() != null ? producto.getCantidadStock() : 0;
+            this.stockMinimo = producto.getStockMinimo() != null ? producto.getStockMinimo() : 0;
+            this.fechaVencimiento = producto.getFechaVencimiento();
+        }
+
+        @Override
+        public String toString() {
+            return tipo == TipoAlerta.STOCK_BAJO
+                ? String.format("Stock bajo: %s (%d de mínimo %d)", nombreProducto, cantidadStock, stockMinimo)
+                : String.format("Próximo a vencer: %s (vence %s)", nombreProducto, fechaVencimiento);
+        }
+    }
+}
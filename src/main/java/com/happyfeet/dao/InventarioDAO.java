@@ -1,16 +1,37 @@
 package com.happyfeet.dao;
 
 import com.happyfeet.model.Inventario;
+import com.happyfeet.model.MovimientoInventario;
 import com.happyfeet.exception.VeterinariaException;
 import com.happyfeet.util.DatabaseConnection;
+import com.happyfeet.util.TransactionManager;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.logging.Logger;
 
 public class InventarioDAO extends BaseDAO<Inventario> {
+    private static final int TAMANO_LOTE_MOVIMIENTOS = 100;
+    
+    // Delta atómico: una salida solo se aplica si alcanza el stock
+    private static final String SQL_APLICAR_DELTA =
+        "UPDATE inventario SET cantidad_stock = cantidad_stock + ? " +
+        "WHERE id = ? AND activo = TRUE AND cantidad_stock >= ?";
+    // Se ejecuta después del UPDATE: el stock leído ya es el nuevo
+    private static final String SQL_REGISTRAR_MOVIMIENTO =
+        "INSERT INTO movimientos_inventario (producto_id, tipo_movimiento, cantidad, stock_anterior, stock_nuevo, " +
+        "motivo, referencia_consulta_id, referencia_procedimiento_id, usuario) " +
+        "SELECT id, ?, ?, cantidad_stock - ?, cantidad_stock - ?, ?, ?, ?, ? FROM inventario WHERE id = ?";
+    // Se ejecuta antes del UPDATE: el stock leído (y bloqueado) es el anterior
+    private static final String SQL_REGISTRAR_AJUSTE =
+        "INSERT INTO movimientos_inventario (producto_id, tipo_movimiento, cantidad, stock_anterior, stock_nuevo, motivo) " +
+        "SELECT id, 'AJUSTE', ? - cantidad_stock, cantidad_stock, ?, ? FROM inventario WHERE id = ? FOR UPDATE";
+    private static final String SQL_FIJAR_STOCK =
+        "UPDATE inventario SET cantidad_stock = ? WHERE id = ?";
     
     public InventarioDAO() throws VeterinariaException {
         super();
@@ -111,7 +132,8 @@ public class InventarioDAO extends BaseDAO<Inventario> {
         List<Inventario> productos = new ArrayList<>();
         String sql = "SELECT * FROM " + getTableName() + " WHERE producto_tipo_id = ? AND activo = TRUE";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, tipoId);
             ResultSet rs = ps.executeQuery();
             
@@ -131,7 +153,8 @@ public class InventarioDAO extends BaseDAO<Inventario> {
         List<Inventario> productos = new ArrayList<>();
         String sql = "SELECT * FROM " + getTableName() + " WHERE nombre_producto LIKE ? AND activo = TRUE";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, "%" + nombre + "%");
             ResultSet rs = ps.executeQuery();
             
@@ -147,65 +170,169 @@ public class InventarioDAO extends BaseDAO<Inventario> {
         }
     }
     
+    /**
+     * Productos con stock igual o menor al mínimo, desde el índice de alertas en memoria
+     */
     public List<Inventario> findWithLowStock() throws VeterinariaException {
-        List<Inventario> productos = new ArrayList<>();
-        String sql = "SELECT * FROM " + getTableName() + " WHERE cantidad_stock <= stock_minimo AND activo = TRUE";
-        
-        try (PreparedStatement ps = connection.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            
-            while (rs.next()) {
-                productos.add(mapResultSetToEntity(rs));
-            }
-            return productos;
-            
-        } catch (SQLException e) {
-            logger.severe("Error al buscar productos con stock bajo: " + e.getMessage());
-            throw new VeterinariaException("Error al buscar productos con stock bajo", 
-                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
-        }
+        return IndiceAlertasInventario.getInstance().getProductosConStockBajo();
     }
     
+    /**
+     * Productos que vencen en los próximos 30 días, desde el índice de alertas en memoria
+     */
     public List<Inventario> findProximosAVencer() throws VeterinariaException {
-        List<Inventario> productos = new ArrayList<>();
-        String sql = "SELECT * FROM " + getTableName() + " WHERE fecha_vencimiento BETWEEN CURDATE() AND DATE_ADD(CURDATE(), INTERVAL 30 DAY) AND activo = TRUE";
-        
-        try (PreparedStatement ps = connection.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            
-            while (rs.next()) {
-                productos.add(mapResultSetToEntity(rs));
-            }
-            return productos;
-            
-        } catch (SQLException e) {
-            logger.severe("Error al buscar productos próximos a vencer: " + e.getMessage());
-            throw new VeterinariaException("Error al buscar productos próximos a vencer", 
-                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        return IndiceAlertasInventario.getInstance().getProductosProximosAVencer();
+    }
+    
+    /**
+     * Mantiene el índice de alertas al día con cada insert, update, delete o cambio de stock.
+     * Dentro de una transacción espera a que termine (este aviso se repite al terminarla)
+     * para no indexar ni notificar un cambio que todavía puede revertirse.
+     */
+    @Override
+    protected void alModificar(Integer id) {
+        IndiceAlertasInventario indice = IndiceAlertasInventario.siCargado();
+        if (indice == null || id == null || TransactionManager.enTransaccion()) {
+            return;
+        }
+        try {
+            indice.recargar(id);
+        } catch (VeterinariaException e) {
+            logger.warning("No se pudo actualizar el índice de alertas para el producto " + id + ": " + e.getMessage());
         }
     }
     
+    /**
+     * Fija el stock absoluto de un producto (recuento físico) y deja un movimiento de AJUSTE
+     */
     public void actualizarStock(Integer productoId, Integer nuevaCantidad) throws VeterinariaException {
-        String sql = "UPDATE inventario SET cantidad_stock = ? WHERE id = ?";
+        ajustarStock(productoId, nuevaCantidad, null);
+    }
+    
+    /**
+     * Fija el stock absoluto de un producto y registra en el kardex la diferencia como AJUSTE.
+     * El movimiento se inserta leyendo el stock actual con bloqueo (INSERT ... SELECT ... FOR UPDATE),
+     * así el stock anterior registrado es el que reemplaza el UPDATE, sin una lectura previa desde Java.
+     */
+    public void ajustarStock(Integer productoId, Integer nuevaCantidad, String motivo) throws VeterinariaException {
+        TransactionManager.ejecutarEnTransaccion(() -> {
+            try (Connection connection = getConnection()) {
+                try (PreparedStatement ps = connection.prepareStatement(SQL_REGISTRAR_AJUSTE)) {
+                    ps.setInt(1, nuevaCantidad);
+                    ps.setInt(2, nuevaCantidad);
+                    setOptionalString(ps, 3, motivo);
+                    ps.setInt(4, productoId);
+                    if (ps.executeUpdate() == 0) {
+                        throw new VeterinariaException("No se encontró el producto con ID: " + productoId, 
+                                                     VeterinariaException.ErrorType.NOT_FOUND_ERROR);
+                    }
+                }
+                try (PreparedStatement ps = connection.prepareStatement(SQL_FIJAR_STOCK)) {
+                    ps.setInt(1, nuevaCantidad);
+                    ps.setInt(2, productoId);
+                    ps.executeUpdate();
+                }
+                
+            } catch (SQLException e) {
+                logger.severe("Error al actualizar stock de producto: " + e.getMessage());
+                throw new VeterinariaException("Error al actualizar stock de producto", 
+                                             e, VeterinariaException.ErrorType.DATABASE_ERROR);
+            }
+            return null;
+        });
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setInt(1, nuevaCantidad);
-            ps.setInt(2, productoId);
-            
-            int affectedRows = ps.executeUpdate();
-            
-            if (affectedRows == 0) {
-                throw new VeterinariaException("No se encontró el producto con ID: " + productoId, 
-                                             VeterinariaException.ErrorType.NOT_FOUND_ERROR);
+        notificarModificacion(productoId);
+        logger.info("Stock actualizado para producto ID: " + productoId + " - Nuevo stock: " + nuevaCantidad);
+    }
+    
+    /**
+     * Aplica un movimiento de stock (cantidad con signo) y lo registra en el kardex
+     */
+    public void aplicarMovimiento(MovimientoInventario movimiento) throws VeterinariaException {
+        aplicarMovimientos(List.of(movimiento));
+    }
+    
+    /**
+     * Aplica varios movimientos de stock en una sola transacción (por ejemplo los productos de una factura).
+     * Cada uno es un UPDATE atómico por delta que solo afecta la fila si alcanza el stock
+     * (cantidad_stock >= salida), enviados en lote; después se insertan en lote las filas del kardex.
+     * Si algún producto no existe o no tiene stock suficiente no se aplica ninguno.
+     * Los productos se actualizan ordenados por ID para que dos lotes concurrentes tomen
+     * los bloqueos de fila en el mismo orden.
+     */
+    public void aplicarMovimientos(List<MovimientoInventario> movimientos) throws VeterinariaException {
+        if (movimientos == null || movimientos.isEmpty()) {
+            return;
+        }
+        for (MovimientoInventario movimiento : movimientos) {
+            if (movimiento.getProductoId() == null || movimiento.getTipoMovimiento() == null
+                    || movimiento.getCantidad() == null || movimiento.getCantidad() == 0) {
+                throw new VeterinariaException("El movimiento de inventario debe indicar producto, tipo y una cantidad distinta de 0", 
+                                             VeterinariaException.ErrorType.VALIDATION_ERROR);
+            }
+        }
+        
+        List<MovimientoInventario> ordenados = new ArrayList<>(movimientos);
+        ordenados.sort(Comparator.comparing(MovimientoInventario::getProductoId));
+        
+        // El kardex se inserta después de todos los UPDATE: para cada movimiento se resta
+        // del stock final lo que movieron los posteriores del mismo producto en el lote
+        int[] posteriores = new int[ordenados.size()];
+        for (int i = ordenados.size() - 2; i >= 0; i--) {
+            MovimientoInventario siguiente = ordenados.get(i + 1);
+            if (siguiente.getProductoId().equals(ordenados.get(i).getProductoId())) {
+                posteriores[i] = posteriores[i + 1] + siguiente.getCantidad();
+            }
+        }
+        List<Integer> indices = new ArrayList<>(ordenados.size());
+        for (int i = 0; i < ordenados.size(); i++) {
+            indices.add(i);
+        }
+        
+        TransactionManager.ejecutarEnTransaccion(() -> {
+            int[] conteos = ejecutarLote(SQL_APLICAR_DELTA, ordenados, TAMANO_LOTE_MOVIMIENTOS, null, (ps, m) -> {
+                ps.setInt(1, m.getCantidad());
+                ps.setInt(2, m.getProductoId());
+                ps.setInt(3, Math.max(0, -m.getCantidad()));
+            });
+            for (int i = 0; i < conteos.length; i++) {
+                if (conteos[i] == 0) {
+                    throw errorMovimiento(ordenados.get(i));
+                }
             }
             
-            logger.info("Stock actualizado para producto ID: " + productoId + " - Nuevo stock: " + nuevaCantidad);
-            
-        } catch (SQLException e) {
-            logger.severe("Error al actualizar stock de producto: " + e.getMessage());
-            throw new VeterinariaException("Error al actualizar stock de producto", 
-                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+            ejecutarLote(SQL_REGISTRAR_MOVIMIENTO, indices, TAMANO_LOTE_MOVIMIENTOS, null, (ps, i) -> {
+                MovimientoInventario m = ordenados.get(i);
+                ps.setString(1, m.getTipoMovimiento().name());
+                ps.setInt(2, m.getCantidad());
+                ps.setInt(3, posteriores[i] + m.getCantidad());
+                ps.setInt(4, posteriores[i]);
+                setOptionalString(ps, 5, m.getMotivo());
+                setOptionalInt(ps, 6, m.getReferenciaConsultaId());
+                setOptionalInt(ps, 7, m.getReferenciaProcedimientoId());
+                setOptionalString(ps, 8, m.getUsuario());
+                ps.setInt(9, m.getProductoId());
+            });
+            return null;
+        });
+        
+        ordenados.stream().map(MovimientoInventario::getProductoId).distinct().forEach(this::notificarModificacion);
+    }
+    
+    /**
+     * Un UPDATE por delta que no afectó filas: distingue producto inexistente de stock insuficiente
+     * (solo en el camino de error se vuelve a leer el producto)
+     */
+    private VeterinariaException errorMovimiento(MovimientoInventario movimiento) throws VeterinariaException {
+        Optional<Inventario> producto = findById(movimiento.getProductoId());
+        if (producto.isEmpty() || !Boolean.TRUE.equals(producto.get().getActivo())) {
+            return new VeterinariaException("No se encontró el producto con ID: " + movimiento.getProductoId(), 
+                                          VeterinariaException.ErrorType.NOT_FOUND_ERROR);
         }
+        return new VeterinariaException("Stock insuficiente de " + producto.get().getNombreProducto() + 
+                                      ": disponible " + producto.get().getCantidadStock() + 
+                                      ", solicitado " + (-movimiento.getCantidad()), 
+                                      VeterinariaException.ErrorType.BUSINESS_RULE_ERROR);
     }
     
     // Métodos auxiliares para manejar valores opcionales
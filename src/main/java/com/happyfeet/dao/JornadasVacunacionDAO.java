@@ -23,6 +23,14 @@ public class JornadasVacunacionDAO extends BaseDAO<JornadasVacunacion> {
         return "jornadas_vacunacion";
     }
     
+    /**
+     * La tabla jornadas_vacunacion no tiene columna 'activo': delete() borra la fila
+     */
+    @Override
+    protected boolean usaBorradoLogico() {
+        return false;
+    }
+    
     @Override
     protected JornadasVacunacion mapResultSetToEntity(ResultSet rs) throws SQLException {
         JornadasVacunacion jornada = new JornadasVacunacion();
@@ -105,7 +113,8 @@ public class JornadasVacunacionDAO extends BaseDAO<JornadasVacunacion> {
         List<JornadasVacunacion> entities = new ArrayList<>();
         String sql = "SELECT * FROM " + getTableName() + " WHERE estado = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, estado);
             ResultSet rs = ps.executeQuery();
             
@@ -128,7 +137,8 @@ public class JornadasVacunacionDAO extends BaseDAO<JornadasVacunacion> {
         List<JornadasVacunacion> entities = new ArrayList<>();
         String sql = "SELECT * FROM " + getTableName() + " WHERE fecha = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setDate(1, Date.valueOf(fecha));
             ResultSet rs = ps.executeQuery();
             
@@ -151,7 +161,8 @@ public class JornadasVacunacionDAO extends BaseDAO<JornadasVacunacion> {
         List<JornadasVacunacion> entities = new ArrayList<>();
         String sql = "SELECT * FROM " + getTableName() + " WHERE fecha >= CURDATE() AND estado IN ('Planificada', 'En Curso')";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql);
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
             
             while (rs.next()) {
@@ -174,7 +185,8 @@ public class JornadasVacunacionDAO extends BaseDAO<JornadasVacunacion> {
         // Como la tabla no tiene campo activo, hacemos delete físico
         String sql = "DELETE FROM " + getTableName() + " WHERE id = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, id);
             int affectedRows = ps.executeUpdate();
             
@@ -199,7 +211,8 @@ public class JornadasVacunacionDAO extends BaseDAO<JornadasVacunacion> {
     public long count() throws VeterinariaException {
         String sql = "SELECT COUNT(*) FROM " + getTableName();
         
-        try (PreparedStatement ps = connection.prepareStatement(sql);
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
             
             if (rs.next()) {
@@ -22,6 +22,15 @@ public class MascotaAdopcionDAO extends BaseDAO<MascotaAdopcion> {
         return "mascotas_adopcion";
     }
     
+    /**
+     * La tabla mascotas_adopcion no tiene columna 'activo' ni fecha_registro: una mascota
+     * sale de adopción cambiando su estado
+     */
+    @Override
+    protected boolean usaBorradoLogico() {
+        return false;
+    }
+    
     @Override
     protected MascotaAdopcion mapResultSetToEntity(ResultSet rs) throws SQLException {
         MascotaAdopcion mascotaAdopcion = new MascotaAdopcion();
@@ -40,12 +49,6 @@ public class MascotaAdopcionDAO extends BaseDAO<MascotaAdopcion> {
         mascotaAdopcion.setNecesidadesEspeciales(rs.getString("necesidades_especiales"));
         mascotaAdopcion.setFotoAdicionalUrl(rs.getString("foto_adicional_url"));
         
-        Timestamp fechaRegistro = rs.getTimestamp("fecha_registro");
-        if (fechaRegistro != null) {
-            mascotaAdopcion.setFechaRegistro(fechaRegistro.toLocalDateTime());
-        }
-        
-        mascotaAdopcion.setActivo(rs.getBoolean("activo"));
         return mascotaAdopcion;
     }
     
@@ -89,9 +92,10 @@ public class MascotaAdopcionDAO extends BaseDAO<MascotaAdopcion> {
      */
     public List<MascotaAdopcion> findByEstado(String estado) throws VeterinariaException {
         List<MascotaAdopcion> entities = new ArrayList<>();
-        String sql = "SELECT * FROM " + getTableName() + " WHERE estado = ? AND activo = TRUE";
+        String sql = "SELECT * FROM " + getTableName() + " WHERE estado = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, estado);
             ResultSet rs = ps.executeQuery();
             
@@ -118,9 +122,10 @@ public class MascotaAdopcionDAO extends BaseDAO<MascotaAdopcion> {
      * Busca mascotas en adopción por ID de mascota
      */
     public Optional<MascotaAdopcion> findByMascotaId(Integer mascotaId) throws VeterinariaException {
-        String sql = "SELECT * FROM " + getTableName() + " WHERE mascota_id = ? AND activo = TRUE";
+        String sql = "SELECT * FROM " + getTableName() + " WHERE mascota_id = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, mascotaId);
             ResultSet rs = ps.executeQuery();
             
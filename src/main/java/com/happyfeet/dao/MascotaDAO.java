@@ -3,12 +3,14 @@ package com.happyfeet.dao;
 import com.happyfeet.model.Mascota;
 import com.happyfeet.exception.VeterinariaException;
 import com.happyfeet.util.DatabaseConnection;
+import com.happyfeet.util.PoliticaCache;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 public class MascotaDAO extends BaseDAO<Mascota> {
@@ -16,6 +18,15 @@ public class MascotaDAO extends BaseDAO<Mascota> {
     public MascotaDAO() throws VeterinariaException {
         super();
     }
+    
+    /**
+     * Caché por ID: los flujos de recepción leen la misma mascota varias veces por operación
+     */
+    @Override
+    protected PoliticaCache getPoliticaCache() {
+        return new PoliticaCache(Integer.getInteger("happyfeet.cache.mascotas.max", 1000),
+                                 Long.getLong("happyfeet.cache.mascotas.ttlSeg", 120), TimeUnit.SECONDS, true);
+    }
 
     @Override
     protected String getTableName() {
@@ -132,7 +143,8 @@ public class MascotaDAO extends BaseDAO<Mascota> {
         List<Mascota> mascotas = new ArrayList<>();
         String sql = "SELECT * FROM " + getTableName() + " WHERE dueno_id = ? AND activo = TRUE";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, duenoId);
             ResultSet rs = ps.executeQuery();
             
@@ -154,7 +166,8 @@ public class MascotaDAO extends BaseDAO<Mascota> {
     public Optional<Mascota> findByMicrochip(String microchip) throws VeterinariaException {
         String sql = "SELECT * FROM " + getTableName() + " WHERE microchip = ? AND activo = TRUE";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, microchip);
             ResultSet rs = ps.executeQuery();
             
@@ -177,7 +190,8 @@ public class MascotaDAO extends BaseDAO<Mascota> {
         List<Mascota> mascotas = new ArrayList<>();
         String sql = "SELECT * FROM " + getTableName() + " WHERE nombre LIKE ? AND activo = TRUE";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, "%" + nombre + "%");
             ResultSet rs = ps.executeQuery();
             
@@ -200,7 +214,8 @@ public class MascotaDAO extends BaseDAO<Mascota> {
         List<Mascota> mascotas = new ArrayList<>();
         String sql = "SELECT * FROM " + getTableName() + " WHERE raza_id = ? AND activo = TRUE";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, razaId);
             ResultSet rs = ps.executeQuery();
             
@@ -222,7 +237,8 @@ public class MascotaDAO extends BaseDAO<Mascota> {
     public void actualizarPeso(Integer mascotaId, Double nuevoPeso) throws VeterinariaException {
         String sql = "UPDATE mascotas SET peso_actual = ? WHERE id = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             if (nuevoPeso != null) {
                 ps.setDouble(1, nuevoPeso);
             } else {
@@ -231,6 +247,7 @@ public class MascotaDAO extends BaseDAO<Mascota> {
             ps.setInt(2, mascotaId);
             
             int affectedRows = ps.executeUpdate();
+            notificarModificacion(mascotaId);
             
             if (affectedRows == 0) {
                 throw new VeterinariaException("No se encontró la mascota con ID: " + mascotaId, 
@@ -253,7 +270,8 @@ public class MascotaDAO extends BaseDAO<Mascota> {
         List<Mascota> mascotas = new ArrayList<>();
         String sql = "SELECT * FROM " + getTableName() + " WHERE condiciones_preexistentes IS NOT NULL AND condiciones_preexistentes != '' AND activo = TRUE";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql);
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
             
             while (rs.next()) {
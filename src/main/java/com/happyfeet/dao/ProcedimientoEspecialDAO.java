@@ -4,6 +4,7 @@ import com.happyfeet.model.ProcedimientoEspecial;
 import com.happyfeet.exception.VeterinariaException;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -12,11 +13,29 @@ import java.util.Optional;
  * DAO para la gestión de procedimientos especiales en la base de datos
  */
 public class ProcedimientoEspecialDAO extends BaseDAO<ProcedimientoEspecial> {
+    static final String SQL_POR_MASCOTA =
+        "SELECT * FROM procedimientos_especiales WHERE mascota_id = ? ORDER BY fecha_hora DESC, id DESC";
+    // Keyset sobre (fecha_hora, id): con mascota_id fijo, idx_mascota_fecha (que incluye el id)
+    // entrega las filas ya ordenadas y la página se corta en LIMIT sin filesort
+    static final String SQL_PAGINA_POR_MASCOTA =
+        "SELECT * FROM procedimientos_especiales WHERE mascota_id = ? " +
+        "AND (fecha_hora < ? OR (fecha_hora = ? AND id < ?)) " +
+        "ORDER BY fecha_hora DESC, id DESC LIMIT ?";
+    // Cursor de la primera página: posterior a cualquier fecha registrada
+    private static final LocalDateTime SIN_CURSOR = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
     
     public ProcedimientoEspecialDAO() throws VeterinariaException {
         super();
     }
 
+    /**
+     * La tabla procedimientos_especiales no tiene columna 'activo': un procedimiento se cancela cambiando su estado
+     */
+    @Override
+    protected boolean usaBorradoLogico() {
+        return false;
+    }
+    
     @Override
     protected String getTableName() {
         return "procedimientos_especiales";
@@ -53,15 +72,6 @@ public class ProcedimientoEspecialDAO extends BaseDAO<ProcedimientoEspecial> {
         procedimiento.setCostoProcedimiento(rs.getDouble("costo_procedimiento"));
         if (rs.wasNull()) procedimiento.setCostoProcedimiento(null);
         
-        // Campos de BaseEntity
-        Timestamp fechaRegistro = rs.getTimestamp("fecha_registro");
-        if (fechaRegistro != null) {
-            procedimiento.setFechaRegistro(fechaRegistro.toLocalDateTime());
-        }
-        
-        procedimiento.setActivo(rs.getBoolean("activo"));
-        if (rs.wasNull()) procedimiento.setActivo(true);
-        
         return procedimiento;
     }
 
@@ -159,9 +169,10 @@ public class ProcedimientoEspecialDAO extends BaseDAO<ProcedimientoEspecial> {
      */
     public List<ProcedimientoEspecial> findByMascotaId(Integer mascotaId) throws VeterinariaException {
         List<ProcedimientoEspecial> procedimientos = new ArrayList<>();
-        String sql = "SELECT * FROM " + getTableName() + " WHERE mascota_id = ? AND activo = TRUE ORDER BY fecha_hora DESC";
+        String sql = SQL_POR_MASCOTA;
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, mascotaId);
             ResultSet rs = ps.executeQuery();
             
@@ -177,14 +188,54 @@ public class ProcedimientoEspecialDAO extends BaseDAO<ProcedimientoEspecial> {
         }
     }
     
+    /**
+     * Página de la línea de tiempo de una mascota, de lo más reciente a lo más antiguo.
+     * El cursor es la fecha y el ID del último registro de la página anterior; en la
+     * primera página ambos son null.
+     */
+    public List<ProcedimientoEspecial> findPaginaPorMascota(Integer mascotaId, LocalDateTime antesDeFecha, Integer antesDeId,
+                                                            int limite) throws VeterinariaException {
+        if (limite <= 0) {
+            throw new VeterinariaException("El tamaño de página debe ser mayor a 0", 
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+        Timestamp fecha = Timestamp.valueOf(antesDeFecha != null ? antesDeFecha : SIN_CURSOR);
+        int id = antesDeFecha != null && antesDeId != null ? antesDeId : Integer.MAX_VALUE;
+        
+        try {
+            return ejecutarLectura(connection -> {
+                List<ProcedimientoEspecial> pagina = new ArrayList<>(limite);
+                try (PreparedStatement ps = connection.prepareStatement(SQL_PAGINA_POR_MASCOTA)) {
+                    ps.setInt(1, mascotaId);
+                    ps.setTimestamp(2, fecha);
+                    ps.setTimestamp(3, fecha);
+                    ps.setInt(4, id);
+                    ps.setInt(5, limite);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            pagina.add(mapResultSetToEntity(rs));
+                        }
+                    }
+                }
+                return pagina;
+            });
+            
+        } catch (SQLException e) {
+            logger.severe("Error al obtener página de procedimientos por mascota: " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al obtener página de procedimientos por mascota", 
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
+    
     /**
      * Busca procedimientos por ID de veterinario
      */
     public List<ProcedimientoEspecial> findByVeterinarioId(Integer veterinarioId) throws VeterinariaException {
         List<ProcedimientoEspecial> procedimientos = new ArrayList<>();
-        String sql = "SELECT * FROM " + getTableName() + " WHERE veterinario_id = ? AND activo = TRUE ORDER BY fecha_hora DESC";
+        String sql = "SELECT * FROM " + getTableName() + " WHERE veterinario_id = ? ORDER BY fecha_hora DESC";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, veterinarioId);
             ResultSet rs = ps.executeQuery();
             
@@ -205,9 +256,10 @@ public class ProcedimientoEspecialDAO extends BaseDAO<ProcedimientoEspecial> {
      */
     public List<ProcedimientoEspecial> findByEstado(String estado) throws VeterinariaException {
         List<ProcedimientoEspecial> procedimientos = new ArrayList<>();
-        String sql = "SELECT * FROM " + getTableName() + " WHERE estado = ? AND activo = TRUE ORDER BY fecha_hora DESC";
+        String sql = "SELECT * FROM " + getTableName() + " WHERE estado = ? ORDER BY fecha_hora DESC";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, estado);
             ResultSet rs = ps.executeQuery();
             
@@ -228,9 +280,10 @@ public class ProcedimientoEspecialDAO extends BaseDAO<ProcedimientoEspecial> {
      */
     public List<ProcedimientoEspecial> findByTipo(String tipoProcedimiento) throws VeterinariaException {
         List<ProcedimientoEspecial> procedimientos = new ArrayList<>();
-        String sql = "SELECT * FROM " + getTableName() + " WHERE tipo_procedimiento = ? AND activo = TRUE ORDER BY fecha_hora DESC";
+        String sql = "SELECT * FROM " + getTableName() + " WHERE tipo_procedimiento = ? ORDER BY fecha_hora DESC";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, tipoProcedimiento);
             ResultSet rs = ps.executeQuery();
             
@@ -250,9 +303,10 @@ public class ProcedimientoEspecialDAO extends BaseDAO<ProcedimientoEspecial> {
      * Actualiza el estado de un procedimiento
      */
     public boolean updateEstado(Integer id, String nuevoEstado) throws VeterinariaException {
-        String sql = "UPDATE " + getTableName() + " SET estado = ? WHERE id = ? AND activo = TRUE";
+        String sql = "UPDATE " + getTableName() + " SET estado = ? WHERE id = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, nuevoEstado);
             ps.setInt(2, id);
             
@@ -270,9 +324,10 @@ public class ProcedimientoEspecialDAO extends BaseDAO<ProcedimientoEspecial> {
      * Cuenta procedimientos por estado
      */
     public long countByEstado(String estado) throws VeterinariaException {
-        String sql = "SELECT COUNT(*) FROM " + getTableName() + " WHERE estado = ? AND activo = TRUE";
+        String sql = "SELECT COUNT(*) FROM " + getTableName() + " WHERE estado = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, estado);
             ResultSet rs = ps.executeQuery();
             
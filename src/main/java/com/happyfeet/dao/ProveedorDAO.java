@@ -78,7 +78,8 @@ public class ProveedorDAO extends BaseDAO<Proveedor> {
         List<Proveedor> proveedores = new ArrayList<>();
         String sql = "SELECT * FROM " + getTableName() + " WHERE nombre_empresa LIKE ? AND activo = TRUE";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, "%" + nombre + "%");
             ResultSet rs = ps.executeQuery();
             
@@ -97,7 +98,8 @@ public class ProveedorDAO extends BaseDAO<Proveedor> {
     public Optional<Proveedor> findByEmail(String email) throws VeterinariaException {
         String sql = "SELECT * FROM " + getTableName() + " WHERE email = ? AND activo = TRUE";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, email);
             ResultSet rs = ps.executeQuery();
             
@@ -0,0 +1,126 @@
+package com.happyfeet.dao;
+
+import com.happyfeet.util.RangoFechas;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consultas de los DAO que filtran por rango de fechas, recorren la línea de tiempo
+ * de una mascota, buscan dueños o bloquean un horario por índice, con parámetros de ejemplo, para revisar
+ * su plan de ejecución con EXPLAIN (ver herramientas.VerificadorPlanesConsultas).
+ * Al agregar una consulta de ese tipo a un DAO, registrarla aquí.
+ */
+public final class RegistroConsultas {
+
+    /**
+     * Asigna parámetros de ejemplo a la consulta
+     */
+    @FunctionalInterface
+    public interface ParametrosEjemplo {
+        void asignar(PreparedStatement ps) throws SQLException;
+    }
+
+    /**
+     * Consulta registrada y las tablas que puede recorrer completas (catálogos pequeños)
+     */
+    public static final class ConsultaRegistrada {
+        public final String nombre;
+        public final String sql;
+        public final ParametrosEjemplo parametros;
+        public final Set<String> tablasPermitidas;
+
+        public ConsultaRegistrada(String nombre, String sql, ParametrosEjemplo parametros, String... tablasPermitidas) {
+            this.nombre = nombre;
+            this.sql = sql;
+            this.parametros = parametros;
+            this.tablasPermitidas = Set.of(tablasPermitidas);
+        }
+    }
+
+    private RegistroConsultas() {
+    }
+
+    /**
+     * Todas las consultas registradas, con un rango de ejemplo de los últimos 30 días
+     * y la mascota 1 para las líneas de tiempo
+     */
+    public static List<ConsultaRegistrada> todas() {
+        RangoFechas mes = RangoFechas.dias(LocalDate.now().minusDays(30), LocalDate.now());
+        Timestamp ahora = Timestamp.valueOf(mes.getFin());
+        Date hoy = Date.valueOf(LocalDate.now());
+        return List.of(
+            new ConsultaRegistrada("CitaDAO.findByRango", CitaDAO.SQL_POR_RANGO_FECHAS,
+                                   ps -> mes.asignar(ps, 1)),
+            new ConsultaRegistrada("CitaDAO.findTramosActivos", CitaDAO.SQL_TRAMOS_ACTIVOS,
+                                   ps -> mes.asignar(ps, 1), "cita_estados"),
+            new ConsultaRegistrada("CitaDAO.bloquearSolapadas", CitaDAO.SQL_SOLAPADAS,
+                                   ps -> {
+                                       ps.setInt(1, 1);
+                                       ps.setTimestamp(2, ahora);
+                                       ps.setTimestamp(3, Timestamp.valueOf(mes.getFin().plusHours(1)));
+                                       ps.setInt(4, 0);
+                                   }, "cita_estados"),
+            new ConsultaRegistrada("ConsultaMedicaDAO.findByFechaBetween", ConsultaMedicaDAO.SQL_POR_RANGO_FECHAS,
+                                   ps -> mes.asignar(ps, 1)),
+            new ConsultaRegistrada("ConsultaMedicaDAO.findByMascotaId", ConsultaMedicaDAO.SQL_POR_MASCOTA,
+                                   ps -> ps.setInt(1, 1)),
+            new ConsultaRegistrada("ConsultaMedicaDAO.findPaginaPorMascota", ConsultaMedicaDAO.SQL_PAGINA_POR_MASCOTA,
+                                   ps -> asignarPagina(ps, ahora)),
+            new ConsultaRegistrada("ProcedimientoEspecialDAO.findByMascotaId", ProcedimientoEspecialDAO.SQL_POR_MASCOTA,
+                                   ps -> ps.setInt(1, 1)),
+            new ConsultaRegistrada("ProcedimientoEspecialDAO.findPaginaPorMascota",
+                                   ProcedimientoEspecialDAO.SQL_PAGINA_POR_MASCOTA,
+                                   ps -> asignarPagina(ps, ahora)),
+            new ConsultaRegistrada("HistorialMedicoDAO.findByMascotaId", HistorialMedicoDAO.SQL_POR_MASCOTA,
+                                   ps -> ps.setInt(1, 1)),
+            new ConsultaRegistrada("HistorialMedicoDAO.findPaginaPorMascota", HistorialMedicoDAO.SQL_PAGINA_POR_MASCOTA,
+                                   ps -> asignarPagina(ps, hoy)),
+            new ConsultaRegistrada("RegistroJornadaVacunacionDAO.findByMascotaId",
+                                   RegistroJornadaVacunacionDAO.SQL_POR_MASCOTA,
+                                   ps -> ps.setInt(1, 1)),
+            new ConsultaRegistrada("RegistroJornadaVacunacionDAO.findPaginaPorMascota",
+                                   RegistroJornadaVacunacionDAO.SQL_PAGINA_POR_MASCOTA,
+                                   ps -> asignarPagina(ps, ahora)),
+            new ConsultaRegistrada("HistorialMedicoDAO.findByFechaRange", HistorialMedicoDAO.SQL_POR_RANGO_FECHAS,
+                                   ps -> mes.asignarComoFechas(ps, 1)),
+            new ConsultaRegistrada("DuenoDAO.findByEmail", DuenoDAO.SQL_FIND_BY_EMAIL,
+                                   ps -> ps.setString(1, "dueno@ejemplo.com")),
+            new ConsultaRegistrada("DuenoDAO.findPageOrderedByNombre", DuenoDAO.SQL_PAGINA_ORDENADA,
+                                   ps -> {
+                                       ps.setString(1, "M");
+                                       ps.setString(2, "M");
+                                       ps.setInt(3, 0);
+                                       ps.setInt(4, 20);
+                                   }),
+            new ConsultaRegistrada("FacturaDAO.obtenerIdsPorRangoFechas", FacturaDAO.SQL_IDS_POR_RANGO_FECHAS,
+                                   ps -> mes.asignar(ps, 1)),
+            new ConsultaRegistrada("FacturaDAO.streamLineasPorRangoFechas", FacturaDAO.SQL_LINEAS_EXPORTACION,
+                                   ps -> mes.asignar(ps, 1)),
+            new ConsultaRegistrada("FacturacionDiariaDAO.reconstruir", FacturacionDiariaDAO.SQL_RECONSTRUIR_RANGO,
+                                   ps -> mes.asignar(ps, 1)),
+            new ConsultaRegistrada("ReporteDAO.obtenerServiciosMasSolicitados", ReporteDAO.SQL_SERVICIOS_MAS_SOLICITADOS,
+                                   ps -> mes.asignar(ps, 1)),
+            new ConsultaRegistrada("ReporteDAO.obtenerDesempenioVeterinarios", ReporteDAO.SQL_DESEMPENIO_VETERINARIOS,
+                                   ps -> mes.asignar(ps, mes.asignar(ps, 1)), "veterinarios", "servicios"),
+            new ConsultaRegistrada("ReporteDAO.obtenerFacturacionPorPeriodo", ReporteDAO.sqlFacturacionPorPeriodo("MENSUAL"),
+                                   ps -> mes.asignarComoFechas(ps, 1))
+        );
+    }
+
+    /**
+     * Parámetros de las páginas por mascota: mascota 1, cursor en la fecha dada, 20 filas
+     */
+    private static void asignarPagina(PreparedStatement ps, Object cursor) throws SQLException {
+        ps.setInt(1, 1);
+        ps.setObject(2, cursor);
+        ps.setObject(3, cursor);
+        ps.setInt(4, Integer.MAX_VALUE);
+        ps.setInt(5, 20);
+    }
+}
@@ -4,6 +4,7 @@ import com.happyfeet.model.RegistroJornadaVacunacion;
 import com.happyfeet.exception.VeterinariaException;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -12,11 +13,28 @@ import java.util.Optional;
  * DAO para la gestión de registros de jornadas de vacunación
  */
 public class RegistroJornadaVacunacionDAO extends BaseDAO<RegistroJornadaVacunacion> {
+    static final String SQL_POR_MASCOTA =
+        "SELECT * FROM registro_jornada_vacunacion WHERE mascota_id = ? ORDER BY fecha_hora DESC, id DESC";
+    // Keyset sobre (fecha_hora, id) recorriendo idx_mascota_fecha, igual que las demás líneas de tiempo
+    static final String SQL_PAGINA_POR_MASCOTA =
+        "SELECT * FROM registro_jornada_vacunacion WHERE mascota_id = ? " +
+        "AND (fecha_hora < ? OR (fecha_hora = ? AND id < ?)) " +
+        "ORDER BY fecha_hora DESC, id DESC LIMIT ?";
+    // Cursor de la primera página: posterior a cualquier fecha registrada
+    private static final LocalDateTime SIN_CURSOR = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
     
     public RegistroJornadaVacunacionDAO() throws VeterinariaException {
         super();
     }
     
+    /**
+     * La tabla registro_jornada_vacunacion no tiene columna 'activo'; delete() borra la fila
+     */
+    @Override
+    protected boolean usaBorradoLogico() {
+        return false;
+    }
+    
     @Override
     protected String getTableName() {
         return "registro_jornada_vacunacion";
@@ -104,7 +122,8 @@ public class RegistroJornadaVacunacionDAO extends BaseDAO<RegistroJornadaVacunac
         List<RegistroJornadaVacunacion> entities = new ArrayList<>();
         String sql = "SELECT * FROM " + getTableName() + " WHERE jornada_id = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, jornadaId);
             ResultSet rs = ps.executeQuery();
             
@@ -125,9 +144,10 @@ public class RegistroJornadaVacunacionDAO extends BaseDAO<RegistroJornadaVacunac
      */
     public List<RegistroJornadaVacunacion> findByMascotaId(Integer mascotaId) throws VeterinariaException {
         List<RegistroJornadaVacunacion> entities = new ArrayList<>();
-        String sql = "SELECT * FROM " + getTableName() + " WHERE mascota_id = ?";
+        String sql = SQL_POR_MASCOTA;
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, mascotaId);
             ResultSet rs = ps.executeQuery();
             
@@ -143,6 +163,45 @@ public class RegistroJornadaVacunacionDAO extends BaseDAO<RegistroJornadaVacunac
         }
     }
     
+    /**
+     * Página de las vacunas de una mascota, de la más reciente a la más antigua.
+     * El cursor es la fecha y el ID del último registro de la página anterior; en la
+     * primera página ambos son null.
+     */
+    public List<RegistroJornadaVacunacion> findPaginaPorMascota(Integer mascotaId, LocalDateTime antesDeFecha,
+                                                                Integer antesDeId, int limite) throws VeterinariaException {
+        if (limite <= 0) {
+            throw new VeterinariaException("El tamaño de página debe ser mayor a 0", 
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+        Timestamp fecha = Timestamp.valueOf(antesDeFecha != null ? antesDeFecha : SIN_CURSOR);
+        int id = antesDeFecha != null && antesDeId != null ? antesDeId : Integer.MAX_VALUE;
+        
+        try {
+            return ejecutarLectura(connection -> {
+                List<RegistroJornadaVacunacion> pagina = new ArrayList<>(limite);
+                try (PreparedStatement ps = connection.prepareStatement(SQL_PAGINA_POR_MASCOTA)) {
+                    ps.setInt(1, mascotaId);
+                    ps.setTimestamp(2, fecha);
+                    ps.setTimestamp(3, fecha);
+                    ps.setInt(4, id);
+                    ps.setInt(5, limite);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            pagina.add(mapResultSetToEntity(rs));
+                        }
+                    }
+                }
+                return pagina;
+            });
+            
+        } catch (SQLException e) {
+            logger.severe("Error al obtener página de vacunas por mascota: " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al obtener página de vacunas por mascota", 
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
+    
     /**
      * Busca registros por dueño
      */
@@ -150,7 +209,8 @@ public class RegistroJornadaVacunacionDAO extends BaseDAO<RegistroJornadaVacunac
         List<RegistroJornadaVacunacion> entities = new ArrayList<>();
         String sql = "SELECT * FROM " + getTableName() + " WHERE dueno_id = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, duenoId);
             ResultSet rs = ps.executeQuery();
             
@@ -172,7 +232,8 @@ public class RegistroJornadaVacunacionDAO extends BaseDAO<RegistroJornadaVacunac
     public long countByJornadaId(Integer jornadaId) throws VeterinariaException {
         String sql = "SELECT COUNT(*) FROM " + getTableName() + " WHERE jornada_id = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, jornadaId);
             ResultSet rs = ps.executeQuery();
             
@@ -196,7 +257,8 @@ public class RegistroJornadaVacunacionDAO extends BaseDAO<RegistroJornadaVacunac
         // Como la tabla no tiene campo activo, hacemos delete físico
         String sql = "DELETE FROM " + getTableName() + " WHERE id = ?";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, id);
             int affectedRows = ps.executeUpdate();
             
@@ -221,7 +283,8 @@ public class RegistroJornadaVacunacionDAO extends BaseDAO<RegistroJornadaVacunac
     public long count() throws VeterinariaException {
         String sql = "SELECT COUNT(*) FROM " + getTableName();
         
-        try (PreparedStatement ps = connection.prepareStatement(sql);
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
             
             if (rs.next()) {
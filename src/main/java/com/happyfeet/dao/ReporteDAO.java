@@ -1,210 +1,323 @@
 package com.happyfeet.dao;
 
 import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.model.Inventario;
 import com.happyfeet.util.DatabaseConnection;
+import com.happyfeet.util.RangoFechas;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * DAO especializado para generar reportes del sistema
  * Aplica principios SOLID: Single Responsibility - solo se encarga de reportes
  */
 public class ReporteDAO {
-    protected Connection connection;
+    // Escala de inventario.precio_venta (DECIMAL(10, 2))
+    private static final int ESCALA_PRECIO = 2;
+
+    static final String SQL_SERVICIOS_MAS_SOLICITADOS = """
+        SELECT s.nombre, s.categoria, COUNT(if.servicio_id) as total_veces, 
+               SUM(if.subtotal) as ingreso_total
+        FROM items_factura if
+        JOIN servicios s ON if.servicio_id = s.id
+        JOIN facturas f ON if.factura_id = f.id
+        WHERE %s
+        GROUP BY s.id, s.nombre, s.categoria
+        ORDER BY total_veces DESC, ingreso_total DESC
+        LIMIT 10
+        """.formatted(RangoFechas.predicado("f.fecha_emision"));
+    static final String SQL_DESEMPENIO_VETERINARIOS = """
+        SELECT v.nombre_completo, v.especialidad,
+               COALESCE(c.total_consultas, 0) as total_consultas,
+               COALESCE(p.total_procedimientos, 0) as total_procedimientos,
+               COALESCE(c.total_consultas, 0) * COALESCE(t.precio_base, 0) as ingreso_consultas,
+               COALESCE(p.ingreso_procedimientos, 0) as ingreso_procedimientos
+        FROM veterinarios v
+        LEFT JOIN (
+            SELECT veterinario_id, COUNT(*) as total_consultas
+            FROM consultas_medicas
+            WHERE %s
+            GROUP BY veterinario_id
+        ) c ON c.veterinario_id = v.id
+        LEFT JOIN (
+            SELECT veterinario_id, COUNT(*) as total_procedimientos,
+                   SUM(COALESCE(costo_procedimiento, 0)) as ingreso_procedimientos
+            FROM procedimientos_especiales
+            WHERE %s
+            GROUP BY veterinario_id
+        ) p ON p.veterinario_id = v.id
+        LEFT JOIN (
+            SELECT precio_base
+            FROM servicios
+            WHERE activo = TRUE AND nombre LIKE '%%consulta%%'
+            ORDER BY id
+            LIMIT 1
+        ) t ON TRUE
+        WHERE v.activo = TRUE
+        ORDER BY (total_consultas + total_procedimientos) DESC
+        """.formatted(RangoFechas.predicado("fecha_hora"), RangoFechas.predicado("fecha_hora"));
+    
+    // Límite (System.nanoTime) de las consultas de reportes del hilo actual; ver conLimite
+    private static final ThreadLocal<Long> limiteConsultas = new ThreadLocal<>();
+    
+    private final DatabaseConnection database;
     protected final java.util.logging.Logger logger;
     
     public ReporteDAO() throws VeterinariaException {
-        this.connection = DatabaseConnection.getInstance().getConnection();
+        this.database = DatabaseConnection.getInstance();
         this.logger = java.util.logging.Logger.getLogger(getClass().getName());
     }
+    
+    /**
+     * Toma una conexión del pool para una operación; cerrarla la devuelve al pool
+     */
+    protected Connection getConnection() throws SQLException {
+        return database.getConnection();
+    }
+    
+    /**
+     * Ejecuta una lectura idempotente reintentando con otra conexión si la actual se cae
+     */
+    protected <R> R ejecutarLectura(DatabaseConnection.OperacionSql<R> operacion) throws SQLException {
+        return database.ejecutarLectura(operacion);
+    }
+    
+    /**
+     * Operación de reportes que se ejecuta con un límite de tiempo
+     */
+    @FunctionalInterface
+    public interface OperacionReporte<R> {
+        R ejecutar() throws VeterinariaException;
+    }
+    
+    /**
+     * Ejecuta una operación cuyas consultas de reportes deben terminar antes de 'limiteNanos'
+     * (System.nanoTime). Cada consulta recibe como timeout el tiempo que falta: al agotarse
+     * el servidor la cancela y la conexión vuelve al pool, cosa que interrumpir el hilo no logra.
+     */
+    public static <R> R conLimite(long limiteNanos, OperacionReporte<R> operacion) throws VeterinariaException {
+        Long anterior = limiteConsultas.get();
+        limiteConsultas.set(limiteNanos);
+        try {
+            return operacion.ejecutar();
+        } finally {
+            if (anterior == null) {
+                limiteConsultas.remove();
+            } else {
+                limiteConsultas.set(anterior);
+            }
+        }
+    }
+    
+    /**
+     * Prepara una consulta aplicando el límite de conLimite, si lo hay
+     */
+    private static PreparedStatement preparar(Connection connection, String sql) throws SQLException {
+        Long limite = limiteConsultas.get();
+        if (limite != null && limite - System.nanoTime() <= 0) {
+            throw new SQLTimeoutException("Tiempo agotado antes de ejecutar la consulta");
+        }
+        PreparedStatement ps = connection.prepareStatement(sql);
+        if (limite != null) {
+            long restanteMs = TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime());
+            try {
+                // setQueryTimeout admite segundos enteros; se redondea hacia arriba
+                ps.setQueryTimeout((int) Math.max(1, (restanteMs + 999) / 1000));
+            } catch (SQLException e) {
+                ps.close();
+                throw e;
+            }
+        }
+        return ps;
+    }
 
     /**
-     * Reporte de servicios más solicitados en un período
+     * Reporte de servicios más solicitados en un período (fechas inclusive)
      */
     public List<ServicioReporte> obtenerServiciosMasSolicitados(LocalDate fechaInicio, LocalDate fechaFin) throws VeterinariaException {
-        List<ServicioReporte> reportes = new ArrayList<>();
-        String sql = """
-            SELECT s.nombre, s.categoria, COUNT(if.servicio_id) as total_veces, 
-                   SUM(if.subtotal) as ingreso_total
-            FROM items_factura if
-            JOIN servicios s ON if.servicio_id = s.id
-            JOIN facturas f ON if.factura_id = f.id
-            WHERE f.fecha_emision BETWEEN ? AND ?
-            GROUP BY s.id, s.nombre, s.categoria
-            ORDER BY total_veces DESC, ingreso_total DESC
-            LIMIT 10
-            """;
+        RangoFechas rango = RangoFechas.dias(fechaInicio, fechaFin);
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setDate(1, Date.valueOf(fechaInicio));
-            ps.setDate(2, Date.valueOf(fechaFin));
-            ResultSet rs = ps.executeQuery();
-            
-            while (rs.next()) {
-                reportes.add(new ServicioReporte(
-                    rs.getString("nombre"),
-                    rs.getString("categoria"),
-                    rs.getInt("total_veces"),
-                    rs.getBigDecimal("ingreso_total")
-                ));
-            }
+        try {
+            return ejecutarLectura(connection -> {
+                List<ServicioReporte> reportes = new ArrayList<>();
+                try (PreparedStatement ps = preparar(connection, SQL_SERVICIOS_MAS_SOLICITADOS)) {
+                    rango.asignar(ps, 1);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            reportes.add(new ServicioReporte(
+                                rs.getString("nombre"),
+                                rs.getString("categoria"),
+                                rs.getInt("total_veces"),
+                                rs.getBigDecimal("ingreso_total")
+                            ));
+                        }
+                    }
+                }
+                return reportes;
+            });
             
         } catch (SQLException e) {
             logger.severe("Error al obtener reporte de servicios: " + e.getMessage());
             throw new VeterinariaException("Error en operación de BD al obtener reporte de servicios", 
                                          e, VeterinariaException.ErrorType.DATABASE_ERROR);
         }
-        
-        return reportes;
     }
 
     /**
-     * Reporte de desempeño de veterinarios
+     * Reporte de desempeño de veterinarios (fechas inclusive)
+     * Consultas y procedimientos se agregan por veterinario en subconsultas separadas y
+     * luego se unen 1 a 1, así el costo crece con las filas del rango y no con su producto.
+     * Cada consulta se valora con la tarifa del servicio de consulta (el primero activo
+     * cuyo nombre contiene 'consulta'), que se busca una sola vez.
      */
     public List<VeterinarioReporte> obtenerDesempenioVeterinarios(LocalDate fechaInicio, LocalDate fechaFin) throws VeterinariaException {
-        List<VeterinarioReporte> reportes = new ArrayList<>();
-        String sql = """
-            SELECT v.nombre_completo, v.especialidad,
-                   COUNT(DISTINCT c.id) as total_consultas,
-                   COUNT(DISTINCT p.id) as total_procedimientos,
-                   SUM(CASE WHEN c.id IS NOT NULL THEN s.precio_base ELSE 0 END) as ingreso_consultas,
-                   SUM(CASE WHEN p.id IS NOT NULL THEN p.costo_procedimiento ELSE 0 END) as ingreso_procedimientos
-            FROM veterinarios v
-            LEFT JOIN consultas_medicas c ON v.id = c.veterinario_id AND c.fecha_hora BETWEEN ? AND ?
-            LEFT JOIN procedimientos_especiales p ON v.id = p.veterinario_id AND p.fecha_hora BETWEEN ? AND ?
-            LEFT JOIN servicios s ON s.nombre LIKE '%consulta%'
-            WHERE v.activo = TRUE
-            GROUP BY v.id, v.nombre_completo, v.especialidad
-            ORDER BY (total_consultas + total_procedimientos) DESC
-            """;
+        RangoFechas rango = RangoFechas.dias(fechaInicio, fechaFin);
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setDate(1, Date.valueOf(fechaInicio));
-            ps.setDate(2, Date.valueOf(fechaFin));
-            ps.setDate(3, Date.valueOf(fechaInicio));
-            ps.setDate(4, Date.valueOf(fechaFin));
-            ResultSet rs = ps.executeQuery();
-            
-            while (rs.next()) {
-                reportes.add(new VeterinarioReporte(
-                    rs.getString("nombre_completo"),
-                    rs.getString("especialidad"),
-                    rs.getInt("total_consultas"),
-                    rs.getInt("total_procedimientos"),
-                    rs.getBigDecimal("ingreso_consultas"),
-                    rs.getBigDecimal("ingreso_procedimientos")
-                ));
-            }
+        try {
+            return ejecutarLectura(connection -> {
+                List<VeterinarioReporte> reportes = new ArrayList<>();
+                try (PreparedStatement ps = preparar(connection, SQL_DESEMPENIO_VETERINARIOS)) {
+                    rango.asignar(ps, rango.asignar(ps, 1));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            reportes.add(new VeterinarioReporte(
+                                rs.getString("nombre_completo"),
+                                rs.getString("especialidad"),
+                                rs.getInt("total_consultas"),
+                                rs.getInt("total_procedimientos"),
+                                rs.getBigDecimal("ingreso_consultas"),
+                                rs.getBigDecimal("ingreso_procedimientos")
+                            ));
+                        }
+                    }
+                }
+                return reportes;
+            });
             
         } catch (SQLException e) {
             logger.severe("Error al obtener reporte de veterinarios: " + e.getMessage());
             throw new VeterinariaException("Error en operación de BD al obtener reporte de veterinarios", 
                                          e, VeterinariaException.ErrorType.DATABASE_ERROR);
         }
-        
-        return reportes;
     }
 
     /**
      * Reporte de estado de inventario con alertas
+     * Se arma desde el índice de alertas en memoria (stock bajo, vencidos y próximos a
+     * vencer), sin recorrer la tabla de inventario.
      */
     public List<InventarioReporte> obtenerEstadoInventario() throws VeterinariaException {
-        List<InventarioReporte> reportes = new ArrayList<>();
-        String sql = """
-            SELECT nombre_producto, producto_tipo_id, cantidad_stock, stock_minimo, 
-                   fecha_vencimiento, precio_venta,
-                   CASE 
-                     WHEN cantidad_stock <= stock_minimo THEN 'STOCK_BAJO'
-                     WHEN fecha_vencimiento <= DATE_ADD(CURDATE(), INTERVAL 30 DAY) THEN 'PROXIMO_VENCER'
-                     ELSE 'NORMAL'
-                   END as estado
-            FROM inventario 
-            WHERE activo = TRUE 
-            AND (cantidad_stock <= stock_minimo OR fecha_vencimiento <= DATE_ADD(CURDATE(), INTERVAL 30 DAY))
-            ORDER BY estado, fecha_vencimiento, cantidad_stock
-            """;
+        IndiceAlertasInventario indice = IndiceAlertasInventario.getInstance();
+        Map<Integer, Inventario> conAlerta = new LinkedHashMap<>();
+        for (Inventario producto : indice.getProductosConStockBajo()) {
+            conAlerta.put(producto.getId(), producto);
+        }
+        for (Inventario producto : indice.getProductosVencidosOProximos()) {
+            conAlerta.putIfAbsent(producto.getId(), producto);
+        }
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                reportes.add(new InventarioReporte(
-                    rs.getString("nombre_producto"),
-                    rs.getInt("producto_tipo_id"),
-                    rs.getInt("cantidad_stock"),
-                    rs.getInt("stock_minimo"),
-                    rs.getDate("fecha_vencimiento") != null ? 
-                        rs.getDate("fecha_vencimiento").toLocalDate() : null,
-                    rs.getBigDecimal("precio_venta"),
-                    rs.getString("estado")
-                ));
-            }
-            
-        } catch (SQLException e) {
-            logger.severe("Error al obtener reporte de inventario: " + e.getMessage());
-            throw new VeterinariaException("Error en operación de BD al obtener reporte de inventario", 
-                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        List<InventarioReporte> reportes = new ArrayList<>(conAlerta.size());
+        for (Inventario producto : conAlerta.values()) {
+            boolean stockBajo = producto.getCantidadStock() <= producto.getStockMinimo();
+            reportes.add(new InventarioReporte(
+                producto.getNombreProducto(),
+                producto.getProductoTipoId(),
+                producto.getCantidadStock(),
+                producto.getStockMinimo(),
+                producto.getFechaVencimiento(),
+                precioVenta(producto),
+                stockBajo ? "STOCK_BAJO" : "PROXIMO_VENCER"
+            ));
         }
         
+        // Mismo orden que la consulta original: estado, fecha de vencimiento (sin fecha primero) y stock
+        reportes.sort(Comparator.comparing((InventarioReporte r) -> r.estado)
+            .thenComparing(r -> r.fechaVencimiento, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingInt(r -> r.cantidadStock));
         return reportes;
     }
 
     /**
-     * Reporte de facturación por período
+     * Precio de venta con la escala de la columna DECIMAL(10, 2), igual que rs.getBigDecimal:
+     * el índice guarda el precio como Double y BigDecimal.valueOf(2.5) daría escala 1.
+     * Con 10 dígitos el valor pasa por double sin pérdida, solo hay que restaurar la escala.
+     */
+    private static BigDecimal precioVenta(Inventario producto) {
+        return producto.getPrecioVenta() != null
+            ? BigDecimal.valueOf(producto.getPrecioVenta()).setScale(ESCALA_PRECIO, RoundingMode.HALF_UP)
+            : null;
+    }
+
+    /**
+     * Reporte de facturación por período (fechas inclusive)
+     * Lee el resumen 'facturacion_diaria' en lugar de agregar la tabla de facturas:
+     * las vistas semanal, mensual y anual se derivan de a lo sumo una fila por día.
      */
     public List<FacturacionReporte> obtenerFacturacionPorPeriodo(LocalDate fechaInicio, LocalDate fechaFin, String periodo) throws VeterinariaException {
-        List<FacturacionReporte> reportes = new ArrayList<>();
-        String groupByClause = getGroupByClause(periodo);
-        String sql = String.format("""
-            SELECT %s as periodo, 
-                   COUNT(*) as total_facturas,
-                   SUM(subtotal) as subtotal_total,
-                   SUM(impuesto) as impuesto_total,
-                   SUM(descuento) as descuento_total,
-                   SUM(total) as total_facturado
-            FROM facturas 
-            WHERE fecha_emision BETWEEN ? AND ?
-            AND estado = 'PAGADA'
-            GROUP BY %s
-            ORDER BY periodo
-            """, groupByClause, groupByClause);
+        String sql = sqlFacturacionPorPeriodo(periodo);
+        RangoFechas rango = RangoFechas.dias(fechaInicio, fechaFin);
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setDate(1, Date.valueOf(fechaInicio));
-            ps.setDate(2, Date.valueOf(fechaFin));
-            ResultSet rs = ps.executeQuery();
-            
-            while (rs.next()) {
-                reportes.add(new FacturacionReporte(
-                    rs.getString("periodo"),
-                    rs.getInt("total_facturas"),
-                    rs.getBigDecimal("subtotal_total"),
-                    rs.getBigDecimal("impuesto_total"),
-                    rs.getBigDecimal("descuento_total"),
-                    rs.getBigDecimal("total_facturado")
-                ));
-            }
+        try {
+            return ejecutarLectura(connection -> {
+                List<FacturacionReporte> reportes = new ArrayList<>();
+                try (PreparedStatement ps = preparar(connection, sql)) {
+                    rango.asignarComoFechas(ps, 1);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            reportes.add(new FacturacionReporte(
+                                rs.getString("periodo"),
+                                rs.getInt("total_facturas"),
+                                rs.getBigDecimal("subtotal_total"),
+                                rs.getBigDecimal("impuesto_total"),
+                                rs.getBigDecimal("descuento_total"),
+                                rs.getBigDecimal("total_facturado")
+                            ));
+                        }
+                    }
+                }
+                return reportes;
+            });
             
         } catch (SQLException e) {
             logger.severe("Error al obtener reporte de facturación: " + e.getMessage());
             throw new VeterinariaException("Error en operación de BD al obtener reporte de facturación", 
                                          e, VeterinariaException.ErrorType.DATABASE_ERROR);
         }
-        
-        return reportes;
     }
 
-    private String getGroupByClause(String periodo) {
+    static String sqlFacturacionPorPeriodo(String periodo) {
+        String groupByClause = getGroupByClause(periodo);
+        return String.format("""
+            SELECT %s as periodo, 
+                   SUM(total_facturas) as total_facturas,
+                   SUM(subtotal_total) as subtotal_total,
+                   SUM(impuesto_total) as impuesto_total,
+                   SUM(descuento_total) as descuento_total,
+                   SUM(total_facturado) as total_facturado
+            FROM facturacion_diaria 
+            WHERE %s
+            GROUP BY %s
+            HAVING SUM(total_facturas) > 0
+            ORDER BY periodo
+            """, groupByClause, RangoFechas.predicado("fecha"), groupByClause);
+    }
+
+    private static String getGroupByClause(String periodo) {
         return switch (periodo.toUpperCase()) {
-            case "DIARIO" -> "DATE(fecha_emision)";
-            case "SEMANAL" -> "YEARWEEK(fecha_emision)";
-            case "MENSUAL" -> "DATE_FORMAT(fecha_emision, '%%Y-%%m')";
-            case "ANUAL" -> "YEAR(fecha_emision)";
-            default -> "DATE(fecha_emision)";
+            case "DIARIO" -> "fecha";
+            case "SEMANAL" -> "YEARWEEK(fecha)";
+            case "MENSUAL" -> "DATE_FORMAT(fecha, '%%Y-%%m')";
+            case "ANUAL" -> "YEAR(fecha)";
+            default -> "fecha";
         };
     }
 
@@ -0,0 +1,73 @@
+package com.happyfeet.dao;
+
+import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.util.DatabaseConnection;
+
+import java.sql.*;
+
+/**
+ * DAO de la tabla 'secuencias': contadores con nombre para numeraciones de negocio
+ * Cada reserva es un solo UPDATE atómico confirmado en su propia conexión, así el
+ * bloqueo de la fila dura lo mínimo y no depende de la transacción del llamador.
+ */
+public class SecuenciaDAO {
+    private static final String SQL_RESERVAR =
+        "UPDATE secuencias SET siguiente_valor = LAST_INSERT_ID(siguiente_valor + ?) WHERE nombre = ?";
+    private static final String SQL_ULTIMO_VALOR = "SELECT LAST_INSERT_ID()";
+    private static final String SQL_CREAR =
+        "INSERT IGNORE INTO secuencias (nombre, siguiente_valor) VALUES (?, ?)";
+
+    private final DatabaseConnection database;
+    protected final java.util.logging.Logger logger;
+
+    public SecuenciaDAO() throws VeterinariaException {
+        this.database = DatabaseConnection.getInstance();
+        this.logger = java.util.logging.Logger.getLogger(getClass().getName());
+    }
+
+    /**
+     * Reserva un bloque de valores consecutivos de la secuencia
+     *
+     * @return el primer valor del bloque; el bloque es [inicio, inicio + tamano)
+     */
+    public long reservarBloque(String nombre, int tamano) throws VeterinariaException {
+        try (Connection connection = database.getConnectionIndependiente()) {
+            try (PreparedStatement ps = connection.prepareStatement(SQL_RESERVAR)) {
+                ps.setInt(1, tamano);
+                ps.setString(2, nombre);
+                if (ps.executeUpdate() == 0) {
+                    throw new VeterinariaException("No existe la secuencia: " + nombre,
+                                                 VeterinariaException.ErrorType.NOT_FOUND_ERROR);
+                }
+            }
+            // LAST_INSERT_ID es por conexión: devuelve el valor que dejó este UPDATE
+            try (PreparedStatement ps = connection.prepareStatement(SQL_ULTIMO_VALOR);
+                 ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1) - tamano;
+            }
+        } catch (SQLException e) {
+            logger.severe("Error al reservar valores de la secuencia " + nombre + ": " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al reservar valores de la secuencia " + nombre,
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
+
+    /**
+     * Crea la secuencia con el valor inicial dado si todavía no existe
+     */
+    public void crearSiNoExiste(String nombre, long valorInicial) throws VeterinariaException {
+        try (Connection connection = database.getConnectionIndependiente();
+             PreparedStatement ps = connection.prepareStatement(SQL_CREAR)) {
+            ps.setString(1, nombre);
+            ps.setLong(2, valorInicial);
+            if (ps.executeUpdate() > 0) {
+                logger.info("Secuencia " + nombre + " creada con valor inicial " + valorInicial);
+            }
+        } catch (SQLException e) {
+            logger.severe("Error al crear la secuencia " + nombre + ": " + e.getMessage());
+            throw new VeterinariaException("Error en operación de BD al crear la secuencia " + nombre,
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
+}
@@ -2,21 +2,69 @@ package com.happyfeet.dao;
 
 import com.happyfeet.model.Servicio;
 import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.util.EntityCache;
+import com.happyfeet.util.PoliticaCache;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * DAO para operaciones de base de datos relacionadas con servicios
  */
 public class ServicioDAO extends BaseDAO<Servicio> {
+    // Los servicios cambian pocas veces al mes: se cachean por ID y el listado completo,
+    // compartidos por todas las instancias del DAO e invalidados al guardar o eliminar
+    private static final long TTL_CACHE_MINUTOS = Long.getLong("happyfeet.cache.servicios.ttlMin", 10);
+    private static final EntityCache<String, List<Servicio>> cacheListados =
+        new EntityCache<>("servicios-listados", 4, TTL_CACHE_MINUTOS, TimeUnit.MINUTES);
+    private static final String CLAVE_TODOS = "todos";
     
     public ServicioDAO() throws VeterinariaException {
         super();
     }
+    
+    /**
+     * Activa la caché por ID de BaseDAO para findById
+     */
+    @Override
+    protected PoliticaCache getPoliticaCache() {
+        return new PoliticaCache(Integer.getInteger("happyfeet.cache.servicios.max", 256),
+                                 TTL_CACHE_MINUTOS, TimeUnit.MINUTES, false);
+    }
+    
+    /**
+     * Obtiene todos los servicios activos consultando primero la caché.
+     * La lista devuelta es de solo lectura.
+     */
+    @Override
+    public List<Servicio> findAll() throws VeterinariaException {
+        long generacion = cacheListados.getGeneracion();
+        List<Servicio> cacheados = cacheListados.get(CLAVE_TODOS);
+        if (cacheados != null) {
+            return cacheados;
+        }
+        
+        List<Servicio> servicios = List.copyOf(super.findAll());
+        cacheListados.put(CLAVE_TODOS, servicios, generacion);
+        return servicios;
+    }
+    
+    @Override
+    protected void alModificar(Integer id) {
+        cacheListados.invalidarTodo();
+    }
+    
+    /**
+     * Métricas de la caché de listados de servicios (la caché por ID está en BaseDAO.getEstadisticasCaches())
+     */
+    public static EntityCache.Estadisticas getEstadisticasCacheListados() {
+        return cacheListados.getEstadisticas();
+    }
 
     @Override
     protected String getTableName() {
@@ -78,7 +126,8 @@ public class ServicioDAO extends BaseDAO<Servicio> {
         List<Servicio> servicios = new ArrayList<>();
         String sql = "SELECT * FROM servicios WHERE categoria = ? AND activo = TRUE";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, categoria);
             ResultSet rs = ps.executeQuery();
             
@@ -102,7 +151,8 @@ public class ServicioDAO extends BaseDAO<Servicio> {
         List<Servicio> servicios = new ArrayList<>();
         String sql = "SELECT * FROM servicios WHERE nombre LIKE ? AND activo = TRUE";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, "%" + nombre + "%");
             ResultSet rs = ps.executeQuery();
             
@@ -3,19 +3,49 @@ package com.happyfeet.dao;
 import com.happyfeet.model.Veterinario;
 import com.happyfeet.exception.VeterinariaException;
 import com.happyfeet.util.DatabaseConnection;
+import com.happyfeet.util.EntityCache;
+import com.happyfeet.util.PoliticaCache;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 public class VeterinarioDAO extends BaseDAO<Veterinario> {
+    // Los veterinarios se consultan en citas, consultas y reportes pero casi no cambian:
+    // se cachean por ID y el listado ordenado, invalidados al guardar o eliminar
+    private static final long TTL_CACHE_MINUTOS = Long.getLong("happyfeet.cache.veterinarios.ttlMin", 10);
+    private static final EntityCache<String, List<Veterinario>> cacheListados =
+        new EntityCache<>("veterinarios-listados", 4, TTL_CACHE_MINUTOS, TimeUnit.MINUTES);
+    private static final String CLAVE_ORDENADOS = "ordenados";
     
     public VeterinarioDAO() throws VeterinariaException {
         super();
     }
+    
+    /**
+     * Activa la caché por ID de BaseDAO para findById
+     */
+    @Override
+    protected PoliticaCache getPoliticaCache() {
+        return new PoliticaCache(Integer.getInteger("happyfeet.cache.veterinarios.max", 256),
+                                 TTL_CACHE_MINUTOS, TimeUnit.MINUTES, false);
+    }
+    
+    @Override
+    protected void alModificar(Integer id) {
+        cacheListados.invalidarTodo();
+    }
+    
+    /**
+     * Métricas de la caché de listados de veterinarios (la caché por ID está en BaseDAO.getEstadisticasCaches())
+     */
+    public static EntityCache.Estadisticas getEstadisticasCacheListados() {
+        return cacheListados.getEstadisticas();
+    }
 
     @Override
     protected String getTableName() {
@@ -101,7 +131,8 @@ public class VeterinarioDAO extends BaseDAO<Veterinario> {
     public Optional<Veterinario> findByDocumento(String documento) throws VeterinariaException {
         String sql = "SELECT * FROM " + getTableName() + " WHERE documento_identidad = ? AND activo = TRUE";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, documento);
             ResultSet rs = ps.executeQuery();
             
@@ -123,7 +154,8 @@ public class VeterinarioDAO extends BaseDAO<Veterinario> {
     public Optional<Veterinario> findByLicencia(String licencia) throws VeterinariaException {
         String sql = "SELECT * FROM " + getTableName() + " WHERE licencia_profesional = ? AND activo = TRUE";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, licencia);
             ResultSet rs = ps.executeQuery();
             
@@ -145,7 +177,8 @@ public class VeterinarioDAO extends BaseDAO<Veterinario> {
     public Optional<Veterinario> findByEmail(String email) throws VeterinariaException {
         String sql = "SELECT * FROM " + getTableName() + " WHERE email = ? AND activo = TRUE";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, email);
             ResultSet rs = ps.executeQuery();
             
@@ -168,7 +201,8 @@ public class VeterinarioDAO extends BaseDAO<Veterinario> {
         List<Veterinario> veterinarios = new ArrayList<>();
         String sql = "SELECT * FROM " + getTableName() + " WHERE especialidad LIKE ? AND activo = TRUE";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, "%" + especialidad + "%");
             ResultSet rs = ps.executeQuery();
             
@@ -191,7 +225,8 @@ public class VeterinarioDAO extends BaseDAO<Veterinario> {
         List<Veterinario> veterinarios = new ArrayList<>();
         String sql = "SELECT * FROM " + getTableName() + " WHERE nombre_completo LIKE ? AND activo = TRUE";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, "%" + nombre + "%");
             ResultSet rs = ps.executeQuery();
             
@@ -208,19 +243,28 @@ public class VeterinarioDAO extends BaseDAO<Veterinario> {
     }
     
     /**
-     * Obtiene todos los veterinarios activos ordenados por nombre
+     * Obtiene todos los veterinarios activos ordenados por nombre (cacheado, de solo lectura)
      */
     public List<Veterinario> findAllActiveOrdered() throws VeterinariaException {
+        long generacion = cacheListados.getGeneracion();
+        List<Veterinario> cacheados = cacheListados.get(CLAVE_ORDENADOS);
+        if (cacheados != null) {
+            return cacheados;
+        }
+        
         List<Veterinario> veterinarios = new ArrayList<>();
         String sql = "SELECT * FROM " + getTableName() + " WHERE activo = TRUE ORDER BY nombre_completo";
         
-        try (PreparedStatement ps = connection.prepareStatement(sql);
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
             
             while (rs.next()) {
                 veterinarios.add(mapResultSetToEntity(rs));
             }
-            return veterinarios;
+            List<Veterinario> ordenados = List.copyOf(veterinarios);
+            cacheListados.put(CLAVE_ORDENADOS, ordenados, generacion);
+            return ordenados;
             
         } catch (SQLException e) {
             logger.severe("Error al obtener veterinarios ordenados: " + e.getMessage());
@@ -0,0 +1,240 @@
+package com.happyfeet.herramientas;
+
+import com.happyfeet.dao.DuenoDAO;
+import com.happyfeet.dao.RegistroConsultas;
+import com.happyfeet.dao.RegistroConsultas.ConsultaRegistrada;
+import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.model.Dueno;
+import com.happyfeet.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * Mide la búsqueda de dueños por email (escrito en mayúsculas, para cubrir la comparación
+ * sin distinguir mayúsculas) y la página de dueños ordenados por nombre que sigue a un
+ * dueño cualquiera, con volúmenes crecientes de dueños (por defecto hasta 1 millón).
+ * Con un índice ambas deben costar casi lo mismo en todas las escalas; un tiempo que crece
+ * con la tabla indica un recorrido completo.
+ * Los dueños de prueba llevan el contacto de emergencia "Benchmark" y se insertan en lotes
+ * confirmados; al terminar se borran por tramos de ID salvo que se indique --conservar.
+ * Si ya hay dueños de prueba de una ejecución anterior solo se insertan los que falten.
+ * Como escribe en la base de datos de la aplicación, solo corre si la propiedad
+ * happyfeet.benchmark.esquema nombra el esquema al que apunta la conexión: debe ser una
+ * copia de prueba, nunca la base de datos en uso.
+ *
+ * Uso: java -Dhappyfeet.benchmark.esquema=&lt;esquema&gt; -cp ... com.happyfeet.herramientas.BenchmarkBusquedaDuenos
+ *      [máximo] [--conservar]
+ */
+public final class BenchmarkBusquedaDuenos {
+    private static final int[] ESCALAS = { 10_000, 100_000, 1_000_000 };
+    private static final int TAMANO_LOTE = 1000;
+    private static final int LOTES_POR_COMMIT = 20;
+    private static final int TAMANO_TRAMO_BORRADO = 50_000;
+    private static final int TAMANO_PAGINA = 20;
+    private static final int REPETICIONES = 2000;
+    private static final String MARCA = "Benchmark";
+    private static final String PROPIEDAD_ESQUEMA = "happyfeet.benchmark.esquema";
+
+    private static final String[] NOMBRES = { "Ana", "Carlos", "Diana", "Felipe", "Laura", "Mario", "Paula", "Sergio" };
+    private static final String[] APELLIDOS = { "Castro", "Gómez", "López", "Martínez", "Pérez", "Ramírez", "Rojas", "Torres" };
+
+    private static final String SQL_INSERTAR_DUENO =
+        "INSERT INTO duenos (nombre_completo, documento_identidad, email, contacto_emergencia) VALUES (?, ?, ?, ?)";
+    private static final String SQL_RANGO_PRUEBA =
+        "SELECT COUNT(*), MIN(id), MAX(id) FROM duenos WHERE contacto_emergencia = '" + MARCA + "'";
+    private static final String SQL_BORRAR_TRAMO =
+        "DELETE FROM duenos WHERE id >= ? AND id < ? AND contacto_emergencia = '" + MARCA + "'";
+
+    private BenchmarkBusquedaDuenos() {
+    }
+
+    public static void main(String[] args) {
+        int maximo = ESCALAS[ESCALAS.length - 1];
+        boolean conservar = false;
+        for (String arg : args) {
+            if ("--conservar".equals(arg)) {
+                conservar = true;
+            } else {
+                maximo = Integer.parseInt(arg.replace("_", ""));
+            }
+        }
+
+        String esquema = System.getProperty(PROPIEDAD_ESQUEMA);
+        if (esquema == null || esquema.isBlank()) {
+            System.err.println("❌ Indique el esquema de prueba con -D" + PROPIEDAD_ESQUEMA + "=<esquema>: " +
+                               "el benchmark inserta y borra hasta " + maximo + " dueños");
+            return;
+        }
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnectionIndependiente()) {
+            if (!esquema.equals(connection.getCatalog())) {
+                System.err.println("❌ La conexión apunta al esquema '" + connection.getCatalog() + "' y no a '" +
+                                   esquema + "'; no se insertan dueños de prueba");
+                return;
+            }
+            try {
+                DuenoDAO dao = new DuenoDAO();
+                System.out.printf("%-10s %-30s %10s %10s%n", "Dueños", "Consulta", "p50 µs", "p99 µs");
+                for (int escala : ESCALAS) {
+                    if (escala > maximo) {
+                        break;
+                    }
+                    poblar(connection, escala);
+                    medir(dao, escala);
+                }
+                mostrarPlanes(connection);
+            } finally {
+                if (!conservar) {
+                    limpiar(connection);
+                }
+            }
+        } catch (VeterinariaException | SQLException e) {
+            System.err.println("❌ Error en el benchmark: " + e.getMessage());
+        } finally {
+            try {
+                DatabaseConnection.getInstance().closeConnection();
+            } catch (VeterinariaException e) {
+                System.err.println("Error al cerrar conexión: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Completa hasta 'cantidad' dueños de prueba, numerados desde 0 en el documento y el email
+     */
+    private static void poblar(Connection connection, int cantidad) throws SQLException {
+        long existentes = rangoPrueba(connection)[0];
+        if (existentes >= cantidad) {
+            return;
+        }
+
+        Random random = new Random(42 + existentes);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement ps = connection.prepareStatement(SQL_INSERTAR_DUENO)) {
+            for (long n = existentes; n < cantidad; n++) {
+                ps.setString(1, APELLIDOS[random.nextInt(APELLIDOS.length)] + " " +
+                                NOMBRES[random.nextInt(NOMBRES.length)] + " " + n);
+                ps.setString(2, "BM" + n);
+                ps.setString(3, email(n));
+                ps.setString(4, MARCA);
+                ps.addBatch();
+                long insertados = n - existentes + 1;
+                if (insertados % TAMANO_LOTE == 0 || n == cantidad - 1) {
+                    ps.executeBatch();
+                }
+                if (insertados % ((long) TAMANO_LOTE * LOTES_POR_COMMIT) == 0 || n == cantidad - 1) {
+                    connection.commit();
+                }
+            }
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+
+        try (Statement st = connection.createStatement()) {
+            st.execute("ANALYZE TABLE duenos");
+        }
+    }
+
+    private static void medir(DuenoDAO dao, int cantidad) throws VeterinariaException {
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) { // Calentamiento
+            dao.findByEmail(email(random.nextInt(cantidad)).toUpperCase());
+        }
+
+        long[] busquedas = new long[REPETICIONES];
+        long[] paginas = new long[REPETICIONES];
+        int noEncontrados = 0;
+        for (int i = 0; i < REPETICIONES; i++) {
+            String email = email(random.nextInt(cantidad)).toUpperCase();
+            long t0 = System.nanoTime();
+            Optional<Dueno> dueno = dao.findByEmail(email);
+            busquedas[i] = System.nanoTime() - t0;
+
+            if (dueno.isEmpty()) {
+                noEncontrados++;
+                continue;
+            }
+            t0 = System.nanoTime();
+            dao.findPageOrderedByNombre(dueno.get(), TAMANO_PAGINA);
+            paginas[i - noEncontrados] = System.nanoTime() - t0;
+        }
+
+        imprimir(cantidad, "Búsqueda por email", busquedas, REPETICIONES);
+        imprimir(cantidad, "Página siguiente (" + TAMANO_PAGINA + " filas)", paginas, REPETICIONES - noEncontrados);
+        if (noEncontrados > 0) {
+            System.out.println("⚠️ " + noEncontrados + " emails de prueba no encontrados");
+        }
+    }
+
+    private static void imprimir(int cantidad, String nombre, long[] tiempos, int medidas) {
+        if (medidas == 0) {
+            System.out.printf("%-10d %-30s %10s %10s%n", cantidad, nombre, "-", "-");
+            return;
+        }
+        long[] ordenadas = Arrays.copyOf(tiempos, medidas);
+        Arrays.sort(ordenadas);
+        System.out.printf("%-10d %-30s %10.0f %10.0f%n", cantidad, nombre,
+                          ordenadas[medidas / 2] / 1e3, ordenadas[(int) Math.ceil(medidas * 0.99) - 1] / 1e3);
+    }
+
+    /**
+     * Plan de las dos consultas tal como las registra el DAO en RegistroConsultas
+     */
+    private static void mostrarPlanes(Connection connection) throws SQLException {
+        for (ConsultaRegistrada consulta : RegistroConsultas.todas()) {
+            if (!consulta.nombre.startsWith("DuenoDAO.")) {
+                continue;
+            }
+            try (PreparedStatement ps = connection.prepareStatement("EXPLAIN " + consulta.sql)) {
+                consulta.parametros.asignar(ps);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        System.out.println("Plan de " + consulta.nombre + ": tipo=" + rs.getString("type") +
+                                           ", índice=" + rs.getString("key") + ", filas=" + rs.getLong("rows"));
+                    }
+                }
+            }
+        }
+    }
+
+    private static String email(long n) {
+        return "bm" + n + "@benchmark.test";
+    }
+
+    private static void limpiar(Connection connection) throws SQLException {
+        long[] rango = rangoPrueba(connection);
+        if (rango[0] == 0) {
+            return;
+        }
+        System.out.println("Borrando " + rango[0] + " dueños de prueba...");
+        try (PreparedStatement ps = connection.prepareStatement(SQL_BORRAR_TRAMO)) {
+            for (long desde = rango[1]; desde <= rango[2]; desde += TAMANO_TRAMO_BORRADO) {
+                ps.setLong(1, desde);
+                ps.setLong(2, desde + TAMANO_TRAMO_BORRADO);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * @return cantidad, ID mínimo e ID máximo de los dueños de prueba
+     */
+    private static long[] rangoPrueba(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(SQL_RANGO_PRUEBA)) {
+            rs.next();
+            return new long[] { rs.getLong(1), rs.getLong(2), rs.getLong(3) };
+        }
+    }
+}
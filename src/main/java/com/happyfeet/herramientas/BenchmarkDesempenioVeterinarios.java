@@ -0,0 +1,160 @@
+package com.happyfeet.herramientas;
+
+import com.happyfeet.dao.ReporteDAO;
+import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.util.DatabaseConnection;
+import com.happyfeet.util.TransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Mide el reporte de desempeño de veterinarios con volúmenes crecientes de consultas
+ * y procedimientos (hasta 100.000 y 20.000) repartidos en el último año.
+ * Los datos de prueba se insertan dentro de una transacción y se revierten al terminar,
+ * así se puede ejecutar contra una base de desarrollo sin dejar rastro. Requiere al
+ * menos un veterinario activo y una mascota.
+ *
+ * Uso: java -cp ... com.happyfeet.herramientas.BenchmarkDesempenioVeterinarios
+ */
+public final class BenchmarkDesempenioVeterinarios {
+    // Consultas y procedimientos acumulados en cada escala
+    private static final int[][] ESCALAS = { {25_000, 5_000}, {50_000, 10_000}, {100_000, 20_000} };
+    private static final int REPETICIONES = 5;
+    private static final int TAMANO_LOTE = 1000;
+
+    private static final String SQL_INSERTAR_CONSULTA =
+        "INSERT INTO consultas_medicas (mascota_id, veterinario_id, fecha_hora, motivo) VALUES (?, ?, ?, ?)";
+    private static final String SQL_INSERTAR_PROCEDIMIENTO =
+        "INSERT INTO procedimientos_especiales (mascota_id, veterinario_id, tipo_procedimiento, " +
+        "nombre_procedimiento, fecha_hora, detalle_procedimiento, costo_procedimiento) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private BenchmarkDesempenioVeterinarios() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            ReporteDAO reporteDAO = new ReporteDAO();
+            TransactionManager.ejecutarEnTransaccion(() -> {
+                try {
+                    ejecutar(reporteDAO);
+                } catch (SQLException e) {
+                    throw new VeterinariaException("Error en el benchmark: " + e.getMessage(),
+                                                 e, VeterinariaException.ErrorType.DATABASE_ERROR);
+                }
+                return null;
+            });
+        } catch (VeterinariaException e) {
+            System.err.println("❌ " + e.getMessage());
+        } finally {
+            try {
+                DatabaseConnection.getInstance().closeConnection();
+            } catch (VeterinariaException e) {
+                System.err.println("Error al cerrar conexión: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void ejecutar(ReporteDAO reporteDAO) throws SQLException, VeterinariaException {
+        Connection connection = DatabaseConnection.getInstance().getConnection();
+        List<Integer> veterinarios = consultarIds(connection, "SELECT id FROM veterinarios WHERE activo = TRUE");
+        List<Integer> mascotas = consultarIds(connection, "SELECT id FROM mascotas LIMIT 100");
+        if (veterinarios.isEmpty() || mascotas.isEmpty()) {
+            System.err.println("❌ Se necesita al menos un veterinario activo y una mascota");
+            return;
+        }
+
+        LocalDate hasta = LocalDate.now();
+        LocalDate desde = hasta.minusDays(364);
+        Random random = new Random(42);
+
+        Savepoint inicio = connection.setSavepoint();
+        try {
+            System.out.printf("%-12s %-16s %12s %12s%n", "Consultas", "Procedimientos", "Mediana ms", "Máximo ms");
+            int consultas = 0;
+            int procedimientos = 0;
+            for (int[] escala : ESCALAS) {
+                insertarConsultas(connection, escala[0] - consultas, veterinarios, mascotas, desde, random);
+                insertarProcedimientos(connection, escala[1] - procedimientos, veterinarios, mascotas, desde, random);
+                consultas = escala[0];
+                procedimientos = escala[1];
+
+                reporteDAO.obtenerDesempenioVeterinarios(desde, hasta); // Calentamiento
+                long[] tiempos = new long[REPETICIONES];
+                for (int i = 0; i < REPETICIONES; i++) {
+                    long t0 = System.nanoTime();
+                    reporteDAO.obtenerDesempenioVeterinarios(desde, hasta);
+                    tiempos[i] = System.nanoTime() - t0;
+                }
+                Arrays.sort(tiempos);
+                System.out.printf("%-12d %-16d %12.2f %12.2f%n", consultas, procedimientos,
+                                  tiempos[REPETICIONES / 2] / 1e6, tiempos[REPETICIONES - 1] / 1e6);
+            }
+        } finally {
+            connection.rollback(inicio);
+        }
+    }
+
+    private static void insertarConsultas(Connection connection, int cantidad, List<Integer> veterinarios,
+                                          List<Integer> mascotas, LocalDate desde, Random random) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(SQL_INSERTAR_CONSULTA)) {
+            for (int i = 0; i < cantidad; i++) {
+                ps.setInt(1, mascotas.get(random.nextInt(mascotas.size())));
+                ps.setInt(2, veterinarios.get(random.nextInt(veterinarios.size())));
+                ps.setTimestamp(3, Timestamp.valueOf(fechaAleatoria(desde, random)));
+                ps.setString(4, "Benchmark");
+                ps.addBatch();
+                if ((i + 1) % TAMANO_LOTE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void insertarProcedimientos(Connection connection, int cantidad, List<Integer> veterinarios,
+                                               List<Integer> mascotas, LocalDate desde, Random random) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(SQL_INSERTAR_PROCEDIMIENTO)) {
+            for (int i = 0; i < cantidad; i++) {
+                ps.setInt(1, mascotas.get(random.nextInt(mascotas.size())));
+                ps.setInt(2, veterinarios.get(random.nextInt(veterinarios.size())));
+                ps.setString(3, "Benchmark");
+                ps.setString(4, "Benchmark");
+                ps.setTimestamp(5, Timestamp.valueOf(fechaAleatoria(desde, random)));
+                ps.setString(6, "Benchmark");
+                ps.setBigDecimal(7, BigDecimal.valueOf(50_000 + random.nextInt(450_000), 2));
+                ps.addBatch();
+                if ((i + 1) % TAMANO_LOTE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static LocalDateTime fechaAleatoria(LocalDate desde, Random random) {
+        return desde.plusDays(random.nextInt(365)).atTime(8 + random.nextInt(10), random.nextInt(60));
+    }
+
+    private static List<Integer> consultarIds(Connection connection, String sql) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,185 @@
+package com.happyfeet.herramientas;
+
+import com.happyfeet.dao.AgendaVeterinarios;
+import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.util.DatabaseConnection;
+import com.happyfeet.util.TransactionManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Mide la búsqueda de huecos libres de AgendaVeterinarios.huecosLibres (la que usa
+ * CitaService.buscarHuecosDisponibles) para 50 veterinarios y 30 días, con unas 8 citas
+ * por veterinario y día en el horario de atención. Objetivo: menos de 50 ms.
+ * Se mide en frío (los días se cargan con la consulta de citas) y en caliente (días ya en
+ * memoria). Los veterinarios y citas de prueba se insertan dentro de una transacción y se
+ * revierten al terminar. Requiere al menos una mascota.
+ *
+ * Uso: java -cp ... com.happyfeet.herramientas.BenchmarkHuecosLibres
+ */
+public final class BenchmarkHuecosLibres {
+    private static final int VETERINARIOS = 50;
+    private static final int DIAS = 30;
+    private static final int CITAS_POR_DIA = 8;
+    private static final int DURACION_BUSCADA_MIN = 30;
+    private static final int REPETICIONES_FRIO = 10;
+    private static final int REPETICIONES_CALIENTE = 200;
+    private static final int OBJETIVO_MS = 50;
+    private static final int TAMANO_LOTE = 1000;
+
+    private static final String SQL_INSERTAR_VETERINARIO =
+        "INSERT INTO veterinarios (nombre_completo, documento_identidad, licencia_profesional) VALUES (?, ?, ?)";
+    private static final String SQL_INSERTAR_CITA =
+        "INSERT INTO citas (mascota_id, veterinario_id, fecha_hora, motivo, estado_id) VALUES (?, ?, ?, ?, ?)";
+
+    private BenchmarkHuecosLibres() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            AgendaVeterinarios agenda = AgendaVeterinarios.getInstance();
+            TransactionManager.ejecutarEnTransaccion(() -> {
+                try {
+                    ejecutar(agenda);
+                } catch (SQLException e) {
+                    throw new VeterinariaException("Error en el benchmark: " + e.getMessage(),
+                                                 e, VeterinariaException.ErrorType.DATABASE_ERROR);
+                }
+                return null;
+            });
+        } catch (VeterinariaException e) {
+            System.err.println("❌ " + e.getMessage());
+        } finally {
+            try {
+                DatabaseConnection.getInstance().closeConnection();
+            } catch (VeterinariaException e) {
+                System.err.println("Error al cerrar conexión: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void ejecutar(AgendaVeterinarios agenda) throws SQLException, VeterinariaException {
+        Connection connection = DatabaseConnection.getInstance().getConnection();
+        List<Integer> mascotas = consultarIds(connection, "SELECT id FROM mascotas LIMIT 100");
+        if (mascotas.isEmpty()) {
+            System.err.println("❌ Se necesita al menos una mascota");
+            return;
+        }
+
+        LocalDate desde = LocalDate.now().plusDays(1);
+        LocalDate hasta = desde.plusDays(DIAS - 1);
+        Savepoint inicio = connection.setSavepoint();
+        try {
+            List<Integer> veterinarios = insertarVeterinarios(connection);
+            int citas = insertarCitas(connection, veterinarios, mascotas, desde, new Random(42));
+            System.out.println(VETERINARIOS + " veterinarios, " + DIAS + " días, " + citas + " citas de prueba");
+
+            long[] frio = new long[REPETICIONES_FRIO];
+            int huecos = 0;
+            for (int i = 0; i < REPETICIONES_FRIO; i++) {
+                agenda.invalidarTodo();
+                long t0 = System.nanoTime();
+                huecos = agenda.huecosLibres(veterinarios, desde, hasta, LocalDateTime.now(), DURACION_BUSCADA_MIN).size();
+                frio[i] = System.nanoTime() - t0;
+            }
+
+            long[] caliente = new long[REPETICIONES_CALIENTE];
+            for (int i = 0; i < REPETICIONES_CALIENTE; i++) {
+                long t0 = System.nanoTime();
+                agenda.huecosLibres(veterinarios, desde, hasta, LocalDateTime.now(), DURACION_BUSCADA_MIN);
+                caliente[i] = System.nanoTime() - t0;
+            }
+
+            System.out.println("Huecos encontrados: " + huecos);
+            System.out.printf("%-36s %10s %10s %10s%n", "Búsqueda", "Mediana ms", "Máximo ms", "Objetivo");
+            imprimir("En frío (incluye cargar los días)", frio);
+            imprimir("En caliente (días en memoria)", caliente);
+        } finally {
+            connection.rollback(inicio);
+            // La agenda quedó con las citas revertidas
+            agenda.invalidarTodo();
+        }
+    }
+
+    private static void imprimir(String nombre, long[] tiempos) {
+        Arrays.sort(tiempos);
+        double mediana = tiempos[tiempos.length / 2] / 1e6;
+        System.out.printf("%-36s %10.2f %10.2f %10s%n", nombre, mediana, tiempos[tiempos.length - 1] / 1e6,
+                          mediana < OBJETIVO_MS ? "✅ < " + OBJETIVO_MS : "❌ >= " + OBJETIVO_MS);
+    }
+
+    private static List<Integer> insertarVeterinarios(Connection connection) throws SQLException {
+        List<Integer> ids = new ArrayList<>(VETERINARIOS);
+        try (PreparedStatement ps = connection.prepareStatement(SQL_INSERTAR_VETERINARIO, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < VETERINARIOS; i++) {
+                ps.setString(1, "Benchmark " + i);
+                ps.setString(2, "BM-DOC-" + i);
+                ps.setString(3, "BM-LIC-" + i);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Citas en tramos de media hora al azar dentro del horario de atención; la mayoría en
+     * estados que ocupan la agenda y algunas finalizadas o canceladas, que no la ocupan
+     *
+     * @return cantidad de citas insertadas
+     */
+    private static int insertarCitas(Connection connection, List<Integer> veterinarios, List<Integer> mascotas,
+                                     LocalDate desde, Random random) throws SQLException {
+        int apertura = AgendaVeterinarios.INICIO_JORNADA.getHour() * 2;
+        int tramos = (AgendaVeterinarios.FIN_JORNADA.getHour() - AgendaVeterinarios.INICIO_JORNADA.getHour()) * 2;
+        int insertadas = 0;
+        try (PreparedStatement ps = connection.prepareStatement(SQL_INSERTAR_CITA)) {
+            for (Integer veterinarioId : veterinarios) {
+                for (int dia = 0; dia < DIAS; dia++) {
+                    for (int i = 0; i < CITAS_POR_DIA; i++) {
+                        int tramo = apertura + random.nextInt(tramos);
+                        ps.setInt(1, mascotas.get(random.nextInt(mascotas.size())));
+                        ps.setInt(2, veterinarioId);
+                        ps.setTimestamp(3, Timestamp.valueOf(desde.plusDays(dia).atStartOfDay().plusMinutes(tramo * 30L)));
+                        ps.setString(4, "Benchmark");
+                        ps.setInt(5, 1 + random.nextInt(5));
+                        ps.addBatch();
+                        if (++insertadas % TAMANO_LOTE == 0) {
+                            ps.executeBatch();
+                        }
+                    }
+                }
+            }
+            ps.executeBatch();
+        }
+        return insertadas;
+    }
+
+    private static List<Integer> consultarIds(Connection connection, String sql) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+}
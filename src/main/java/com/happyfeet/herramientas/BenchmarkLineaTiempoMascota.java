@@ -0,0 +1,250 @@
+package com.happyfeet.herramientas;
+
+import com.happyfeet.dao.HistorialMedicoDAO;
+import com.happyfeet.dao.RegistroConsultas;
+import com.happyfeet.dao.RegistroConsultas.ConsultaRegistrada;
+import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.model.HistorialMedicoEspecial;
+import com.happyfeet.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Mide la línea de tiempo de una mascota (páginas de historial_medico por mascota, de lo
+ * más reciente a lo más antiguo) con un historial grande: por defecto 10 millones de filas
+ * repartidas entre hasta 1000 mascotas existentes y los últimos diez años.
+ * Las filas de prueba llevan la descripción "Benchmark" y se insertan en lotes confirmados
+ * (revertir 10 millones de filas en una sola transacción no es práctico); al terminar se
+ * borran por tramos de ID salvo que se indique --conservar. Si ya hay filas de prueba de
+ * una ejecución anterior solo se insertan las que falten.
+ * Requiere al menos una mascota y un tipo de evento, y las migraciones aplicadas
+ * (índice idx_mascota_fecha).
+ *
+ * Uso: java -cp ... com.happyfeet.herramientas.BenchmarkLineaTiempoMascota [filas] [--conservar]
+ */
+public final class BenchmarkLineaTiempoMascota {
+    private static final int FILAS_POR_DEFECTO = 10_000_000;
+    private static final int MAX_MASCOTAS = 1000;
+    private static final int DIAS_HISTORIAL = 3650;
+    private static final int TAMANO_LOTE = 1000;
+    private static final int LOTES_POR_COMMIT = 20;
+    private static final int TAMANO_TRAMO_BORRADO = 50_000;
+    private static final int TAMANO_PAGINA = 20;
+    private static final int REPETICIONES = 2000;
+    private static final int REPETICIONES_COMPLETAS = 50;
+    private static final String MARCA = "Benchmark";
+
+    private static final String SQL_INSERTAR_HISTORIAL =
+        "INSERT INTO historial_medico (mascota_id, fecha_evento, evento_tipo_id, descripcion) VALUES (?, ?, ?, ?)";
+    private static final String SQL_RANGO_PRUEBA =
+        "SELECT COUNT(*), MIN(id), MAX(id) FROM historial_medico WHERE descripcion = '" + MARCA + "'";
+    private static final String SQL_BORRAR_TRAMO =
+        "DELETE FROM historial_medico WHERE id >= ? AND id < ? AND descripcion = '" + MARCA + "'";
+
+    private BenchmarkLineaTiempoMascota() {
+    }
+
+    public static void main(String[] args) {
+        int filas = FILAS_POR_DEFECTO;
+        boolean conservar = false;
+        for (String arg : args) {
+            if ("--conservar".equals(arg)) {
+                conservar = true;
+            } else {
+                filas = Integer.parseInt(arg.replace("_", ""));
+            }
+        }
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnectionIndependiente()) {
+            List<Integer> mascotas = consultarIds(connection, "SELECT id FROM mascotas ORDER BY id LIMIT " + MAX_MASCOTAS);
+            List<Integer> tiposEvento = consultarIds(connection, "SELECT id FROM evento_tipos ORDER BY id LIMIT 1");
+            if (mascotas.isEmpty() || tiposEvento.isEmpty()) {
+                System.err.println("❌ Se necesita al menos una mascota y un tipo de evento");
+                return;
+            }
+
+            try {
+                poblar(connection, filas, mascotas, tiposEvento.get(0));
+                mostrarPlan(connection);
+                medir(new HistorialMedicoDAO(), mascotas);
+            } finally {
+                if (!conservar) {
+                    limpiar(connection);
+                }
+            }
+        } catch (VeterinariaException | SQLException e) {
+            System.err.println("❌ Error en el benchmark: " + e.getMessage());
+        } finally {
+            try {
+                DatabaseConnection.getInstance().closeConnection();
+            } catch (VeterinariaException e) {
+                System.err.println("Error al cerrar conexión: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void poblar(Connection connection, int filas, List<Integer> mascotas, int tipoEvento)
+            throws SQLException {
+        long existentes = rangoPrueba(connection)[0];
+        long faltantes = filas - existentes;
+        if (faltantes <= 0) {
+            System.out.println("Historial de prueba ya cargado: " + existentes + " filas");
+            return;
+        }
+        System.out.println("Insertando " + faltantes + " filas de historial de prueba...");
+
+        LocalDate hoy = LocalDate.now();
+        Random random = new Random(42 + existentes);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        long t0 = System.nanoTime();
+        try (PreparedStatement ps = connection.prepareStatement(SQL_INSERTAR_HISTORIAL)) {
+            for (long i = 1; i <= faltantes; i++) {
+                ps.setInt(1, mascotas.get(random.nextInt(mascotas.size())));
+                ps.setDate(2, Date.valueOf(hoy.minusDays(random.nextInt(DIAS_HISTORIAL))));
+                ps.setInt(3, tipoEvento);
+                ps.setString(4, MARCA);
+                ps.addBatch();
+                if (i % TAMANO_LOTE == 0 || i == faltantes) {
+                    ps.executeBatch();
+                }
+                if (i % ((long) TAMANO_LOTE * LOTES_POR_COMMIT) == 0 || i == faltantes) {
+                    connection.commit();
+                }
+                if (i % 1_000_000 == 0) {
+                    System.out.printf("  %,d filas (%.0f s)%n", i, (System.nanoTime() - t0) / 1e9);
+                }
+            }
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+
+        try (Statement st = connection.createStatement()) {
+            st.execute("ANALYZE TABLE historial_medico");
+        }
+    }
+
+    /**
+     * Plan de la consulta de páginas tal como la registra el DAO en RegistroConsultas
+     */
+    private static void mostrarPlan(Connection connection) throws SQLException {
+        for (ConsultaRegistrada consulta : RegistroConsultas.todas()) {
+            if (!"HistorialMedicoDAO.findPaginaPorMascota".equals(consulta.nombre)) {
+                continue;
+            }
+            try (PreparedStatement ps = connection.prepareStatement("EXPLAIN " + consulta.sql)) {
+                consulta.parametros.asignar(ps);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        System.out.println("Plan de la página: tipo=" + rs.getString("type") + ", índice=" +
+                                           rs.getString("key") + ", extra=" + rs.getString("Extra"));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Primera página, página siguiente (con el cursor de la primera) e historial completo,
+     * para mascotas elegidas al azar
+     */
+    private static void medir(HistorialMedicoDAO dao, List<Integer> mascotas) throws VeterinariaException {
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) { // Calentamiento
+            dao.findPaginaPorMascota(mascotas.get(random.nextInt(mascotas.size())), null, null, TAMANO_PAGINA);
+        }
+
+        long[] primera = new long[REPETICIONES];
+        long[] siguiente = new long[REPETICIONES];
+        int medidasSiguiente = 0;
+        for (int i = 0; i < REPETICIONES; i++) {
+            int mascotaId = mascotas.get(random.nextInt(mascotas.size()));
+            long t0 = System.nanoTime();
+            List<HistorialMedicoEspecial> pagina = dao.findPaginaPorMascota(mascotaId, null, null, TAMANO_PAGINA);
+            primera[i] = System.nanoTime() - t0;
+
+            if (pagina.size() == TAMANO_PAGINA) {
+                HistorialMedicoEspecial ultimo = pagina.get(pagina.size() - 1);
+                t0 = System.nanoTime();
+                dao.findPaginaPorMascota(mascotaId, ultimo.getFechaEvento(), ultimo.getId(), TAMANO_PAGINA);
+                siguiente[medidasSiguiente++] = System.nanoTime() - t0;
+            }
+        }
+
+        long[] completo = new long[REPETICIONES_COMPLETAS];
+        int filasCompletas = 0;
+        for (int i = 0; i < REPETICIONES_COMPLETAS; i++) {
+            int mascotaId = mascotas.get(random.nextInt(mascotas.size()));
+            long t0 = System.nanoTime();
+            filasCompletas += dao.findByMascotaId(mascotaId).size();
+            completo[i] = System.nanoTime() - t0;
+        }
+
+        System.out.printf("%-36s %10s %10s %10s%n", "Consulta", "Medidas", "p50 µs", "p99 µs");
+        imprimir("Primera página (" + TAMANO_PAGINA + " filas)", primera, REPETICIONES);
+        imprimir("Página siguiente (" + TAMANO_PAGINA + " filas)", siguiente, medidasSiguiente);
+        imprimir("Historial completo (~" + filasCompletas / REPETICIONES_COMPLETAS + " filas)",
+                 completo, REPETICIONES_COMPLETAS);
+    }
+
+    private static void imprimir(String nombre, long[] tiempos, int cantidad) {
+        if (cantidad == 0) {
+            System.out.printf("%-36s %10d %10s %10s%n", nombre, 0, "-", "-");
+            return;
+        }
+        long[] medidas = Arrays.copyOf(tiempos, cantidad);
+        Arrays.sort(medidas);
+        System.out.printf("%-36s %10d %10.0f %10.0f%n", nombre, cantidad,
+                          medidas[cantidad / 2] / 1e3, medidas[(int) Math.ceil(cantidad * 0.99) - 1] / 1e3);
+    }
+
+    private static void limpiar(Connection connection) throws SQLException {
+        long[] rango = rangoPrueba(connection);
+        if (rango[0] == 0) {
+            return;
+        }
+        System.out.println("Borrando " + rango[0] + " filas de historial de prueba...");
+        try (PreparedStatement ps = connection.prepareStatement(SQL_BORRAR_TRAMO)) {
+            for (long desde = rango[1]; desde <= rango[2]; desde += TAMANO_TRAMO_BORRADO) {
+                ps.setLong(1, desde);
+                ps.setLong(2, desde + TAMANO_TRAMO_BORRADO);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * @return cantidad, ID mínimo e ID máximo de las filas de prueba
+     */
+    private static long[] rangoPrueba(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(SQL_RANGO_PRUEBA)) {
+            rs.next();
+            return new long[] { rs.getLong(1), rs.getLong(2), rs.getLong(3) };
+        }
+    }
+
+    private static List<Integer> consultarIds(Connection connection, String sql) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+}
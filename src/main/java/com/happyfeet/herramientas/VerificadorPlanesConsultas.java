@@ -0,0 +1,94 @@
+package com.happyfeet.herramientas;
+
+import com.happyfeet.dao.RegistroConsultas;
+import com.happyfeet.dao.RegistroConsultas.ConsultaRegistrada;
+import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Ejecuta EXPLAIN sobre cada consulta de RegistroConsultas y falla (código de salida 1)
+ * si alguna recorre completa una tabla sin ningún índice utilizable: es la señal de un
+ * predicado que envuelve la columna en una función (DATE(fecha_hora), YEAR(...)).
+ * Si hay índice utilizable pero el optimizador igual recorre la tabla (normal con pocas
+ * filas) solo se avisa. Las tablas derivadas y los catálogos pequeños que declara cada
+ * consulta no cuentan. Una consulta que ni siquiera se puede preparar (columna o tabla
+ * inexistente en el esquema) también cuenta como falla, y se sigue con las demás.
+ * Pensado para una base local con el esquema de database/schema.sql, configurada como
+ * la de la aplicación.
+ *
+ * Uso: java -cp ... com.happyfeet.herramientas.VerificadorPlanesConsultas
+ */
+public final class VerificadorPlanesConsultas {
+
+    private VerificadorPlanesConsultas() {
+    }
+
+    public static void main(String[] args) {
+        int fallos = 0;
+        try (Connection connection = DatabaseConnection.getInstance().getConnectionIndependiente()) {
+            System.out.printf("%-45s %-22s %-8s %-30s %s%n", "Consulta", "Tabla", "Tipo", "Índice", "Resultado");
+            for (ConsultaRegistrada consulta : RegistroConsultas.todas()) {
+                try {
+                    fallos += verificar(connection, consulta);
+                } catch (SQLException e) {
+                    System.out.printf("%-45s %-22s %-8s %-30s %s%n", consulta.nombre, "-", "-", "-",
+                                      "FALLA: " + e.getMessage());
+                    fallos++;
+                }
+            }
+        } catch (VeterinariaException | SQLException e) {
+            System.err.println("❌ No se pudo verificar los planes: " + e.getMessage());
+            fallos++;
+        } finally {
+            try {
+                DatabaseConnection.getInstance().closeConnection();
+            } catch (VeterinariaException e) {
+                System.err.println("Error al cerrar conexión: " + e.getMessage());
+            }
+        }
+
+        if (fallos > 0) {
+            System.err.println("❌ " + fallos + " consulta(s) con error o recorrido completo sin índice utilizable");
+            System.exit(1);
+        }
+        System.out.println("✅ Ninguna consulta registrada recorre una tabla completa sin índice");
+    }
+
+    /**
+     * @return número de tablas recorridas completas sin índice utilizable
+     */
+    private static int verificar(Connection connection, ConsultaRegistrada consulta) throws SQLException {
+        int fallos = 0;
+        try (PreparedStatement ps = connection.prepareStatement("EXPLAIN " + consulta.sql)) {
+            consulta.parametros.asignar(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String tabla = rs.getString("table");
+                    String tipo = rs.getString("type");
+                    String posibles = rs.getString("possible_keys");
+                    String indice = rs.getString("key");
+
+                    String resultado = "ok";
+                    boolean recorridoCompleto = "ALL".equals(tipo) || "index".equals(tipo);
+                    boolean exenta = tabla == null || tabla.startsWith("<") || consulta.tablasPermitidas.contains(tabla);
+                    if (recorridoCompleto && !exenta) {
+                        if (posibles == null) {
+                            resultado = "FALLA: recorrido completo sin índice utilizable";
+                            fallos++;
+                        } else {
+                            resultado = "aviso: recorrido completo (índices posibles: " + posibles + ")";
+                        }
+                    }
+                    System.out.printf("%-45s %-22s %-8s %-30s %s%n", consulta.nombre, tabla, tipo,
+                                      indice != null ? indice : "-", resultado);
+                }
+            }
+        }
+        return fallos;
+    }
+}
@@ -15,6 +15,8 @@ public class ItemFactura {
     private Integer cantidad;
     private BigDecimal precioUnitario;
     private BigDecimal subtotal;
+    // Nombre del servicio o producto; solo lectura, se carga junto con la factura
+    private String nombreItem;
 
     public enum TipoItem {
         PRODUCTO, SERVICIO
@@ -52,6 +54,9 @@ public class ItemFactura {
     public Integer getServicioId() { return servicioId; }
     public void setServicioId(Integer servicioId) { this.servicioId = servicioId; }
     
+    public String getNombreItem() { return nombreItem; }
+    public void setNombreItem(String nombreItem) { this.nombreItem = nombreItem; }
+    
     public String getServicioDescripcion() { return servicioDescripcion; }
     public void setServicioDescripcion(String servicioDescripcion) { this.servicioDescripcion = servicioDescripcion; }
     
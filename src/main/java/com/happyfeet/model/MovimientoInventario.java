@@ -0,0 +1,76 @@
+package com.happyfeet.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Modelo que representa un movimiento de stock en el kardex de inventario
+ * La cantidad lleva signo: positiva si entra al stock, negativa si sale.
+ */
+public class MovimientoInventario {
+    private Integer id;
+    private Integer productoId;
+    private TipoMovimiento tipoMovimiento;
+    private Integer cantidad;
+    private Integer stockAnterior;
+    private Integer stockNuevo;
+    private String motivo;
+    private Integer referenciaConsultaId;
+    private Integer referenciaProcedimientoId;
+    private String usuario;
+    private LocalDateTime fechaMovimiento;
+
+    public enum TipoMovimiento {
+        ENTRADA, SALIDA, AJUSTE, VENCIMIENTO
+    }
+
+    // Constructor por defecto
+    public MovimientoInventario() {}
+
+    // Constructor con parámetros
+    public MovimientoInventario(Integer productoId, TipoMovimiento tipoMovimiento, Integer cantidad, String motivo) {
+        this.productoId = productoId;
+        this.tipoMovimiento = tipoMovimiento;
+        this.cantidad = cantidad;
+        this.motivo = motivo;
+    }
+
+    // Getters y Setters
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
+    public Integer getProductoId() { return productoId; }
+    public void setProductoId(Integer productoId) { this.productoId = productoId; }
+
+    public TipoMovimiento getTipoMovimiento() { return tipoMovimiento; }
+    public void setTipoMovimiento(TipoMovimiento tipoMovimiento) { this.tipoMovimiento = tipoMovimiento; }
+
+    public Integer getCantidad() { return cantidad; }
+    public void setCantidad(Integer cantidad) { this.cantidad = cantidad; }
+
+    public Integer getStockAnterior() { return stockAnterior; }
+    public void setStockAnterior(Integer stockAnterior) { this.stockAnterior = stockAnterior; }
+
+    public Integer getStockNuevo() { return stockNuevo; }
+    public void setStockNuevo(Integer stockNuevo) { this.stockNuevo = stockNuevo; }
+
+    public String getMotivo() { return motivo; }
+    public void setMotivo(String motivo) { this.motivo = motivo; }
+
+    public Integer getReferenciaConsultaId() { return referenciaConsultaId; }
+    public void setReferenciaConsultaId(Integer referenciaConsultaId) { this.referenciaConsultaId = referenciaConsultaId; }
+
+    public Integer getReferenciaProcedimientoId() { return referenciaProcedimientoId; }
+    public void setReferenciaProcedimientoId(Integer referenciaProcedimientoId) { this.referenciaProcedimientoId = referenciaProcedimientoId; }
+
+    public String getUsuario() { return usuario; }
+    public void setUsuario(String usuario) { this.usuario = usuario; }
+
+    public LocalDateTime getFechaMovimiento() { return fechaMovimiento; }
+    public void setFechaMovimiento(LocalDateTime fechaMovimiento) { this.fechaMovimiento = fechaMovimiento; }
+
+    @Override
+    public String toString() {
+        return String.format("MovimientoInventario{producto=%d, tipo=%s, cantidad=%d}",
+            productoId, tipoMovimiento, cantidad);
+    }
+}
@@ -5,6 +5,7 @@ import com.happyfeet.model.MascotaAdopcion;
 import com.happyfeet.dao.AdopcionDAO;
 import com.happyfeet.dao.MascotaAdopcionDAO;
 import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.util.TransactionManager;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -59,11 +60,14 @@ public class AdopcionService {
         adopcion.setCondicionesEspeciales(condicionesEspeciales);
         adopcion.setSeguimientoRequerido(true);
         
-        // Actualizar el estado de la mascota a "Adoptada"
-        mascotaAdopcion.setEstado("Adoptada");
-        mascotaAdopcionDAO.save(mascotaAdopcion);
-        
-        return adopcionDAO.save(adopcion);
+        // Cambio de estado y adopción se confirman juntos
+        return TransactionManager.ejecutarEnTransaccion(() -> {
+            // Actualizar el estado de la mascota a "Adoptada"
+            mascotaAdopcion.setEstado("Adoptada");
+            mascotaAdopcionDAO.save(mascotaAdopcion);
+            
+            return adopcionDAO.save(adopcion);
+        });
     }
     
     /**
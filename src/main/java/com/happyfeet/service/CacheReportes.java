@@ -0,0 +1,178 @@
+package com.happyfeet.service;
+
+import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.util.EntityCache;
+import com.happyfeet.util.TransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché de resultados de reportes por tipo y rango de fechas
+ * Un rango cerrado (que termina antes de hoy) no vuelve a cambiar salvo que se modifique
+ * un dato de esas fechas o un veterinario o servicio, así que se guarda sin vencimiento.
+ * Un rango que incluye hoy se guarda con un TTL corto. En ambos casos, registrar un cambio
+ * en una fecha invalida los reportes afectados cuyo rango la contiene, y registrar un cambio
+ * de veterinario o servicio invalida todos los de los tipos que lo leen.
+ * El tamaño está acotado (LRU, valores soft).
+ * Patrón Singleton: una única caché compartida por todos los servicios
+ */
+public class CacheReportes {
+    private static final int MAX_ENTRADAS = Integer.getInteger("happyfeet.reportes.cache.max", 200);
+    private static final long TTL_RANGO_ABIERTO_SEG = Long.getLong("happyfeet.reportes.cache.ttlAbiertoSeg", 300);
+    private static volatile CacheReportes instance;
+
+    /**
+     * Reportes cacheables y los datos de los que dependen
+     */
+    public enum TipoReporte {
+        SERVICIOS_MAS_SOLICITADOS,
+        DESEMPENIO_VETERINARIOS,
+        FACTURACION_POR_PERIODO
+    }
+
+    /**
+     * Carga el reporte desde la base de datos cuando no está en la caché
+     */
+    @FunctionalInterface
+    public interface CargaReporte<R> {
+        List<R> cargar() throws VeterinariaException;
+    }
+
+    private final EntityCache<ClaveReporte, List<?>> rangosCerrados;
+    private final EntityCache<ClaveReporte, List<?>> rangosAbiertos;
+
+    private CacheReportes() {
+        this.rangosCerrados = new EntityCache<>("reportes (rangos cerrados)", MAX_ENTRADAS,
+                                                Long.MAX_VALUE, TimeUnit.NANOSECONDS, true);
+        this.rangosAbiertos = new EntityCache<>("reportes (rangos abiertos)", MAX_ENTRADAS,
+                                                TTL_RANGO_ABIERTO_SEG, TimeUnit.SECONDS, true);
+    }
+
+    /**
+     * Obtiene la instancia única de la caché de reportes
+     */
+    public static CacheReportes getInstance() {
+        if (instance == null) {
+            synchronized (CacheReportes.class) {
+                if (instance == null) {
+                    instance = new CacheReportes();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Devuelve el reporte cacheado o lo carga y lo guarda. La lista devuelta es inmutable.
+     *
+     * @param variante parámetro adicional del reporte (por ejemplo el período), o null
+     */
+    @SuppressWarnings("unchecked")
+    public <R> List<R> obtener(TipoReporte tipo, LocalDate fechaInicio, LocalDate fechaFin, String variante,
+                               CargaReporte<R> carga) throws VeterinariaException {
+        ClaveReporte clave = new ClaveReporte(tipo, fechaInicio, fechaFin, variante);
+        EntityCache<ClaveReporte, List<?>> cache = fechaFin.isBefore(LocalDate.now()) ? rangosCerrados : rangosAbiertos;
+
+        List<?> cacheado = cache.get(clave);
+        if (cacheado != null) {
+            return (List<R>) cacheado;
+        }
+
+        long generacion = cache.getGeneracion();
+        List<R> reporte = List.copyOf(carga.cargar());
+        cache.put(clave, reporte, generacion);
+        return reporte;
+    }
+
+    /**
+     * Registra que cambiaron datos de la fecha dada: invalida los reportes de esos tipos
+     * cuyo rango la contiene. Dentro de una transacción se repite al terminar, para
+     * descartar lo que una lectura concurrente haya cacheado antes del commit.
+     */
+    public void registrarCambio(LocalDate fecha, TipoReporte... tipos) {
+        invalidarRangosCon(fecha, tipos);
+        if (TransactionManager.enTransaccion()) {
+            TransactionManager.alTerminar(() -> invalidarRangosCon(fecha, tipos));
+        }
+    }
+
+    /**
+     * Registra un cambio en datos sin fecha que leen los reportes (nombre o estado de un
+     * veterinario, nombre, categoría o precio de un servicio): invalida todos los resultados
+     * de esos tipos, y dentro de una transacción otra vez al terminar, como registrarCambio.
+     */
+    public void registrarCambioGeneral(TipoReporte... tipos) {
+        invalidar(tipos);
+        if (TransactionManager.enTransaccion()) {
+            TransactionManager.alTerminar(() -> invalidar(tipos));
+        }
+    }
+
+    /**
+     * Invalida todos los resultados de un tipo de reporte (por ejemplo tras reconstruir un resumen)
+     */
+    public void invalidar(TipoReporte tipo) {
+        rangosCerrados.invalidarSi(clave -> clave.tipo == tipo);
+        rangosAbiertos.invalidarSi(clave -> clave.tipo == tipo);
+    }
+
+    private void invalidar(TipoReporte... tipos) {
+        for (TipoReporte tipo : tipos) {
+            invalidar(tipo);
+        }
+    }
+
+    public void invalidarTodo() {
+        rangosCerrados.invalidarTodo();
+        rangosAbiertos.invalidarTodo();
+    }
+
+    public List<EntityCache.Estadisticas> getEstadisticas() {
+        return List.of(rangosCerrados.getEstadisticas(), rangosAbiertos.getEstadisticas());
+    }
+
+    private void invalidarRangosCon(LocalDate fecha, TipoReporte... tipos) {
+        for (TipoReporte tipo : tipos) {
+            rangosCerrados.invalidarSi(clave -> clave.tipo == tipo && clave.contiene(fecha));
+            rangosAbiertos.invalidarSi(clave -> clave.tipo == tipo && clave.contiene(fecha));
+        }
+    }
+
+    private static final class ClaveReporte {
+        final TipoReporte tipo;
+        final LocalDate fechaInicio;
+        final LocalDate fechaFin;
+        final String variante;
+
+        ClaveReporte(TipoReporte tipo, LocalDate fechaInicio, LocalDate fechaFin, String variante) {
+            this.tipo = tipo;
+            this.fechaInicio = fechaInicio;
+            this.fechaFin = fechaFin;
+            this.variante = variante;
+        }
+
+        boolean contiene(LocalDate fecha) {
+            return !fecha.isBefore(fechaInicio) && !fecha.isAfter(fechaFin);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ClaveReporte otra)) {
+                return false;
+            }
+            return tipo == otra.tipo && fechaInicio.equals(otra.fechaInicio)
+                && fechaFin.equals(otra.fechaFin) && Objects.equals(variante, otra.variante);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tipo, fechaInicio, fechaFin, variante);
+        }
+    }
+}
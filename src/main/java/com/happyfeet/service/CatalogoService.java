@@ -0,0 +1,140 @@
+package com.happyfeet.service;
+
+import com.happyfeet.dao.CatalogoDAO;
+import com.happyfeet.dao.CatalogoDAO.Catalogo;
+import com.happyfeet.exception.VeterinariaException;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Caché de las tablas de catálogo (especies, razas, tipos de producto, tipos de evento
+ * y estados de cita). Se precarga completa al iniciar y se resuelve id → nombre con un
+ * acceso a arreglo, sin JOIN ni viaje a la base de datos.
+ * Cada recarga publica una instantánea inmutable nueva; se refresca periódicamente
+ * (-Dhappyfeet.catalogos.refrescoMs) o a demanda con invalidar().
+ * Patrón Singleton: una única caché compartida por todos los servicios y controladores
+ */
+public class CatalogoService {
+    private static final Logger logger = Logger.getLogger(CatalogoService.class.getName());
+    private static final long INTERVALO_REFRESCO_MS = Long.getLong("happyfeet.catalogos.refrescoMs", 900_000);
+    private static volatile CatalogoService instance;
+
+    private final CatalogoDAO catalogoDAO;
+    private final ScheduledExecutorService refresco;
+    private volatile Map<Catalogo, String[]> nombres;
+    // Cada carga toma una generación al empezar; solo reemplaza un catálogo si empezó después
+    // que la carga que lo publicó, así una lectura lenta no pisa una más reciente
+    private long ultimaGeneracion;
+    private final long[] generacionPublicada = new long[Catalogo.values().length];
+
+    private CatalogoService() throws VeterinariaException {
+        this.catalogoDAO = new CatalogoDAO();
+        this.nombres = cargarTodos();
+
+        this.refresco = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "happyfeet-catalogos-refresco");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        if (INTERVALO_REFRESCO_MS > 0) {
+            refresco.scheduleWithFixedDelay(this::refrescarProgramado,
+                INTERVALO_REFRESCO_MS, INTERVALO_REFRESCO_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Obtiene la instancia única de la caché de catálogos, cargándola la primera vez
+     */
+    public static CatalogoService getInstance() throws VeterinariaException {
+        if (instance == null) {
+            synchronized (CatalogoService.class) {
+                if (instance == null) {
+                    instance = new CatalogoService();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Nombre de la fila del catálogo con el id dado, o null si no existe
+     */
+    public String getNombre(Catalogo catalogo, int id) {
+        String[] porId = nombres.get(catalogo);
+        return id >= 0 && id < porId.length ? porId[id] : null;
+    }
+
+    /**
+     * Texto para mostrar: el nombre si existe, o el id crudo si no está en el catálogo
+     */
+    public String describir(Catalogo catalogo, Integer id) {
+        if (id == null) {
+            return "N/A";
+        }
+        String nombre = getNombre(catalogo, id);
+        return nombre != null ? nombre : "#" + id;
+    }
+
+    /**
+     * Recarga todos los catálogos (por ejemplo, tras insertar filas nuevas a mano)
+     */
+    public void invalidar() throws VeterinariaException {
+        long generacion = nuevaGeneracion();
+        publicar(cargarTodos(), generacion);
+        logger.info("Catálogos recargados");
+    }
+
+    /**
+     * Recarga un solo catálogo
+     */
+    public void invalidar(Catalogo catalogo) throws VeterinariaException {
+        long generacion = nuevaGeneracion();
+        Map<Catalogo, String[]> recargado = new EnumMap<>(Catalogo.class);
+        recargado.put(catalogo, catalogoDAO.cargarNombres(catalogo));
+        publicar(recargado, generacion);
+    }
+
+    private synchronized long nuevaGeneracion() {
+        return ++ultimaGeneracion;
+    }
+
+    /**
+     * Publica los catálogos cargados, salvo los que ya publicó una carga iniciada después
+     */
+    private synchronized void publicar(Map<Catalogo, String[]> cargados, long generacion) {
+        Map<Catalogo, String[]> copia = new EnumMap<>(nombres);
+        for (Map.Entry<Catalogo, String[]> cargado : cargados.entrySet()) {
+            int indice = cargado.getKey().ordinal();
+            if (generacion > generacionPublicada[indice]) {
+                copia.put(cargado.getKey(), cargado.getValue());
+                generacionPublicada[indice] = generacion;
+            }
+        }
+        this.nombres = Collections.unmodifiableMap(copia);
+    }
+
+    private Map<Catalogo, String[]> cargarTodos() throws VeterinariaException {
+        Map<Catalogo, String[]> cargados = new EnumMap<>(Catalogo.class);
+        for (Catalogo catalogo : Catalogo.values()) {
+            cargados.put(catalogo, catalogoDAO.cargarNombres(catalogo));
+        }
+        return Collections.unmodifiableMap(cargados);
+    }
+
+    private void refrescarProgramado() {
+        try {
+            invalidar();
+        } catch (VeterinariaException e) {
+            // Se conserva la instantánea anterior hasta el próximo intento
+            logger.warning("No se pudieron refrescar los catálogos: " + e.getMessage());
+        } catch (RuntimeException e) {
+            logger.warning("Error inesperado al refrescar los catálogos: " + e.getMessage());
+        }
+    }
+}
@@ -1,11 +1,21 @@
 package com.happyfeet.service;
 
 import com.happyfeet.model.Cita;
+import com.happyfeet.model.Servicio;
+import com.happyfeet.model.Veterinario;
+import com.happyfeet.dao.AgendaVeterinarios;
 import com.happyfeet.dao.CitaDAO;
+import com.happyfeet.dao.ServicioDAO;
+import com.happyfeet.dao.VeterinarioDAO;
 import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.util.TransactionManager;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -14,10 +24,19 @@ import java.util.Optional;
  * Aplica el principio de responsabilidad única (SRP)
  */
 public class CitaService {
+    // Días hacia adelante en los que se busca el siguiente horario libre
+    private static final int DIAS_BUSQUEDA_HORARIO = 30;
+    
     private final CitaDAO citaDAO;
+    private final VeterinarioDAO veterinarioDAO;
+    private final ServicioDAO servicioDAO;
+    private final AgendaVeterinarios agenda;
     
     public CitaService() throws VeterinariaException {
         this.citaDAO = new CitaDAO();
+        this.veterinarioDAO = new VeterinarioDAO();
+        this.servicioDAO = new ServicioDAO();
+        this.agenda = AgendaVeterinarios.getInstance();
     }
     
     /**
@@ -30,13 +49,8 @@ public class CitaService {
         // Validaciones de negocio
         validarDatosCita(mascotaId, fechaHora, motivo, estadoId);
         
-        // Verificar disponibilidad del veterinario
-        if (veterinarioId != null) {
-            verificarDisponibilidadVeterinario(veterinarioId, fechaHora);
-        }
-        
         Cita nuevaCita = new Cita(mascotaId, veterinarioId, fechaHora, motivo, estadoId);
-        return citaDAO.save(nuevaCita);
+        return guardarVerificandoAgenda(nuevaCita);
     }
     
     /**
@@ -47,15 +61,10 @@ public class CitaService {
         
         validarDatosCita(mascotaId, fechaHora, motivo, estadoId);
         
-        // Verificar disponibilidad del veterinario
-        if (veterinarioId != null) {
-            verificarDisponibilidadVeterinario(veterinarioId, fechaHora);
-        }
-        
         Cita cita = new Cita(mascotaId, veterinarioId, fechaHora, motivo, estadoId);
         cita.setObservaciones(observaciones);
         
-        return citaDAO.save(cita);
+        return guardarVerificandoAgenda(cita);
     }
     
     /**
@@ -92,14 +101,45 @@ public class CitaService {
     }
     
     /**
-     * Verifica la disponibilidad del veterinario
+     * Guarda la cita; si ocupa la agenda de un veterinario, comprueba antes que no se solape
+     * con otra de sus citas activas. La comprobación y el guardado se hacen con la agenda
+     * del veterinario bloqueada, así dos reservas simultáneas no toman el mismo horario.
+     * La agenda en memoria descarta rápido los horarios ocupados, pero no ve las reservas de
+     * otras instancias de la aplicación: antes de guardar se confirma en la BD, en la misma
+     * transacción y con el tramo bloqueado (CitaDAO.bloquearSolapadas).
      */
-    private void verificarDisponibilidadVeterinario(Integer veterinarioId, LocalDateTime fechaHora) 
+    private Cita guardarVerificandoAgenda(Cita cita) throws VeterinariaException {
+        if (!CitaDAO.ocupaAgenda(cita)) {
+            return citaDAO.save(cita);
+        }
+        return agenda.conVeterinarioBloqueado(cita.getVeterinarioId(), () -> 
+            TransactionManager.ejecutarEnTransaccion(() -> {
+                verificarDisponibilidadVeterinario(cita.getVeterinarioId(), cita.getFechaHora(), cita.getId());
+                if (!citaDAO.bloquearSolapadas(cita.getVeterinarioId(), cita.getFechaHora(), 
+                                               AgendaVeterinarios.DURACION_CITA_MIN, cita.getId()).isEmpty()) {
+                    // Otra instancia reservó el horario: la agenda en memoria quedó desactualizada
+                    // y se recargará fuera de esta transacción en la próxima consulta
+                    agenda.invalidarTodo();
+                    throw new VeterinariaException("El veterinario no está disponible en la fecha y hora seleccionada", 
+                                                 VeterinariaException.ErrorType.VALIDATION_ERROR);
+                }
+                return citaDAO.save(cita);
+            }));
+    }
+    
+    /**
+     * Verifica la disponibilidad del veterinario para una cita (sin contar la propia cita al reprogramarla)
+     */
+    private void verificarDisponibilidadVeterinario(Integer veterinarioId, LocalDateTime fechaHora, Integer citaId) 
             throws VeterinariaException {
         
-        boolean disponible = citaDAO.verificarDisponibilidadVeterinario(veterinarioId, fechaHora);
+        boolean disponible = agenda.estaDisponible(veterinarioId, fechaHora, AgendaVeterinarios.DURACION_CITA_MIN, citaId);
         if (!disponible) {
-            throw new VeterinariaException("El veterinario no está disponible en la fecha y hora seleccionada", 
+            String sugerencia = agenda.siguienteHuecoLibre(veterinarioId, fechaHora, AgendaVeterinarios.DURACION_CITA_MIN, 
+                                                           DIAS_BUSQUEDA_HORARIO)
+                .map(hueco -> ". Próximo horario libre: " + hueco)
+                .orElse("");
+            throw new VeterinariaException("El veterinario no está disponible en la fecha y hora seleccionada" + sugerencia, 
                                          VeterinariaException.ErrorType.VALIDATION_ERROR);
         }
     }
@@ -111,6 +151,13 @@ public class CitaService {
         return citaDAO.findAll();
     }
     
+    /**
+     * Obtiene todas las citas activas por páginas (keyset sobre el ID)
+     */
+    public List<Cita> listarCitasActivasPorPagina(Integer despuesDeId, int limite) throws VeterinariaException {
+        return citaDAO.findPage(despuesDeId, limite);
+    }
+    
     /**
      * Busca una cita por su ID
      */
@@ -152,7 +199,7 @@ public class CitaService {
     }
     
     /**
-     * Busca citas por rango de fechas
+     * Busca citas desde fechaInicio (incluida) hasta fechaFin (excluida)
      */
     public List<Cita> buscarCitasPorRangoFechas(LocalDateTime fechaInicio, LocalDateTime fechaFin) 
             throws VeterinariaException {
@@ -193,7 +240,7 @@ public class CitaService {
                                          VeterinariaException.ErrorType.NOT_FOUND_ERROR);
         }
         
-        return citaDAO.save(cita);
+        return guardarVerificandoAgenda(cita);
     }
     
     /**
@@ -250,4 +297,98 @@ public class CitaService {
         
         return citaDAO.verificarDisponibilidadVeterinario(veterinarioId, fechaHora);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Primer horario libre del veterinario desde la fecha dada, dentro del horario de atención
+     * y en los próximos días; vacío si no hay ninguno
+     */
+    public Optional<LocalDateTime> buscarSiguienteHorarioLibre(Integer veterinarioId, LocalDateTime desde) 
+            throws VeterinariaException {
+        if (veterinarioId == null || veterinarioId <= 0) {
+            throw new VeterinariaException("El ID del veterinario debe ser válido", 
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+        
+        if (desde == null) {
+            throw new VeterinariaException("La fecha y hora son obligatorias", 
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+        
+        return agenda.siguienteHuecoLibre(veterinarioId, desde, AgendaVeterinarios.DURACION_CITA_MIN, DIAS_BUSQUEDA_HORARIO);
+    }
+    
+    /**
+     * Todos los horarios libres de los veterinarios activos (opcionalmente de una especialidad)
+     * entre dos días, ordenados de más temprano a más tarde y, a igual hora, del veterinario
+     * menos ocupado ese día. Se calcula sobre la agenda en memoria en una sola pasada.
+     *
+     * @param duracionMinutos minutos que necesita la cita
+     * @param especialidad especialidad del veterinario (coincidencia parcial), o null para todos
+     */
+    public List<HuecoDisponible> buscarHuecosDisponibles(LocalDate fechaInicio, LocalDate fechaFin, int duracionMinutos,
+                                                         String especialidad) throws VeterinariaException {
+        if (fechaInicio == null || fechaFin == null) {
+            throw new VeterinariaException("Ambas fechas (inicio y fin) son obligatorias", 
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+        
+        if (fechaInicio.isAfter(fechaFin)) {
+            throw new VeterinariaException("La fecha de inicio no puede ser posterior a la fecha fin", 
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+        
+        List<Veterinario> veterinarios = especialidad == null || especialidad.trim().isEmpty()
+            ? veterinarioDAO.findAllActiveOrdered()
+            : veterinarioDAO.findByEspecialidad(especialidad.trim());
+        Map<Integer, Veterinario> porId = new LinkedHashMap<>();
+        for (Veterinario veterinario : veterinarios) {
+            porId.put(veterinario.getId(), veterinario);
+        }
+        if (porId.isEmpty()) {
+            return List.of();
+        }
+        
+        List<AgendaVeterinarios.HuecoLibre> huecos = agenda.huecosLibres(porId.keySet(), fechaInicio, fechaFin, 
+                                                                         LocalDateTime.now(), duracionMinutos);
+        List<HuecoDisponible> resultado = new ArrayList<>(huecos.size());
+        for (AgendaVeterinarios.HuecoLibre hueco : huecos) {
+            resultado.add(new HuecoDisponible(porId.get(hueco.veterinarioId), hueco.inicio, hueco.fin));
+        }
+        return resultado;
+    }
+    
+    /**
+     * Igual que buscarHuecosDisponibles, con la duración estimada del servicio
+     * (o la duración estándar de una cita si el servicio no la tiene)
+     */
+    public List<HuecoDisponible> buscarHuecosParaServicio(LocalDate fechaInicio, LocalDate fechaFin, Integer servicioId,
+                                                          String especialidad) throws VeterinariaException {
+        if (servicioId == null || servicioId <= 0) {
+            throw new VeterinariaException("El ID del servicio debe ser válido", 
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+        
+        Servicio servicio = servicioDAO.findById(servicioId)
+            .orElseThrow(() -> new VeterinariaException("No se encontró el servicio con ID: " + servicioId, 
+                                                      VeterinariaException.ErrorType.NOT_FOUND_ERROR));
+        Integer duracion = servicio.getDuracionEstimadaMinutos();
+        return buscarHuecosDisponibles(fechaInicio, fechaFin, 
+                                       duracion != null && duracion > 0 ? duracion : AgendaVeterinarios.DURACION_CITA_MIN, 
+                                       especialidad);
+    }
+    
+    /**
+     * Horario libre de un veterinario: la cita puede empezar entre inicio y fin menos su duración
+     */
+    public static class HuecoDisponible {
+        public final Veterinario veterinario;
+        public final LocalDateTime inicio;
+        public final LocalDateTime fin;
+        
+        public HuecoDisponible(Veterinario veterinario, LocalDateTime inicio, LocalDateTime fin) {
+            this.veterinario = veterinario;
+            this.inicio = inicio;
+            this.fin = fin;
+        }
+    }
+}
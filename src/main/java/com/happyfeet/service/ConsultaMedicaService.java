@@ -31,7 +31,9 @@ public class ConsultaMedicaService {
         
         ConsultaMedica consulta = new ConsultaMedica(mascotaId, veterinarioId, fechaHora, 
                                                    motivo, sintomas, diagnostico);
-        return consultaMedicaDAO.save(consulta);
+        ConsultaMedica guardada = consultaMedicaDAO.save(consulta);
+        registrarCambioReportes(fechaHora);
+        return guardada;
     }
     
     /**
@@ -54,7 +56,9 @@ public class ConsultaMedicaService {
         consulta.setPesoRegistrado(pesoRegistrado);
         consulta.setTemperatura(temperatura);
         
-        return consultaMedicaDAO.save(consulta);
+        ConsultaMedica guardada = consultaMedicaDAO.save(consulta);
+        registrarCambioReportes(fechaHora);
+        return guardada;
     }
     
     /**
@@ -97,6 +101,13 @@ public class ConsultaMedicaService {
         return consultaMedicaDAO.findAll();
     }
     
+    /**
+     * Obtiene todas las consultas médicas por páginas (keyset sobre el ID)
+     */
+    public List<ConsultaMedica> listarConsultasMedicasPorPagina(Integer despuesDeId, int limite) throws VeterinariaException {
+        return consultaMedicaDAO.findPage(despuesDeId, limite);
+    }
+    
     /**
      * Busca una consulta médica por su ID
      */
@@ -133,8 +144,22 @@ public class ConsultaMedicaService {
             throw new VeterinariaException("No se encontró la consulta con ID: " + consulta.getId(), 
                                          VeterinariaException.ErrorType.NOT_FOUND_ERROR);
         }
+        LocalDateTime fechaAnterior = consultaExistente.get().getFechaHora();
         
-        return consultaMedicaDAO.save(consulta);
+        ConsultaMedica guardada = consultaMedicaDAO.save(consulta);
+        registrarCambioReportes(fechaAnterior);
+        registrarCambioReportes(consulta.getFechaHora());
+        return guardada;
+    }
+    
+    /**
+     * Invalida los reportes en caché cuyo rango incluye la fecha de la consulta
+     */
+    private void registrarCambioReportes(LocalDateTime fechaHora) {
+        if (fechaHora != null) {
+            CacheReportes.getInstance().registrarCambio(fechaHora.toLocalDate(), 
+                                                        CacheReportes.TipoReporte.DESEMPENIO_VETERINARIOS);
+        }
     }
     
     /**
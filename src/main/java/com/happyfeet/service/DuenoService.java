@@ -102,6 +102,15 @@ public class DuenoService {
         return duenoDAO.findAllActiveOrdered();
     }
     
+    /**
+     * Obtiene los dueños activos ordenados por nombre, por páginas
+     *
+     * @param ultimo último dueño de la página anterior, o null para la primera
+     */
+    public List<Dueno> listarDuenosActivosPorPagina(Dueno ultimo, int limite) throws VeterinariaException {
+        return duenoDAO.findPageOrderedByNombre(ultimo, limite);
+    }
+    
     /**
      * Busca un dueño por su ID
      */
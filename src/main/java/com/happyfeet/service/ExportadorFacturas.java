@@ -0,0 +1,303 @@
+package com.happyfeet.service;
+
+import com.happyfeet.dao.FacturaDAO;
+import com.happyfeet.dao.FacturaDAO.LineaExportacion;
+import com.happyfeet.exception.VeterinariaException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exporta facturas e items de un rango de fechas a CSV o NDJSON para contabilidad
+ * Las filas se leen con un cursor de solo avance y cada línea se codifica en un
+ * ByteBuffer reutilizado que se vuelca al FileChannel al llenarse, así que la memoria
+ * usada no depende del tamaño del rango: solo el lote del cursor y el búfer de salida.
+ * Se escribe una línea por item; las facturas sin items salen en una sola línea sin datos de item.
+ */
+public class ExportadorFacturas {
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private static final String[] COLUMNAS = {
+        "factura_id", "numero_factura", "dueno_id", "fecha_emision", "estado", "metodo_pago",
+        "subtotal", "impuesto", "descuento", "total", "item_id", "tipo_item", "producto_id",
+        "servicio_id", "descripcion_item", "cantidad", "precio_unitario", "subtotal_item"
+    };
+
+    /**
+     * Formatos de salida soportados
+     */
+    public enum Formato {
+        CSV,
+        NDJSON
+    }
+
+    private final FacturaDAO facturaDAO;
+
+    public ExportadorFacturas() throws VeterinariaException {
+        this.facturaDAO = new FacturaDAO();
+    }
+
+    /**
+     * Exporta las facturas emitidas entre desde y hasta (ambos días incluidos) al archivo,
+     * reemplazándolo si existe
+     */
+    public ResultadoExportacion exportar(LocalDate desde, LocalDate hasta, Path archivo, Formato formato)
+            throws VeterinariaException {
+        if (desde == null || hasta == null || hasta.isBefore(desde)) {
+            throw new VeterinariaException("El rango de fechas no es válido",
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+        if (archivo == null || formato == null) {
+            throw new VeterinariaException("Debe indicar el archivo y el formato de exportación",
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+
+        long inicio = System.nanoTime();
+        long lineas = 0;
+        long facturas = 0;
+        long bytes;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                 StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Stream<LineaExportacion> filas = facturaDAO.streamLineasPorRangoFechas(
+                 desde.atStartOfDay(), hasta.plusDays(1).atStartOfDay())) {
+
+            SalidaCanal salida = new SalidaCanal(canal);
+            StringBuilder linea = new StringBuilder(512);
+            if (formato == Formato.CSV) {
+                escribirEncabezadoCsv(linea);
+                salida.escribir(linea);
+            }
+
+            int facturaAnterior = -1;
+            Iterator<LineaExportacion> it = filas.iterator();
+            while (it.hasNext()) {
+                LineaExportacion fila = it.next();
+                linea.setLength(0);
+                if (formato == Formato.CSV) {
+                    escribirCsv(fila, linea);
+                } else {
+                    escribirJson(fila, linea);
+                }
+                salida.escribir(linea);
+
+                lineas++;
+                if (fila.facturaId != facturaAnterior) {
+                    facturas++;
+                    facturaAnterior = fila.facturaId;
+                }
+            }
+            salida.vaciar();
+            bytes = canal.size();
+
+        } catch (IOException | UncheckedIOException e) {
+            throw new VeterinariaException("No se pudo escribir el archivo de exportación: " + e.getMessage(),
+                                         e, VeterinariaException.ErrorType.BUSINESS_RULE_ERROR);
+        } catch (IllegalStateException e) {
+            // Error de BD a mitad del cursor
+            throw new VeterinariaException("Error en operación de BD al exportar facturas",
+                                         e.getCause() != null ? e.getCause() : e,
+                                         VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+
+        long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+        return new ResultadoExportacion(facturas, lineas, bytes, milisegundos, archivo);
+    }
+
+    private static void escribirEncabezadoCsv(StringBuilder sb) {
+        for (int i = 0; i < COLUMNAS.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(COLUMNAS[i]);
+        }
+        sb.append("\r\n");
+    }
+
+    private static void escribirCsv(LineaExportacion f, StringBuilder sb) {
+        sb.append(f.facturaId).append(',');
+        campoCsv(sb, f.numeroFactura).append(',');
+        sb.append(f.duenoId).append(',');
+        sb.append(f.fechaEmision).append(',');
+        campoCsv(sb, f.estado).append(',');
+        campoCsv(sb, f.metodoPago).append(',');
+        numero(sb, f.subtotal).append(',');
+        numero(sb, f.impuesto).append(',');
+        numero(sb, f.descuento).append(',');
+        numero(sb, f.total).append(',');
+        entero(sb, f.itemId).append(',');
+        campoCsv(sb, f.tipoItem).append(',');
+        entero(sb, f.productoId).append(',');
+        entero(sb, f.servicioId).append(',');
+        campoCsv(sb, f.descripcionItem).append(',');
+        entero(sb, f.cantidad).append(',');
+        numero(sb, f.precioUnitario).append(',');
+        numero(sb, f.subtotalItem).append("\r\n");
+    }
+
+    private static void escribirJson(LineaExportacion f, StringBuilder sb) {
+        sb.append("{\"").append(COLUMNAS[0]).append("\":").append(f.facturaId);
+        textoJson(sb, COLUMNAS[1], f.numeroFactura);
+        sb.append(",\"").append(COLUMNAS[2]).append("\":").append(f.duenoId);
+        textoJson(sb, COLUMNAS[3], f.fechaEmision.toString());
+        textoJson(sb, COLUMNAS[4], f.estado);
+        textoJson(sb, COLUMNAS[5], f.metodoPago);
+        valorJson(sb, COLUMNAS[6], f.subtotal);
+        valorJson(sb, COLUMNAS[7], f.impuesto);
+        valorJson(sb, COLUMNAS[8], f.descuento);
+        valorJson(sb, COLUMNAS[9], f.total);
+        valorJson(sb, COLUMNAS[10], f.itemId);
+        textoJson(sb, COLUMNAS[11], f.tipoItem);
+        valorJson(sb, COLUMNAS[12], f.productoId);
+        valorJson(sb, COLUMNAS[13], f.servicioId);
+        textoJson(sb, COLUMNAS[14], f.descripcionItem);
+        valorJson(sb, COLUMNAS[15], f.cantidad);
+        valorJson(sb, COLUMNAS[16], f.precioUnitario);
+        valorJson(sb, COLUMNAS[17], f.subtotalItem);
+        sb.append("}\n");
+    }
+
+    /**
+     * Campo CSV según RFC 4180: entre comillas solo si contiene separador, comillas o saltos de línea
+     */
+    private static StringBuilder campoCsv(StringBuilder sb, String valor) {
+        if (valor == null) {
+            return sb;
+        }
+        boolean requiereComillas = false;
+        for (int i = 0; i < valor.length() && !requiereComillas; i++) {
+            char c = valor.charAt(i);
+            requiereComillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!requiereComillas) {
+            return sb.append(valor);
+        }
+        sb.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        return sb.append('"');
+    }
+
+    private static StringBuilder numero(StringBuilder sb, BigDecimal valor) {
+        return valor == null ? sb : sb.append(valor.toPlainString());
+    }
+
+    private static StringBuilder entero(StringBuilder sb, Integer valor) {
+        return valor == null ? sb : sb.append(valor.intValue());
+    }
+
+    private static void valorJson(StringBuilder sb, String clave, Object valor) {
+        sb.append(",\"").append(clave).append("\":");
+        if (valor == null) {
+            sb.append("null");
+        } else if (valor instanceof BigDecimal decimal) {
+            sb.append(decimal.toPlainString());
+        } else {
+            sb.append(valor);
+        }
+    }
+
+    private static void textoJson(StringBuilder sb, String clave, String valor) {
+        sb.append(",\"").append(clave).append("\":");
+        if (valor == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Codifica texto a UTF-8 en un ByteBuffer directo y lo vuelca al canal cada vez que se llena
+     */
+    private static final class SalidaCanal {
+        private final FileChannel canal;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANO_BUFFER);
+
+        SalidaCanal(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        void escribir(CharSequence texto) throws IOException {
+            CharBuffer entrada = CharBuffer.wrap(texto);
+            while (true) {
+                CoderResult resultado = encoder.encode(entrada, buffer, true);
+                if (resultado.isOverflow()) {
+                    vaciar();
+                } else if (resultado.isUnderflow()) {
+                    break;
+                } else {
+                    resultado.throwException();
+                }
+            }
+            encoder.reset();
+        }
+
+        void vaciar() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Resumen de una exportación
+     */
+    public static class ResultadoExportacion {
+        public final long facturas;
+        public final long lineas;
+        public final long bytes;
+        public final long milisegundos;
+        public final Path archivo;
+
+        public ResultadoExportacion(long facturas, long lineas, long bytes, long milisegundos, Path archivo) {
+            this.facturas = facturas;
+            this.lineas = lineas;
+            this.bytes = bytes;
+            this.milisegundos = milisegundos;
+            this.archivo = archivo;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d facturas, %d líneas, %d KB en %d ms -> %s",
+                               facturas, lineas, bytes / 1024, milisegundos, archivo);
+        }
+    }
+}
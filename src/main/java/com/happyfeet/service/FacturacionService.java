@@ -2,27 +2,61 @@ package com.happyfeet.service;
 
 import com.happyfeet.model.Factura;
 import com.happyfeet.model.ItemFactura;
+import com.happyfeet.model.MovimientoInventario;
 import com.happyfeet.model.Servicio;
 import com.happyfeet.dao.FacturaDAO;
+import com.happyfeet.dao.FacturacionDiariaDAO;
+import com.happyfeet.dao.InventarioDAO;
 import com.happyfeet.dao.ServicioDAO;
 import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.util.TransactionManager;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
 
 /**
  * Servicio para la gestión de facturación
  * Contiene la lógica de negocio relacionada con facturas y servicios
  */
 public class FacturacionService {
+    private static final Logger logger = Logger.getLogger(FacturacionService.class.getName());
+    private static final PlantillaFactura plantillaFactura = new PlantillaFactura();
+    
+    // Reimpresión masiva: facturas por tarea y tareas en paralelo (cada una usa una conexión del pool)
+    private static final int FACTURAS_POR_BLOQUE = 256;
+    private static final int HILOS_REIMPRESION = Integer.getInteger("happyfeet.facturas.hilosReimpresion",
+        Math.min(4, Runtime.getRuntime().availableProcessors()));
+    
     private final FacturaDAO facturaDAO;
+    private final FacturacionDiariaDAO facturacionDiariaDAO;
+    private final InventarioDAO inventarioDAO;
     private final ServicioDAO servicioDAO;
+    private final NumeradorFacturas numeradorFacturas;
+    private final ExportadorFacturas exportadorFacturas;
 
     public FacturacionService() throws VeterinariaException {
         this.facturaDAO = new FacturaDAO();
+        this.facturacionDiariaDAO = new FacturacionDiariaDAO();
+        this.inventarioDAO = new InventarioDAO();
         this.servicioDAO = new ServicioDAO();
+        this.numeradorFacturas = NumeradorFacturas.getInstance();
+        this.exportadorFacturas = new ExportadorFacturas();
     }
 
     /**
@@ -40,27 +74,47 @@ public class FacturacionService {
         BigDecimal descuento = BigDecimal.ZERO; // Por ahora sin descuentos
         BigDecimal total = subtotal.add(impuesto).subtract(descuento);
         
-        // Generar número de factura
-        String numeroFactura = facturaDAO.obtenerSiguienteNumeroFactura();
-        
-        // Crear factura
-        Factura factura = new Factura(
-            duenoId, numeroFactura, LocalDateTime.now(), 
-            subtotal, impuesto, descuento, total, 
-            metodoPago, Factura.EstadoFactura.PENDIENTE, observaciones
-        );
-        
-        // Guardar factura
-        Factura facturaGuardada = facturaDAO.save(factura);
-        
-        // Guardar items
-        for (ItemFactura item : items) {
-            item.setFacturaId(facturaGuardada.getId());
-            facturaDAO.insertarItemFactura(item);
-        }
-        
-        facturaGuardada.setItems(items);
-        return facturaGuardada;
+        // Factura e items se confirman juntos: nunca queda una factura a medio escribir
+        return TransactionManager.ejecutarEnTransaccion(() -> {
+            // Generar número de factura
+            String numeroFactura = numeradorFacturas.siguienteNumero();
+            
+            // Crear factura
+            Factura factura = new Factura(
+                duenoId, numeroFactura, LocalDateTime.now(), 
+                subtotal, impuesto, descuento, total, 
+                metodoPago, Factura.EstadoFactura.PENDIENTE, observaciones
+            );
+            
+            // Guardar factura
+            Factura facturaGuardada = facturaDAO.save(factura);
+            
+            // Guardar items en lote
+            for (ItemFactura item : items) {
+                item.setFacturaId(facturaGuardada.getId());
+            }
+            facturaDAO.insertarItemsFactura(items);
+            
+            // Los productos vendidos salen del stock en la misma transacción que la factura
+            List<MovimientoInventario> salidas = new ArrayList<>();
+            for (ItemFactura item : items) {
+                if (item.getTipoItem() == ItemFactura.TipoItem.PRODUCTO) {
+                    salidas.add(new MovimientoInventario(item.getProductoId(), 
+                        MovimientoInventario.TipoMovimiento.SALIDA, -item.getCantidad(), "Factura " + numeroFactura));
+                }
+            }
+            inventarioDAO.aplicarMovimientos(salidas);
+            
+            // Solo las facturas pagadas cuentan en el resumen diario
+            if (facturaGuardada.getEstado() == Factura.EstadoFactura.PAGADA) {
+                facturacionDiariaDAO.aplicarFactura(facturaGuardada, 1);
+            }
+            
+            facturaGuardada.setItems(items);
+            CacheReportes.getInstance().registrarCambio(facturaGuardada.getFechaEmision().toLocalDate(),
+                CacheReportes.TipoReporte.SERVICIOS_MAS_SOLICITADOS, CacheReportes.TipoReporte.FACTURACION_POR_PERIODO);
+            return facturaGuardada;
+        });
     }
 
     /**
@@ -113,19 +167,17 @@ public class FacturacionService {
     }
 
     /**
-     * Obtiene una factura por su ID con todos sus items
+     * Obtiene una factura por su ID con todos sus items (una sola consulta)
      */
     public Optional<Factura> obtenerFacturaCompleta(Integer id) throws VeterinariaException {
-        Optional<Factura> facturaOpt = facturaDAO.findById(id);
-        
-        if (facturaOpt.isPresent()) {
-            Factura factura = facturaOpt.get();
-            List<ItemFactura> items = facturaDAO.obtenerItemsPorFacturaId(id);
-            factura.setItems(items);
-            return Optional.of(factura);
-        }
-        
-        return Optional.empty();
+        return facturaDAO.obtenerFacturaCompleta(id);
+    }
+    
+    /**
+     * Obtiene varias facturas con sus items sin hacer una consulta por factura
+     */
+    public List<Factura> obtenerFacturasCompletas(List<Integer> ids) throws VeterinariaException {
+        return facturaDAO.obtenerFacturasCompletas(ids);
     }
 
     /**
@@ -140,79 +192,121 @@ public class FacturacionService {
         }
         
         Factura factura = facturaOpt.get();
-        return generarTextoFactura(factura);
+        return plantillaFactura.renderizar(factura);
     }
 
     /**
-     * Genera el texto formateado de la factura
+     * Reimprime en un solo archivo todas las facturas emitidas entre dos fechas (inclusive).
+     * Las facturas se cargan y renderizan por bloques en paralelo y se escriben en orden de
+     * emisión; como máximo hay dos bloques por hilo en memoria a la vez.
      */
-    private String generarTextoFactura(Factura factura) {
-        StringBuilder sb = new StringBuilder();
-        
-        // Encabezado
-        sb.append("==================================================\n");
-        sb.append("           CLÍNICA VETERINARIA HAPPY FEET\n");
-        sb.append("          Calle Principal #123, Ciudad\n");
-        sb.append("           Tel: (123) 456-7890\n");
-        sb.append("           NIT: 123.456.789-0\n");
-        sb.append("==================================================\n\n");
-        
-        // Información de la factura
-        sb.append("FACTURA No: ").append(factura.getNumeroFactura()).append("\n");
-        sb.append("Fecha: ").append(factura.getFechaEmision().toLocalDate()).append("\n");
-        sb.append("Estado: ").append(factura.getEstado()).append("\n");
-        sb.append("Método de Pago: ").append(factura.getMetodoPago()).append("\n");
-        sb.append("\n");
+    public ResultadoReimpresion reimprimirFacturas(LocalDate desde, LocalDate hasta, Path archivo) 
+            throws VeterinariaException {
+        if (desde == null || hasta == null || hasta.isBefore(desde)) {
+            throw new VeterinariaException("El rango de fechas no es válido", 
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
         
-        // Items
-        sb.append("DETALLE DE ITEMS:\n");
-        sb.append("--------------------------------------------------\n");
+        long inicio = System.nanoTime();
+        List<Integer> ids = facturaDAO.obtenerIdsPorRangoFechas(desde.atStartOfDay(), hasta.plusDays(1).atStartOfDay());
         
-        if (factura.getItems() != null) {
-            for (ItemFactura item : factura.getItems()) {
-                String descripcion = obtenerDescripcionItem(item);
-                sb.append(String.format("%-30s %6d $%,10.2f $%,10.2f\n",
-                    truncateDescripcion(descripcion, 28),
-                    item.getCantidad(),
-                    item.getPrecioUnitario(),
-                    item.getSubtotal()));
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS_REIMPRESION, r -> {
+            Thread hilo = new Thread(r, "happyfeet-reimpresion-facturas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        int facturas = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            Deque<Future<Bloque>> pendientes = new ArrayDeque<>();
+            int siguiente = 0;
+            while (siguiente < ids.size() || !pendientes.isEmpty()) {
+                while (siguiente < ids.size() && pendientes.size() < HILOS_REIMPRESION * 2) {
+                    List<Integer> bloque = ids.subList(siguiente, Math.min(siguiente + FACTURAS_POR_BLOQUE, ids.size()));
+                    pendientes.addLast(hilos.submit(() -> renderizarBloque(bloque)));
+                    siguiente += bloque.size();
+                }
+                
+                Bloque bloque = pendientes.removeFirst().get();
+                writer.append(bloque.texto);
+                facturas += bloque.facturas;
             }
+        } catch (IOException e) {
+            throw new VeterinariaException("No se pudo escribir el archivo de facturas: " + e.getMessage(), 
+                                         e, VeterinariaException.ErrorType.BUSINESS_RULE_ERROR);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new VeterinariaException("Reimpresión de facturas interrumpida", 
+                                         e, VeterinariaException.ErrorType.BUSINESS_RULE_ERROR);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof VeterinariaException causa) {
+                throw causa;
+            }
+            throw new VeterinariaException("Error al renderizar facturas: " + e.getCause().getMessage(), 
+                                         e.getCause(), VeterinariaException.ErrorType.BUSINESS_RULE_ERROR);
+        } finally {
+            hilos.shutdownNow();
         }
         
-        // Totales
-        sb.append("--------------------------------------------------\n");
-        sb.append(String.format("%50s $%,10.2f\n", "Subtotal:", factura.getSubtotal()));
-        sb.append(String.format("%50s $%,10.2f\n", "Impuesto (19%):", factura.getImpuesto()));
-        sb.append(String.format("%50s $%,10.2f\n", "Descuento:", factura.getDescuento()));
-        sb.append(String.format("%50s $%,10.2f\n", "TOTAL:", factura.getTotal()));
-        sb.append("==================================================\n");
+        long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+        ResultadoReimpresion resultado = new ResultadoReimpresion(facturas, milisegundos, archivo);
+        logger.info("Reimpresión de facturas: " + resultado);
+        return resultado;
+    }
+    
+    private Bloque renderizarBloque(List<Integer> ids) throws VeterinariaException {
+        List<Factura> facturas = facturaDAO.obtenerFacturasCompletas(ids);
+        StringBuilder sb = new StringBuilder(facturas.size() * 1024);
+        for (Factura factura : facturas) {
+            plantillaFactura.renderizar(factura, sb);
+            sb.append('\f').append('\n'); // Salto de página entre facturas
+        }
+        return new Bloque(sb, facturas.size());
+    }
+    
+    private static final class Bloque {
+        final CharSequence texto;
+        final int facturas;
+        
+        Bloque(CharSequence texto, int facturas) {
+            this.texto = texto;
+            this.facturas = facturas;
+        }
+    }
+    
+    /**
+     * Resultado de una reimpresión masiva de facturas
+     */
+    public static class ResultadoReimpresion {
+        public final int facturas;
+        public final long milisegundos;
+        public final Path archivo;
         
-        // Observaciones
-        if (factura.getObservaciones() != null && !factura.getObservaciones().isEmpty()) {
-            sb.append("\nOBSERVACIONES:\n");
-            sb.append(factura.getObservaciones()).append("\n");
+        public ResultadoReimpresion(int facturas, long milisegundos, Path archivo) {
+            this.facturas = facturas;
+            this.milisegundos = milisegundos;
+            this.archivo = archivo;
         }
         
-        // Pie de página
-        sb.append("\n");
-        sb.append("¡Gracias por confiar en Happy Feet!\n");
+        public double getFacturasPorSegundo() {
+            return milisegundos == 0 ? facturas * 1000.0 : facturas * 1000.0 / milisegundos;
+        }
         
-        return sb.toString();
-    }
-
-    private String obtenerDescripcionItem(ItemFactura item) {
-        return switch (item.getTipoItem()) {
-            case SERVICIO -> item.getServicioDescripcion() != null ? 
-                item.getServicioDescripcion() : "Servicio veterinario";
-            case PRODUCTO -> "Producto médico/farmacéutico";
-        };
+        @Override
+        public String toString() {
+            return String.format("%d facturas en %d ms (%.1f facturas/s) -> %s", 
+                               facturas, milisegundos, getFacturasPorSegundo(), archivo);
+        }
     }
 
-    private String truncateDescripcion(String descripcion, int length) {
-        if (descripcion.length() > length) {
-            return descripcion.substring(0, length - 3) + "...";
-        }
-        return descripcion;
+    /**
+     * Exporta facturas e items de un rango de fechas a CSV o NDJSON sin cargarlos en memoria
+     */
+    public ExportadorFacturas.ResultadoExportacion exportarFacturas(LocalDate desde, LocalDate hasta, Path archivo,
+                                                                    ExportadorFacturas.Formato formato) 
+            throws VeterinariaException {
+        ExportadorFacturas.ResultadoExportacion resultado = exportadorFacturas.exportar(desde, hasta, archivo, formato);
+        logger.info("Exportación de facturas " + desde + " a " + hasta + ": " + resultado);
+        return resultado;
     }
 
     /**
@@ -251,9 +345,44 @@ public class FacturacionService {
     
     /**
      * Actualiza el estado de una factura
+     * Anular una factura devuelve al stock sus productos; una factura anulada ya no cambia de estado.
      */
     public void actualizarEstadoFactura(Integer facturaId, Factura.EstadoFactura estado) throws VeterinariaException {
-        facturaDAO.actualizarEstadoFactura(facturaId, estado);
+        // El cambio de estado, el resumen diario y el stock se confirman juntos; la fila bloqueada
+        // evita que dos cambios simultáneos sumen o resten la misma factura dos veces
+        TransactionManager.ejecutarEnTransaccion(() -> {
+            Factura actual = facturaDAO.bloquearFactura(facturaId)
+                .orElseThrow(() -> new VeterinariaException("No se encontró la factura con ID: " + facturaId, 
+                                                          VeterinariaException.ErrorType.NOT_FOUND_ERROR));
+            boolean eraAnulada = actual.getEstado() == Factura.EstadoFactura.ANULADA;
+            if (eraAnulada && estado != Factura.EstadoFactura.ANULADA) {
+                throw new VeterinariaException("La factura " + actual.getNumeroFactura() + " está anulada y no puede cambiar de estado", 
+                                             VeterinariaException.ErrorType.BUSINESS_RULE_ERROR);
+            }
+            facturaDAO.actualizarEstadoFactura(facturaId, estado);
+            
+            // Los productos que salieron del stock al facturar vuelven al anular
+            if (!eraAnulada && estado == Factura.EstadoFactura.ANULADA) {
+                List<MovimientoInventario> entradas = new ArrayList<>();
+                for (ItemFactura item : facturaDAO.obtenerItemsPorFacturaId(facturaId)) {
+                    if (item.getTipoItem() == ItemFactura.TipoItem.PRODUCTO) {
+                        entradas.add(new MovimientoInventario(item.getProductoId(), 
+                            MovimientoInventario.TipoMovimiento.ENTRADA, item.getCantidad(), 
+                            "Anulación factura " + actual.getNumeroFactura()));
+                    }
+                }
+                inventarioDAO.aplicarMovimientos(entradas);
+            }
+            
+            boolean eraPagada = actual.getEstado() == Factura.EstadoFactura.PAGADA;
+            boolean esPagada = estado == Factura.EstadoFactura.PAGADA;
+            if (eraPagada != esPagada) {
+                facturacionDiariaDAO.aplicarFactura(actual, esPagada ? 1 : -1);
+                CacheReportes.getInstance().registrarCambio(actual.getFechaEmision().toLocalDate(),
+                    CacheReportes.TipoReporte.FACTURACION_POR_PERIODO);
+            }
+            return null;
+        });
     }
 
     /**
@@ -274,6 +403,10 @@ public class FacturacionService {
         }
         
         Servicio servicio = new Servicio(nombre, descripcion, categoria, precioBase, duracionEstimada);
-        return servicioDAO.save(servicio);
+        Servicio guardado = servicioDAO.save(servicio);
+        // Los reportes leen el nombre y la categoría del servicio, y el precio base de la consulta
+        CacheReportes.getInstance().registrarCambioGeneral(CacheReportes.TipoReporte.SERVICIOS_MAS_SOLICITADOS,
+            CacheReportes.TipoReporte.DESEMPENIO_VETERINARIOS);
+        return guardado;
     }
 }
\ No newline at end of file
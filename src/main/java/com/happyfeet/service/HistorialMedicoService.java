@@ -85,6 +85,13 @@ public class HistorialMedicoService {
         return historialMedicoDAO.findAll();
     }
     
+    /**
+     * Obtiene todos los historiales médicos activos por páginas (keyset sobre el ID)
+     */
+    public List<HistorialMedicoEspecial> listarHistorialesActivosPorPagina(Integer despuesDeId, int limite) throws VeterinariaException {
+        return historialMedicoDAO.findPage(despuesDeId, limite);
+    }
+    
     /**
      * Busca un historial médico por su ID
      */
@@ -1,11 +1,14 @@
 package com.happyfeet.service;
 
 import com.happyfeet.model.Inventario;
+import com.happyfeet.model.MovimientoInventario;
+import com.happyfeet.dao.IndiceAlertasInventario;
 import com.happyfeet.dao.InventarioDAO;
 import com.happyfeet.exception.VeterinariaException;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Servicio para la gestión de inventario
@@ -94,6 +97,13 @@ public class InventarioService {
         return inventarioDAO.findAll();
     }
     
+    /**
+     * Obtiene todos los productos activos por páginas (keyset sobre el ID)
+     */
+    public List<Inventario> listarProductosActivosPorPagina(Integer despuesDeId, int limite) throws VeterinariaException {
+        return inventarioDAO.findPage(despuesDeId, limite);
+    }
+    
     /**
      * Busca un producto por su ID
      */
@@ -137,6 +147,14 @@ public class InventarioService {
         return inventarioDAO.findProximosAVencer();
     }
     
+    /**
+     * Suscribe un oyente a las alertas nuevas de inventario (stock bajo o próximo a vencer),
+     * por ejemplo para enviar notificaciones. Se avisa una vez por transición.
+     */
+    public void suscribirAlertas(Consumer<IndiceAlertasInventario.AlertaInventario> oyente) throws VeterinariaException {
+        IndiceAlertasInventario.getInstance().agregarOyente(oyente);
+    }
+    
     /**
      * Actualiza los datos de un producto existente
      */
@@ -166,7 +184,7 @@ public class InventarioService {
     }
     
     /**
-     * Actualiza el stock de un producto
+     * Fija el stock de un producto tras un recuento; la diferencia queda en el kardex como AJUSTE
      */
     public void actualizarStockProducto(Integer productoId, Integer nuevaCantidad) throws VeterinariaException {
         if (productoId == null || productoId <= 0) {
@@ -179,14 +197,37 @@ public class InventarioService {
                                          VeterinariaException.ErrorType.VALIDATION_ERROR);
         }
         
-        // Verificar que el producto existe
-        Optional<Inventario> producto = inventarioDAO.findById(productoId);
-        if (producto.isEmpty()) {
-            throw new VeterinariaException("No se encontró el producto con ID: " + productoId, 
-                                         VeterinariaException.ErrorType.NOT_FOUND_ERROR);
+        inventarioDAO.ajustarStock(productoId, nuevaCantidad, "Ajuste manual de stock");
+    }
+    
+    /**
+     * Suma unidades al stock de un producto (compra o devolución)
+     */
+    public void registrarEntradaStock(Integer productoId, Integer cantidad, String motivo) throws VeterinariaException {
+        validarMovimiento(productoId, cantidad);
+        inventarioDAO.aplicarMovimiento(new MovimientoInventario(productoId, 
+            MovimientoInventario.TipoMovimiento.ENTRADA, cantidad, motivo));
+    }
+    
+    /**
+     * Descuenta unidades del stock de un producto; falla sin modificar nada si no alcanza
+     */
+    public void registrarSalidaStock(Integer productoId, Integer cantidad, String motivo) throws VeterinariaException {
+        validarMovimiento(productoId, cantidad);
+        inventarioDAO.aplicarMovimiento(new MovimientoInventario(productoId, 
+            MovimientoInventario.TipoMovimiento.SALIDA, -cantidad, motivo));
+    }
+    
+    private void validarMovimiento(Integer productoId, Integer cantidad) throws VeterinariaException {
+        if (productoId == null || productoId <= 0) {
+            throw new VeterinariaException("El ID del producto debe ser válido", 
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
         }
         
-        inventarioDAO.actualizarStock(productoId, nuevaCantidad);
+        if (cantidad == null || cantidad <= 0) {
+            throw new VeterinariaException("La cantidad debe ser mayor a 0", 
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
     }
     
     /**
@@ -126,6 +126,13 @@ public class MascotaService {
         return mascotaDAO.findAll();
     }
     
+    /**
+     * Obtiene todas las mascotas activas por páginas (keyset sobre el ID)
+     */
+    public List<Mascota> listarMascotasActivasPorPagina(Integer despuesDeId, int limite) throws VeterinariaException {
+        return mascotaDAO.findPage(despuesDeId, limite);
+    }
+    
     /**
      * Busca una mascota por su ID
      */
@@ -0,0 +1,76 @@
+package com.happyfeet.service;
+
+import com.happyfeet.dao.FacturaDAO;
+import com.happyfeet.dao.SecuenciaDAO;
+import com.happyfeet.exception.VeterinariaException;
+
+import java.util.logging.Logger;
+
+/**
+ * Asigna números de factura 'FACT-nnnnnn' a partir de la secuencia 'factura'
+ * Cada terminal reserva un bloque de números con un solo UPDATE atómico y lo consume
+ * en memoria, así que numerar una factura es O(1) y dos cajeros nunca reciben el mismo
+ * número. Los números de un bloque sin usar al cerrar la aplicación quedan como huecos.
+ * Patrón Singleton: un único bloque reservado por proceso
+ */
+public class NumeradorFacturas {
+    private static final Logger logger = Logger.getLogger(NumeradorFacturas.class.getName());
+    private static final String SECUENCIA = "factura";
+    private static final int TAMANO_BLOQUE = Integer.getInteger("happyfeet.facturas.bloqueNumeros", 100);
+    private static volatile NumeradorFacturas instance;
+
+    private final SecuenciaDAO secuenciaDAO;
+    private final FacturaDAO facturaDAO;
+
+    // Bloque reservado: [siguiente, limite)
+    private long siguiente;
+    private long limite;
+
+    private NumeradorFacturas() throws VeterinariaException {
+        this.secuenciaDAO = new SecuenciaDAO();
+        this.facturaDAO = new FacturaDAO();
+    }
+
+    /**
+     * Obtiene la instancia única del numerador
+     */
+    public static NumeradorFacturas getInstance() throws VeterinariaException {
+        if (instance == null) {
+            synchronized (NumeradorFacturas.class) {
+                if (instance == null) {
+                    instance = new NumeradorFacturas();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Devuelve el siguiente número de factura, reservando un bloque nuevo si el actual se agotó
+     */
+    public synchronized String siguienteNumero() throws VeterinariaException {
+        if (siguiente >= limite) {
+            reservarBloque();
+        }
+        return String.format("FACT-%06d", siguiente++);
+    }
+
+    private void reservarBloque() throws VeterinariaException {
+        long inicio;
+        try {
+            inicio = secuenciaDAO.reservarBloque(SECUENCIA, TAMANO_BLOQUE);
+        } catch (VeterinariaException e) {
+            if (e.getErrorType() != VeterinariaException.ErrorType.NOT_FOUND_ERROR) {
+                throw e;
+            }
+            // Base de datos anterior a la tabla de secuencias: se inicializa una sola vez
+            // a partir del mayor número existente
+            secuenciaDAO.crearSiNoExiste(SECUENCIA, facturaDAO.obtenerMayorNumeroFactura() + 1);
+            inicio = secuenciaDAO.reservarBloque(SECUENCIA, TAMANO_BLOQUE);
+        }
+
+        this.siguiente = inicio;
+        this.limite = inicio + TAMANO_BLOQUE;
+        logger.info("Reservados números de factura " + inicio + " a " + (limite - 1));
+    }
+}
@@ -0,0 +1,322 @@
+package com.happyfeet.service;
+
+import com.happyfeet.dao.ConsultaMedicaDAO;
+import com.happyfeet.dao.HistorialMedicoDAO;
+import com.happyfeet.dao.ProcedimientoEspecialDAO;
+import com.happyfeet.dao.RegistroJornadaVacunacionDAO;
+import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.model.ConsultaMedica;
+import com.happyfeet.model.HistorialMedicoEspecial;
+import com.happyfeet.model.ProcedimientoEspecial;
+import com.happyfeet.model.RegistroJornadaVacunacion;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Servicio de la línea de tiempo de un paciente: consultas, procedimientos, vacunas e
+ * historial médico de una mascota en una sola lista, de lo más reciente a lo más antiguo.
+ * Cada fuente se lee por páginas (keyset sobre su índice mascota/fecha) y las cuatro se
+ * consultan en paralelo; las páginas se mezclan a medida que se consumen, así una página
+ * de la línea de tiempo lee como mucho tamaño + 1 filas de cada tabla, sin importar cuán
+ * largo sea el historial del paciente.
+ */
+public class PacienteTimelineService {
+    private static final int TAMANO_MAXIMO_PAGINA = 200;
+
+    /**
+     * Origen de una entrada. Entre entradas con la misma fecha se ordenan en este orden.
+     * El historial solo registra el día, así que sus entradas se ubican al inicio de ese día.
+     */
+    public enum TipoEntrada {
+        CONSULTA, PROCEDIMIENTO, VACUNA, HISTORIAL
+    }
+
+    /**
+     * Entrada de la línea de tiempo con el registro original (ConsultaMedica,
+     * ProcedimientoEspecial, RegistroJornadaVacunacion o HistorialMedicoEspecial)
+     */
+    public static final class EntradaLineaTiempo {
+        public final TipoEntrada tipo;
+        public final Integer id;
+        public final LocalDateTime fecha;
+        public final String resumen;
+        public final Object registro;
+
+        EntradaLineaTiempo(TipoEntrada tipo, Integer id, LocalDateTime fecha, String resumen, Object registro) {
+            this.tipo = tipo;
+            this.id = id;
+            this.fecha = fecha;
+            this.resumen = resumen;
+            this.registro = registro;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s  %-13s #%d  %s", fecha, tipo, id, resumen);
+        }
+    }
+
+    /**
+     * Posición en la línea de tiempo: la última entrada entregada. La página siguiente
+     * empieza justo después de ella.
+     */
+    public static final class CursorLineaTiempo {
+        public final LocalDateTime fecha;
+        public final TipoEntrada tipo;
+        public final Integer id;
+
+        public CursorLineaTiempo(LocalDateTime fecha, TipoEntrada tipo, Integer id) {
+            this.fecha = fecha;
+            this.tipo = tipo;
+            this.id = id;
+        }
+    }
+
+    /**
+     * Página de la línea de tiempo; siguiente es null cuando no hay más entradas
+     */
+    public static final class PaginaLineaTiempo {
+        public final List<EntradaLineaTiempo> entradas;
+        public final CursorLineaTiempo siguiente;
+
+        PaginaLineaTiempo(List<EntradaLineaTiempo> entradas, CursorLineaTiempo siguiente) {
+            this.entradas = entradas;
+            this.siguiente = siguiente;
+        }
+    }
+
+    // Orden de la línea de tiempo: fecha descendente, tipo, ID descendente
+    private static final Comparator<EntradaLineaTiempo> ORDEN =
+        Comparator.comparing((EntradaLineaTiempo e) -> e.fecha).reversed()
+                  .thenComparing(e -> e.tipo)
+                  .thenComparing(e -> e.id, Comparator.reverseOrder());
+
+    /**
+     * Lee una página de una fuente, estrictamente anterior a (fecha, id) en orden
+     * descendente; fecha null significa desde el principio
+     */
+    @FunctionalInterface
+    private interface LectorPagina {
+        List<EntradaLineaTiempo> leer(Integer mascotaId, LocalDateTime antesDeFecha, Integer antesDeId, int limite)
+            throws VeterinariaException;
+    }
+
+    /**
+     * Una fuente de la línea de tiempo: conserva la página leída y pide la siguiente
+     * solo cuando se consumió la anterior
+     */
+    private static final class Fuente {
+        final LectorPagina lector;
+        final Integer mascotaId;
+        final int tamanoLote;
+        final ArrayDeque<EntradaLineaTiempo> pendientes = new ArrayDeque<>();
+        LocalDateTime antesDeFecha;
+        Integer antesDeId;
+        boolean agotada;
+
+        Fuente(LectorPagina lector, Integer mascotaId, int tamanoLote, LocalDateTime antesDeFecha, Integer antesDeId) {
+            this.lector = lector;
+            this.mascotaId = mascotaId;
+            this.tamanoLote = tamanoLote;
+            this.antesDeFecha = antesDeFecha;
+            this.antesDeId = antesDeId;
+        }
+
+        Fuente cargar() throws VeterinariaException {
+            List<EntradaLineaTiempo> lote = lector.leer(mascotaId, antesDeFecha, antesDeId, tamanoLote);
+            pendientes.addAll(lote);
+            agotada = lote.size() < tamanoLote;
+            if (!lote.isEmpty()) {
+                EntradaLineaTiempo ultima = lote.get(lote.size() - 1);
+                antesDeFecha = ultima.fecha;
+                antesDeId = ultima.id;
+            }
+            return this;
+        }
+
+        EntradaLineaTiempo actual() throws VeterinariaException {
+            if (pendientes.isEmpty() && !agotada) {
+                cargar();
+            }
+            return pendientes.peek();
+        }
+    }
+
+    private final ConsultaMedicaDAO consultaMedicaDAO;
+    private final ProcedimientoEspecialDAO procedimientoEspecialDAO;
+    private final RegistroJornadaVacunacionDAO registroJornadaVacunacionDAO;
+    private final HistorialMedicoDAO historialMedicoDAO;
+
+    /**
+     * Hilos que leen las fuentes en paralelo, compartidos por todas las instancias del
+     * servicio; la clase se inicializa, y crea los hilos, en la primera lectura.
+     */
+    private static final class Lectores {
+        static final ExecutorService EJECUTOR = Executors.newFixedThreadPool(TipoEntrada.values().length, r -> {
+            Thread hilo = new Thread(r, "happyfeet-linea-tiempo");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    public PacienteTimelineService() throws VeterinariaException {
+        this.consultaMedicaDAO = new ConsultaMedicaDAO();
+        this.procedimientoEspecialDAO = new ProcedimientoEspecialDAO();
+        this.registroJornadaVacunacionDAO = new RegistroJornadaVacunacionDAO();
+        this.historialMedicoDAO = new HistorialMedicoDAO();
+    }
+
+    /**
+     * Primera página de la línea de tiempo de una mascota
+     */
+    public PaginaLineaTiempo obtenerPagina(Integer mascotaId, int tamano) throws VeterinariaException {
+        return obtenerPagina(mascotaId, null, tamano);
+    }
+
+    /**
+     * Página de la línea de tiempo que sigue al cursor (null para la primera página)
+     */
+    public PaginaLineaTiempo obtenerPagina(Integer mascotaId, CursorLineaTiempo despuesDe, int tamano)
+            throws VeterinariaException {
+        if (mascotaId == null) {
+            throw new VeterinariaException("El ID de la mascota es obligatorio",
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+        if (tamano <= 0 || tamano > TAMANO_MAXIMO_PAGINA) {
+            throw new VeterinariaException("El tamaño de página debe estar entre 1 y " + TAMANO_MAXIMO_PAGINA,
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+
+        // Una fila extra por fuente basta para saber si hay página siguiente sin volver a leer
+        List<Fuente> fuentes = new ArrayList<>();
+        for (TipoEntrada tipo : TipoEntrada.values()) {
+            fuentes.add(crearFuente(tipo, mascotaId, despuesDe, tamano + 1));
+        }
+        cargarEnParalelo(fuentes);
+
+        // Cada fuente en la cola tiene al menos una entrada pendiente: su frente
+        PriorityQueue<Fuente> frentes = new PriorityQueue<>(fuentes.size(),
+            (a, b) -> ORDEN.compare(a.pendientes.peek(), b.pendientes.peek()));
+        for (Fuente fuente : fuentes) {
+            if (fuente.actual() != null) {
+                frentes.add(fuente);
+            }
+        }
+
+        List<EntradaLineaTiempo> entradas = new ArrayList<>(tamano);
+        while (entradas.size() < tamano && !frentes.isEmpty()) {
+            Fuente fuente = frentes.poll();
+            entradas.add(fuente.pendientes.poll());
+            if (fuente.actual() != null) {
+                frentes.add(fuente);
+            }
+        }
+
+        CursorLineaTiempo siguiente = null;
+        if (!frentes.isEmpty() && !entradas.isEmpty()) {
+            EntradaLineaTiempo ultima = entradas.get(entradas.size() - 1);
+            siguiente = new CursorLineaTiempo(ultima.fecha, ultima.tipo, ultima.id);
+        }
+        return new PaginaLineaTiempo(entradas, siguiente);
+    }
+
+    /**
+     * Fuente de un tipo posicionada justo después del cursor. En la fecha del cursor, los
+     * tipos anteriores a él ya se entregaron completos, los posteriores todavía no y el
+     * del cursor sigue desde su ID.
+     */
+    private Fuente crearFuente(TipoEntrada tipo, Integer mascotaId, CursorLineaTiempo despuesDe, int tamanoLote) {
+        LocalDateTime antesDeFecha = null;
+        Integer antesDeId = null;
+        if (despuesDe != null) {
+            antesDeFecha = despuesDe.fecha;
+            int comparacion = tipo.compareTo(despuesDe.tipo);
+            antesDeId = comparacion < 0 ? 0 : comparacion == 0 ? despuesDe.id : Integer.MAX_VALUE;
+        }
+        return new Fuente(lector(tipo), mascotaId, tamanoLote, antesDeFecha, antesDeId);
+    }
+
+    private LectorPagina lector(TipoEntrada tipo) {
+        switch (tipo) {
+            case CONSULTA:
+                return (mascotaId, fecha, id, limite) -> {
+                    List<EntradaLineaTiempo> entradas = new ArrayList<>();
+                    for (ConsultaMedica c : consultaMedicaDAO.findPaginaPorMascota(mascotaId, fecha, id, limite)) {
+                        entradas.add(new EntradaLineaTiempo(tipo, c.getId(), c.getFechaHora(), c.getMotivo(), c));
+                    }
+                    return entradas;
+                };
+            case PROCEDIMIENTO:
+                return (mascotaId, fecha, id, limite) -> {
+                    List<EntradaLineaTiempo> entradas = new ArrayList<>();
+                    for (ProcedimientoEspecial p : procedimientoEspecialDAO.findPaginaPorMascota(mascotaId, fecha, id, limite)) {
+                        entradas.add(new EntradaLineaTiempo(tipo, p.getId(), p.getFechaHora(),
+                                                            p.getNombreProcedimiento(), p));
+                    }
+                    return entradas;
+                };
+            case VACUNA:
+                return (mascotaId, fecha, id, limite) -> {
+                    List<EntradaLineaTiempo> entradas = new ArrayList<>();
+                    for (RegistroJornadaVacunacion v : registroJornadaVacunacionDAO.findPaginaPorMascota(mascotaId, fecha, id, limite)) {
+                        String resumen = "Vacuna #" + v.getVacunaId() +
+                                         (v.getLoteVacuna() != null ? " (lote " + v.getLoteVacuna() + ")" : "");
+                        entradas.add(new EntradaLineaTiempo(tipo, v.getId(), v.getFechaHora(), resumen, v));
+                    }
+                    return entradas;
+                };
+            default:
+                return (mascotaId, fecha, id, limite) -> {
+                    // Un cursor a mitad del día deja todo el historial de ese día por delante
+                    Integer antesDeId = fecha != null && !fecha.toLocalTime().equals(LocalTime.MIDNIGHT)
+                                        ? Integer.valueOf(Integer.MAX_VALUE) : id;
+                    List<EntradaLineaTiempo> entradas = new ArrayList<>();
+                    for (HistorialMedicoEspecial h : historialMedicoDAO.findPaginaPorMascota(
+                            mascotaId, fecha != null ? fecha.toLocalDate() : null, antesDeId, limite)) {
+                        entradas.add(new EntradaLineaTiempo(tipo, h.getId(), h.getFechaEvento().atStartOfDay(),
+                                                            h.getDescripcion(), h));
+                    }
+                    return entradas;
+                };
+        }
+    }
+
+    /**
+     * Lee la primera página de cada fuente a la vez, cada una con su propia conexión del pool
+     */
+    private void cargarEnParalelo(List<Fuente> fuentes) throws VeterinariaException {
+        List<Future<Fuente>> cargas = new ArrayList<>(fuentes.size());
+        for (Fuente fuente : fuentes) {
+            cargas.add(Lectores.EJECUTOR.submit(fuente::cargar));
+        }
+        try {
+            for (Future<Fuente> carga : cargas) {
+                carga.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new VeterinariaException("Lectura de la línea de tiempo interrumpida",
+                                         e, VeterinariaException.ErrorType.BUSINESS_RULE_ERROR);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof VeterinariaException causa) {
+                throw causa;
+            }
+            throw new VeterinariaException("Error al leer la línea de tiempo: " + e.getCause().getMessage(),
+                                         e.getCause(), VeterinariaException.ErrorType.DATABASE_ERROR);
+        } finally {
+            for (Future<Fuente> carga : cargas) {
+                carga.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.happyfeet.service;
+
+import com.happyfeet.model.Factura;
+import com.happyfeet.model.ItemFactura;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Plantilla precompilada del texto plano de una factura
+ * El encabezado, separadores, etiquetas alineadas y símbolos numéricos se calculan una
+ * sola vez; cada factura se escribe directo sobre un StringBuilder, sin String.format
+ * por línea. Produce el mismo diseño de ancho fijo que el formato original.
+ * Es inmutable y se puede usar desde varios hilos a la vez.
+ */
+final class PlantillaFactura {
+    private static final String SEPARADOR_DOBLE = "==================================================\n";
+    private static final String SEPARADOR_SIMPLE = "--------------------------------------------------\n";
+    private static final String ENCABEZADO =
+        SEPARADOR_DOBLE +
+        "           CLÍNICA VETERINARIA HAPPY FEET\n" +
+        "          Calle Principal #123, Ciudad\n" +
+        "           Tel: (123) 456-7890\n" +
+        "           NIT: 123.456.789-0\n" +
+        SEPARADOR_DOBLE + "\n";
+    private static final String PIE = "\n¡Gracias por confiar en Happy Feet!\n";
+
+    // Columnas del detalle: descripción (30), cantidad (6), precio (10), subtotal (10)
+    private static final int ANCHO_DESCRIPCION = 30;
+    private static final int MAX_DESCRIPCION = 28;
+    private static final int ANCHO_CANTIDAD = 6;
+    private static final int ANCHO_MONEDA = 10;
+    private static final int ANCHO_ETIQUETA_TOTAL = 50;
+
+    private final String etiquetaSubtotal = alinearDerecha("Subtotal:", ANCHO_ETIQUETA_TOTAL) + " $";
+    private final String etiquetaImpuesto = alinearDerecha("Impuesto (19%):", ANCHO_ETIQUETA_TOTAL) + " $";
+    private final String etiquetaDescuento = alinearDerecha("Descuento:", ANCHO_ETIQUETA_TOTAL) + " $";
+    private final String etiquetaTotal = alinearDerecha("TOTAL:", ANCHO_ETIQUETA_TOTAL) + " $";
+
+    private final char separadorMiles;
+    private final char separadorDecimal;
+    private final char signoMenos;
+
+    /**
+     * Compila la plantilla con los símbolos numéricos del locale de formato actual
+     * (los mismos que usaba String.format)
+     */
+    PlantillaFactura() {
+        DecimalFormatSymbols simbolos = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT));
+        this.separadorMiles = simbolos.getGroupingSeparator();
+        this.separadorDecimal = simbolos.getDecimalSeparator();
+        this.signoMenos = simbolos.getMinusSign();
+    }
+
+    String renderizar(Factura factura) {
+        StringBuilder sb = new StringBuilder(1024);
+        renderizar(factura, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Escribe la factura completa al final del StringBuilder
+     */
+    void renderizar(Factura factura, StringBuilder sb) {
+        sb.append(ENCABEZADO);
+
+        sb.append("FACTURA No: ").append(factura.getNumeroFactura()).append('\n');
+        sb.append("Fecha: ").append(factura.getFechaEmision().toLocalDate()).append('\n');
+        sb.append("Estado: ").append(factura.getEstado()).append('\n');
+        sb.append("Método de Pago: ").append(factura.getMetodoPago()).append('\n');
+        sb.append('\n');
+
+        sb.append("DETALLE DE ITEMS:\n");
+        sb.append(SEPARADOR_SIMPLE);
+        if (factura.getItems() != null) {
+            for (ItemFactura item : factura.getItems()) {
+                anexarItem(sb, item);
+            }
+        }
+
+        sb.append(SEPARADOR_SIMPLE);
+        sb.append(etiquetaSubtotal);
+        anexarMoneda(sb, factura.getSubtotal());
+        sb.append('\n').append(etiquetaImpuesto);
+        anexarMoneda(sb, factura.getImpuesto());
+        sb.append('\n').append(etiquetaDescuento);
+        anexarMoneda(sb, factura.getDescuento());
+        sb.append('\n').append(etiquetaTotal);
+        anexarMoneda(sb, factura.getTotal());
+        sb.append('\n').append(SEPARADOR_DOBLE);
+
+        if (factura.getObservaciones() != null && !factura.getObservaciones().isEmpty()) {
+            sb.append("\nOBSERVACIONES:\n");
+            sb.append(factura.getObservaciones()).append('\n');
+        }
+
+        sb.append(PIE);
+    }
+
+    private void anexarItem(StringBuilder sb, ItemFactura item) {
+        String descripcion = descripcionItem(item);
+        if (descripcion.length() > MAX_DESCRIPCION) {
+            sb.append(descripcion, 0, MAX_DESCRIPCION - 3).append("...");
+            rellenar(sb, ANCHO_DESCRIPCION - MAX_DESCRIPCION);
+        } else {
+            sb.append(descripcion);
+            rellenar(sb, ANCHO_DESCRIPCION - descripcion.length());
+        }
+
+        sb.append(' ');
+        String cantidad = String.valueOf(item.getCantidad());
+        rellenar(sb, ANCHO_CANTIDAD - cantidad.length());
+        sb.append(cantidad);
+
+        sb.append(" $");
+        anexarMoneda(sb, item.getPrecioUnitario());
+        sb.append(" $");
+        anexarMoneda(sb, item.getSubtotal());
+        sb.append('\n');
+    }
+
+    static String descripcionItem(ItemFactura item) {
+        return switch (item.getTipoItem()) {
+            case SERVICIO -> item.getServicioDescripcion() != null ? item.getServicioDescripcion()
+                : item.getNombreItem() != null ? item.getNombreItem() : "Servicio veterinario";
+            case PRODUCTO -> item.getNombreItem() != null ? item.getNombreItem() : "Producto médico/farmacéutico";
+        };
+    }
+
+    /**
+     * Equivalente a "%,10.2f": dos decimales redondeando HALF_UP, separador de miles
+     * y alineado a la derecha en 10 columnas
+     */
+    private void anexarMoneda(StringBuilder sb, BigDecimal valor) {
+        if (valor == null) {
+            rellenar(sb, ANCHO_MONEDA - 4);
+            sb.append("null");
+            return;
+        }
+
+        BigDecimal redondeado = valor.setScale(2, RoundingMode.HALF_UP);
+        boolean negativo = valor.signum() < 0; // Como Formatter: -0.004 se muestra "-0.00"
+        String digitos = redondeado.unscaledValue().abs().toString();
+        int largoEntero = Math.max(digitos.length() - 2, 1);
+        int separadores = (largoEntero - 1) / 3;
+        int largo = (negativo ? 1 : 0) + largoEntero + separadores + 3;
+
+        rellenar(sb, ANCHO_MONEDA - largo);
+        if (negativo) {
+            sb.append(signoMenos);
+        }
+
+        if (digitos.length() < 3) {
+            // Menos de 1: "5" -> "0.05", "50" -> "0.50"
+            sb.append('0').append(separadorDecimal);
+            if (digitos.length() == 1) {
+                sb.append('0');
+            }
+            sb.append(digitos);
+            return;
+        }
+
+        for (int i = 0; i < largoEntero; i++) {
+            if (i > 0 && (largoEntero - i) % 3 == 0) {
+                sb.append(separadorMiles);
+            }
+            sb.append(digitos.charAt(i));
+        }
+        sb.append(separadorDecimal).append(digitos, largoEntero, largoEntero + 2);
+    }
+
+    private static void rellenar(StringBuilder sb, int espacios) {
+        for (int i = 0; i < espacios; i++) {
+            sb.append(' ');
+        }
+    }
+
+    private static String alinearDerecha(String texto, int ancho) {
+        StringBuilder sb = new StringBuilder(ancho);
+        rellenar(sb, ancho - texto.length());
+        return sb.append(texto).toString();
+    }
+}
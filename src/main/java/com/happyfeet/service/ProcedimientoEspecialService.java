@@ -31,7 +31,9 @@ public class ProcedimientoEspecialService {
         
         ProcedimientoEspecial procedimiento = new ProcedimientoEspecial(mascotaId, veterinarioId, tipoProcedimiento,
                                                                        nombreProcedimiento, fechaHora, detalleProcedimiento);
-        return procedimientoEspecialDAO.save(procedimiento);
+        ProcedimientoEspecial guardado = procedimientoEspecialDAO.save(procedimiento);
+        registrarCambioReportes(fechaHora);
+        return guardado;
     }
     
     /**
@@ -57,7 +59,9 @@ public class ProcedimientoEspecialService {
         procedimiento.setEstado(estado);
         procedimiento.setCostoProcedimiento(costoProcedimiento);
         
-        return procedimientoEspecialDAO.save(procedimiento);
+        ProcedimientoEspecial guardado = procedimientoEspecialDAO.save(procedimiento);
+        registrarCambioReportes(fechaHora);
+        return guardado;
     }
     
     /**
@@ -105,6 +109,13 @@ public class ProcedimientoEspecialService {
         return procedimientoEspecialDAO.findAll();
     }
     
+    /**
+     * Obtiene todos los procedimientos especiales activos por páginas (keyset sobre el ID)
+     */
+    public List<ProcedimientoEspecial> listarProcedimientosEspecialesPorPagina(Integer despuesDeId, int limite) throws VeterinariaException {
+        return procedimientoEspecialDAO.findPage(despuesDeId, limite);
+    }
+    
     /**
      * Busca un procedimiento especial por su ID
      */
@@ -162,15 +173,31 @@ public class ProcedimientoEspecialService {
             throw new VeterinariaException("No se encontró el procedimiento con ID: " + procedimiento.getId(), 
                                          VeterinariaException.ErrorType.NOT_FOUND_ERROR);
         }
+        LocalDateTime fechaAnterior = procedimientoExistente.get().getFechaHora();
         
-        return procedimientoEspecialDAO.save(procedimiento);
+        ProcedimientoEspecial guardado = procedimientoEspecialDAO.save(procedimiento);
+        registrarCambioReportes(fechaAnterior);
+        registrarCambioReportes(procedimiento.getFechaHora());
+        return guardado;
+    }
+    
+    /**
+     * Invalida los reportes en caché cuyo rango incluye la fecha del procedimiento
+     */
+    private void registrarCambioReportes(LocalDateTime fechaHora) {
+        if (fechaHora != null) {
+            CacheReportes.getInstance().registrarCambio(fechaHora.toLocalDate(), 
+                                                        CacheReportes.TipoReporte.DESEMPENIO_VETERINARIOS);
+        }
     }
     
     /**
      * Elimina un procedimiento (soft delete)
      */
     public void eliminarProcedimiento(Integer id) throws VeterinariaException {
+        Optional<ProcedimientoEspecial> procedimiento = procedimientoEspecialDAO.findById(id);
         procedimientoEspecialDAO.delete(id);
+        procedimiento.ifPresent(p -> registrarCambioReportes(p.getFechaHora()));
     }
     
     /**
@@ -41,6 +41,25 @@ public class RegistroJornadaVacunacionService {
         return registroJornadaVacunacionDAO.save(registro);
     }
     
+    /**
+     * Registra en lote las vacunaciones de una jornada (un viaje a la BD por lote)
+     */
+    public List<RegistroJornadaVacunacion> registrarVacunacionesMasivas(List<RegistroJornadaVacunacion> registros) 
+            throws VeterinariaException {
+        
+        if (registros == null || registros.isEmpty()) {
+            throw new VeterinariaException("Debe indicar al menos un registro de vacunación", 
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+        
+        for (RegistroJornadaVacunacion registro : registros) {
+            validarDatosRegistro(registro.getJornadaId(), registro.getMascotaId(), registro.getDuenoId(), 
+                                 registro.getVacunaId(), registro.getFechaHora());
+        }
+        
+        return registroJornadaVacunacionDAO.saveAll(registros);
+    }
+    
     /**
      * Valida los datos del registro
      */
@@ -80,6 +99,13 @@ public class RegistroJornadaVacunacionService {
         return registroJornadaVacunacionDAO.findAll();
     }
     
+    /**
+     * Obtiene todos los registros por páginas (keyset sobre el ID)
+     */
+    public List<RegistroJornadaVacunacion> listarRegistrosPorPagina(Integer despuesDeId, int limite) throws VeterinariaException {
+        return registroJornadaVacunacionDAO.findPage(despuesDeId, limite);
+    }
+    
     /**
      * Busca un registro por su ID
      */
@@ -1,20 +1,48 @@
 package com.happyfeet.service;
 
+import com.happyfeet.dao.FacturacionDiariaDAO;
 import com.happyfeet.dao.ReporteDAO;
 import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.util.DatabaseConnection;
+import com.happyfeet.util.EntityCache;
+import com.happyfeet.util.TransactionManager;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
 
 /**
  * Servicio para la generación de reportes gerenciales
  * Aplica el principio de responsabilidad única para reportes
  */
 public class ReporteService {
+    private static final Logger logger = Logger.getLogger(ReporteService.class.getName());
+    
+    // Subreportes del resumen ejecutivo: en paralelo, un hilo virtual por subreporte y
+    // acotados por tiempo. Cada uno ocupa una conexión del pool mientras corre su consulta,
+    // así que un semáforo limita cuántos corren a la vez y deja conexiones para el resto.
+    private static final int CONEXIONES_REPORTES = Integer.getInteger("happyfeet.reportes.conexiones",
+        Math.max(1, DatabaseConnection.getTamanoMaximoPool() / 2));
+    private static final long TIMEOUT_SUBREPORTE_MS = Long.getLong("happyfeet.reportes.timeoutMs", 15_000);
+    private static final ExecutorService ejecutorReportes = Executors.newVirtualThreadPerTaskExecutor();
+    private static final Semaphore conexionesReportes = new Semaphore(CONEXIONES_REPORTES, true);
+    
     private final ReporteDAO reporteDAO;
+    private final FacturacionDiariaDAO facturacionDiariaDAO;
+    private final CacheReportes cacheReportes;
 
     public ReporteService() throws VeterinariaException {
         this.reporteDAO = new ReporteDAO();
+        this.facturacionDiariaDAO = new FacturacionDiariaDAO();
+        this.cacheReportes = CacheReportes.getInstance();
     }
 
     /**
@@ -22,7 +50,8 @@ public class ReporteService {
      */
     public List<ReporteDAO.ServicioReporte> generarReporteServiciosMasSolicitados(LocalDate fechaInicio, LocalDate fechaFin) throws VeterinariaException {
         validarFechas(fechaInicio, fechaFin);
-        return reporteDAO.obtenerServiciosMasSolicitados(fechaInicio, fechaFin);
+        return cacheReportes.obtener(CacheReportes.TipoReporte.SERVICIOS_MAS_SOLICITADOS, fechaInicio, fechaFin, null,
+            () -> reporteDAO.obtenerServiciosMasSolicitados(fechaInicio, fechaFin));
     }
 
     /**
@@ -30,7 +59,8 @@ public class ReporteService {
      */
     public List<ReporteDAO.VeterinarioReporte> generarReporteDesempenioVeterinarios(LocalDate fechaInicio, LocalDate fechaFin) throws VeterinariaException {
         validarFechas(fechaInicio, fechaFin);
-        return reporteDAO.obtenerDesempenioVeterinarios(fechaInicio, fechaFin);
+        return cacheReportes.obtener(CacheReportes.TipoReporte.DESEMPENIO_VETERINARIOS, fechaInicio, fechaFin, null,
+            () -> reporteDAO.obtenerDesempenioVeterinarios(fechaInicio, fechaFin));
     }
 
     /**
@@ -51,7 +81,63 @@ public class ReporteService {
                                          VeterinariaException.ErrorType.VALIDATION_ERROR);
         }
         
-        return reporteDAO.obtenerFacturacionPorPeriodo(fechaInicio, fechaFin, periodo);
+        String periodoNormalizado = periodo.toUpperCase();
+        return cacheReportes.obtener(CacheReportes.TipoReporte.FACTURACION_POR_PERIODO, fechaInicio, fechaFin, periodoNormalizado,
+            () -> reporteDAO.obtenerFacturacionPorPeriodo(fechaInicio, fechaFin, periodoNormalizado));
+    }
+
+    /**
+     * Reconstruye el resumen 'facturacion_diaria' de todo el historial de facturas
+     * (carga inicial o corrección tras modificar facturas fuera de la aplicación)
+     *
+     * @return días con facturación que quedaron en el resumen
+     */
+    public int reconstruirFacturacionDiaria() throws VeterinariaException {
+        LocalDate[] rango = facturacionDiariaDAO.obtenerRangoFacturas();
+        if (rango == null) {
+            return 0;
+        }
+        return reconstruirFacturacionDiaria(rango[0], rango[1]);
+    }
+
+    /**
+     * Reconstruye el resumen diario entre dos fechas (inclusive), un mes por transacción
+     * para no mantener bloqueado todo el rango mientras se recalcula
+     */
+    public int reconstruirFacturacionDiaria(LocalDate fechaInicio, LocalDate fechaFin) throws VeterinariaException {
+        if (fechaInicio == null || fechaFin == null || fechaInicio.isAfter(fechaFin)) {
+            throw new VeterinariaException("El rango de fechas no es válido", 
+                                         VeterinariaException.ErrorType.VALIDATION_ERROR);
+        }
+        
+        int dias = 0;
+        LocalDate desde = fechaInicio;
+        while (!desde.isAfter(fechaFin)) {
+            LocalDate finMes = desde.withDayOfMonth(desde.lengthOfMonth());
+            LocalDate hasta = finMes.isBefore(fechaFin) ? finMes : fechaFin;
+            LocalDate inicioTramo = desde;
+            dias += TransactionManager.ejecutarEnTransaccion(
+                () -> facturacionDiariaDAO.reconstruir(inicioTramo, hasta));
+            desde = hasta.plusDays(1);
+        }
+        
+        cacheReportes.invalidar(CacheReportes.TipoReporte.FACTURACION_POR_PERIODO);
+        logger.info("Facturación diaria reconstruida de " + fechaInicio + " a " + fechaFin + ": " + dias + " días");
+        return dias;
+    }
+
+    /**
+     * Métricas de la caché de reportes (rangos cerrados y rangos que incluyen hoy)
+     */
+    public List<EntityCache.Estadisticas> obtenerEstadisticasCache() {
+        return cacheReportes.getEstadisticas();
+    }
+
+    /**
+     * Descarta todos los reportes en caché (por ejemplo tras corregir datos fuera de la aplicación)
+     */
+    public void limpiarCache() {
+        cacheReportes.invalidarTodo();
     }
 
     /**
@@ -76,38 +162,104 @@ public class ReporteService {
 
     /**
      * Genera un resumen ejecutivo combinando varios reportes
+     * Los subreportes se ejecutan en paralelo, cada uno con su propia conexión del pool,
+     * así la latencia es la del más lento y no la suma. Un subreporte que falla o no
+     * responde en TIMEOUT_SUBREPORTE_MS se omite y queda listado en reportesIncompletos;
+     * su consulta lleva el mismo límite como timeout, así que también se corta en el servidor.
      */
-   public ResumenEjecutivo generarResumenEjecutivo(LocalDate fechaInicio, LocalDate fechaFin) throws VeterinariaException {
-    validarFechas(fechaInicio, fechaFin);
-    
-    // Obtener datos de diferentes reportes usando programación funcional
-    List<ReporteDAO.ServicioReporte> servicios = generarReporteServiciosMasSolicitados(fechaInicio, fechaFin);
-    List<ReporteDAO.VeterinarioReporte> veterinarios = generarReporteDesempenioVeterinarios(fechaInicio, fechaFin);
-    List<ReporteDAO.FacturacionReporte> facturacion = generarReporteFacturacionPorPeriodo(fechaInicio, fechaFin, "MENSUAL");
-    
-    // Calcular métricas usando Stream API - CORREGIDO: usar campos directos en lugar de getters
-    double ingresoTotal = facturacion.stream()
-        .mapToDouble(r -> r.totalFacturado.doubleValue())
-        .sum();
-    
-    long totalServicios = servicios.stream()
-        .mapToLong(r -> r.totalVeces)
-        .sum();
-    
-    long totalConsultas = veterinarios.stream()
-        .mapToLong(r -> r.totalConsultas) // CORREGIDO: acceso directo al campo
-        .sum();
+    public ResumenEjecutivo generarResumenEjecutivo(LocalDate fechaInicio, LocalDate fechaFin) throws VeterinariaException {
+        validarFechas(fechaInicio, fechaFin);
+        
+        long limiteNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_SUBREPORTE_MS);
+        Future<List<ReporteDAO.ServicioReporte>> serviciosFuturo = enviarSubreporte(limiteNanos,
+            () -> generarReporteServiciosMasSolicitados(fechaInicio, fechaFin));
+        Future<List<ReporteDAO.VeterinarioReporte>> veterinariosFuturo = enviarSubreporte(limiteNanos,
+            () -> generarReporteDesempenioVeterinarios(fechaInicio, fechaFin));
+        Future<List<ReporteDAO.FacturacionReporte>> facturacionFuturo = enviarSubreporte(limiteNanos,
+            () -> generarReporteFacturacionPorPeriodo(fechaInicio, fechaFin, "MENSUAL"));
+        
+        List<String> incompletos = new ArrayList<>();
+        List<ReporteDAO.ServicioReporte> servicios = 
+            esperarSubreporte("Servicios más solicitados", serviciosFuturo, limiteNanos, incompletos);
+        List<ReporteDAO.VeterinarioReporte> veterinarios = 
+            esperarSubreporte("Desempeño de veterinarios", veterinariosFuturo, limiteNanos, incompletos);
+        List<ReporteDAO.FacturacionReporte> facturacion = 
+            esperarSubreporte("Facturación mensual", facturacionFuturo, limiteNanos, incompletos);
+        
+        if (incompletos.size() == 3) {
+            throw new VeterinariaException("No se pudo generar ningún reporte del resumen: " + String.join("; ", incompletos), 
+                                         VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+        
+        // Calcular métricas usando Stream API
+        double ingresoTotal = facturacion.stream()
+            .mapToDouble(r -> r.totalFacturado.doubleValue())
+            .sum();
+        
+        long totalServicios = servicios.stream()
+            .mapToLong(r -> r.totalVeces)
+            .sum();
+        
+        long totalConsultas = veterinarios.stream()
+            .mapToLong(r -> r.totalConsultas)
+            .sum();
+        
+        String servicioMasPopular = servicios.stream()
+            .findFirst()
+            .map(r -> r.nombre)
+            .orElse("No hay datos");
+        
+        return new ResumenEjecutivo(
+            fechaInicio, fechaFin, ingresoTotal, totalServicios, 
+            totalConsultas, servicioMasPopular, servicios.size(), veterinarios.size(),
+            incompletos
+        );
+    }
     
-    String servicioMasPopular = servicios.stream()
-        .findFirst()
-        .map(r -> r.nombre)
-        .orElse("No hay datos");
+    /**
+     * Lanza un subreporte en su hilo virtual. Espera un permiso de conexión hasta el límite
+     * común y sus consultas heredan lo que quede de ese límite como timeout.
+     */
+    private <R> Future<List<R>> enviarSubreporte(long limiteNanos, ReporteDAO.OperacionReporte<List<R>> subreporte) {
+        return ejecutorReportes.submit(() -> {
+            if (!conexionesReportes.tryAcquire(Math.max(0, limiteNanos - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                throw new TimeoutException("sin conexión libre para reportes");
+            }
+            try {
+                return ReporteDAO.conLimite(limiteNanos, subreporte);
+            } finally {
+                conexionesReportes.release();
+            }
+        });
+    }
     
-    return new ResumenEjecutivo(
-        fechaInicio, fechaFin, ingresoTotal, totalServicios, 
-        totalConsultas, servicioMasPopular, servicios.size(), veterinarios.size()
-    );
-}    /**
+    /**
+     * Espera el resultado de un subreporte hasta el límite común. Si falla o se agota
+     * el tiempo lo registra en incompletos y devuelve una lista vacía.
+     */
+    private <R> List<R> esperarSubreporte(String nombre, Future<List<R>> futuro, long limiteNanos, 
+                                          List<String> incompletos) throws VeterinariaException {
+        try {
+            return futuro.get(Math.max(0, limiteNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            logger.warning("Subreporte '" + nombre + "' sin respuesta en " + TIMEOUT_SUBREPORTE_MS + " ms");
+            incompletos.add(nombre + ": sin respuesta en " + TIMEOUT_SUBREPORTE_MS + " ms");
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause() != null ? e.getCause() : e;
+            logger.warning("Subreporte '" + nombre + "' falló: " + causa.getMessage());
+            incompletos.add(nombre + ": " + causa.getMessage());
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new VeterinariaException("Generación del resumen ejecutivo interrumpida", 
+                                         e, VeterinariaException.ErrorType.BUSINESS_RULE_ERROR);
+        }
+        return List.of();
+    }
+
+    /**
      * Clase para el resumen ejecutivo
      */
     public static class ResumenEjecutivo {
@@ -119,10 +271,20 @@ public class ReporteService {
         public final String servicioMasPopular;
         public final int cantidadServiciosDiferentes;
         public final int veterinariosActivos;
+        /** Subreportes omitidos por error o tiempo agotado; vacía si el resumen está completo */
+        public final List<String> reportesIncompletos;
 
         public ResumenEjecutivo(LocalDate fechaInicio, LocalDate fechaFin, double ingresoTotal,
                                long totalServicios, long totalConsultas, String servicioMasPopular,
                                int cantidadServiciosDiferentes, int veterinariosActivos) {
+            this(fechaInicio, fechaFin, ingresoTotal, totalServicios, totalConsultas, servicioMasPopular,
+                 cantidadServiciosDiferentes, veterinariosActivos, List.of());
+        }
+
+        public ResumenEjecutivo(LocalDate fechaInicio, LocalDate fechaFin, double ingresoTotal,
+                               long totalServicios, long totalConsultas, String servicioMasPopular,
+                               int cantidadServiciosDiferentes, int veterinariosActivos,
+                               List<String> reportesIncompletos) {
             this.fechaInicio = fechaInicio;
             this.fechaFin = fechaFin;
             this.ingresoTotal = ingresoTotal;
@@ -131,6 +293,11 @@ public class ReporteService {
             this.servicioMasPopular = servicioMasPopular;
             this.cantidadServiciosDiferentes = cantidadServiciosDiferentes;
             this.veterinariosActivos = veterinariosActivos;
+            this.reportesIncompletos = List.copyOf(reportesIncompletos);
+        }
+
+        public boolean esCompleto() {
+            return reportesIncompletos.isEmpty();
         }
     }
 }
\ No newline at end of file
@@ -33,7 +33,9 @@ public class VeterinarioService {
         verificarDuplicados(documentoIdentidad, licenciaProfesional, null);
         
         Veterinario nuevoVeterinario = new Veterinario(nombreCompleto, documentoIdentidad, licenciaProfesional);
-        return veterinarioDAO.save(nuevoVeterinario);
+        Veterinario guardado = veterinarioDAO.save(nuevoVeterinario);
+        registrarCambioEnReportes();
+        return guardado;
     }
     
     /**
@@ -63,7 +65,9 @@ public class VeterinarioService {
             }
         }
         
-        return veterinarioDAO.save(veterinario);
+        Veterinario guardado = veterinarioDAO.save(veterinario);
+        registrarCambioEnReportes();
+        return guardado;
     }
     
     /**
@@ -166,7 +170,9 @@ public class VeterinarioService {
         // Verificar duplicados excluyendo el registro actual
         verificarDuplicadosParaActualizacion(veterinario);
         
-        return veterinarioDAO.save(veterinario);
+        Veterinario guardado = veterinarioDAO.save(veterinario);
+        registrarCambioEnReportes();
+        return guardado;
     }
     
     /**
@@ -201,6 +207,14 @@ public class VeterinarioService {
         // Aquí se podrían agregar validaciones adicionales
         // como verificar si el veterinario tiene citas activas
         veterinarioDAO.delete(id);
+        registrarCambioEnReportes();
+    }
+    
+    /**
+     * El reporte de desempeño lee el nombre y el estado de los veterinarios
+     */
+    private void registrarCambioEnReportes() {
+        CacheReportes.getInstance().registrarCambioGeneral(CacheReportes.TipoReporte.DESEMPENIO_VETERINARIOS);
     }
     
     /**
@@ -0,0 +1,626 @@
+package com.happyfeet.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pool acotado de conexiones JDBC
+ * Cada operación de los DAO toma una conexión prestada y la devuelve al cerrarla,
+ * de modo que consultas lentas (reportes) no bloquean al resto de la aplicación.
+ *
+ * Incluye tamaño mínimo/máximo, desalojo de conexiones ociosas, validación al prestar,
+ * detección de fugas (captura la pila de quien tomó la conexión) y métricas de espera.
+ * Las conexiones caídas (wait_timeout, failover) se detectan en segundo plano o al
+ * devolverlas y se reemplazan sin reiniciar la aplicación.
+ * Cada conexión física mantiene su propia caché LRU de sentencias preparadas.
+ */
+public class ConnectionPool {
+    private static final Logger logger = Logger.getLogger(ConnectionPool.class.getName());
+
+    // Una conexión devuelta hace menos de este tiempo no se vuelve a validar al prestarla
+    private static final long VENTANA_SIN_VALIDACION_MS = 500;
+    private static final int TIMEOUT_VALIDACION_SEGUNDOS = 5;
+    private static final long INTERVALO_MANTENIMIENTO_MS = 30_000;
+    // Las conexiones ociosas más tiempo que esto se validan en segundo plano
+    private static final long INTERVALO_VALIDACION_OCIOSA_MS = 30_000;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int tamanoMinimo;
+    private final int tamanoMaximo;
+    private final long timeoutEsperaMs;
+    private final long timeoutOciosaMs;
+    private final long umbralFugaMs;
+    private final int tamanoCacheSentencias;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition disponible = lock.newCondition();
+    private final Deque<ConexionFisica> ociosas = new ArrayDeque<>();
+    private final Set<ConexionFisica> prestadas = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService mantenimiento;
+    private int totalConexiones;
+    private int esperando;
+    private volatile boolean cerrado;
+
+    // Métricas
+    private final AtomicLong totalPrestamos = new AtomicLong();
+    private final AtomicLong totalEsperaNanos = new AtomicLong();
+    private final AtomicLong maxEsperaNanos = new AtomicLong();
+    private final AtomicLong totalTimeouts = new AtomicLong();
+    private final AtomicLong totalCreadas = new AtomicLong();
+    private final AtomicLong totalDescartadas = new AtomicLong();
+    private final AtomicLong totalFugas = new AtomicLong();
+    private final AtomicLong totalRotas = new AtomicLong();
+    private final AtomicLong totalReconexiones = new AtomicLong();
+    private final AtomicLong pendientesDeReemplazo = new AtomicLong();
+    private final AtomicLong sentenciasAciertos = new AtomicLong();
+    private final AtomicLong sentenciasFallos = new AtomicLong();
+    private final AtomicLong sentenciasDesalojadas = new AtomicLong();
+
+    public ConnectionPool(String url, String user, String password, int tamanoMinimo, int tamanoMaximo,
+                          long timeoutEsperaMs, long timeoutOciosaMs, long umbralFugaMs,
+                          int tamanoCacheSentencias) throws SQLException {
+        if (tamanoMinimo < 0 || tamanoMaximo <= 0 || tamanoMinimo > tamanoMaximo) {
+            throw new IllegalArgumentException("Tamaños de pool inválidos: min=" + tamanoMinimo + ", max=" + tamanoMaximo);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.tamanoMinimo = tamanoMinimo;
+        this.tamanoMaximo = tamanoMaximo;
+        this.timeoutEsperaMs = timeoutEsperaMs;
+        this.timeoutOciosaMs = timeoutOciosaMs;
+        this.umbralFugaMs = umbralFugaMs;
+        this.tamanoCacheSentencias = tamanoCacheSentencias;
+
+        // Precarga del tamaño mínimo
+        for (int i = 0; i < tamanoMinimo; i++) {
+            ociosas.addLast(crearConexion());
+            totalConexiones++;
+        }
+
+        this.mantenimiento = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "happyfeet-pool-mantenimiento");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        mantenimiento.scheduleWithFixedDelay(this::ejecutarMantenimiento,
+            INTERVALO_MANTENIMIENTO_MS, INTERVALO_MANTENIMIENTO_MS, TimeUnit.MILLISECONDS);
+
+        logger.info(String.format("Pool de conexiones iniciado (min=%d, max=%d)", tamanoMinimo, tamanoMaximo));
+    }
+
+    /**
+     * Toma una conexión del pool; al cerrarla se devuelve automáticamente
+     */
+    public Connection getConnection() throws SQLException {
+        long inicio = System.nanoTime();
+        long limite = inicio + TimeUnit.MILLISECONDS.toNanos(timeoutEsperaMs);
+
+        while (true) {
+            ConexionFisica conexion = null;
+            boolean crearNueva = false;
+
+            lock.lock();
+            try {
+                while (conexion == null && !crearNueva) {
+                    if (cerrado) {
+                        throw new SQLException("El pool de conexiones está cerrado");
+                    }
+                    if (!ociosas.isEmpty()) {
+                        conexion = ociosas.pollFirst();
+                    } else if (totalConexiones < tamanoMaximo) {
+                        totalConexiones++;
+                        crearNueva = true;
+                    } else {
+                        long restante = limite - System.nanoTime();
+                        if (restante <= 0) {
+                            totalTimeouts.incrementAndGet();
+                            throw new SQLTransientConnectionException(String.format(
+                                "Tiempo de espera agotado (%d ms) para obtener conexión; activas=%d, max=%d",
+                                timeoutEsperaMs, prestadas.size(), tamanoMaximo));
+                        }
+                        esperando++;
+                        try {
+                            disponible.awaitNanos(restante);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new SQLException("Interrumpido esperando una conexión del pool", e);
+                        } finally {
+                            esperando--;
+                        }
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (crearNueva) {
+                try {
+                    conexion = crearConexion();
+                } catch (SQLException e) {
+                    liberarCupo();
+                    throw e;
+                }
+            } else if (!esValida(conexion)) {
+                descartarRota(conexion);
+                continue;
+            }
+
+            registrarPrestamo(conexion, System.nanoTime() - inicio);
+            return conexion.envolver();
+        }
+    }
+
+    private ConexionFisica crearConexion() throws SQLException {
+        Connection fisica = DriverManager.getConnection(url, user, password);
+        totalCreadas.incrementAndGet();
+        if (pendientesDeReemplazo.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0) {
+            totalReconexiones.incrementAndGet();
+            logger.info("Reconexión a BD establecida");
+        }
+        return new ConexionFisica(fisica);
+    }
+
+    private boolean esValida(ConexionFisica conexion) {
+        if (System.currentTimeMillis() - conexion.ultimoUso < VENTANA_SIN_VALIDACION_MS) {
+            return true;
+        }
+        try {
+            return conexion.fisica.isValid(TIMEOUT_VALIDACION_SEGUNDOS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void registrarPrestamo(ConexionFisica conexion, long esperaNanos) {
+        conexion.prestadaDesde = System.currentTimeMillis();
+        conexion.fugaReportada = false;
+        conexion.pilaPrestamo = umbralFugaMs > 0
+            ? new Exception("Conexión tomada del pool por el hilo " + Thread.currentThread().getName())
+            : null;
+        prestadas.add(conexion);
+
+        totalPrestamos.incrementAndGet();
+        totalEsperaNanos.addAndGet(esperaNanos);
+        maxEsperaNanos.accumulateAndGet(esperaNanos, Math::max);
+    }
+
+    /**
+     * Indica si el error significa que la conexión física ya no sirve
+     * (SQLState clase 08 o excepciones de conexión de JDBC). El timeout del propio
+     * pool no cuenta: reintentarlo solo alargaría la espera.
+     */
+    public static boolean esErrorDeConexion(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLRecoverableException || t instanceof SQLNonTransientConnectionException) {
+                return true;
+            }
+            if (t instanceof SQLException sqlEx && sqlEx.getSQLState() != null
+                    && sqlEx.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Marca una conexión prestada como rota para que se descarte al devolverla
+     */
+    public void invalidar(Connection connection) {
+        if (Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof ConexionPrestada prestada
+                && prestada.conexion != null) {
+            prestada.conexion.rota = true;
+        }
+    }
+
+    /**
+     * Devuelve una conexión al pool restaurando su estado por defecto
+     */
+    private void devolver(ConexionFisica conexion) {
+        prestadas.remove(conexion);
+        conexion.pilaPrestamo = null;
+
+        if (conexion.rota) {
+            descartarRota(conexion);
+            return;
+        }
+
+        boolean reutilizable;
+        try {
+            if (!conexion.fisica.getAutoCommit()) {
+                conexion.fisica.rollback();
+                conexion.fisica.setAutoCommit(true);
+            }
+            reutilizable = !conexion.fisica.isClosed();
+        } catch (SQLException e) {
+            logger.warning("Conexión descartada al devolverla al pool: " + e.getMessage());
+            reutilizable = false;
+        }
+
+        if (!reutilizable) {
+            descartarRota(conexion);
+            return;
+        }
+        if (cerrado) {
+            descartar(conexion);
+            return;
+        }
+
+        conexion.ultimoUso = System.currentTimeMillis();
+        lock.lock();
+        try {
+            ociosas.addFirst(conexion);
+            disponible.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void descartar(ConexionFisica conexion) {
+        totalDescartadas.incrementAndGet();
+        cerrarFisica(conexion);
+        liberarCupo();
+    }
+
+    private void descartarRota(ConexionFisica conexion) {
+        totalRotas.incrementAndGet();
+        pendientesDeReemplazo.incrementAndGet();
+        logger.warning("Conexión a BD caída detectada; se descarta y será reemplazada");
+        descartar(conexion);
+    }
+
+    private void liberarCupo() {
+        lock.lock();
+        try {
+            totalConexiones--;
+            disponible.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void cerrarFisica(ConexionFisica conexion) {
+        conexion.sentencias.cerrarTodas();
+        try {
+            conexion.fisica.close();
+        } catch (SQLException e) {
+            logger.fine("Error al cerrar conexión física: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Desaloja conexiones ociosas por encima del mínimo, valida las que llevan tiempo
+     * sin usarse, repone el tamaño mínimo y reporta posibles fugas
+     */
+    private void ejecutarMantenimiento() {
+        try {
+            long ahora = System.currentTimeMillis();
+            List<ConexionFisica> expiradas = new ArrayList<>();
+            List<ConexionFisica> porValidar = new ArrayList<>();
+
+            lock.lock();
+            try {
+                // Las más antiguas quedan al final de la cola
+                while (totalConexiones - expiradas.size() > tamanoMinimo && !ociosas.isEmpty()
+                        && ahora - ociosas.peekLast().ultimoUso > timeoutOciosaMs) {
+                    expiradas.add(ociosas.pollLast());
+                }
+                // Se retiran temporalmente para validarlas fuera del lock
+                while (!ociosas.isEmpty() && ahora - ociosas.peekLast().ultimoUso > INTERVALO_VALIDACION_OCIOSA_MS) {
+                    porValidar.add(ociosas.pollLast());
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            for (ConexionFisica conexion : expiradas) {
+                cerrarFisica(conexion);
+                liberarCupo();
+            }
+            if (!expiradas.isEmpty()) {
+                logger.fine("Conexiones ociosas desalojadas: " + expiradas.size());
+            }
+
+            for (ConexionFisica conexion : porValidar) {
+                boolean valida;
+                try {
+                    valida = conexion.fisica.isValid(TIMEOUT_VALIDACION_SEGUNDOS);
+                } catch (SQLException e) {
+                    valida = false;
+                }
+                if (!valida) {
+                    descartarRota(conexion);
+                    continue;
+                }
+                conexion.ultimoUso = System.currentTimeMillis();
+                lock.lock();
+                try {
+                    if (cerrado) {
+                        totalConexiones--;
+                        cerrarFisica(conexion);
+                    } else {
+                        ociosas.addLast(conexion);
+                        disponible.signal();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            reponerMinimo();
+
+            if (umbralFugaMs > 0) {
+                for (ConexionFisica conexion : prestadas) {
+                    if (!conexion.fugaReportada && ahora - conexion.prestadaDesde > umbralFugaMs) {
+                        conexion.fugaReportada = true;
+                        totalFugas.incrementAndGet();
+                        logger.log(Level.WARNING, String.format(
+                            "Posible fuga de conexión: prestada hace %d ms sin devolverse",
+                            ahora - conexion.prestadaDesde), conexion.pilaPrestamo);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warning("Error en el mantenimiento del pool: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Crea conexiones hasta alcanzar el tamaño mínimo (tras caídas del servidor)
+     */
+    private void reponerMinimo() {
+        while (!cerrado) {
+            lock.lock();
+            try {
+                if (totalConexiones >= tamanoMinimo) {
+                    return;
+                }
+                totalConexiones++;
+            } finally {
+                lock.unlock();
+            }
+
+            ConexionFisica nueva;
+            try {
+                nueva = crearConexion();
+            } catch (SQLException e) {
+                liberarCupo();
+                logger.warning("No se pudo reponer conexión del pool, se reintentará: " + e.getMessage());
+                return;
+            }
+
+            lock.lock();
+            try {
+                ociosas.addLast(nueva);
+                disponible.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Cierra el pool y todas sus conexiones físicas
+     */
+    public void close() {
+        cerrado = true;
+        mantenimiento.shutdownNow();
+
+        List<ConexionFisica> porCerrar;
+        lock.lock();
+        try {
+            porCerrar = new ArrayList<>(ociosas);
+            totalConexiones -= ociosas.size();
+            ociosas.clear();
+            disponible.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        porCerrar.forEach(this::cerrarFisica);
+
+        if (!prestadas.isEmpty()) {
+            logger.warning("Pool cerrado con " + prestadas.size() + " conexiones aún prestadas");
+        }
+        logger.info("Pool de conexiones cerrado. " + getEstadisticas());
+    }
+
+    /**
+     * Obtiene una instantánea de las métricas del pool
+     */
+    public Estadisticas getEstadisticas() {
+        lock.lock();
+        try {
+            long prestamos = totalPrestamos.get();
+            return new Estadisticas(
+                totalConexiones,
+                prestadas.size(),
+                ociosas.size(),
+                esperando,
+                prestamos,
+                prestamos == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalEsperaNanos.get()) / prestamos,
+                TimeUnit.NANOSECONDS.toMillis(maxEsperaNanos.get()),
+                totalTimeouts.get(),
+                totalCreadas.get(),
+                totalDescartadas.get(),
+                totalFugas.get(),
+                totalRotas.get(),
+                totalReconexiones.get(),
+                sentenciasAciertos.get(),
+                sentenciasFallos.get(),
+                sentenciasDesalojadas.get()
+            );
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Conexión física administrada por el pool
+     */
+    private final class ConexionFisica {
+        final Connection fisica;
+        volatile long ultimoUso = System.currentTimeMillis();
+        volatile long prestadaDesde;
+        volatile boolean fugaReportada;
+        volatile Exception pilaPrestamo;
+        volatile boolean rota;
+        final StatementCache sentencias;
+
+        ConexionFisica(Connection fisica) {
+            this.fisica = fisica;
+            this.sentencias = new StatementCache(fisica, tamanoCacheSentencias, () -> rota = true,
+                                                 sentenciasAciertos, sentenciasFallos, sentenciasDesalojadas);
+        }
+
+        Connection envolver() {
+            return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new ConexionPrestada(this));
+        }
+    }
+
+    /**
+     * Vista de una conexión prestada: close() la devuelve al pool en lugar de cerrarla
+     */
+    private final class ConexionPrestada implements InvocationHandler {
+        private ConexionFisica conexion;
+
+        ConexionPrestada(ConexionFisica conexion) {
+            this.conexion = conexion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (conexion != null) {
+                        ConexionFisica devuelta = conexion;
+                        conexion = null;
+                        devolver(devuelta);
+                    }
+                    return null;
+                case "isClosed":
+                    return conexion == null || conexion.fisica.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConexionPrestada[" + (conexion == null ? "devuelta" : conexion.fisica) + "]";
+                default:
+                    break;
+            }
+
+            if (conexion == null) {
+                throw new SQLException("La conexión ya fue devuelta al pool");
+            }
+            if ("prepareStatement".equals(method.getName())) {
+                Class<?>[] tipos = method.getParameterTypes();
+                if (tipos.length == 1) {
+                    return conexion.sentencias.preparar((String) args[0], null);
+                }
+                if (tipos.length == 2 && tipos[1] == int.class) {
+                    return conexion.sentencias.preparar((String) args[0], (Integer) args[1]);
+                }
+            }
+            try {
+                return method.invoke(conexion.fisica, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException sqlEx && esErrorDeConexion(sqlEx)) {
+                    conexion.rota = true;
+                }
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Métricas del pool para dimensionarlo bajo carga real
+     */
+    public static class Estadisticas {
+        public final int totalConexiones;
+        public final int activas;
+        public final int ociosas;
+        public final int hilosEsperando;
+        public final long totalPrestamos;
+        public final long esperaPromedioMicros;
+        public final long esperaMaximaMs;
+        public final long timeouts;
+        public final long conexionesCreadas;
+        public final long conexionesDescartadas;
+        public final long fugasDetectadas;
+        public final long conexionesRotas;
+        public final long reconexiones;
+        public final long sentenciasAciertos;
+        public final long sentenciasFallos;
+        public final long sentenciasDesalojadas;
+
+        public Estadisticas(int totalConexiones, int activas, int ociosas, int hilosEsperando,
+                            long totalPrestamos, long esperaPromedioMicros, long esperaMaximaMs,
+                            long timeouts, long conexionesCreadas, long conexionesDescartadas,
+                            long fugasDetectadas, long conexionesRotas, long reconexiones,
+                            long sentenciasAciertos, long sentenciasFallos, long sentenciasDesalojadas) {
+            this.totalConexiones = totalConexiones;
+            this.activas = activas;
+            this.ociosas = ociosas;
+            this.hilosEsperando = hilosEsperando;
+            this.totalPrestamos = totalPrestamos;
+            this.esperaPromedioMicros = esperaPromedioMicros;
+            this.esperaMaximaMs = esperaMaximaMs;
+            this.timeouts = timeouts;
+            this.conexionesCreadas = conexionesCreadas;
+            this.conexionesDescartadas = conexionesDescartadas;
+            this.fugasDetectadas = fugasDetectadas;
+            this.conexionesRotas = conexionesRotas;
+            this.reconexiones = reconexiones;
+            this.sentenciasAciertos = sentenciasAciertos;
+            this.sentenciasFallos = sentenciasFallos;
+            this.sentenciasDesalojadas = sentenciasDesalojadas;
+        }
+
+        /**
+         * Porcentaje de sentencias preparadas servidas desde la caché
+         */
+        public double getTasaAciertosSentencias() {
+            long total = sentenciasAciertos + sentenciasFallos;
+            return total == 0 ? 0.0 : (sentenciasAciertos * 100.0) / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Pool{total=%d, activas=%d, ociosas=%d, esperando=%d, prestamos=%d, " +
+                                 "esperaPromedio=%dus, esperaMax=%dms, timeouts=%d, creadas=%d, descartadas=%d, fugas=%d, " +
+                                 "rotas=%d, reconexiones=%d, sentencias{aciertos=%d, fallos=%d, desalojadas=%d, tasa=%.1f%%}}",
+                totalConexiones, activas, ociosas, hilosEsperando, totalPrestamos, esperaPromedioMicros,
+                esperaMaximaMs, timeouts, conexionesCreadas, conexionesDescartadas, fugasDetectadas,
+                conexionesRotas, reconexiones, sentenciasAciertos, sentenciasFallos, sentenciasDesalojadas,
+                getTasaAciertosSentencias());
+        }
+    }
+}
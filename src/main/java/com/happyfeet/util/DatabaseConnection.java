@@ -2,29 +2,58 @@ package com.happyfeet.util;
 
 import com.happyfeet.exception.VeterinariaException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 /**
- * Clase Singleton para gestionar la conexión a la base de datos
- * Patrón Singleton: asegura una única instancia de conexión en la aplicación
+ * Clase Singleton para gestionar el acceso a la base de datos
+ * Patrón Singleton: asegura una única instancia del pool de conexiones en la aplicación
  */
 public class DatabaseConnection {
-    private static DatabaseConnection instance;
-    private Connection connection;
+    private static volatile DatabaseConnection instance;
+    private final ConnectionPool pool;
     private static final Logger logger = Logger.getLogger(DatabaseConnection.class.getName());
     
     // Configuración de la base de datos
-    private static final String URL = "jdbc:mysql://localhost:3306/happy_feet_veterinaria";
+    // useServerPrepStmts: las sentencias cacheadas por el pool conservan el plan preparado en el servidor
+    // rewriteBatchedStatements: executeBatch() envía los INSERT de un lote como una sola sentencia multi-fila
+    // useCursorFetch: setFetchSize() usa un cursor del servidor en lugar de traer todo el resultado
+    private static final String URL = "jdbc:mysql://localhost:3306/happy_feet_veterinaria" +
+                                      "?useServerPrepStmts=true&rewriteBatchedStatements=true&useCursorFetch=true";
     private static final String USER = "root";
     private static final String PASSWORD = "arley123";
     
+    // Configuración del pool (ajustable con -Dhappyfeet.pool.*)
+    private static final int POOL_MIN = Integer.getInteger("happyfeet.pool.min", 2);
+    private static final int POOL_MAX = Integer.getInteger("happyfeet.pool.max", 10);
+    private static final long POOL_TIMEOUT_ESPERA_MS = Long.getLong("happyfeet.pool.timeoutEsperaMs", 10_000);
+    private static final long POOL_TIMEOUT_OCIOSA_MS = Long.getLong("happyfeet.pool.timeoutOciosaMs", 600_000);
+    private static final long POOL_UMBRAL_FUGA_MS = Long.getLong("happyfeet.pool.umbralFugaMs", 60_000);
+    private static final int POOL_CACHE_SENTENCIAS = Integer.getInteger("happyfeet.pool.cacheSentencias", 64);
+    
+    // Reintentos de lecturas idempotentes ante caídas de conexión
+    private static final int MAX_INTENTOS_LECTURA = 3;
+    private static final long BACKOFF_INICIAL_MS = 100;
+    
+    private final AtomicLong lecturasReintentadas = new AtomicLong();
+    private final AtomicLong lecturasRecuperadas = new AtomicLong();
+    
+    /**
+     * Operación JDBC que se ejecuta sobre una conexión prestada del pool
+     */
+    @FunctionalInterface
+    public interface OperacionSql<R> {
+        R ejecutar(Connection connection) throws SQLException;
+    }
+    
     private DatabaseConnection() throws VeterinariaException {
         try {
             // Cargar driver MySQL
             Class.forName("com.mysql.cj.jdbc.Driver");
-            this.connection = DriverManager.getConnection(URL, USER, PASSWORD);
+            this.pool = new ConnectionPool(URL, USER, PASSWORD, POOL_MIN, POOL_MAX,
+                                           POOL_TIMEOUT_ESPERA_MS, POOL_TIMEOUT_OCIOSA_MS, POOL_UMBRAL_FUGA_MS,
+                                           POOL_CACHE_SENTENCIAS);
             logger.info("Conexión a BD establecida exitosamente");
         } catch (ClassNotFoundException e) {
             throw new VeterinariaException("Driver de MySQL no encontrado", 
@@ -49,31 +78,113 @@ public class DatabaseConnection {
         return instance;
     }
     
-    public Connection getConnection() {
-        return connection;
+    /**
+     * Máximo de conexiones del pool (happyfeet.pool.max), para acotar el trabajo en paralelo
+     */
+    public static int getTamanoMaximoPool() {
+        return POOL_MAX;
+    }
+    
+    /**
+     * Toma una conexión del pool para una operación.
+     * Debe cerrarse (try-with-resources) para devolverla al pool.
+     * Dentro de una unidad de trabajo de TransactionManager devuelve la conexión de la transacción.
+     */
+    public Connection getConnection() throws SQLException {
+        Connection enTransaccion = TransactionManager.conexionActual();
+        if (enTransaccion != null) {
+            return enTransaccion;
+        }
+        return pool.getConnection();
+    }
+    
+    /**
+     * Toma una conexión del pool fuera de la transacción del hilo actual, para operaciones
+     * que deben confirmarse por su cuenta aunque la transacción en curso se revierta
+     */
+    public Connection getConnectionIndependiente() throws SQLException {
+        return pool.getConnection();
     }
     
     /**
-     * Cierra la conexión a la base de datos
+     * Ejecuta una lectura idempotente con reintentos acotados y backoff exponencial.
+     * Si la conexión se cae a mitad de la consulta, se descarta y se toma otra del pool.
+     * Dentro de una transacción no se reintenta: perder la conexión implica perder la transacción.
+     */
+    public <R> R ejecutarLectura(OperacionSql<R> operacion) throws SQLException {
+        Connection enTransaccion = TransactionManager.conexionActual();
+        if (enTransaccion != null) {
+            return operacion.ejecutar(enTransaccion);
+        }
+        
+        long backoff = BACKOFF_INICIAL_MS;
+        for (int intento = 1; ; intento++) {
+            try (Connection connection = pool.getConnection()) {
+                try {
+                    R resultado = operacion.ejecutar(connection);
+                    if (intento > 1) {
+                        lecturasRecuperadas.incrementAndGet();
+                        logger.info("Lectura recuperada tras " + intento + " intentos");
+                    }
+                    return resultado;
+                } catch (SQLException e) {
+                    if (ConnectionPool.esErrorDeConexion(e)) {
+                        pool.invalidar(connection);
+                    }
+                    throw e;
+                }
+            } catch (SQLException e) {
+                if (!ConnectionPool.esErrorDeConexion(e) || intento >= MAX_INTENTOS_LECTURA) {
+                    throw e;
+                }
+                lecturasReintentadas.incrementAndGet();
+                logger.warning(String.format("Conexión caída durante lectura (intento %d/%d), reintentando en %d ms: %s",
+                                             intento, MAX_INTENTOS_LECTURA, backoff, e.getMessage()));
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                backoff *= 2;
+            }
+        }
+    }
+    
+    public long getLecturasReintentadas() {
+        return lecturasReintentadas.get();
+    }
+    
+    public long getLecturasRecuperadas() {
+        return lecturasRecuperadas.get();
+    }
+    
+    /**
+     * Obtiene las métricas actuales del pool de conexiones
+     */
+    public ConnectionPool.Estadisticas getEstadisticasPool() {
+        return pool.getEstadisticas();
+    }
+    
+    /**
+     * Cierra el pool y todas las conexiones a la base de datos
      */
     public void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+        synchronized (DatabaseConnection.class) {
+            if (instance == this) {
+                pool.close();
                 logger.info("Conexión a BD cerrada");
                 instance = null; // Permitir nueva instancia si se necesita reconectar
             }
-        } catch (SQLException e) {
-            logger.warning("Error al cerrar conexión: " + e.getMessage());
         }
     }
     
     /**
-     * Verifica si la conexión está activa
+     * Verifica si la base de datos responde
      */
     public boolean isConnectionValid() {
-        try {
-            return connection != null && !connection.isClosed() && connection.isValid(5);
+        try (Connection connection = pool.getConnection()) {
+            return connection.isValid(5);
         } catch (SQLException e) {
             return false;
         }
@@ -0,0 +1,178 @@
+package com.happyfeet.util;
+
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Caché LRU acotada con expiración por tiempo (TTL) para entidades leídas de la BD
+ * Las entradas se invalidan explícitamente cuando el DAO guarda o elimina la entidad;
+ * el TTL acota cuánto tiempo puede verse un cambio hecho fuera de la aplicación.
+ * Con valores soft el recolector puede liberar entradas bajo presión de memoria.
+ * Es segura entre hilos; las operaciones son O(1).
+ */
+public class EntityCache<K, V> {
+    private final String nombre;
+    private final int maxEntradas;
+    private final long ttlNanos;
+    private final boolean valoresSoft;
+    private final LinkedHashMap<K, Entrada<V>> entradas;
+
+    private long aciertos;
+    private long fallos;
+    private long desalojos;
+    private long expiraciones;
+    private long invalidaciones;
+    private long generacion;
+
+    public EntityCache(String nombre, int maxEntradas, long ttl, TimeUnit unidad) {
+        this(nombre, maxEntradas, ttl, unidad, false);
+    }
+
+    public EntityCache(String nombre, int maxEntradas, long ttl, TimeUnit unidad, boolean valoresSoft) {
+        if (maxEntradas <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo de la caché debe ser mayor a 0");
+        }
+        this.nombre = nombre;
+        this.maxEntradas = maxEntradas;
+        this.ttlNanos = unidad.toNanos(ttl);
+        this.valoresSoft = valoresSoft;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> eldest) {
+                if (size() <= EntityCache.this.maxEntradas) {
+                    return false;
+                }
+                desalojos++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Devuelve el valor cacheado, o null si no está o ya expiró
+     */
+    public synchronized V get(K clave) {
+        Entrada<V> entrada = entradas.get(clave);
+        if (entrada == null) {
+            fallos++;
+            return null;
+        }
+        V valor = entrada.valor();
+        if (valor == null || System.nanoTime() - entrada.creadaNanos >= ttlNanos) {
+            entradas.remove(clave);
+            expiraciones++;
+            fallos++;
+            return null;
+        }
+        aciertos++;
+        return valor;
+    }
+
+    /**
+     * Generación actual: cambia con cada invalidación. Se toma antes de leer de la BD
+     * y se pasa a put() para no cachear un valor que otra escritura ya dejó obsoleto.
+     */
+    public synchronized long getGeneracion() {
+        return generacion;
+    }
+
+    public synchronized void put(K clave, V valor, long generacionLeida) {
+        if (generacionLeida == generacion) {
+            entradas.put(clave, new Entrada<>(valor, valoresSoft, System.nanoTime()));
+        }
+    }
+
+    public synchronized void invalidar(K clave) {
+        generacion++;
+        if (entradas.remove(clave) != null) {
+            invalidaciones++;
+        }
+    }
+
+    /**
+     * Invalida las entradas cuya clave cumple la condición (O(n) sobre las entradas)
+     */
+    public synchronized void invalidarSi(Predicate<? super K> condicion) {
+        generacion++;
+        Iterator<K> claves = entradas.keySet().iterator();
+        while (claves.hasNext()) {
+            if (condicion.test(claves.next())) {
+                claves.remove();
+                invalidaciones++;
+            }
+        }
+    }
+
+    public synchronized void invalidarTodo() {
+        generacion++;
+        invalidaciones += entradas.size();
+        entradas.clear();
+    }
+
+    public synchronized Estadisticas getEstadisticas() {
+        return new Estadisticas(nombre, entradas.size(), maxEntradas, aciertos, fallos,
+                                desalojos, expiraciones, invalidaciones);
+    }
+
+    private static final class Entrada<V> {
+        private final V fuerte;
+        private final SoftReference<V> soft;
+        final long creadaNanos;
+
+        Entrada(V valor, boolean soft, long creadaNanos) {
+            this.fuerte = soft ? null : valor;
+            this.soft = soft ? new SoftReference<>(valor) : null;
+            this.creadaNanos = creadaNanos;
+        }
+
+        /**
+         * Valor de la entrada, o null si era soft y el recolector lo liberó
+         */
+        V valor() {
+            return soft != null ? soft.get() : fuerte;
+        }
+    }
+
+    /**
+     * Instantánea de las métricas de la caché
+     */
+    public static class Estadisticas {
+        public final String nombre;
+        public final int entradas;
+        public final int maxEntradas;
+        public final long aciertos;
+        public final long fallos;
+        public final long desalojos;
+        public final long expiraciones;
+        public final long invalidaciones;
+
+        Estadisticas(String nombre, int entradas, int maxEntradas, long aciertos, long fallos,
+                     long desalojos, long expiraciones, long invalidaciones) {
+            this.nombre = nombre;
+            this.entradas = entradas;
+            this.maxEntradas = maxEntradas;
+            this.aciertos = aciertos;
+            this.fallos = fallos;
+            this.desalojos = desalojos;
+            this.expiraciones = expiraciones;
+            this.invalidaciones = invalidaciones;
+        }
+
+        public double getTasaAciertos() {
+            long total = aciertos + fallos;
+            return total == 0 ? 0.0 : (double) aciertos / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Caché %s: %d/%d entradas, aciertos=%d, fallos=%d (%.1f%%), " +
+                                 "desalojos=%d, expiraciones=%d, invalidaciones=%d",
+                                 nombre, entradas, maxEntradas, aciertos, fallos, getTasaAciertos() * 100,
+                                 desalojos, expiraciones, invalidaciones);
+        }
+    }
+}
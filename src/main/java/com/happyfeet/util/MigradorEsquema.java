@@ -0,0 +1,285 @@
+package com.happyfeet.util;
+
+import com.happyfeet.exception.VeterinariaException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Aplica al iniciar las migraciones versionadas del esquema (índices, tablas nuevas)
+ * que se distribuyen con la aplicación en db/migraciones.
+ * El archivo db/migraciones/indice.txt lista las migraciones en orden; cada una se llama
+ * V&lt;versión&gt;__&lt;descripción&gt;.sql y se registra en la tabla esquema_versiones al aplicarse.
+ * Varias instancias pueden arrancar a la vez: un bloqueo con nombre (GET_LOCK) hace que
+ * solo una aplique migraciones.
+ * Se desactiva con -Dhappyfeet.migraciones.auto=false.
+ */
+public final class MigradorEsquema {
+    private static final Logger logger = Logger.getLogger(MigradorEsquema.class.getName());
+
+    private static final String RUTA_MIGRACIONES = "db/migraciones/";
+    private static final String ARCHIVO_INDICE = RUTA_MIGRACIONES + "indice.txt";
+    private static final Pattern NOMBRE_MIGRACION = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    private static final String NOMBRE_BLOQUEO = "happyfeet_migraciones";
+    private static final int ESPERA_BLOQUEO_SEG = Integer.getInteger("happyfeet.migraciones.esperaBloqueoSeg", 60);
+
+    // Índice duplicado / índice inexistente: la migración ya estaba aplicada a mano
+    private static final int ER_DUP_KEYNAME = 1061;
+    private static final int ER_CANT_DROP_FIELD_OR_KEY = 1091;
+
+    private static final String SQL_CREAR_TABLA_VERSIONES =
+        "CREATE TABLE IF NOT EXISTS esquema_versiones (" +
+        "version INT PRIMARY KEY, " +
+        "descripcion VARCHAR(200) NOT NULL, " +
+        "checksum CHAR(64), " +
+        "fecha_aplicacion DATETIME DEFAULT CURRENT_TIMESTAMP)";
+    private static final String SQL_VERSIONES_APLICADAS = "SELECT version, checksum FROM esquema_versiones";
+    private static final String SQL_REGISTRAR_VERSION =
+        "INSERT INTO esquema_versiones (version, descripcion, checksum) VALUES (?, ?, ?)";
+
+    /**
+     * Migración leída del classpath
+     */
+    static final class Migracion {
+        final int version;
+        final String descripcion;
+        final String contenido;
+        final String checksum;
+
+        Migracion(int version, String descripcion, String contenido) {
+            this.version = version;
+            this.descripcion = descripcion;
+            this.contenido = contenido;
+            this.checksum = sha256(contenido);
+        }
+    }
+
+    private MigradorEsquema() {
+    }
+
+    public static boolean habilitado() {
+        return Boolean.parseBoolean(System.getProperty("happyfeet.migraciones.auto", "true"));
+    }
+
+    /**
+     * Aplica las migraciones pendientes, cada una en su propia transacción
+     * (MySQL confirma implícitamente los ALTER TABLE, así que una migración a medias
+     * se completa al reintentar gracias a que sus sentencias son idempotentes).
+     *
+     * @return cantidad de migraciones aplicadas
+     */
+    public static int migrar() throws VeterinariaException {
+        List<Migracion> migraciones = cargarMigraciones();
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnectionIndependiente()) {
+            if (!adquirirBloqueo(connection)) {
+                throw new VeterinariaException("No se pudo obtener el bloqueo de migraciones en " +
+                                             ESPERA_BLOQUEO_SEG + " s (¿otra instancia migrando?)",
+                                             VeterinariaException.ErrorType.DATABASE_ERROR);
+            }
+            try {
+                try (Statement st = connection.createStatement()) {
+                    st.execute(SQL_CREAR_TABLA_VERSIONES);
+                }
+                Map<Integer, String> aplicadas = versionesAplicadas(connection);
+
+                int aplicadasAhora = 0;
+                for (Migracion migracion : migraciones) {
+                    if (aplicadas.containsKey(migracion.version)) {
+                        String checksum = aplicadas.get(migracion.version);
+                        // Sin checksum: registrada como línea base por database/schema.sql
+                        if (checksum != null && !checksum.equals(migracion.checksum)) {
+                            logger.warning("La migración V" + migracion.version + " cambió después de aplicarse; " +
+                                           "no se vuelve a ejecutar");
+                        }
+                        continue;
+                    }
+                    aplicar(connection, migracion);
+                    aplicadasAhora++;
+                }
+
+                if (aplicadasAhora > 0) {
+                    logger.info("Migraciones de esquema aplicadas: " + aplicadasAhora);
+                }
+                return aplicadasAhora;
+            } finally {
+                liberarBloqueo(connection);
+            }
+        } catch (SQLException e) {
+            logger.severe("Error al migrar el esquema: " + e.getMessage());
+            throw new VeterinariaException("Error al aplicar migraciones del esquema: " + e.getMessage(),
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
+
+    private static void aplicar(Connection connection, Migracion migracion) throws SQLException {
+        logger.info("Aplicando migración V" + migracion.version + " (" + migracion.descripcion + ")");
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            try (Statement st = connection.createStatement()) {
+                for (String sentencia : dividirSentencias(migracion.contenido)) {
+                    ejecutarSentencia(st, sentencia);
+                }
+            }
+            try (PreparedStatement ps = connection.prepareStatement(SQL_REGISTRAR_VERSION)) {
+                ps.setInt(1, migracion.version);
+                ps.setString(2, migracion.descripcion);
+                ps.setString(3, migracion.checksum);
+                ps.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new SQLException("Migración V" + migracion.version + ": " + e.getMessage(), e.getSQLState(),
+                                   e.getErrorCode(), e);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void ejecutarSentencia(Statement st, String sentencia) throws SQLException {
+        try {
+            st.execute(sentencia);
+        } catch (SQLException e) {
+            if (e.getErrorCode() == ER_DUP_KEYNAME || e.getErrorCode() == ER_CANT_DROP_FIELD_OR_KEY) {
+                logger.info("Sentencia ya aplicada, se omite: " + e.getMessage());
+                return;
+            }
+            throw e;
+        }
+    }
+
+    private static Map<Integer, String> versionesAplicadas(Connection connection) throws SQLException {
+        Map<Integer, String> aplicadas = new HashMap<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(SQL_VERSIONES_APLICADAS)) {
+            while (rs.next()) {
+                aplicadas.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+        return aplicadas;
+    }
+
+    private static boolean adquirirBloqueo(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, NOMBRE_BLOQUEO);
+            ps.setInt(2, ESPERA_BLOQUEO_SEG);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void liberarBloqueo(Connection connection) {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, NOMBRE_BLOQUEO);
+            ps.executeQuery().close();
+        } catch (SQLException e) {
+            logger.warning("No se pudo liberar el bloqueo de migraciones: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lee el índice y las migraciones del classpath, en el orden del índice
+     */
+    static List<Migracion> cargarMigraciones() throws VeterinariaException {
+        List<Migracion> migraciones = new ArrayList<>();
+        int versionAnterior = 0;
+        for (String linea : leerRecurso(ARCHIVO_INDICE).split("\n")) {
+            String archivo = linea.trim();
+            if (archivo.isEmpty() || archivo.startsWith("#")) {
+                continue;
+            }
+            Matcher m = NOMBRE_MIGRACION.matcher(archivo);
+            if (!m.matches()) {
+                throw new VeterinariaException("Nombre de migración inválido: " + archivo,
+                                             VeterinariaException.ErrorType.VALIDATION_ERROR);
+            }
+            int version = Integer.parseInt(m.group(1));
+            if (version <= versionAnterior) {
+                throw new VeterinariaException("Las migraciones deben listarse en orden creciente: " + archivo,
+                                             VeterinariaException.ErrorType.VALIDATION_ERROR);
+            }
+            versionAnterior = version;
+            migraciones.add(new Migracion(version, m.group(2).replace('_', ' '),
+                                          leerRecurso(RUTA_MIGRACIONES + archivo)));
+        }
+        return migraciones;
+    }
+
+    /**
+     * Separa un script en sentencias: cada una termina con ';' al final de línea.
+     * Las líneas de comentario (--) y en blanco se descartan.
+     */
+    static List<String> dividirSentencias(String script) {
+        List<String> sentencias = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        for (String linea : script.split("\n")) {
+            String recortada = linea.trim();
+            if (recortada.isEmpty() || recortada.startsWith("--")) {
+                continue;
+            }
+            if (actual.length() > 0) {
+                actual.append('\n');
+            }
+            if (recortada.endsWith(";")) {
+                actual.append(recortada, 0, recortada.length() - 1);
+                sentencias.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(recortada);
+            }
+        }
+        if (actual.length() > 0) {
+            sentencias.add(actual.toString());
+        }
+        return sentencias;
+    }
+
+    private static String leerRecurso(String ruta) throws VeterinariaException {
+        InputStream in = MigradorEsquema.class.getClassLoader().getResourceAsStream(ruta);
+        if (in == null) {
+            throw new VeterinariaException("No se encontró el recurso de migraciones: " + ruta,
+                                         VeterinariaException.ErrorType.NOT_FOUND_ERROR);
+        }
+        StringBuilder contenido = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                contenido.append(linea).append('\n');
+            }
+        } catch (IOException e) {
+            throw new VeterinariaException("Error al leer " + ruta, e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+        return contenido.toString();
+    }
+
+    private static String sha256(String contenido) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(contenido.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.happyfeet.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Política de la caché por ID de un DAO: tamaño máximo, tiempo de vida y si los
+ * valores se guardan como referencias soft (liberables bajo presión de memoria)
+ */
+public final class PoliticaCache {
+    private final int maxEntradas;
+    private final long ttl;
+    private final TimeUnit unidad;
+    private final boolean valoresSoft;
+
+    public PoliticaCache(int maxEntradas, long ttl, TimeUnit unidad, boolean valoresSoft) {
+        if (maxEntradas <= 0 || ttl <= 0) {
+            throw new IllegalArgumentException("El tamaño y el TTL de la caché deben ser mayores a 0");
+        }
+        this.maxEntradas = maxEntradas;
+        this.ttl = ttl;
+        this.unidad = unidad;
+        this.valoresSoft = valoresSoft;
+    }
+
+    /**
+     * Crea la caché descrita por esta política
+     */
+    public <K, V> EntityCache<K, V> crearCache(String nombre) {
+        return new EntityCache<>(nombre, maxEntradas, ttl, unidad, valoresSoft);
+    }
+
+    public int getMaxEntradas() {
+        return maxEntradas;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public TimeUnit getUnidad() {
+        return unidad;
+    }
+
+    public boolean isValoresSoft() {
+        return valoresSoft;
+    }
+}
@@ -0,0 +1,100 @@
+package com.happyfeet.util;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Rango de fechas semiabierto [inicio, fin) para filtrar columnas DATE o DATETIME
+ * Se traduce siempre a "columna >= ? AND columna < ?": la columna queda sin funciones
+ * alrededor (nada de DATE(columna) ni BETWEEN sobre días), así MySQL puede recorrer
+ * solo el tramo del índice y un día completo incluye hasta su último segundo.
+ */
+public final class RangoFechas {
+    private final LocalDateTime inicio;
+    private final LocalDateTime fin;
+
+    private RangoFechas(LocalDateTime inicio, LocalDateTime fin) {
+        if (inicio == null || fin == null) {
+            throw new IllegalArgumentException("El rango necesita fecha de inicio y de fin");
+        }
+        if (fin.isBefore(inicio)) {
+            throw new IllegalArgumentException("El fin del rango no puede ser anterior al inicio");
+        }
+        this.inicio = inicio;
+        this.fin = fin;
+    }
+
+    /**
+     * Desde el inicio del primer día hasta el final del último (ambos días incluidos)
+     */
+    public static RangoFechas dias(LocalDate primerDia, LocalDate ultimoDia) {
+        return new RangoFechas(primerDia.atStartOfDay(), ultimoDia.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * Un día completo
+     */
+    public static RangoFechas dia(LocalDate dia) {
+        return dias(dia, dia);
+    }
+
+    public static RangoFechas hoy() {
+        return dia(LocalDate.now());
+    }
+
+    /**
+     * Desde inicio (incluido) hasta fin (excluido)
+     */
+    public static RangoFechas entre(LocalDateTime inicio, LocalDateTime fin) {
+        return new RangoFechas(inicio, fin);
+    }
+
+    /**
+     * Predicado SQL "columna >= ? AND columna < ?" con dos parámetros
+     */
+    public static String predicado(String columna) {
+        return columna + " >= ? AND " + columna + " < ?";
+    }
+
+    /**
+     * Asigna inicio y fin como TIMESTAMP (columnas DATETIME) desde el índice dado
+     *
+     * @return el índice del siguiente parámetro
+     */
+    public int asignar(PreparedStatement ps, int indice) throws SQLException {
+        ps.setTimestamp(indice, Timestamp.valueOf(inicio));
+        ps.setTimestamp(indice + 1, Timestamp.valueOf(fin));
+        return indice + 2;
+    }
+
+    /**
+     * Asigna inicio y fin como DATE (columnas DATE). Un fin a mitad de día se redondea
+     * al día siguiente para no dejar fuera el día en que termina el rango.
+     *
+     * @return el índice del siguiente parámetro
+     */
+    public int asignarComoFechas(PreparedStatement ps, int indice) throws SQLException {
+        LocalDate diaFin = fin.toLocalTime().equals(LocalTime.MIDNIGHT) ? fin.toLocalDate() : fin.toLocalDate().plusDays(1);
+        ps.setDate(indice, Date.valueOf(inicio.toLocalDate()));
+        ps.setDate(indice + 1, Date.valueOf(diaFin));
+        return indice + 2;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public LocalDateTime getFin() {
+        return fin;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + inicio + ", " + fin + ")";
+    }
+}
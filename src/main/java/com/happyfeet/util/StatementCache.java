@@ -0,0 +1,205 @@
+package com.happyfeet.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Caché LRU de sentencias preparadas de una conexión física del pool
+ * La clave es el texto SQL (más el modo de claves generadas), de modo que las
+ * consultas repetidas de los DAO no vuelven a pagar el costo de preparación.
+ * Cerrar la sentencia devuelta la deja disponible en la caché en lugar de cerrarla.
+ */
+class StatementCache {
+    private static final Logger logger = Logger.getLogger(StatementCache.class.getName());
+
+    private final Connection fisica;
+    private final int capacidad;
+    private final Runnable marcarConexionRota;
+    private final AtomicLong aciertos;
+    private final AtomicLong fallos;
+    private final AtomicLong desalojos;
+    private final LinkedHashMap<String, Entrada> sentencias;
+
+    StatementCache(Connection fisica, int capacidad, Runnable marcarConexionRota,
+                   AtomicLong aciertos, AtomicLong fallos, AtomicLong desalojos) {
+        this.fisica = fisica;
+        this.capacidad = capacidad;
+        this.marcarConexionRota = marcarConexionRota;
+        this.aciertos = aciertos;
+        this.fallos = fallos;
+        this.desalojos = desalojos;
+        this.sentencias = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                if (size() <= StatementCache.this.capacidad) {
+                    return false;
+                }
+                desalojar(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Obtiene una sentencia preparada para el SQL dado, reutilizándola si ya existe
+     *
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS / NO_GENERATED_KEYS, o null si no se indicó
+     */
+    PreparedStatement preparar(String sql, Integer autoGeneratedKeys) throws SQLException {
+        String clave = autoGeneratedKeys == null ? sql : autoGeneratedKeys + "|" + sql;
+        Entrada entrada = capacidad > 0 ? sentencias.get(clave) : null;
+
+        if (entrada != null && !entrada.enUso) {
+            aciertos.incrementAndGet();
+        } else {
+            fallos.incrementAndGet();
+            PreparedStatement ps = autoGeneratedKeys == null
+                ? fisica.prepareStatement(sql)
+                : fisica.prepareStatement(sql, autoGeneratedKeys);
+            // Una misma sentencia en uso dos veces a la vez (consultas anidadas) no se cachea
+            boolean cacheable = capacidad > 0 && entrada == null;
+            entrada = new Entrada(ps, cacheable);
+            if (cacheable) {
+                sentencias.put(clave, entrada);
+            }
+        }
+
+        entrada.enUso = true;
+        return (PreparedStatement) Proxy.newProxyInstance(
+            PreparedStatement.class.getClassLoader(),
+            new Class<?>[] { PreparedStatement.class },
+            new SentenciaPrestada(entrada));
+    }
+
+    /**
+     * Cierra todas las sentencias cacheadas (al descartar la conexión física)
+     */
+    void cerrarTodas() {
+        for (Iterator<Entrada> it = sentencias.values().iterator(); it.hasNext(); ) {
+            cerrarFisica(it.next().sentencia);
+            it.remove();
+        }
+    }
+
+    private void desalojar(Entrada entrada) {
+        desalojos.incrementAndGet();
+        entrada.cacheada = false;
+        if (!entrada.enUso) {
+            cerrarFisica(entrada.sentencia);
+        }
+    }
+
+    private void cerrarFisica(Statement sentencia) {
+        try {
+            sentencia.close();
+        } catch (SQLException e) {
+            logger.fine("Error al cerrar sentencia cacheada: " + e.getMessage());
+        }
+    }
+
+    private static final class Entrada {
+        final PreparedStatement sentencia;
+        boolean cacheada;
+        boolean enUso;
+
+        Entrada(PreparedStatement sentencia, boolean cacheada) {
+            this.sentencia = sentencia;
+            this.cacheada = cacheada;
+        }
+    }
+
+    /**
+     * Vista de una sentencia cacheada: close() la limpia y la devuelve a la caché
+     */
+    private final class SentenciaPrestada implements InvocationHandler {
+        private final Entrada entrada;
+        private final List<ResultSet> resultados = new ArrayList<>(1);
+        private boolean cerrada;
+
+        SentenciaPrestada(Entrada entrada) {
+            this.entrada = entrada;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!cerrada) {
+                        cerrada = true;
+                        liberar();
+                    }
+                    return null;
+                case "isClosed":
+                    return cerrada || entrada.sentencia.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return entrada.sentencia.toString();
+                default:
+                    break;
+            }
+
+            if (cerrada) {
+                throw new SQLException("La sentencia ya fue cerrada");
+            }
+            try {
+                Object resultado = method.invoke(entrada.sentencia, args);
+                if (resultado instanceof ResultSet rs) {
+                    resultados.add(rs);
+                }
+                return resultado;
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException sqlEx && ConnectionPool.esErrorDeConexion(sqlEx)) {
+                    marcarConexionRota.run();
+                }
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Cierra los resultados abiertos y limpia parámetros y ajustes para el siguiente uso.
+         * El fetch size se restablece: con useCursorFetch, uno heredado de un cursor
+         * (BaseDAO.abrirCursor) convertiría cualquier consulta posterior en un cursor del servidor.
+         * El timeout de consulta también: el de un reporte (ReporteDAO.conLimite) no debe
+         * cortar al siguiente que use la sentencia.
+         */
+        private void liberar() throws SQLException {
+            for (ResultSet rs : resultados) {
+                rs.close();
+            }
+            resultados.clear();
+            entrada.enUso = false;
+
+            if (!entrada.cacheada) {
+                entrada.sentencia.close();
+                return;
+            }
+            try {
+                entrada.sentencia.clearParameters();
+                entrada.sentencia.clearBatch();
+                entrada.sentencia.setFetchSize(0);
+                entrada.sentencia.setMaxRows(0);
+                entrada.sentencia.setQueryTimeout(0);
+            } catch (SQLException e) {
+                sentencias.values().remove(entrada);
+                cerrarFisica(entrada.sentencia);
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.happyfeet.util;
+
+import com.happyfeet.exception.VeterinariaException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Unidad de trabajo transaccional que abarca varios DAO
+ * Mientras se ejecuta una unidad, todas las operaciones de los DAO en el mismo hilo
+ * usan la misma conexión, se confirma una sola vez al final y se revierte completa si
+ * la unidad lanza VeterinariaException (o cualquier excepción no controlada).
+ * Las unidades anidadas se aíslan con savepoints.
+ *
+ * Uso:
+ * <pre>
+ *     Factura factura = TransactionManager.ejecutarEnTransaccion(() -> {
+ *         Factura guardada = facturaDAO.save(nueva);
+ *         facturaDAO.insertarItemsFactura(items);
+ *         return guardada;
+ *     });
+ * </pre>
+ */
+public final class TransactionManager {
+    private static final Logger logger = Logger.getLogger(TransactionManager.class.getName());
+    private static final ThreadLocal<Transaccion> transaccionActual = new ThreadLocal<>();
+
+    /**
+     * Operación de negocio que se ejecuta dentro de una transacción
+     */
+    @FunctionalInterface
+    public interface UnidadDeTrabajo<R> {
+        R ejecutar() throws VeterinariaException;
+    }
+
+    private TransactionManager() {
+    }
+
+    /**
+     * Ejecuta la unidad de trabajo en una transacción. Si ya hay una transacción activa
+     * en el hilo, se ejecuta como transacción anidada usando un savepoint.
+     */
+    public static <R> R ejecutarEnTransaccion(UnidadDeTrabajo<R> unidad) throws VeterinariaException {
+        Transaccion actual = transaccionActual.get();
+        if (actual != null) {
+            return ejecutarAnidada(actual, unidad);
+        }
+
+        Connection connection = null;
+        try {
+            connection = DatabaseConnection.getInstance().getConnection();
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            logger.severe("No se pudo iniciar la transacción: " + e.getMessage());
+            // Si la conexión se obtuvo pero falló setAutoCommit, se devuelve al pool
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException cierre) {
+                    e.addSuppressed(cierre);
+                }
+            }
+            throw new VeterinariaException("No se pudo iniciar la transacción",
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+
+        transaccionActual.set(new Transaccion(connection));
+        try {
+            R resultado = unidad.ejecutar();
+            connection.commit();
+            return resultado;
+        } catch (VeterinariaException | RuntimeException e) {
+            revertir(connection, null);
+            throw e;
+        } catch (SQLException e) {
+            revertir(connection, null);
+            logger.severe("Error al confirmar la transacción: " + e.getMessage());
+            throw new VeterinariaException("Error al confirmar la transacción",
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        } finally {
+            Transaccion terminada = transaccionActual.get();
+            transaccionActual.remove();
+            terminada.ejecutarAccionesAlTerminar();
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                logger.warning("No se pudo restaurar autocommit: " + e.getMessage());
+            }
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.warning("Error al devolver la conexión de la transacción: " + e.getMessage());
+            }
+        }
+    }
+
+    private static <R> R ejecutarAnidada(Transaccion actual, UnidadDeTrabajo<R> unidad) throws VeterinariaException {
+        Savepoint savepoint;
+        try {
+            savepoint = actual.connection.setSavepoint();
+        } catch (SQLException e) {
+            throw new VeterinariaException("No se pudo crear el savepoint de la transacción anidada",
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+
+        try {
+            R resultado = unidad.ejecutar();
+            actual.connection.releaseSavepoint(savepoint);
+            return resultado;
+        } catch (VeterinariaException | RuntimeException e) {
+            revertir(actual.connection, savepoint);
+            throw e;
+        } catch (SQLException e) {
+            revertir(actual.connection, savepoint);
+            throw new VeterinariaException("Error al liberar el savepoint de la transacción anidada",
+                                         e, VeterinariaException.ErrorType.DATABASE_ERROR);
+        }
+    }
+
+    private static void revertir(Connection connection, Savepoint savepoint) {
+        try {
+            if (savepoint != null) {
+                connection.rollback(savepoint);
+            } else {
+                connection.rollback();
+            }
+            logger.info(savepoint != null ? "Transacción anidada revertida" : "Transacción revertida");
+        } catch (SQLException e) {
+            logger.severe("Error al revertir la transacción: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Indica si el hilo actual está dentro de una unidad de trabajo
+     */
+    public static boolean enTransaccion() {
+        return transaccionActual.get() != null;
+    }
+
+    /**
+     * Ejecuta la acción cuando termine la transacción del hilo actual (confirmada o revertida),
+     * o de inmediato si no hay transacción. Sirve para invalidar cachés: una lectura concurrente
+     * hecha antes del commit pudo haber cacheado el valor anterior.
+     */
+    public static void alTerminar(Runnable accion) {
+        Transaccion actual = transaccionActual.get();
+        if (actual != null) {
+            actual.accionesAlTerminar.add(accion);
+        } else {
+            accion.run();
+        }
+    }
+    
+    /**
+     * Conexión ligada a la transacción del hilo actual, o null si no hay transacción.
+     * Cerrarla no tiene efecto: la libera el TransactionManager al terminar la unidad.
+     */
+    static Connection conexionActual() {
+        Transaccion actual = transaccionActual.get();
+        return actual != null ? actual.vista : null;
+    }
+
+    private static final class Transaccion {
+        final Connection connection;
+        final Connection vista;
+        final List<Runnable> accionesAlTerminar = new ArrayList<>();
+
+        Transaccion(Connection connection) {
+            this.connection = connection;
+            this.vista = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            return null;
+                        case "commit":
+                        case "rollback":
+                        case "setAutoCommit":
+                            if (args == null || args.length == 0 || !(args[0] instanceof Savepoint)) {
+                                throw new SQLException("La transacción la controla TransactionManager: " + method.getName() + "() no permitido");
+                            }
+                            break;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        }
+        
+        void ejecutarAccionesAlTerminar() {
+            for (Runnable accion : accionesAlTerminar) {
+                try {
+                    accion.run();
+                } catch (RuntimeException e) {
+                    logger.warning("Error en acción posterior a la transacción: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.happyfeet.view;
 
 import com.happyfeet.controller.CitaController;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -34,6 +35,7 @@ public class CitaMenu extends BaseMenu {
             System.out.println("9. Actualizar Estado de Cita");
             System.out.println("10. Estadísticas de Citas");
             System.out.println("11. Verificar Disponibilidad de Veterinario");
+            System.out.println("12. Buscar Horarios Disponibles");
             System.out.println("0. Volver al Menú Principal");
             System.out.print("Seleccione una opción: ");
 
@@ -78,6 +80,9 @@ public class CitaMenu extends BaseMenu {
             case 11:
                 verificarDisponibilidadVeterinario();
                 break;
+            case 12:
+                buscarHorariosDisponibles();
+                break;
             case 0:
                 cerrarMenu();
                 break;
@@ -214,4 +219,23 @@ public class CitaMenu extends BaseMenu {
             System.out.println("❌ Error: Formato de fecha y hora inválido. Use YYYY-MM-DD HH:MM");
         }
     }
-}
\ No newline at end of file
+    
+    private void buscarHorariosDisponibles() {
+        try {
+            System.out.print("\nFecha inicial (YYYY-MM-DD): ");
+            LocalDate fechaInicio = LocalDate.parse(scanner.nextLine().trim());
+            System.out.print("Fecha final (YYYY-MM-DD): ");
+            LocalDate fechaFin = LocalDate.parse(scanner.nextLine().trim());
+            System.out.print("Duración en minutos: ");
+            int duracion = Integer.parseInt(scanner.nextLine().trim());
+            System.out.print("Especialidad (opcional, presione Enter para todas): ");
+            String especialidad = scanner.nextLine().trim();
+
+            citaController.buscarHuecosDisponibles(fechaInicio, fechaFin, duracion, especialidad);
+        } catch (NumberFormatException e) {
+            System.out.println("❌ Duración inválida. Debe ser un número.");
+        } catch (DateTimeParseException e) {
+            System.out.println("❌ Error: Formato de fecha inválido. Use YYYY-MM-DD");
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.happyfeet.view;
 
 import com.happyfeet.controller.HistorialMedicoController;
 import com.happyfeet.exception.VeterinariaException;
+import com.happyfeet.service.PacienteTimelineService.CursorLineaTiempo;
 
 import java.time.LocalDate;
 import java.util.Scanner;
@@ -30,6 +31,7 @@ public class HistorialMedicoMenu extends BaseMenu {
             System.out.println("6. Buscar historiales por rango de fechas");
             System.out.println("7. Eliminar historial médico");
             System.out.println("8. Estadísticas");
+            System.out.println("9. Línea de tiempo de una mascota");
             System.out.println("0. Volver al menú principal");
             System.out.print("Seleccione una opción: ");
             
@@ -65,6 +67,9 @@ public class HistorialMedicoMenu extends BaseMenu {
             case 8:
                 historialController.mostrarEstadisticas();
                 break;
+            case 9:
+                mostrarLineaTiempo();
+                break;
             case 0:
                 cerrarMenu();
                 break;
@@ -143,6 +148,23 @@ public class HistorialMedicoMenu extends BaseMenu {
         }
     }
     
+    private void mostrarLineaTiempo() {
+        System.out.print("Ingrese el ID de la mascota: ");
+        try {
+            Integer mascotaId = Integer.parseInt(scanner.nextLine());
+            CursorLineaTiempo siguiente = historialController.mostrarLineaTiempo(mascotaId, null);
+            while (siguiente != null) {
+                System.out.print("¿Ver más? (s/n): ");
+                if (!scanner.nextLine().trim().equalsIgnoreCase("s")) {
+                    break;
+                }
+                siguiente = historialController.mostrarLineaTiempo(mascotaId, siguiente);
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("ID inválido.");
+        }
+    }
+    
     private void buscarHistorialesPorEventoTipo() {
         System.out.print("Ingrese el ID del tipo de evento: ");
         try {
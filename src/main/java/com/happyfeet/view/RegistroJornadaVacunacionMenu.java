@@ -1,8 +1,11 @@
 package com.happyfeet.view;
 
 import com.happyfeet.controller.RegistroJornadaVacunacionController;
+import com.happyfeet.model.RegistroJornadaVacunacion;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -33,6 +36,7 @@ public class RegistroJornadaVacunacionMenu extends BaseMenu {
             System.out.println("7. Eliminar registro");
             System.out.println("8. Mostrar estadísticas generales");
             System.out.println("9. Mostrar estadísticas de jornada");
+            System.out.println("10. Registrar vacunación masiva en jornada");
             System.out.println("0. Volver al menú principal");
             System.out.print("Seleccione una opción: ");
             
@@ -71,6 +75,9 @@ public class RegistroJornadaVacunacionMenu extends BaseMenu {
             case 9:
                 mostrarEstadisticasJornada();
                 break;
+            case 10:
+                registrarVacunacionMasiva();
+                break;
             case 0:
                 cerrarMenu();
                 break;
@@ -79,6 +86,77 @@ public class RegistroJornadaVacunacionMenu extends BaseMenu {
         }
     }
     
+    private void registrarVacunacionMasiva() {
+        System.out.println("\n--- Registrar Vacunación Masiva en Jornada ---");
+        
+        Integer jornadaId = leerId("ID de la jornada: ", false);
+        Integer vacunaId = leerId("ID de la vacuna: ", false);
+        
+        System.out.print("Lote de la vacuna: ");
+        String loteVacuna = scanner.nextLine();
+        
+        Integer veterinarioId = leerId("ID del veterinario (opcional, enter para omitir): ", true);
+        
+        List<RegistroJornadaVacunacion> registros = new ArrayList<>();
+        System.out.println("Ingrese 'idMascota,idDueño' por línea (enter vacío para terminar):");
+        while (true) {
+            String linea = scanner.nextLine().trim();
+            if (linea.isEmpty()) {
+                break;
+            }
+            String[] partes = linea.split(",");
+            if (partes.length != 2) {
+                System.out.println("Formato inválido, use idMascota,idDueño");
+                continue;
+            }
+            
+            Integer mascotaId;
+            Integer duenoId;
+            try {
+                mascotaId = Integer.parseInt(partes[0].trim());
+                duenoId = Integer.parseInt(partes[1].trim());
+            } catch (NumberFormatException e) {
+                System.out.println("IDs inválidos, use números: idMascota,idDueño");
+                continue;
+            }
+            
+            RegistroJornadaVacunacion registro = new RegistroJornadaVacunacion();
+            registro.setJornadaId(jornadaId);
+            registro.setMascotaId(mascotaId);
+            registro.setDuenoId(duenoId);
+            registro.setVacunaId(vacunaId);
+            registro.setFechaHora(LocalDateTime.now());
+            registro.setLoteVacuna(loteVacuna);
+            registro.setVeterinarioId(veterinarioId);
+            registros.add(registro);
+        }
+        
+        boolean exito = controller.registrarVacunacionesMasivas(registros);
+        if (exito) {
+            System.out.println("Vacunaciones registradas exitosamente.");
+        } else {
+            System.out.println("Error al registrar las vacunaciones.");
+        }
+    }
+    
+    /**
+     * Pide un ID hasta que se ingrese un número válido; si es opcional, enter devuelve null
+     */
+    private Integer leerId(String mensaje, boolean opcional) {
+        while (true) {
+            System.out.print(mensaje);
+            String valor = scanner.nextLine().trim();
+            if (valor.isEmpty() && opcional) {
+                return null;
+            }
+            try {
+                return Integer.parseInt(valor);
+            } catch (NumberFormatException e) {
+                System.out.println("ID inválido. Intente nuevamente.");
+            }
+        }
+    }
+    
     private void registrarVacunacion() {
         System.out.println("\n--- Registrar Vacunación en Jornada ---");
         
@@ -0,0 +1,2 @@
+-- Orden del listado de dueños por nombre (keyset sobre activo, nombre_completo)
+ALTER TABLE duenos ADD INDEX idx_activo_nombre (activo, nombre_completo);
@@ -0,0 +1,6 @@
+-- Contadores con nombre para numeraciones de negocio (números de factura).
+-- La fila 'factura' la crea la aplicación a partir de la última factura existente.
+CREATE TABLE IF NOT EXISTS secuencias (
+  nombre VARCHAR(50) PRIMARY KEY,
+  siguiente_valor BIGINT NOT NULL
+);
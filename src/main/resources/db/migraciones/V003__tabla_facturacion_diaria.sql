@@ -0,0 +1,16 @@
+-- Resumen diario de las facturas pagadas, cargado con las facturas ya existentes
+CREATE TABLE IF NOT EXISTS facturacion_diaria (
+  fecha DATE PRIMARY KEY,
+  total_facturas INT NOT NULL DEFAULT 0,
+  subtotal_total DECIMAL(14, 2) NOT NULL DEFAULT 0,
+  impuesto_total DECIMAL(14, 2) NOT NULL DEFAULT 0,
+  descuento_total DECIMAL(14, 2) NOT NULL DEFAULT 0,
+  total_facturado DECIMAL(14, 2) NOT NULL DEFAULT 0,
+  fecha_actualizacion DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+INSERT IGNORE INTO facturacion_diaria (fecha, total_facturas, subtotal_total, impuesto_total, descuento_total, total_facturado)
+SELECT DATE(fecha_emision), COUNT(*), SUM(subtotal), SUM(impuesto), SUM(descuento), SUM(total)
+FROM facturas
+WHERE estado = 'PAGADA'
+GROUP BY DATE(fecha_emision);
@@ -0,0 +1,6 @@
+-- Agregación por veterinario y rango de fechas (reporte de desempeño).
+-- El índice compuesto también sirve a la clave foránea de veterinario_id y reemplaza a idx_veterinario.
+ALTER TABLE consultas_medicas ADD INDEX idx_veterinario_fecha (veterinario_id, fecha_hora);
+ALTER TABLE consultas_medicas DROP INDEX idx_veterinario;
+ALTER TABLE procedimientos_especiales ADD INDEX idx_veterinario_fecha (veterinario_id, fecha_hora);
+ALTER TABLE procedimientos_especiales DROP INDEX idx_veterinario;
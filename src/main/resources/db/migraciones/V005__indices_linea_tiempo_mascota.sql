@@ -0,0 +1,9 @@
+-- Línea de tiempo de cada mascota: filtro por mascota y orden por fecha sin filesort.
+-- Como InnoDB agrega el id a cada índice secundario, (mascota_id, fecha, id) cubre
+-- la búsqueda de la página de IDs. Reemplaza a idx_mascota (también sirve a la clave foránea).
+ALTER TABLE consultas_medicas ADD INDEX idx_mascota_fecha (mascota_id, fecha_hora);
+ALTER TABLE consultas_medicas DROP INDEX idx_mascota;
+ALTER TABLE procedimientos_especiales ADD INDEX idx_mascota_fecha (mascota_id, fecha_hora);
+ALTER TABLE procedimientos_especiales DROP INDEX idx_mascota;
+ALTER TABLE historial_medico ADD INDEX idx_mascota_fecha (mascota_id, fecha_evento);
+ALTER TABLE historial_medico DROP INDEX idx_mascota;
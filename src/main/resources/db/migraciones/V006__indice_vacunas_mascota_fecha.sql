@@ -0,0 +1,4 @@
+-- Vacunas de cada mascota en la línea de tiempo unificada: mismo índice compuesto
+-- que consultas, procedimientos e historial. Reemplaza a idx_mascota.
+ALTER TABLE registro_jornada_vacunacion ADD INDEX idx_mascota_fecha (mascota_id, fecha_hora);
+ALTER TABLE registro_jornada_vacunacion DROP INDEX idx_mascota;
@@ -0,0 +1,4 @@
+-- Comprobación de solapamiento al reservar (CitaDAO.bloquearSolapadas) y carga de la agenda por veterinario.
+-- El índice compuesto también sirve a la clave foránea de veterinario_id y reemplaza a idx_veterinario.
+ALTER TABLE citas ADD INDEX idx_veterinario_fecha (veterinario_id, fecha_hora);
+ALTER TABLE citas DROP INDEX idx_veterinario;